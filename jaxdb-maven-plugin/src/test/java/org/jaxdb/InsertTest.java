@@ -249,6 +249,93 @@ public abstract class InsertTest {
     assertEquals(id - 0, t3.id.getAsInt());
   }
 
+  @Test
+  @AssertSelect(cacheSelectEntity = false, rowIteratorFullConsume = false)
+  public void testInsertMultiRowBatch(final Types types, final Transaction transaction) throws IOException, SQLException {
+    final DbVendor vendor = transaction.getVendor();
+    final boolean isOracle = vendor == DbVendor.ORACLE;
+    final Types.Type[] rows = new Types.Type[7];
+    final Batch batch = new Batch().withMultiRowInserts();
+    for (int i = 0; i < rows.length; ++i) { // [A]
+      final Types.Type t = rows[i] = types.new Type();
+      t.bigintType.set(8493L + i);
+      t.charType.set("row" + i);
+      t.doubleType.set(32d);
+      t.tinyintType.set((byte)i);
+      t.timeType.set(LocalTime.now());
+      batch.addStatement(
+        INSERT(t.id, t.bigintType, t.charType, t.doubleType, t.tinyintType, t.timeType)
+          .onExecute((final int c) -> assertEquals(isOracle ? 0 : 1, c)));
+    }
+
+    assertEquals(isOracle ? 0 : rows.length, batch.execute(transaction).getCount());
+
+    if (isOracle || vendor == DbVendor.DERBY || vendor == DbVendor.SQLITE)
+      return;
+
+    // The generated keys of the rows of each multi-row INSERT are read into the rows in order
+    final int id = selectMaxId(transaction, rows[0]);
+    for (int i = 0; i < rows.length; ++i) // [A]
+      assertEquals(id - rows.length + 1 + i, rows[i].id.getAsInt());
+  }
+
+  @Test
+  @AssertSelect(cacheSelectEntity = false, rowIteratorFullConsume = false)
+  public void testInsertReorderedBatch(final Types types, final Transaction transaction) throws IOException, SQLException {
+    final DbVendor vendor = transaction.getVendor();
+    final boolean isOracle = vendor == DbVendor.ORACLE;
+    final Types.Backup b = types.Backup$;
+
+    DELETE(b)
+      .execute(transaction);
+
+    // The n-th DELETE of the batch deletes n rows
+    for (int n = 1; n <= 3; ++n) { // [N]
+      for (int i = 0; i < n; ++i) { // [N]
+        final Types.Backup backup = types.new Backup();
+        backup.charType.set("reorder" + n);
+        INSERT(backup.id, backup.charType)
+          .execute(transaction);
+      }
+    }
+
+    // The INSERTs of Type and the DELETEs of Backup are interleaved, and are executed as 2 groups: 0, 2, 4, and 1, 3, 5
+    final Types.Type[] rows = new Types.Type[3];
+    final int[] counts = new int[rows.length * 2];
+    final Batch batch = new Batch().withReordering();
+    for (int i = 0; i < rows.length; ++i) { // [A]
+      final int index = i * 2;
+      final Types.Type t = rows[i] = types.new Type();
+      t.bigintType.set(8493L + i);
+      t.charType.set("reorder" + i);
+      t.doubleType.set(32d);
+      t.tinyintType.set((byte)i);
+      t.timeType.set(LocalTime.now());
+      batch.addStatement(
+        INSERT(t.id, t.bigintType, t.charType, t.doubleType, t.tinyintType, t.timeType)
+          .onExecute((final int c) -> counts[index] = c));
+
+      batch.addStatement(
+        DELETE(b)
+          .WHERE(EQ(b.charType, "reorder" + (i + 1)))
+          .onExecute((final int c) -> counts[index + 1] = c));
+    }
+
+    assertEquals(isOracle ? 0 : 9, batch.execute(transaction).getCount());
+
+    // The count of each command is delivered to the callback of that command, regardless of the order of execution
+    if (!isOracle)
+      assertArrayEquals(new int[] {1, 1, 1, 2, 1, 3}, counts);
+
+    if (isOracle || vendor == DbVendor.DERBY || vendor == DbVendor.SQLITE)
+      return;
+
+    // The generated keys are read into the rows of the commands in the order in which they were added
+    final int id = selectMaxId(transaction, rows[0]);
+    for (int i = 0; i < rows.length; ++i) // [A]
+      assertEquals(id - rows.length + 1 + i, rows[i].id.getAsInt());
+  }
+
   @Test
   @AssertSelect(cacheSelectEntity = true, rowIteratorFullConsume = false)
   @DBTestRunner.Unsupported(Oracle.class) // FIXME: ORA-00933 command not properly ended
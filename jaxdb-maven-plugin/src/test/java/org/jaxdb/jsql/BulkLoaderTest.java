@@ -0,0 +1,229 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.jaxdb.jsql.DML.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+
+import javax.xml.transform.TransformerException;
+
+import org.jaxdb.ddlx.DDLxTest;
+import org.jaxdb.ddlx.GeneratorExecutionException;
+import org.jaxdb.jsql.Types.$AbstractType.EnumType;
+import org.jaxdb.runner.DBTestRunner.Config;
+import org.jaxdb.runner.DBTestRunner.DB;
+import org.jaxdb.runner.DBTestRunner.TestSpec;
+import org.jaxdb.runner.Derby;
+import org.jaxdb.runner.PostgreSQL;
+import org.jaxdb.runner.SQLite;
+import org.jaxdb.runner.SchemaTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xml.sax.SAXException;
+
+/**
+ * Tests {@link BulkLoader} with {@code COPY} on the {@code org.postgresql} driver, and with the fallback to {@link Batch}es on the
+ * {@code pgjdbc-ng} driver and on other vendors. The encoding of each column type in the {@code COPY} text format is tested by
+ * loading the {@code Types.Type} table, and comparing each column with a {@code SELECT}.
+ */
+@RunWith(SchemaTestRunner.class)
+@Config(sync = true, deferLog = false, failFast = true)
+public abstract class BulkLoaderTest {
+  @DB(Derby.class)
+  @DB(SQLite.class)
+  public static class IntegrationTest extends BulkLoaderTest {
+  }
+
+  @DB(PostgreSQL.class)
+  @DB(PgJdbc.class)
+  public static class RegressionTest extends BulkLoaderTest {
+  }
+
+  /**
+   * PostgreSQL with the {@code org.postgresql} JDBC driver, of which the {@code CopyManager} is used by {@link BulkLoader}.
+   */
+  public static class PgJdbc extends PostgreSQL {
+    public PgJdbc() {
+      super("org.postgresql.Driver", "jdbc:postgresql://localhost:5432/jaxdb?user=jaxdb&password=jaxdb");
+    }
+  }
+
+  private static final int rows = 2500;
+
+  @Test
+  @TestSpec(order = 0)
+  public void setUp(final Caching caching) throws GeneratorExecutionException, IOException, SAXException, SQLException, TransformerException {
+    try (final Connection connection = caching.getConnector().getConnection()) {
+      DDLxTest.recreateSchema(connection, "caching");
+    }
+  }
+
+  @Test
+  @TestSpec(order = 1)
+  public void testLoad(final Caching caching) throws IOException, SQLException {
+    final ArrayList<Caching.One> ones = new ArrayList<>(rows);
+    for (int i = 0; i < rows; ++i) { // [N]
+      final Caching.One o = caching.new One(i);
+      o.idu.set(i);
+      o.idx1.set(i);
+      o.idx2.set(i);
+      ones.add(o);
+    }
+
+    try (final Connection connection = caching.getConnector().getConnection()) {
+      // Only a connection of the org.postgresql driver has a CopyManager, and the others fall back to Batches
+      final boolean isCopy = connection.getMetaData().getURL().startsWith("jdbc:postgresql:");
+      assertEquals(isCopy, BulkLoader.getCopyManager(connection) != null);
+      assertEquals(rows, BulkLoader.load(connection, ones));
+    }
+
+    final Caching.One o = caching.One$;
+    try (final RowIterator<data.BIGINT> count = SELECT(COUNT(o)).FROM(o).execute(caching.getConnector())) {
+      assertTrue(count.nextRow());
+      assertEquals(rows, count.nextEntity().getAsLong());
+    }
+
+    try (final RowIterator<Caching.One> one = SELECT(o).FROM(o).WHERE(EQ(o.id, rows - 1)).execute(caching.getConnector())) {
+      assertTrue(one.nextRow());
+      final Caching.One last = one.nextEntity();
+      assertEquals(rows - 1, last.idu.getAsInt());
+      assertEquals(rows - 1, last.idx1.getAsInt());
+      assertEquals(rows - 1, last.idx2.getAsInt());
+      assertFalse(one.nextRow());
+    }
+  }
+
+  private static final String chars = "tab\tnewline\ncarriage\rbackslash\\null\\N";
+  private static final byte[] bytes = {0, '\\', '\t', '\n', 'x', (byte)0x7f, (byte)0x80, (byte)0xff};
+
+  private static Types.Type newType(final Types types, final long marker, final boolean isNull) {
+    final Types.Type t = types.new Type();
+    t.bigintType.set(marker);
+    if (isNull) {
+      // Each column is inserted, as NULL
+      for (final data.Column<?> column : t._column$) // [A]
+        if (column != t.id && column != t.bigintType)
+          column.setNull();
+
+      return t;
+    }
+
+    final boolean odd = marker % 2 != 0;
+    t.binaryType.set(bytes);
+    t.blobType.set(new ByteArrayInputStream(bytes));
+    t.booleanType.set(odd);
+    t.charType.set(odd ? chars : "");
+    t.clobType.set(new StringReader(chars));
+    t.dateType.set(LocalDate.of(2024, 2, 29));
+    t.datetimeType.set(LocalDateTime.of(1999, 12, 31, 23, 59, 58));
+    t.decimalType.set(new BigDecimal(odd ? "-12345678.123456789" : "0.000000001"));
+    t.doubleType.set(odd ? -1.5d : 1e100d);
+    t.enumType.set(odd ? EnumType.ONE : EnumType.NINE);
+    t.floatType.set(odd ? -0.25f : 3f);
+    t.intType.set(odd ? Integer.MIN_VALUE : Integer.MAX_VALUE);
+    t.smallintType.set(odd ? Short.MIN_VALUE : Short.MAX_VALUE);
+    t.tinyintType.set(odd ? (byte)-127 : (byte)127);
+    t.timeType.set(LocalTime.of(odd ? 0 : 23, 1, 2));
+    return t;
+  }
+
+  private static byte[] read(final InputStream in) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[64];
+    for (int len; (len = in.read(buffer)) != -1;) // [X]
+      out.write(buffer, 0, len);
+
+    return out.toByteArray();
+  }
+
+  private static String read(final Reader in) throws IOException {
+    final StringBuilder b = new StringBuilder();
+    final char[] buffer = new char[64];
+    for (int len; (len = in.read(buffer)) != -1;) // [X]
+      b.append(buffer, 0, len);
+
+    return b.toString();
+  }
+
+  @Test
+  @TestSpec(order = 2)
+  public void testLoadTypes(final Types types) throws IOException, SQLException {
+    final long marker = 7357000L;
+    final boolean[] isNull = {false, false, true};
+    final ArrayList<Types.Type> expected = new ArrayList<>(isNull.length);
+    for (int i = 0; i < isNull.length; ++i) // [A]
+      expected.add(newType(types, marker + i, isNull[i]));
+
+    try (final Connection connection = types.getConnector().getConnection()) {
+      // Only the COPY text format is tested here, which the Batch fallback does not use
+      if (BulkLoader.getCopyManager(connection) == null)
+        return;
+
+      assertEquals(isNull.length, BulkLoader.load(connection, expected));
+    }
+
+    final Types.Type t = types.Type$;
+    try {
+      for (int i = 0; i < isNull.length; ++i) { // [A]
+        try (final RowIterator<Types.Type> rows = SELECT(t).FROM(t).WHERE(EQ(t.bigintType, marker + i)).execute(types.getConnector())) {
+          assertTrue(rows.nextRow());
+          final Types.Type actual = rows.nextEntity();
+          assertFalse(rows.nextRow());
+          assertFalse(actual.id.isNull());
+
+          final data.Column<?>[] expectedColumns = expected.get(i)._column$;
+          final data.Column<?>[] actualColumns = actual._column$;
+          for (int j = 0, j$ = expectedColumns.length; j < j$; ++j) { // [A]
+            final data.Column<?> expectedColumn = expectedColumns[j];
+            final data.Column<?> actualColumn = actualColumns[j];
+            if (expectedColumn == expected.get(i).id)
+              continue;
+
+            final String message = "row " + i + ": " + actualColumn.name;
+            if (isNull[i])
+              assertTrue(message, actualColumn.isNull());
+            else if (actualColumn instanceof data.BINARY)
+              assertArrayEquals(message, bytes, (byte[])actualColumn.get());
+            else if (actualColumn instanceof data.BLOB)
+              assertArrayEquals(message, bytes, read((InputStream)actualColumn.get()));
+            else if (actualColumn instanceof data.CLOB)
+              assertEquals(message, chars, read((Reader)actualColumn.get()));
+            else
+              assertEquals(message, expectedColumn.get(), actualColumn.get());
+          }
+        }
+      }
+    }
+    finally {
+      DELETE(t).WHERE(AND(GTE(t.bigintType, marker), LT(t.bigintType, marker + isNull.length))).execute(types.getConnector());
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.jaxdb.jsql.DML.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.xml.transform.TransformerException;
+
+import org.jaxdb.ddlx.DDLxTest;
+import org.jaxdb.ddlx.GeneratorExecutionException;
+import org.jaxdb.runner.DBTestRunner.Config;
+import org.jaxdb.runner.DBTestRunner.DB;
+import org.jaxdb.runner.DBTestRunner.TestSpec;
+import org.jaxdb.runner.Derby;
+import org.jaxdb.runner.SQLite;
+import org.jaxdb.runner.SchemaTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xml.sax.SAXException;
+
+/**
+ * Tests the {@link ChangeLogNotifier} with a poll of more changes than the parameters that the DB allows in one statement.
+ */
+@RunWith(SchemaTestRunner.class)
+@Config(sync = true, deferLog = false, failFast = true)
+public abstract class CachingChangeLogTest {
+  @DB(Derby.class)
+  @DB(SQLite.class)
+  public static class IntegrationTest extends CachingChangeLogTest {
+  }
+
+  // The default batch size of ChangeLog, which exceeds the 999 parameters of a statement of SQLite
+  private static final int rows = 1000;
+
+  private static void awaitCached(final Caching caching, final boolean exists) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 30000;
+    for (int i = 0; i < rows; ++i) { // [N]
+      while ((caching.One$.id_TO_One_CACHED(i) != null) != exists) {
+        assertTrue("Timeout at " + i, System.currentTimeMillis() < deadline);
+        Thread.sleep(100);
+      }
+    }
+  }
+
+  @Test
+  @TestSpec(order = 0)
+  public void setUp(final Caching caching) throws GeneratorExecutionException, IOException, SAXException, SQLException, TransformerException {
+    try (final Connection connection = caching.getConnector().getConnection()) {
+      DDLxTest.recreateSchema(connection, "caching");
+    }
+
+    caching.configCache(new DefaultCache(caching) {
+      @Override
+      public void onFailure(final String sessionId, final long timestamp, final data.Table table, final Exception e) {
+        NotificationTest.uncaughtExceptionHandler.uncaughtException(Thread.currentThread(), e);
+      }
+    }, new ConcurrentLinkedQueue<>(), (final CacheConfig c) -> c
+      .with(caching.One$));
+  }
+
+  @Test
+  @TestSpec(order = 1)
+  public void testInsert(final Caching caching) throws InterruptedException, IOException, SQLException {
+    // The changes of one transaction are read in one poll, and their rows are selected in chunks of keys
+    try (final Transaction transaction = new Transaction(caching.getConnector())) {
+      for (int i = 0; i < rows; ++i) { // [N]
+        final Caching.One o = caching.new One(i);
+        o.idu.set(i);
+        o.idx1.set(i);
+        o.idx2.set(i);
+        INSERT(o).execute(transaction);
+      }
+
+      transaction.commit();
+    }
+
+    awaitCached(caching, true);
+  }
+
+  @Test
+  @TestSpec(order = 2)
+  public void testUpdate(final Caching caching) throws InterruptedException, IOException, SQLException {
+    final Caching.One o = caching.One$;
+    try (final Transaction transaction = new Transaction(caching.getConnector())) {
+      UPDATE(o).SET(o.idu, ADD(o.idu, rows)).WHERE(GTE(o.id, 0)).execute(transaction);
+      transaction.commit();
+    }
+
+    final long deadline = System.currentTimeMillis() + 30000;
+    for (int i = 0; i < rows; ++i) { // [N]
+      while (caching.One$.id_TO_One_CACHED(i).idu.getAsInt() != i + rows) {
+        assertTrue("Timeout at " + i, System.currentTimeMillis() < deadline);
+        Thread.sleep(100);
+      }
+    }
+  }
+
+  @Test
+  @TestSpec(order = 3)
+  public void testDelete(final Caching caching) throws InterruptedException, IOException, SQLException {
+    final Caching.One o = caching.One$;
+    try (final Transaction transaction = new Transaction(caching.getConnector())) {
+      DELETE(o).WHERE(GTE(o.id, 0)).execute(transaction);
+      transaction.commit();
+    }
+
+    awaitCached(caching, false);
+  }
+}
@@ -0,0 +1,113 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.xml.transform.TransformerException;
+
+import org.jaxdb.ddlx.DDLxTest;
+import org.jaxdb.ddlx.GeneratorExecutionException;
+import org.jaxdb.runner.DBTestRunner.Config;
+import org.jaxdb.runner.DBTestRunner.DB;
+import org.jaxdb.runner.DBTestRunner.TestSpec;
+import org.jaxdb.runner.PostgreSQL;
+import org.jaxdb.runner.SchemaTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xml.sax.SAXException;
+
+@RunWith(SchemaTestRunner.class)
+@Config(sync = true, deferLog = false, failFast = true)
+public abstract class CachingEvictionTest {
+  @DB(PostgreSQL.class)
+  public static class RegressionTest extends CachingEvictionTest {
+  }
+
+  private static final int rows = 8;
+  private static final int maxSize = 4;
+  private static final CacheStats stats = new CacheStats();
+  private static final Caching.One[] selected = new Caching.One[rows];
+
+  @Test
+  @TestSpec(order = 0)
+  public void setUp(final Caching caching) throws GeneratorExecutionException, IOException, SAXException, SQLException, TransformerException {
+    try (final Connection connection = caching.getConnector().getConnection()) {
+      DDLxTest.recreateSchema(connection, "caching");
+    }
+
+    CachingSingleFlightTest.insertOnes(caching, rows);
+
+    caching.configCache(new DefaultCache(caching) {
+      @Override
+      public void onFailure(final String sessionId, final long timestamp, final data.Table table, final Exception e) {
+        NotificationTest.uncaughtExceptionHandler.uncaughtException(Thread.currentThread(), e);
+      }
+    }, new ConcurrentLinkedQueue<>(), (final CacheConfig c) -> c
+      .with(new CacheEviction.Builder().withMaxSize(maxSize).build(), caching.One$)
+      .withMetrics(stats));
+  }
+
+  @Test
+  @TestSpec(order = 1)
+  public void testOverflow(final Caching caching) throws IOException, SQLException {
+    for (int i = 0; i < rows; ++i) { // [A]
+      selected[i] = caching.One$.id_TO_One_SELECT(i);
+      assertEquals(i, selected[i].id.getAsInt());
+    }
+
+    final CacheMap<?> cache = caching.One$.getCache();
+    final CacheEviction.Stats evictionStats = cache.getEvictionStats();
+    assertEquals(maxSize, evictionStats.getSize());
+    assertEquals(rows - maxSize, evictionStats.getEvictionCount());
+    assertEquals(maxSize, cache.size());
+
+    // The least recently used rows were evicted, and their keys are no longer in the mask of the cache
+    for (int i = 0; i < rows; ++i) // [A]
+      assertEquals(String.valueOf(i), i >= rows - maxSize, cache.containsKey(selected[i].getKey()));
+  }
+
+  @Test
+  @TestSpec(order = 2)
+  public void testReload(final Caching caching) throws IOException, SQLException {
+    final CacheStats.TableStats tableStats = stats.getStats(caching.One$);
+    final long loadCount = tableStats.getLoadCount();
+    final long missCount = tableStats.getMissCount();
+
+    // The evicted row is a miss, and is selected from the database
+    final Caching.One reloaded = caching.One$.id_TO_One_SELECT(0);
+    assertNotNull(reloaded);
+    assertEquals(0, reloaded.id.getAsInt());
+    assertEquals(missCount + 1, tableStats.getMissCount());
+    assertEquals(loadCount + 1, tableStats.getLoadCount());
+
+    final CacheMap<?> cache = caching.One$.getCache();
+    assertTrue(cache.containsKey(reloaded.getKey()));
+
+    // The reloaded row overflows the cache again, and the eviction accounting does not drift
+    final CacheEviction.Stats evictionStats = cache.getEvictionStats();
+    assertEquals(maxSize, evictionStats.getSize());
+    assertEquals(rows - maxSize + 1, evictionStats.getEvictionCount());
+    assertEquals(maxSize, cache.size());
+    assertFalse(cache.containsKey(selected[rows - maxSize].getKey()));
+  }
+}
@@ -0,0 +1,134 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.xml.transform.TransformerException;
+
+import org.jaxdb.ddlx.DDLxTest;
+import org.jaxdb.ddlx.GeneratorExecutionException;
+import org.jaxdb.runner.DBTestRunner.Config;
+import org.jaxdb.runner.DBTestRunner.DB;
+import org.jaxdb.runner.DBTestRunner.TestSpec;
+import org.jaxdb.runner.PostgreSQL;
+import org.jaxdb.runner.SchemaTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xml.sax.SAXException;
+
+@RunWith(SchemaTestRunner.class)
+@Config(sync = true, deferLog = false, failFast = true)
+public abstract class CachingMultiKeyTest {
+  @DB(PostgreSQL.class)
+  public static class RegressionTest extends CachingMultiKeyTest {
+  }
+
+  private static final int rows = 100;
+  private static final CacheStats stats = new CacheStats();
+
+  private static void assertKeys(final Map<Integer,Caching.One> map, final Integer ... keys) {
+    assertEquals(keys.length, map.size());
+    final Iterator<Map.Entry<Integer,Caching.One>> iterator = map.entrySet().iterator();
+    for (final Integer key : keys) { // [A]
+      final Map.Entry<Integer,Caching.One> entry = iterator.next();
+      assertEquals(key, entry.getKey());
+      assertEquals(key, entry.getValue().id.get());
+    }
+  }
+
+  @Test
+  @TestSpec(order = 0)
+  public void setUp(final Caching caching) throws GeneratorExecutionException, IOException, SAXException, SQLException, TransformerException {
+    try (final Connection connection = caching.getConnector().getConnection()) {
+      DDLxTest.recreateSchema(connection, "caching");
+    }
+
+    CachingSingleFlightTest.insertOnes(caching, rows);
+
+    caching.configCache(new DefaultCache(caching) {
+      @Override
+      public void onFailure(final String sessionId, final long timestamp, final data.Table table, final Exception e) {
+        NotificationTest.uncaughtExceptionHandler.uncaughtException(Thread.currentThread(), e);
+      }
+    }, new ConcurrentLinkedQueue<>(), (final CacheConfig c) -> c
+      .with(caching.One$)
+      .withMetrics(stats.with(caching.One$)));
+  }
+
+  @Test
+  @TestSpec(order = 1)
+  public void testCollection(final Caching caching) throws IOException, SQLException {
+    final CacheStats.TableStats tableStats = stats.getStats(caching.One$);
+    final long loadCount = tableStats.getLoadCount();
+
+    // The result is in the iteration order of the keys, without absent keys, and all missing keys are selected in one load
+    assertKeys(caching.One$.id_TO_One_SELECT(Arrays.asList(3, 1, rows + 1, 2)), 3, 1, 2);
+    assertEquals(loadCount + 1, tableStats.getLoadCount());
+    assertEquals(4, tableStats.getLoadedKeyCount());
+
+    // The rows are cached, and are the same instances as are returned by the single-key accessors
+    assertSame(caching.One$.id_TO_One_CACHED(1), caching.One$.id_TO_One_SELECT(Arrays.asList(1)).get(1));
+    assertEquals(loadCount + 1, tableStats.getLoadCount());
+  }
+
+  @Test
+  @TestSpec(order = 2)
+  public void testVarargs(final Caching caching) throws IOException, SQLException {
+    final CacheStats.TableStats tableStats = stats.getStats(caching.One$);
+    final long loadCount = tableStats.getLoadCount();
+    final long loadedKeyCount = tableStats.getLoadedKeyCount();
+
+    // Only the keys that are not cached are selected
+    assertKeys(caching.One$.id_TO_One_SELECT(1, 4, 2, 5), 1, 4, 2, 5);
+    assertEquals(loadCount + 1, tableStats.getLoadCount());
+    assertEquals(loadedKeyCount + 2, tableStats.getLoadedKeyCount());
+  }
+
+  @Test
+  @TestSpec(order = 3)
+  public void testDuplicateAndEmpty(final Caching caching) throws IOException, SQLException {
+    final CacheStats.TableStats tableStats = stats.getStats(caching.One$);
+    final long loadedKeyCount = tableStats.getLoadedKeyCount();
+
+    assertKeys(caching.One$.id_TO_One_SELECT(Arrays.asList(6, 6, 6)), 6);
+    assertEquals(loadedKeyCount + 1, tableStats.getLoadedKeyCount());
+
+    final long loadCount = tableStats.getLoadCount();
+    assertTrue(caching.One$.id_TO_One_SELECT(Collections.<Integer>emptyList()).isEmpty());
+    assertEquals(loadCount, tableStats.getLoadCount());
+  }
+
+  @Test
+  @TestSpec(order = 4)
+  public void testAll(final Caching caching) throws IOException, SQLException {
+    final Integer[] keys = new Integer[rows];
+    for (int i = 0; i < rows; ++i) // [A]
+      keys[i] = rows - 1 - i;
+
+    assertKeys(caching.One$.id_TO_One_SELECT(Arrays.asList(keys)), keys);
+  }
+}
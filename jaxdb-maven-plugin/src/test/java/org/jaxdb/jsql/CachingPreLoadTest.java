@@ -0,0 +1,136 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.transform.TransformerException;
+
+import org.jaxdb.ddlx.DDLxTest;
+import org.jaxdb.ddlx.GeneratorExecutionException;
+import org.jaxdb.jsql.CacheConfig.OnConnectPreLoad;
+import org.jaxdb.runner.DBTestRunner.Config;
+import org.jaxdb.runner.DBTestRunner.DB;
+import org.jaxdb.runner.DBTestRunner.TestSpec;
+import org.jaxdb.runner.PostgreSQL;
+import org.jaxdb.runner.SchemaTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xml.sax.SAXException;
+
+@RunWith(SchemaTestRunner.class)
+@Config(sync = true, deferLog = false, failFast = true)
+public abstract class CachingPreLoadTest {
+  @DB(PostgreSQL.class)
+  public static class RegressionTest extends CachingPreLoadTest {
+  }
+
+  private static final int rows = 1000;
+  private static final int parallelism = 4;
+  private static final int partitions = 8;
+  private static final CacheStats stats = new CacheStats();
+  private static final AtomicInteger progressCount = new AtomicInteger();
+  private static final AtomicInteger maxCompleted = new AtomicInteger();
+  private static final AtomicLong maxRows = new AtomicLong();
+  private static final Set<String> progressThreads = ConcurrentHashMap.newKeySet();
+
+  @Test
+  @TestSpec(order = 0)
+  public void setUp(final Caching caching) throws GeneratorExecutionException, IOException, SAXException, SQLException, TransformerException {
+    try (final Connection connection = caching.getConnector().getConnection()) {
+      DDLxTest.recreateSchema(connection, "caching");
+    }
+
+    CachingSingleFlightTest.insertOnes(caching, rows);
+
+    caching.configCache(new DefaultCache(caching) {
+      @Override
+      public void onFailure(final String sessionId, final long timestamp, final data.Table table, final Exception e) {
+        NotificationTest.uncaughtExceptionHandler.uncaughtException(Thread.currentThread(), e);
+      }
+    }, new ConcurrentLinkedQueue<>(), (final CacheConfig c) -> {
+      try {
+        c.withPreLoad(0, 1);
+        fail("Expected IllegalArgumentException");
+      }
+      catch (final IllegalArgumentException e) {
+      }
+
+      try {
+        c.withPreLoad(1, 0);
+        fail("Expected IllegalArgumentException");
+      }
+      catch (final IllegalArgumentException e) {
+      }
+
+      return c
+        .with(OnConnectPreLoad.ALL, caching.One$)
+        .withPreLoad(parallelism, partitions)
+        .withPreLoadProgress((final data.Table table, final int completed, final int partitions, final long rows) -> {
+          assertSame(caching.One$, table);
+          assertEquals(CachingPreLoadTest.partitions, partitions);
+          progressCount.incrementAndGet();
+          maxCompleted.accumulateAndGet(completed, Math::max);
+          maxRows.accumulateAndGet(rows, Math::max);
+          progressThreads.add(Thread.currentThread().getName());
+        })
+        .withMetrics(stats);
+    });
+  }
+
+  @Test
+  @TestSpec(order = 1)
+  public void testProgress() {
+    // Each partition reports its completion once, and the last reports all of the rows of the table
+    assertEquals(partitions, progressCount.get());
+    assertEquals(partitions, maxCompleted.get());
+    assertEquals(rows, maxRows.get());
+
+    // The partitions are selected on the threads of the preload, rather than on the calling thread
+    for (final String thread : progressThreads) // [S]
+      assertEquals("JAXDB-PreLoad", thread);
+  }
+
+  @Test
+  @TestSpec(order = 2)
+  public void testAllRowsLoaded(final Caching caching) throws IOException, SQLException {
+    // The table is committed as fully selected after the last of its partitions
+    assertTrue(caching.One$.getCache().containsKey(data.Key.ALL));
+    assertEquals(rows, caching.One$.getCache().size());
+
+    // The rows of the boundaries of the partitions are neither lost nor duplicated, and are selected from the cache
+    final CacheStats.TableStats tableStats = stats.getStats(caching.One$);
+    final long loadCount = tableStats.getLoadCount();
+    for (int i = 0; i < rows; ++i) { // [N]
+      final Caching.One one = caching.One$.id_TO_One_SELECT(i);
+      assertNotNull(one);
+      assertEquals(i, one.id.getAsInt());
+    }
+
+    assertEquals(loadCount, tableStats.getLoadCount());
+    assertNull(caching.One$.id_TO_One_SELECT(rows));
+  }
+}
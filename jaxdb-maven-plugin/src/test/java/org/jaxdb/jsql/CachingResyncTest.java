@@ -0,0 +1,140 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.jaxdb.jsql.DML.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.xml.transform.TransformerException;
+
+import org.jaxdb.ddlx.DDLxTest;
+import org.jaxdb.ddlx.GeneratorExecutionException;
+import org.jaxdb.runner.DBTestRunner.Config;
+import org.jaxdb.runner.DBTestRunner.DB;
+import org.jaxdb.runner.DBTestRunner.TestSpec;
+import org.jaxdb.runner.PostgreSQL;
+import org.jaxdb.runner.SchemaTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xml.sax.SAXException;
+
+@RunWith(SchemaTestRunner.class)
+@Config(sync = true, deferLog = false, failFast = true)
+public abstract class CachingResyncTest {
+  @DB(PostgreSQL.class)
+  public static class RegressionTest extends CachingResyncTest {
+  }
+
+  private static final int rows = 4;
+  private static final CacheStats stats = new CacheStats();
+  private static DefaultCache cache;
+
+  /**
+   * Inserts a row with the triggers of its table disabled, such that no notification is sent, as if the notifier were disconnected.
+   */
+  private static void insertUnnotified(final Caching caching, final int id) throws IOException, SQLException {
+    try (
+      final Connection connection = caching.getConnector().getConnection();
+      final Statement statement = connection.createStatement();
+    ) {
+      statement.execute("ALTER TABLE \"" + caching.One$.getName() + "\" DISABLE TRIGGER USER");
+      try {
+        final Caching.One o = caching.new One(id);
+        o.idu.set(id);
+        o.idx1.set(id);
+        o.idx2.set(id);
+        assertEquals(1, INSERT(o).execute(connection, true).getCount());
+      }
+      finally {
+        statement.execute("ALTER TABLE \"" + caching.One$.getName() + "\" ENABLE TRIGGER USER");
+      }
+    }
+  }
+
+  @Test
+  @TestSpec(order = 0)
+  public void setUp(final Caching caching) throws GeneratorExecutionException, IOException, SAXException, SQLException, TransformerException {
+    try (final Connection connection = caching.getConnector().getConnection()) {
+      DDLxTest.recreateSchema(connection, "caching");
+    }
+
+    CachingSingleFlightTest.insertOnes(caching, rows);
+
+    caching.configCache(cache = new DefaultCache(caching) {
+      @Override
+      public void onFailure(final String sessionId, final long timestamp, final data.Table table, final Exception e) {
+        NotificationTest.uncaughtExceptionHandler.uncaughtException(Thread.currentThread(), e);
+      }
+    }, new ConcurrentLinkedQueue<>(), (final CacheConfig c) -> c
+      .with(caching.One$)
+      .withMetrics(stats));
+  }
+
+  @Test
+  @TestSpec(order = 1)
+  public void testMaskedKeyReselected(final Caching caching) throws IOException, SQLException {
+    final CacheStats.TableStats tableStats = stats.getStats(caching.One$);
+    final long loadCount = tableStats.getLoadCount();
+
+    // The missing key is masked, so it is not loaded again
+    assertNull(caching.One$.id_TO_One_SELECT(rows));
+    assertNull(caching.One$.id_TO_One_SELECT(rows));
+    assertEquals(loadCount + 1, tableStats.getLoadCount());
+
+    // The insert of the missing key is missed, so the mask is stale
+    insertUnnotified(caching, rows);
+    assertNull(caching.One$.id_TO_One_SELECT(rows));
+
+    // The resync on reconnect clears the mask, so the key is selected again
+    final long resyncCount = tableStats.getResyncCount();
+    cache.onResync(caching.One$);
+    assertEquals(resyncCount + 1, tableStats.getResyncCount());
+    assertEquals(0, tableStats.getResyncFailureCount());
+
+    final Caching.One one = caching.One$.id_TO_One_SELECT(rows);
+    assertNotNull(one);
+    assertEquals(rows, one.idu.getAsInt());
+    assertEquals(loadCount + 2, tableStats.getLoadCount());
+  }
+
+  @Test
+  @TestSpec(order = 2)
+  public void testSelectAllReselected(final Caching caching) throws IOException, SQLException {
+    final CacheStats.TableStats tableStats = stats.getStats(caching.One$);
+    assertEquals(rows + 1, caching.One$.id_TO_One_SELECT().size());
+    assertTrue(caching.One$.getCache().containsKey(data.Key.ALL));
+
+    // The insert is missed, so the cache of all rows is stale
+    insertUnnotified(caching, rows + 1);
+    assertNull(caching.One$.id_TO_One_CACHED(rows + 1));
+
+    // The resync reselects all rows, and masks all rows again
+    final long resyncCount = tableStats.getResyncCount();
+    cache.onResync(caching.One$);
+    assertEquals(resyncCount + 1, tableStats.getResyncCount());
+    assertEquals(0, tableStats.getResyncFailureCount());
+    assertTrue(caching.One$.getCache().containsKey(data.Key.ALL));
+    assertEquals(rows + 1, caching.One$.id_TO_One_CACHED(rows + 1).idu.getAsInt());
+    assertEquals(rows + 2, caching.One$.getCache().size());
+  }
+}
@@ -0,0 +1,244 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.jaxdb.jsql.DML.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.transform.TransformerException;
+
+import org.jaxdb.ddlx.DDLxTest;
+import org.jaxdb.ddlx.GeneratorExecutionException;
+import org.jaxdb.runner.DBTestRunner.Config;
+import org.jaxdb.runner.DBTestRunner.DB;
+import org.jaxdb.runner.DBTestRunner.TestSpec;
+import org.jaxdb.runner.PostgreSQL;
+import org.jaxdb.runner.SchemaTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xml.sax.SAXException;
+
+@RunWith(SchemaTestRunner.class)
+@Config(sync = true, deferLog = false, failFast = true)
+public abstract class CachingSingleFlightTest {
+  @DB(PostgreSQL.class)
+  public static class RegressionTest extends CachingSingleFlightTest {
+  }
+
+  private static final int rows = 256;
+  private static final int threads = 64;
+  private static final CacheStats stats = new CacheStats();
+
+  static void insertOnes(final Caching caching, final int rows) throws IOException, SQLException {
+    final Connector connector = caching.getConnector();
+    for (int i = 0; i < rows; ++i) { // [N]
+      final Caching.One o = caching.new One(i);
+      o.idu.set(i);
+      o.idx1.set(i);
+      o.idx2.set(i);
+      INSERT(o).execute(connector);
+    }
+  }
+
+  /**
+   * Runs the provided {@link Callable} on each of {@code threads} threads, all released at once, and returns the results.
+   */
+  private static Caching.One[] concurrently(final int threads, final Callable callable) throws InterruptedException {
+    try {
+      return concurrently(threads, callable, null);
+    }
+    catch (final InterruptedException e) {
+      throw e;
+    }
+    catch (final Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Runs the provided {@link Callable} on each of {@code threads} threads, all released at once, runs the provided {@code onStart}
+   * (if not null) on the calling thread after the threads are released, and returns the results.
+   */
+  private static Caching.One[] concurrently(final int threads, final Callable callable, final OnStart onStart) throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    final Caching.One[] results = new Caching.One[threads];
+    final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(threads);
+    try {
+      for (int i = 0; i < threads; ++i) { // [N]
+        final int index = i;
+        executor.execute(() -> {
+          try {
+            start.await();
+            results[index] = callable.call(index);
+          }
+          catch (final Throwable t) {
+            errors.add(t);
+          }
+          finally {
+            done.countDown();
+          }
+        });
+      }
+
+      start.countDown();
+      if (onStart != null)
+        onStart.run();
+
+      assertTrue(done.await(1, TimeUnit.MINUTES));
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    if (errors.size() > 0)
+      throw new AssertionError(errors.size() + " errors", errors.peek());
+
+    return results;
+  }
+
+  @FunctionalInterface
+  private interface Callable {
+    Caching.One call(int index) throws IOException, SQLException;
+  }
+
+  @FunctionalInterface
+  private interface OnStart {
+    void run() throws Exception;
+  }
+
+  private static int countLockWaiters(final Connection connection) throws SQLException {
+    try (
+      final Statement statement = connection.createStatement();
+      final ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND datname = current_database()")
+    ) {
+      resultSet.next();
+      return resultSet.getInt(1);
+    }
+  }
+
+  @Test
+  @TestSpec(order = 0)
+  public void setUp(final Caching caching) throws GeneratorExecutionException, IOException, SAXException, SQLException, TransformerException {
+    try (final Connection connection = caching.getConnector().getConnection()) {
+      DDLxTest.recreateSchema(connection, "caching");
+    }
+
+    insertOnes(caching, rows);
+
+    caching.configCache(new DefaultCache(caching) {
+      @Override
+      public void onFailure(final String sessionId, final long timestamp, final data.Table table, final Exception e) {
+        NotificationTest.uncaughtExceptionHandler.uncaughtException(Thread.currentThread(), e);
+      }
+    }, new ConcurrentLinkedQueue<>(), (final CacheConfig c) -> c
+      .with(caching.One$)
+      .withMetrics(stats));
+  }
+
+  @Test
+  @TestSpec(order = 1)
+  public void testSameKey(final Caching caching) throws InterruptedException {
+    final Caching.One[] results = concurrently(threads, (final int index) -> caching.One$.id_TO_One_SELECT(0));
+    for (final Caching.One result : results) { // [A]
+      assertNotNull(result);
+      assertSame(results[0], result);
+    }
+
+    // All misses of the same key share one SELECT
+    final CacheStats.TableStats tableStats = stats.getStats(caching.One$);
+    assertEquals(1, tableStats.getLoadCount());
+    assertEquals(1, tableStats.getLoadedKeyCount());
+  }
+
+  @Test
+  @TestSpec(order = 2)
+  public void testDistinctKeys(final Caching caching) throws Exception {
+    final CacheStats.TableStats tableStats = stats.getStats(caching.One$);
+    final long loadCount = tableStats.getLoadCount();
+    final long missCount = tableStats.getMissCount();
+    final Connector connector = caching.getConnector();
+    final Caching.One[] results;
+    try (
+      final Connection lock = connector.getConnection();
+      final Connection monitor = connector.getConnection()
+    ) {
+      // The table is locked, so that the SELECTs of the loading threads block, and the misses of all other threads are pending
+      // when the table is unlocked
+      lock.setAutoCommit(false);
+      try (final Statement statement = lock.createStatement()) {
+        statement.execute("LOCK TABLE " + caching.One$.getName() + " IN ACCESS EXCLUSIVE MODE");
+      }
+
+      monitor.setAutoCommit(true);
+      results = concurrently(threads, (final int index) -> caching.One$.id_TO_One_SELECT(index + 1), () -> {
+        final long timeout = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        while (tableStats.getMissCount() < missCount + threads || countLockWaiters(monitor) < CacheMap.MAX_CONCURRENT_LOADS) {
+          assertTrue(System.currentTimeMillis() < timeout);
+          Thread.sleep(10);
+        }
+
+        // Allow the threads that have counted their miss to add their key to the pending keys
+        Thread.sleep(100);
+        lock.commit();
+      });
+    }
+
+    for (int i = 0; i < threads; ++i) // [A]
+      assertEquals(i + 1, results[i].id.getAsInt());
+
+    // Each key is selected exactly once. The misses beyond the MAX_CONCURRENT_LOADS blocked SELECTs are coalesced into at most
+    // MAX_CONCURRENT_LOADS further SELECTs, instead of one SELECT per miss
+    assertEquals(1 + threads, tableStats.getLoadedKeyCount());
+    assertTrue(threads <= CacheMap.MAX_COALESCED_KEYS);
+    final long selects = tableStats.getLoadCount() - loadCount;
+    assertTrue(String.valueOf(selects), selects <= 2 * CacheMap.MAX_CONCURRENT_LOADS);
+  }
+
+  @Test
+  @TestSpec(order = 3)
+  public void testHit(final Caching caching) throws InterruptedException {
+    final CacheStats.TableStats tableStats = stats.getStats(caching.One$);
+    final long loadCount = tableStats.getLoadCount();
+    final long hitCount = tableStats.getHitCount();
+
+    concurrently(threads, (final int index) -> caching.One$.id_TO_One_SELECT(index));
+
+    assertEquals(loadCount, tableStats.getLoadCount());
+    assertEquals(hitCount + threads, tableStats.getHitCount());
+  }
+
+  @Test
+  @TestSpec(order = 4)
+  public void testMissingKey(final Caching caching) throws InterruptedException {
+    final Caching.One[] results = concurrently(threads, (final int index) -> caching.One$.id_TO_One_SELECT(rows + 1));
+    for (final Caching.One result : results) // [A]
+      assertNull(result);
+  }
+}
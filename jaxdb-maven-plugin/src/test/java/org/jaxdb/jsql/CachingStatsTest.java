@@ -0,0 +1,120 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.xml.transform.TransformerException;
+
+import org.jaxdb.ddlx.DDLxTest;
+import org.jaxdb.ddlx.GeneratorExecutionException;
+import org.jaxdb.runner.DBTestRunner.Config;
+import org.jaxdb.runner.DBTestRunner.DB;
+import org.jaxdb.runner.DBTestRunner.TestSpec;
+import org.jaxdb.runner.PostgreSQL;
+import org.jaxdb.runner.SchemaTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xml.sax.SAXException;
+
+@RunWith(SchemaTestRunner.class)
+@Config(sync = true, deferLog = false, failFast = true)
+public abstract class CachingStatsTest {
+  @DB(PostgreSQL.class)
+  public static class RegressionTest extends CachingStatsTest {
+  }
+
+  private static final int rows = 4;
+  private static final CacheStats stats = new CacheStats();
+
+  @Test
+  @TestSpec(order = 0)
+  public void setUp(final Caching caching) throws GeneratorExecutionException, IOException, SAXException, SQLException, TransformerException {
+    try (final Connection connection = caching.getConnector().getConnection()) {
+      DDLxTest.recreateSchema(connection, "caching");
+    }
+
+    CachingSingleFlightTest.insertOnes(caching, rows);
+
+    caching.configCache(new DefaultCache(caching) {
+      @Override
+      public void onFailure(final String sessionId, final long timestamp, final data.Table table, final Exception e) {
+        NotificationTest.uncaughtExceptionHandler.uncaughtException(Thread.currentThread(), e);
+      }
+    }, new ConcurrentLinkedQueue<>(), (final CacheConfig c) -> c
+      .with(caching.One$)
+      .withMetrics(stats));
+  }
+
+  @Test
+  @TestSpec(order = 1)
+  public void testMissAndLoad(final Caching caching) throws IOException, SQLException {
+    final CacheStats.TableStats tableStats = stats.getStats(caching.One$);
+    assertNotNull(tableStats);
+    final long hitCount = tableStats.getHitCount();
+    final long missCount = tableStats.getMissCount();
+    final long loadCount = tableStats.getLoadCount();
+    final long loadedKeyCount = tableStats.getLoadedKeyCount();
+    final long totalLoadTime = tableStats.getTotalLoadTime();
+
+    // A key that is not in the cache is a miss, and is loaded from the database
+    assertEquals(0, caching.One$.id_TO_One_SELECT(0).id.getAsInt());
+    assertEquals(hitCount, tableStats.getHitCount());
+    assertEquals(missCount + 1, tableStats.getMissCount());
+    assertEquals(loadCount + 1, tableStats.getLoadCount());
+    assertEquals(loadedKeyCount + 1, tableStats.getLoadedKeyCount());
+    assertEquals(0, tableStats.getLoadFailureCount());
+    assertTrue(tableStats.getTotalLoadTime() > totalLoadTime);
+    assertEquals(caching.One$.getCache().size(), tableStats.getEntryCount());
+  }
+
+  @Test
+  @TestSpec(order = 2)
+  public void testHit(final Caching caching) throws IOException, SQLException {
+    final CacheStats.TableStats tableStats = stats.getStats(caching.One$);
+    final long hitCount = tableStats.getHitCount();
+    final long missCount = tableStats.getMissCount();
+    final long loadCount = tableStats.getLoadCount();
+
+    // A key that is in the cache is a hit, and is not loaded
+    assertEquals(0, caching.One$.id_TO_One_SELECT(0).id.getAsInt());
+    assertEquals(hitCount + 1, tableStats.getHitCount());
+    assertEquals(missCount, tableStats.getMissCount());
+    assertEquals(loadCount, tableStats.getLoadCount());
+  }
+
+  @Test
+  @TestSpec(order = 3)
+  public void testMissingKey(final Caching caching) throws IOException, SQLException {
+    final CacheStats.TableStats tableStats = stats.getStats(caching.One$);
+    final long missCount = tableStats.getMissCount();
+    final long loadCount = tableStats.getLoadCount();
+
+    // A key that is not in the database is a miss, and is loaded once, after which its absence is cached
+    assertNull(caching.One$.id_TO_One_SELECT(rows + 1));
+    assertEquals(missCount + 1, tableStats.getMissCount());
+    assertEquals(loadCount + 1, tableStats.getLoadCount());
+
+    assertNull(caching.One$.id_TO_One_SELECT(rows + 1));
+    assertEquals(loadCount + 1, tableStats.getLoadCount());
+  }
+}
@@ -0,0 +1,179 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.jaxdb.jsql.DML.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.transform.TransformerException;
+
+import org.jaxdb.ddlx.DDLxTest;
+import org.jaxdb.ddlx.GeneratorExecutionException;
+import org.jaxdb.jsql.Notification.Action;
+import org.jaxdb.runner.DBTestRunner.Config;
+import org.jaxdb.runner.DBTestRunner.DB;
+import org.jaxdb.runner.DBTestRunner.TestSpec;
+import org.jaxdb.runner.PostgreSQL;
+import org.jaxdb.runner.SchemaTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xml.sax.SAXException;
+
+/**
+ * Tests the round-trip of {@link CompactPayload} notifications from the PostgreSQL triggers to the {@link Notification.Listener}.
+ */
+@RunWith(SchemaTestRunner.class)
+@Config(sync = true, deferLog = false, failFast = true)
+public abstract class CompactNotificationTest {
+  @DB(PostgreSQL.class)
+  public static class RegressionTest extends CompactNotificationTest {
+  }
+
+  private static final class Received {
+    private final Action action;
+    private final Caching.One row;
+
+    private Received(final Action action, final Caching.One row) {
+      this.action = action;
+      this.row = row;
+    }
+  }
+
+  private static final LinkedBlockingQueue<Received> received = new LinkedBlockingQueue<>();
+
+  private static final class Listener implements Notification.InsertListener<Caching.One>, Notification.UpdateListener<Caching.One>, Notification.DeleteListener<Caching.One> {
+    @Override
+    public Caching.One onInsert(final String sessionId, final long timestamp, final Caching.One row) {
+      received.add(new Received(Action.INSERT, row));
+      return row;
+    }
+
+    @Override
+    public Caching.One onUpdate(final String sessionId, final long timestamp, final Caching.One row, final Map<String,String> keyForUpdate) {
+      received.add(new Received(Action.UPGRADE, row));
+      return row;
+    }
+
+    @Override
+    public Caching.One onDelete(final String sessionId, final long timestamp, final Caching.One row) {
+      received.add(new Received(Action.DELETE, row));
+      return row;
+    }
+  }
+
+  private static PostgreSQLNotifier notifier;
+  private static Caching.One one;
+
+  private static Caching.One next(final Action action) throws InterruptedException {
+    final Received next = received.poll(10, TimeUnit.SECONDS);
+    assertNotNull("Expected " + action, next);
+    assertSame(action, next.action);
+    return next.row;
+  }
+
+  @Test
+  @TestSpec(order = 0)
+  public void setUp(final Caching caching) throws GeneratorExecutionException, IOException, SAXException, SQLException, TransformerException {
+    final Connector connector = caching.getConnector();
+    try (final Connection connection = connector.getConnection()) {
+      DDLxTest.recreateSchema(connection, "caching");
+    }
+
+    // All tables are notified in the compact format
+    notifier = new PostgreSQLNotifier(connector.getConnection(), connector, null, null, 0, null, (final data.Table table) -> true);
+    assertTrue(notifier.addNotificationListener(Action.INSERT, Action.UPGRADE, Action.DELETE, new Listener(), new ConcurrentLinkedQueue<>(), caching.One$));
+
+    // Each trigger of the table is the compact variant
+    try (
+      final Connection connection = connector.getConnection();
+      final Statement statement = connection.createStatement();
+      final ResultSet resultSet = statement.executeQuery("SELECT tgname FROM pg_trigger WHERE tgrelid = '\"" + caching.One$.getName() + "\"'::regclass AND NOT tgisinternal")
+    ) {
+      int count = 0;
+      for (; resultSet.next(); ++count) // [X]
+        assertTrue(resultSet.getString(1), resultSet.getString(1).endsWith("_c"));
+
+      assertEquals(3, count);
+    }
+  }
+
+  @Test
+  @TestSpec(order = 1)
+  public void testInsert(final Caching caching) throws InterruptedException, IOException, SQLException {
+    one = caching.new One(1);
+    one.idu.set(2);
+    one.idx1.set(3);
+    one.idx2.set(4);
+    assertEquals(1, INSERT(one).execute(caching.getConnector()).getCount());
+
+    // An INSERT sends all columns
+    final Caching.One row = next(Action.INSERT);
+    assertEquals(1, row.id.getAsInt());
+    assertEquals(2, row.idu.getAsInt());
+    assertEquals(3, row.idx1.getAsInt());
+    assertEquals(4, row.idx2.getAsInt());
+  }
+
+  @Test
+  @TestSpec(order = 2)
+  public void testUpgrade(final Caching caching) throws InterruptedException, IOException, SQLException {
+    one.idx1.set(5);
+    assertEquals(1, UPDATE(one).execute(caching.getConnector()).getCount());
+
+    // An UPGRADE sends the primary key, and only the columns that changed
+    final Caching.One row = next(Action.UPGRADE);
+    assertEquals(1, row.id.getAsInt());
+    assertEquals(5, row.idx1.getAsInt());
+    assertFalse(row.idu.cued());
+    assertFalse(row.idx2.cued());
+  }
+
+  @Test
+  @TestSpec(order = 3)
+  public void testDelete(final Caching caching) throws InterruptedException, IOException, SQLException {
+    try {
+      assertEquals(1, DELETE(one).execute(caching.getConnector()).getCount());
+
+      // A DELETE sends only the primary key
+      final Caching.One row = next(Action.DELETE);
+      assertEquals(1, row.id.getAsInt());
+      assertFalse(row.idu.cued());
+      assertFalse(row.idx1.cued());
+      assertFalse(row.idx2.cued());
+      assertTrue(received.isEmpty());
+    }
+    finally {
+      try {
+        assertTrue(notifier.removeNotificationListeners(Action.INSERT, Action.UPGRADE, Action.DELETE, new data.Table[] {caching.One$}));
+      }
+      finally {
+        notifier.close();
+        notifier = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.jaxdb.jsql.DML.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import javax.xml.transform.TransformerException;
+
+import org.jaxdb.ddlx.DDLxTest;
+import org.jaxdb.ddlx.GeneratorExecutionException;
+import org.jaxdb.runner.DBTestRunner.Config;
+import org.jaxdb.runner.DBTestRunner.DB;
+import org.jaxdb.runner.DBTestRunner.TestSpec;
+import org.jaxdb.runner.PostgreSQL;
+import org.jaxdb.runner.SchemaTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xml.sax.SAXException;
+
+/**
+ * Tests {@code executeAsync(...)} of an {@code INSERT}, a {@link Batch} and a {@code SELECT}, each of which is executed on its own
+ * {@link Connection} of the {@link Connector}, within its default concurrency limit.
+ */
+@RunWith(SchemaTestRunner.class)
+@Config(sync = true, deferLog = false, failFast = true)
+public abstract class ExecuteAsyncTest {
+  @DB(PostgreSQL.class)
+  public static class RegressionTest extends ExecuteAsyncTest {
+  }
+
+  private static final int rows = Connector.DEFAULT_ASYNC_CONCURRENCY * 2;
+
+  private static Caching.One newOne(final Caching caching, final int id) {
+    final Caching.One o = caching.new One(id);
+    o.idu.set(id);
+    o.idx1.set(id);
+    o.idx2.set(id);
+    return o;
+  }
+
+  @Test
+  @TestSpec(order = 0)
+  public void setUp(final Caching caching) throws GeneratorExecutionException, IOException, SAXException, SQLException, TransformerException {
+    try (final Connection connection = caching.getConnector().getConnection()) {
+      DDLxTest.recreateSchema(connection, "caching");
+    }
+  }
+
+  @Test
+  @TestSpec(order = 1)
+  public void testInsert(final Caching caching) throws ExecutionException, InterruptedException {
+    // More INSERTs than the concurrency limit are submitted, of which the excess are queued until a running execution completes
+    final ArrayList<CompletableFuture<? extends statement.Modification.Result>> futures = new ArrayList<>(rows);
+    for (int i = 0; i < rows; ++i) // [N]
+      futures.add(INSERT(newOne(caching, i)).executeAsync(caching.getConnector()));
+
+    for (final CompletableFuture<? extends statement.Modification.Result> future : futures) // [L]
+      assertEquals(1, future.get().getCount());
+  }
+
+  @Test
+  @TestSpec(order = 2)
+  public void testBatch(final Caching caching) throws ExecutionException, InterruptedException {
+    final Batch batch = new Batch();
+    for (int i = rows; i < rows * 2; ++i) // [N]
+      batch.addStatement(INSERT(newOne(caching, i)));
+
+    final Caching.One o = caching.One$;
+    batch.addStatement(UPDATE(o).SET(o.idu, ADD(o.idu, rows * 2)).WHERE(LT(o.id, rows)));
+    assertEquals(rows * 2, batch.executeAsync(caching.getConnector()).get().getCount());
+  }
+
+  @Test
+  @TestSpec(order = 3)
+  public void testSelect(final Caching caching) throws ExecutionException, InterruptedException, IOException, SQLException {
+    final Caching.One o = caching.One$;
+    final ArrayList<CompletableFuture<RowIterator<Caching.One>>> futures = new ArrayList<>(rows);
+    for (int i = 0; i < rows; ++i) // [N]
+      futures.add(SELECT(o).FROM(o).WHERE(EQ(o.id, i * 2)).executeAsync(caching.getConnector()));
+
+    // Each RowIterator holds its Connection and its permit until it is closed, so the excess SELECTs complete once the preceding
+    // RowIterators are closed
+    for (int i = 0; i < rows; ++i) { // [RA]
+      try (final RowIterator<Caching.One> one = futures.get(i).get()) {
+        assertTrue(one.nextRow());
+        final Caching.One row = one.nextEntity();
+        assertEquals(i * 2, row.id.getAsInt());
+        // The rows of the INSERTs were updated by the Batch
+        assertEquals(i * 2 < rows ? i * 2 + rows * 2 : i * 2, row.idu.getAsInt());
+        assertFalse(one.nextRow());
+      }
+    }
+  }
+}
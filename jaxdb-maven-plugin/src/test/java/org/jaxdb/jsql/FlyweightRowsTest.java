@@ -0,0 +1,127 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.jaxdb.jsql.DML.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+import org.jaxdb.runner.DBTestRunner.DB;
+import org.jaxdb.runner.Derby;
+import org.jaxdb.runner.MySQL;
+import org.jaxdb.runner.Oracle;
+import org.jaxdb.runner.PostgreSQL;
+import org.jaxdb.runner.SQLite;
+import org.jaxdb.runner.SchemaTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(SchemaTestRunner.class)
+public abstract class FlyweightRowsTest {
+  @DB(Derby.class)
+  @DB(SQLite.class)
+  public static class IntegrationTest extends FlyweightRowsTest {
+  }
+
+  @DB(MySQL.class)
+  @DB(PostgreSQL.class)
+  @DB(Oracle.class)
+  public static class RegressionTest extends FlyweightRowsTest {
+  }
+
+  private static final QueryConfig flyweight = new QueryConfig.Builder().withFlyweightRows(true).build();
+
+  private static ArrayList<String> selectCompanyNames(final Classicmodels classicmodels, final Transaction transaction, final QueryConfig config) throws IOException, SQLException {
+    final Classicmodels.Customer c = classicmodels.Customer$;
+    final ArrayList<String> companyNames = new ArrayList<>();
+    try (
+      final RowIterator<Classicmodels.Customer> rows =
+        SELECT(c)
+          .FROM(c)
+          .ORDER_BY(c.customerNumber)
+          .execute(transaction, config)
+    ) {
+      Classicmodels.Customer prev = null;
+      while (rows.nextRow()) {
+        final Classicmodels.Customer customer = rows.nextEntity();
+        if (prev != null) {
+          if (config == flyweight)
+            assertSame(prev, customer);
+          else
+            assertNotSame(prev, customer);
+        }
+
+        companyNames.add(customer.companyName.get());
+        prev = customer;
+      }
+    }
+
+    return companyNames;
+  }
+
+  @Test
+  public void testEntities(final Classicmodels classicmodels, final Transaction transaction) throws IOException, SQLException {
+    final ArrayList<String> expected = selectCompanyNames(classicmodels, transaction, null);
+    assertFalse(expected.isEmpty());
+    assertEquals(expected, selectCompanyNames(classicmodels, transaction, flyweight));
+  }
+
+  @Test
+  public void testColumns(final Classicmodels classicmodels, final Transaction transaction) throws IOException, SQLException {
+    final Classicmodels.Customer c = classicmodels.Customer$;
+    final ArrayList<String> expected = selectCompanyNames(classicmodels, transaction, null);
+    int i = 0;
+    try (
+      final RowIterator<? extends data.Column<?>> rows =
+        SELECT(c.customerNumber, c.companyName)
+          .FROM(c)
+          .ORDER_BY(c.customerNumber)
+          .execute(transaction, flyweight)
+    ) {
+      data.Column<?> prevCustomerNumber = null;
+      while (rows.nextRow()) {
+        final data.Column<?> customerNumber = rows.nextEntity();
+        if (prevCustomerNumber != null)
+          assertSame(prevCustomerNumber, customerNumber);
+
+        prevCustomerNumber = customerNumber;
+        assertEquals(expected.get(i++), rows.nextEntity().get());
+      }
+    }
+
+    assertEquals(expected.size(), i);
+  }
+
+  @Test
+  public void testCacheSelectEntity(final Classicmodels classicmodels, final Transaction transaction) throws IOException, SQLException {
+    final Classicmodels.Customer c = classicmodels.Customer$;
+    final QueryConfig config = flyweight.toBuilder().withCacheSelectEntity(true).build();
+    try {
+      SELECT(c)
+        .FROM(c)
+        .execute(transaction, config)
+        .close();
+
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+    }
+  }
+}
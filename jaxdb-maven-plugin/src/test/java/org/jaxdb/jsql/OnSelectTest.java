@@ -18,6 +18,7 @@ package org.jaxdb.jsql;
 
 import static org.jaxdb.jsql.DML.*;
 import static org.junit.Assert.*;
+import static org.junit.Assume.*;
 
 import java.io.IOException;
 import java.lang.Thread.UncaughtExceptionHandler;
@@ -28,7 +29,11 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.SortedMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.transform.TransformerException;
 
@@ -291,6 +296,62 @@ public abstract class OnSelectTest {
     assertFalse(TestConnectionFactory.called());
   }
 
+  @Test
+  @TestSpec(order = 7)
+  public void testTreeRangeVirtualThreads(final Classicmodels classicmodels, final Transaction transaction) throws InterruptedException, IOException, SQLException {
+    final ExecutorService executor = VirtualThreadTest.newVirtualThreadPerTaskExecutor();
+    assumeNotNull(executor);
+
+    final Classicmodels.Purchase p = classicmodels.Purchase$;
+    final TreeSet<Integer> purchaseNumbers = new TreeSet<>();
+    try (
+      final RowIterator<data.INT> rows =
+        SELECT(p.purchaseNumber)
+          .FROM(p)
+          .execute(transaction)
+    ) {
+      while (rows.nextRow())
+        purchaseNumbers.add(rows.nextEntity().get());
+    }
+
+    final int min = purchaseNumbers.first();
+    final int span = purchaseNumbers.last() - min + 1;
+    final int threads = 512;
+    final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+    final CountDownLatch done = new CountDownLatch(threads);
+    try {
+      // More threads than carrier threads block on the range lock of the same map, while one of them SELECTs the range
+      for (int i = 0; i < threads; ++i) { // [N]
+        final int from = min + (i * 7) % span;
+        final int to = from + 1 + i % 20;
+        executor.execute(() -> {
+          try {
+            final SortedMap<data.Key,Classicmodels.Purchase> sub = classicmodels.Purchase$.purchaseNumber_TO_Purchase_SELECT(from, to);
+            assertEquals(purchaseNumbers.subSet(from, to).size(), sub.size());
+            for (final Classicmodels.Purchase purchase : sub.values()) { // [C]
+              final int purchaseNumber = purchase.purchaseNumber.getAsInt();
+              assertTrue(from <= purchaseNumber && purchaseNumber < to);
+            }
+          }
+          catch (final Throwable t) {
+            errors.add(t);
+          }
+          finally {
+            done.countDown();
+          }
+        });
+      }
+
+      assertTrue(done.await(1, TimeUnit.MINUTES));
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    if (errors.size() > 0)
+      throw new AssertionError(errors.size() + " errors", errors.peek());
+  }
+
   @AfterClass
   public static void recreateSchema(final Classicmodels classicmodels, final Transaction transaction) throws GeneratorExecutionException, IOException, SAXException, SQLException, TransformerException {
     DDLxTest.recreateSchema(transaction.getConnection(), classicmodels.getName());
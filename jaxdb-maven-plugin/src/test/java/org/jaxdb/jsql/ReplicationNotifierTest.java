@@ -0,0 +1,173 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.jaxdb.jsql.DML.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.transform.TransformerException;
+
+import org.jaxdb.ddlx.DDLxTest;
+import org.jaxdb.ddlx.GeneratorExecutionException;
+import org.jaxdb.jsql.Notification.Action;
+import org.jaxdb.runner.DBTestRunner.Config;
+import org.jaxdb.runner.DBTestRunner.DB;
+import org.jaxdb.runner.DBTestRunner.TestSpec;
+import org.jaxdb.runner.PostgreSQL;
+import org.jaxdb.runner.SchemaTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xml.sax.SAXException;
+
+/**
+ * Tests {@link PostgreSQLReplicationNotifier} against a local PostgreSQL instance, which must be configured with
+ * {@code wal_level = logical}, and must have the {@code wal2json} plugin installed. The tests are skipped otherwise.
+ */
+@RunWith(SchemaTestRunner.class)
+@Config(sync = true, deferLog = false, failFast = true)
+public abstract class ReplicationNotifierTest {
+  @DB(PostgreSQL.class)
+  public static class RegressionTest extends ReplicationNotifierTest {
+  }
+
+  private static final String slotName = "jaxdb_replication_test";
+  private static final LinkedBlockingQueue<Integer> inserts = new LinkedBlockingQueue<>();
+  private static final Notification.InsertListener<Caching.One> listener = (final String sessionId, final long timestamp, final Caching.One row) -> {
+    // The session id of a change is not available from the WAL
+    assertNull(sessionId);
+    inserts.add(row.id.getAsInt());
+    return row;
+  };
+
+  private static PostgreSQLReplicationNotifier notifier;
+
+  private static void insert(final Caching caching, final int id) throws IOException, SQLException {
+    final Caching.One o = caching.new One(id);
+    o.idu.set(id);
+    o.idx1.set(id);
+    o.idx2.set(id);
+    INSERT(o).execute(caching.getConnector());
+  }
+
+  private static void assertInserted(final int id) throws InterruptedException {
+    final Integer inserted = inserts.poll(10, TimeUnit.SECONDS);
+    assertNotNull("Expected insert of " + id, inserted);
+    assertEquals(id, inserted.intValue());
+  }
+
+  private static PostgreSQLReplicationNotifier start(final Caching caching) throws IOException, SQLException {
+    final Connector connector = caching.getConnector();
+    final PostgreSQLReplicationNotifier notifier = new PostgreSQLReplicationNotifier(connector.getConnection(), connector, null, null, 0, null, slotName);
+    assertTrue(notifier.addNotificationListener(Action.INSERT, null, null, listener, new ConcurrentLinkedQueue<>(), caching.One$));
+    return notifier;
+  }
+
+  private static void stop(final Caching caching) throws IOException, SQLException {
+    try {
+      assertTrue(notifier.removeNotificationListeners(Action.INSERT, null, null, new data.Table[] {caching.One$}));
+    }
+    finally {
+      notifier.close();
+      notifier = null;
+    }
+  }
+
+  @Test
+  @TestSpec(order = 0)
+  public void setUp(final Caching caching) throws GeneratorExecutionException, IOException, SAXException, SQLException, TransformerException {
+    try (final Connection connection = caching.getConnector().getConnection()) {
+      DDLxTest.recreateSchema(connection, "caching");
+      try (
+        final Statement statement = connection.createStatement();
+        final ResultSet resultSet = statement.executeQuery("SHOW wal_level");
+      ) {
+        assumeTrue(resultSet.next() && "logical".equals(resultSet.getString(1)));
+      }
+
+      PostgreSQLReplicationNotifier.dropReplicationSlot(connection, slotName);
+    }
+
+    notifier = start(caching);
+  }
+
+  @Test
+  @TestSpec(order = 1)
+  public void testDispatch(final Caching caching) throws InterruptedException, IOException, SQLException {
+    // The setUp is skipped if the DB is not configured for logical replication
+    assumeNotNull(notifier);
+    for (int i = 0; i < 3; ++i) // [N]
+      insert(caching, i);
+
+    for (int i = 0; i < 3; ++i) // [N]
+      assertInserted(i);
+
+    // The slot is advanced past each transaction whose changes have been dispatched
+    final long deadline = System.currentTimeMillis() + 10000;
+    while (notifier.getConfirmedLsn() == null && System.currentTimeMillis() < deadline)
+      Thread.sleep(100);
+
+    assertNotNull(notifier.getConfirmedLsn());
+  }
+
+  @Test
+  @TestSpec(order = 2)
+  public void testResume(final Caching caching) throws InterruptedException, IOException, SQLException {
+    // The setUp is skipped if the DB is not configured for logical replication
+    assumeNotNull(notifier);
+    stop(caching);
+
+    // The changes that are committed while disconnected are retained by the slot, and are dispatched upon reconnect
+    insert(caching, 3);
+    insert(caching, 4);
+    assertNull(inserts.poll(500, TimeUnit.MILLISECONDS));
+
+    notifier = start(caching);
+    assertInserted(3);
+    assertInserted(4);
+
+    // The changes that were confirmed before the disconnect are not dispatched again
+    assertNull(inserts.poll(500, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  @TestSpec(order = 3)
+  public void testDropReplicationSlot(final Caching caching) throws IOException, SQLException {
+    assumeNotNull(notifier);
+    stop(caching);
+
+    try (final Connection connection = caching.getConnector().getConnection()) {
+      assertTrue(PostgreSQLReplicationNotifier.dropReplicationSlot(connection, slotName));
+      assertFalse(PostgreSQLReplicationNotifier.dropReplicationSlot(connection, slotName));
+      try {
+        PostgreSQLReplicationNotifier.dropReplicationSlot(connection, null);
+        fail("Expected IllegalArgumentException");
+      }
+      catch (final IllegalArgumentException e) {
+      }
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.jaxdb.jsql.DML.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+import org.jaxdb.runner.DBTestRunner.DB;
+import org.jaxdb.runner.Derby;
+import org.jaxdb.runner.MySQL;
+import org.jaxdb.runner.Oracle;
+import org.jaxdb.runner.PostgreSQL;
+import org.jaxdb.runner.SQLite;
+import org.jaxdb.runner.SchemaTestRunner;
+import org.jaxdb.vendor.DbVendor;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(SchemaTestRunner.class)
+public abstract class SelectShapeTest {
+  @DB(Derby.class)
+  @DB(SQLite.class)
+  public static class IntegrationTest extends SelectShapeTest {
+  }
+
+  @DB(MySQL.class)
+  @DB(PostgreSQL.class)
+  @DB(Oracle.class)
+  public static class RegressionTest extends SelectShapeTest {
+  }
+
+  private static final SelectShape byCustomerNumber = new SelectShape();
+  private static final SelectShape byCompanyNameAndCustomerNumber = new SelectShape();
+
+  private static ArrayList<Classicmodels.Customer> selectCustomers(final Classicmodels classicmodels, final Transaction transaction) throws IOException, SQLException {
+    final Classicmodels.Customer c = classicmodels.Customer$;
+    final ArrayList<Classicmodels.Customer> customers = new ArrayList<>();
+    try (
+      final RowIterator<Classicmodels.Customer> rows =
+        SELECT(c)
+          .FROM(c)
+          .ORDER_BY(c.customerNumber)
+          .LIMIT(10)
+          .execute(transaction)
+    ) {
+      while (rows.nextRow())
+        customers.add(rows.nextEntity());
+    }
+
+    assertEquals(10, customers.size());
+    return customers;
+  }
+
+  /**
+   * Asserts that the plan of the provided {@link SelectShape} has the SQL of a full compilation of the provided (equivalent, but
+   * unshaped) SELECT, and that it binds the provided {@code bindings} to the parameters of that compilation.
+   */
+  private static void assertPlan(final SelectShape shape, final statement.Query<?> select, final Transaction transaction, final data.Column<?> ... bindings) throws IOException, SQLException {
+    final DbVendor vendor = transaction.getVendor();
+    final boolean isPrepared = transaction.isPrepared();
+    final SelectShape.Plan plan = shape.get(vendor, isPrepared);
+    assertNotNull(plan);
+    try (final Compilation compilation = new Compilation((Command.Select.untyped.SELECT<?>)select, vendor, isPrepared)) {
+      ((Command.Select.untyped.SELECT<?>)select).compile(compilation, false);
+      assertEquals(compilation.toString(), plan.sql);
+
+      final ArrayList<data.Column<?>> expected = compilation.getParameters();
+      final ArrayList<data.Column<?>> actual = plan.bind(bindings);
+      if (expected == null || expected.size() == 0) {
+        assertNull(actual);
+      }
+      else {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0, i$ = expected.size(); i < i$; ++i) // [RA]
+          assertSame(expected.get(i), actual.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testShape(final Classicmodels classicmodels, final Transaction transaction) throws IOException, SQLException {
+    for (final Classicmodels.Customer expected : selectCustomers(classicmodels, transaction)) { // [L]
+      final Classicmodels.Customer c = classicmodels.Customer$;
+      final data.SMALLINT customerNumber = new data.SMALLINT(expected.customerNumber.getAsShort());
+      try (
+        final RowIterator<Classicmodels.Customer> rows =
+          SELECT(c)
+            .FROM(c)
+            .WHERE(EQ(c.customerNumber, customerNumber))
+            .shape(byCustomerNumber, customerNumber)
+            .execute(transaction)
+      ) {
+        assertTrue(rows.nextRow());
+        final Classicmodels.Customer actual = rows.nextEntity();
+        assertEquals(expected.customerNumber.getAsShort(), actual.customerNumber.getAsShort());
+        assertEquals(expected.companyName.get(), actual.companyName.get());
+        assertFalse(rows.nextRow());
+      }
+
+      assertPlan(byCustomerNumber, SELECT(c).FROM(c).WHERE(EQ(c.customerNumber, customerNumber)), transaction, customerNumber);
+    }
+  }
+
+  @Test
+  public void testShapeMultipleBindings(final Classicmodels classicmodels, final Transaction transaction) throws IOException, SQLException {
+    for (final Classicmodels.Customer expected : selectCustomers(classicmodels, transaction)) { // [L]
+      final Classicmodels.Customer c = classicmodels.Customer$;
+      final data.SMALLINT customerNumber = new data.SMALLINT(expected.customerNumber.getAsShort());
+      final data.CHAR companyName = new data.CHAR(expected.companyName.get());
+      try (
+        final RowIterator<data.SMALLINT> rows =
+          SELECT(c.customerNumber)
+            .FROM(c)
+            .WHERE(AND(EQ(c.companyName, companyName), EQ(c.customerNumber, customerNumber)))
+            .shape(byCompanyNameAndCustomerNumber, companyName, customerNumber)
+            .execute(transaction)
+      ) {
+        assertTrue(rows.nextRow());
+        assertEquals(expected.customerNumber.getAsShort(), rows.nextEntity().getAsShort());
+        assertFalse(rows.nextRow());
+      }
+
+      assertPlan(byCompanyNameAndCustomerNumber, SELECT(c.customerNumber).FROM(c).WHERE(AND(EQ(c.companyName, companyName), EQ(c.customerNumber, customerNumber))), transaction, companyName, customerNumber);
+    }
+  }
+
+  @Test
+  public void testShapeMismatch(final Classicmodels classicmodels, final Transaction transaction) throws IOException, SQLException {
+    final SelectShape shape = new SelectShape();
+    final Classicmodels.Customer c = classicmodels.Customer$;
+    final data.SMALLINT customerNumber = new data.SMALLINT(selectCustomers(classicmodels, transaction).get(0).customerNumber.getAsShort());
+    try (final RowIterator<Classicmodels.Customer> rows = SELECT(c).FROM(c).WHERE(EQ(c.customerNumber, customerNumber)).shape(shape, customerNumber).execute(transaction)) {
+      assertTrue(rows.nextRow());
+    }
+
+    // A SELECT with a different condition must not be executed with the SQL of the plan
+    try {
+      SELECT(c).FROM(c).WHERE(GT(c.customerNumber, customerNumber)).shape(shape, customerNumber).execute(transaction).close();
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+    }
+
+    // Nor a SELECT with a different projection
+    try {
+      SELECT(c.companyName).FROM(c).WHERE(EQ(c.customerNumber, customerNumber)).shape(shape, customerNumber).execute(transaction).close();
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+    }
+  }
+}
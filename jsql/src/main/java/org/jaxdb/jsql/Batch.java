@@ -25,8 +25,12 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import org.jaxdb.jsql.Callbacks.OnNotifyCallbackList;
 import org.jaxdb.vendor.DbVendor;
@@ -43,6 +47,9 @@ public class Batch implements statement.NotifiableModification.Delete, statement
 
   private final int initialCapacity;
   private ArrayList<Command.Modification<?,?,?>> commands;
+  private boolean isReordering;
+  private boolean isMultiRowInsert;
+  private int maxBatchSize = Integer.MAX_VALUE;
 
   public Batch(final statement.Modification ... statements) {
     this(statements.length);
@@ -111,6 +118,48 @@ public class Batch implements statement.NotifiableModification.Delete, statement
       commands.clear();
   }
 
+  /**
+   * Enables the reordering of the commands of this {@link Batch} upon prepared statement batch execution, so that commands that
+   * compile to the same SQL are executed as one JDBC batch, even if they were not added consecutively. A command is not moved past a
+   * command on the same table, or on a table that references (or is referenced by) its table via a foreign key, and commands with
+   * {@code onNotify} callbacks are not reordered.
+   *
+   * @return {@code this} {@link Batch}.
+   */
+  public Batch withReordering() {
+    this.isReordering = true;
+    return this;
+  }
+
+  /**
+   * Enables the rewriting of consecutive {@code INSERT}s of the same SQL into multi-row {@code INSERT ... VALUES (...), (...)}
+   * statements upon prepared statement batch execution, for vendors that support them. The number of rows of each statement is
+   * limited by the maximum number of parameters of a prepared statement of the vendor. {@code INSERT}s with {@code ON CONFLICT} or
+   * {@code onNotify} callbacks, or of a {@code SELECT}, are not rewritten.
+   *
+   * @return {@code this} {@link Batch}.
+   */
+  public Batch withMultiRowInserts() {
+    this.isMultiRowInsert = true;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of commands that are executed in one JDBC batch. Commands in excess of this number are executed in
+   * subsequent JDBC batches.
+   *
+   * @param maxBatchSize The maximum number of commands that are executed in one JDBC batch.
+   * @return {@code this} {@link Batch}.
+   * @throws IllegalArgumentException If {@code maxBatchSize} is not greater than 0.
+   */
+  public Batch withMaxBatchSize(final int maxBatchSize) {
+    if (maxBatchSize <= 0)
+      throw new IllegalArgumentException("maxBatchSize (" + maxBatchSize + ") must be greater than 0");
+
+    this.maxBatchSize = maxBatchSize;
+    return this;
+  }
+
   private static int aggregate(final Compiler compiler, final OnNotifyCallbackList onNotifyCallbackList, final int[] counts, final Statement statement, final Command.Insert<?>[] generatedKeys, final int index, int total) throws SQLException {
     if (total != Statement.EXECUTE_FAILED) {
       boolean hasInfo = total != Statement.SUCCESS_NO_INFO;
@@ -155,7 +204,7 @@ public class Batch implements statement.NotifiableModification.Delete, statement
     return total;
   }
 
-  private void onExecute(final int start, final int end, final int[] counts) {
+  private static void onExecute(final ArrayList<Command.Modification<?,?,?>> commands, final int start, final int end, final int[] counts) {
     for (int i = start; i < end; ++i) { // [RA]
       final Command.Modification<?,?,?> command = commands.get(i);
       if (command.callbacks != null)
@@ -163,7 +212,7 @@ public class Batch implements statement.NotifiableModification.Delete, statement
     }
   }
 
-  private void onCommit(final Transaction transaction, final int start, final int end, final int[] counts) {
+  private static void onCommit(final ArrayList<Command.Modification<?,?,?>> commands, final Transaction transaction, final int start, final int end, final int[] counts) {
     for (int i = start; i < end; ++i) { // [RA]
       final Command.Modification<?,?,?> command = commands.get(i);
       if (transaction != null) {
@@ -177,6 +226,117 @@ public class Batch implements statement.NotifiableModification.Delete, statement
     }
   }
 
+  private static void bind(final Compiler compiler, final PreparedStatement statement, final Compilation[] compilations, final int start, final int end) throws IOException, SQLException {
+    int parameterIndex = 0;
+    for (int i = start; i < end; ++i) { // [A]
+      final ArrayList<data.Column<?>> parameters = compilations[i].getParameters();
+      if (parameters != null)
+        for (int p = 0, p$ = parameters.size(); p < p$; ++p) // [RA]
+          parameters.get(p).write(compiler, statement, false, ++parameterIndex);
+    }
+  }
+
+  private static void setCounts(final int[] counts, final int start, final int rows, final int count) {
+    Arrays.fill(counts, start, start + rows, count == rows ? 1 : count < 0 ? count : Statement.SUCCESS_NO_INFO);
+  }
+
+  private static void readGeneratedKeys(final Compiler compiler, final Statement statement, final Command.Insert<?>[] generatedKeys, final int start, final int end) throws SQLException {
+    try (final ResultSet resultSet = statement.getGeneratedKeys()) {
+      for (int i = start; i < end; ++i) { // [A]
+        final Command.Insert<?> insert = generatedKeys[i];
+        if (insert != null && resultSet.next()) {
+          final data.Column<?>[] autos = insert.autos;
+          for (int j = 0, j$ = autos.length; j < j$;) // [A]
+            autos[j].read(compiler, resultSet, ++j);
+        }
+
+        generatedKeys[i] = null;
+      }
+    }
+  }
+
+  /**
+   * Executes the provided run of {@code INSERT}s of the same SQL as multi-row {@code INSERT}s of at most
+   * {@link Compiler#getMaxInsertParameters()} parameters each. The statements of the maximum number of rows are executed as one JDBC
+   * batch, and the remaining rows as one statement. The generated keys are read into the {@code autos} of the {@code INSERT}s
+   * directly, after which their entries in {@code generatedKeys} are cleared.
+   *
+   * @return The update counts of the {@code INSERT}s, which are {@code 1} for each row of a statement whose update count equals its
+   *         number of rows.
+   */
+  private static int[] executeMultiRow(final Compiler compiler, final Connection connection, final String sql, final Compilation[] compilations, final Command.Insert<?>[] generatedKeys, final int start, final int end) throws IOException, SQLException {
+    final int noRows = end - start;
+    final ArrayList<data.Column<?>> parameters = compilations[start].getParameters();
+    final int noParameters = parameters == null ? 0 : parameters.size();
+    final int maxRows = noParameters == 0 ? noRows : Math.max(1, Math.min(noRows, compiler.getMaxInsertParameters() / noParameters));
+    boolean returnGeneratedKeys = false;
+    for (int i = start; i < end && !returnGeneratedKeys; ++i) // [A]
+      returnGeneratedKeys = generatedKeys[i] != null;
+
+    final int[] counts = new int[noRows];
+    final int noBatched = noRows - noRows % maxRows;
+    if (noBatched > 0) {
+      final String multiSql = compiler.compileMultiRowInsert(sql, maxRows);
+      try (final PreparedStatement statement = returnGeneratedKeys ? connection.prepareStatement(multiSql, Statement.RETURN_GENERATED_KEYS) : connection.prepareStatement(multiSql)) {
+        for (int i = start, i$ = start + noBatched; i < i$; i += maxRows) { // [A]
+          bind(compiler, statement, compilations, i, i + maxRows);
+          statement.addBatch();
+        }
+
+        final int[] batchCounts = statement.executeBatch();
+        for (int i = 0, i$ = batchCounts.length; i < i$; ++i) // [A]
+          setCounts(counts, i * maxRows, maxRows, batchCounts[i]);
+
+        if (returnGeneratedKeys)
+          readGeneratedKeys(compiler, statement, generatedKeys, start, start + noBatched);
+      }
+    }
+
+    if (noBatched < noRows) {
+      final int rows = noRows - noBatched;
+      final String multiSql = compiler.compileMultiRowInsert(sql, rows);
+      try (final PreparedStatement statement = returnGeneratedKeys ? connection.prepareStatement(multiSql, Statement.RETURN_GENERATED_KEYS) : connection.prepareStatement(multiSql)) {
+        bind(compiler, statement, compilations, start + noBatched, end);
+        setCounts(counts, noBatched, rows, statement.executeUpdate());
+        if (returnGeneratedKeys)
+          readGeneratedKeys(compiler, statement, generatedKeys, start + noBatched, end);
+      }
+    }
+
+    return counts;
+  }
+
+  private static Statement setSessionId(final Compiler compiler, final Connection connection, final Statement sessionStatement, final String sessionId) throws SQLException {
+    final Statement statement = sessionStatement != null ? sessionStatement : connection.createStatement();
+    compiler.setSessionId(statement, sessionId);
+    return statement;
+  }
+
+  // Removes the update counts of the statements that set the session ID in-band from the provided update counts
+  private static int[] stripInBand(final int[] counts, final BitSet inBand) {
+    if (inBand.isEmpty())
+      return counts;
+
+    final int[] stripped = new int[Math.max(0, counts.length - inBand.cardinality())];
+    for (int i = 0, j = 0, i$ = counts.length; i < i$ && j < stripped.length; ++i) // [A]
+      if (!inBand.get(i))
+        stripped[j++] = counts[i];
+
+    inBand.clear();
+    return stripped;
+  }
+
+  private static void setNotifyCounts(final ArrayList<Command.Modification<?,?,?>> commands, final int start, final int end, final int[] counts) {
+    for (int i = start; i < end; ++i) { // [RA]
+      final Command.Modification<?,?,?> command = commands.get(i);
+      if (command.sessionId != null && command.callbacks != null && command.callbacks.onNotifys != null) {
+        final OnNotifyCallbackList onNotifyCallbackList = command.callbacks.onNotifys.get(command.sessionId);
+        if (onNotifyCallbackList != null && counts[i - start] >= 0)
+          onNotifyCallbackList.setCount(counts[i - start]);
+      }
+    }
+  }
+
   private static void afterExecute(final Compilation[] compilations, final int start, final int end) {
     for (int i = start; i < end; ++i) { // [A]
       try (final Compilation compilation = compilations[i]) {
@@ -189,6 +349,7 @@ public class Batch implements statement.NotifiableModification.Delete, statement
 
   @SuppressWarnings({"null", "resource"})
   private NotifiableBatchResult execute(final Transaction transaction, Connector connector, Connection connection, boolean isPrepared, final Transaction.Isolation isolation) throws IOException, SQLException {
+    ArrayList<Command.Modification<?,?,?>> commands = this.commands;
     final int noCommands;
     if (commands == null || (noCommands = commands.size()) == 0)
       return null;
@@ -221,14 +382,24 @@ public class Batch implements statement.NotifiableModification.Delete, statement
       int total = 0;
       int index = 0;
 
+      boolean isMultiRow = false;
       ArrayList<OnNotifyCallbackList> onNotifyCallbackLists = null;
       Compilation compilation = null;
       String sessionId;
       String sessionIdPrev = null;
       OnNotifyCallbackList onNotifyCallbackListPrev = null;
       OnNotifyCallbackList onNotifyCallbackList = null;
-      final DbVendor vendor = DbVendor.valueOf(connection.getMetaData());
+      final DbVendor vendor = Connector.getVendor(transaction, connector, connection);
       final Compiler compiler = Compiler.getCompiler(vendor);
+
+      // The session ID is set on the connection only when it differs from the session ID that was last set (or, for a Statement
+      // batch, queued in-band), and is reset once at the end of the batch, instead of around each flush.
+      final boolean isSessionAware = compiler.compileSessionId(null) != null;
+      String sessionIdSet = null;
+      boolean isSessionIdSet = false;
+      Statement sessionStatement = null;
+      final BitSet inBand = new BitSet();
+      int batchSize = 0;
       if (isPrepared && !compiler.supportsPreparedBatch()) {
         if (logger.isWarnEnabled()) { logger.warn(vendor + " does not support prepared statement batch execution"); }
         isPrepared = false;
@@ -238,6 +409,23 @@ public class Batch implements statement.NotifiableModification.Delete, statement
         statement = connection.createStatement();
 
       try {
+        if (isPrepared && isReordering && noCommands > 1) {
+          for (int i = 0; i < noCommands; ++i) { // [RA]
+            final Command.Modification<?,?,?> command = commands.get(i);
+            command.compile(compilations[i] = new Compilation(command, vendor, compiler, isPrepared), false);
+          }
+
+          final int[] order = new BatchPlanner(connection, maxBatchSize).plan(commands, compilations);
+          final ArrayList<Command.Modification<?,?,?>> reordered = new ArrayList<>(noCommands);
+          final Compilation[] compiled = compilations.clone();
+          for (int i = 0; i < noCommands; ++i) { // [A]
+            reordered.add(commands.get(order[i]));
+            compilations[i] = compiled[order[i]];
+          }
+
+          commands = reordered;
+        }
+
         int listenerIndex = 0;
         for (int statementIndex = 0; statementIndex < noCommands; ++statementIndex, sqlPrev = sql, sessionIdPrev = sessionId, onNotifyCallbackListPrev = onNotifyCallbackList) { // [RA]
           final Command.Modification<?,?,?> command = commands.get(statementIndex);
@@ -281,63 +469,69 @@ public class Batch implements statement.NotifiableModification.Delete, statement
             onNotifyCallbackList = null;
           }
 
-          compilation = compilations[statementIndex] = new Compilation(command, vendor, compiler, isPrepared);
-          command.compile(compilation, false);
+          compilation = compilations[statementIndex];
+          if (compilation == null) {
+            compilation = compilations[statementIndex] = new Compilation(command, vendor, compiler, isPrepared);
+            command.compile(compilation, false);
+          }
 
           sql = compilation.toString();
 
           if (isPrepared) {
-            if (sessionIdPrev != null || !sql.equals(sqlPrev)) {
-              if (preparedStatement != null) {
+            // A command with a session ID is executed in a JDBC batch of its own, so that its session ID applies to it alone
+            if (sessionIdPrev != null || sessionId != null || !sql.equals(sqlPrev) || statementIndex - listenerIndex == maxBatchSize) {
+              if (preparedStatement != null || isMultiRow) {
                 try {
-                  Statement sessionStatement = null;
-                  if (sessionIdPrev != null)
-                    compiler.setSessionId(sessionStatement = connection.createStatement(), sessionIdPrev);
+                  if (isSessionAware && !Objects.equals(sessionIdSet, sessionIdPrev)) {
+                    sessionStatement = setSessionId(compiler, connection, sessionStatement, sessionIdSet = sessionIdPrev);
+                    isSessionIdSet = sessionIdSet != null;
+                  }
 
-                  final int[] counts = preparedStatement.executeBatch();
+                  final int[] counts = isMultiRow ? executeMultiRow(compiler, connection, sqlPrev, compilations, insertsWithGeneratedKeys, listenerIndex, statementIndex) : preparedStatement.executeBatch();
                   total = aggregate(compiler, onNotifyCallbackListPrev, counts, preparedStatement, insertsWithGeneratedKeys, index, total);
 
-                  if (sessionIdPrev != null)
-                    compiler.setSessionId(sessionStatement, null);
-
                   index += counts.length;
                   afterExecute(compilations, listenerIndex, statementIndex);
-                  onExecute(listenerIndex, statementIndex, counts);
-                  onCommit(transaction, listenerIndex, statementIndex, counts);
+                  onExecute(commands, listenerIndex, statementIndex, counts);
+                  onCommit(commands, transaction, listenerIndex, statementIndex, counts);
                   listenerIndex = statementIndex;
                 }
                 finally {
-                  suppressed = Throwables.addSuppressed(suppressed, AuditStatement.close(preparedStatement));
+                  if (preparedStatement != null)
+                    suppressed = Throwables.addSuppressed(suppressed, AuditStatement.close(preparedStatement));
                 }
               }
 
-              preparedStatement = returnGeneratedKeys ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) : connection.prepareStatement(sql);
+              // The parameters of a multi-row INSERT are bound upon its execution, from the Compilations of its rows
+              isMultiRow = isMultiRowInsert && sessionId == null && compiler.getMaxInsertParameters() > 0 && command instanceof Command.Insert && ((Command.Insert<?>)command).isValues() && compiler.compileMultiRowInsert(sql, 1) != null;
+              preparedStatement = isMultiRow ? null : returnGeneratedKeys ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) : connection.prepareStatement(sql);
             }
 
-            final ArrayList<data.Column<?>> parameters = compilation.getParameters();
-            if (parameters != null) {
-              final int updateWhereIndex = compilation.getUpdateWhereIndex();
-              for (int p = 0, p$ = parameters.size(); p < p$;) // [RA]
-                parameters.get(p).write(compiler, preparedStatement, p >= updateWhereIndex, ++p);
+            if (!isMultiRow) {
+              final ArrayList<data.Column<?>> parameters = compilation.getParameters();
+              if (parameters != null) {
+                final int updateWhereIndex = compilation.getUpdateWhereIndex();
+                for (int p = 0, p$ = parameters.size(); p < p$;) // [RA]
+                  parameters.get(p).write(compiler, preparedStatement, p >= updateWhereIndex, ++p);
+              }
+
+              preparedStatement.addBatch();
             }
 
             command.close();
-            preparedStatement.addBatch();
           }
           else {
-            if (sessionIdPrev != null) {
+            if (statementIndex - listenerIndex == maxBatchSize) {
               try {
-                compiler.setSessionId(statement, sessionIdPrev);
-
-                final int[] counts = statement.executeBatch();
-                total = aggregate(compiler, onNotifyCallbackListPrev, counts, statement, insertsWithGeneratedKeys, index, total);
-
-                compiler.setSessionId(statement, null);
+                final int[] counts = stripInBand(statement.executeBatch(), inBand);
+                isSessionIdSet = sessionIdSet != null;
+                total = aggregate(compiler, null, counts, statement, insertsWithGeneratedKeys, index, total);
+                setNotifyCounts(commands, listenerIndex, statementIndex, counts);
 
                 index += counts.length;
                 afterExecute(compilations, listenerIndex, statementIndex);
-                onExecute(listenerIndex, statementIndex, counts);
-                onCommit(transaction, listenerIndex, statementIndex, counts);
+                onExecute(commands, listenerIndex, statementIndex, counts);
+                onCommit(commands, transaction, listenerIndex, statementIndex, counts);
                 listenerIndex = statementIndex;
               }
               finally {
@@ -345,34 +539,56 @@ public class Batch implements statement.NotifiableModification.Delete, statement
               }
 
               statement = connection.createStatement();
+              batchSize = 0;
             }
 
             command.close();
+
+            // The session ID is set in-band, by a statement in the same JDBC batch, so that the commands of different session IDs
+            // are executed in one round trip
+            if (isSessionAware && !Objects.equals(sessionIdSet, sessionId)) {
+              inBand.set(batchSize++);
+              statement.addBatch(compiler.compileSessionId(sessionIdSet = sessionId));
+              if (sessionId != null)
+                isSessionIdSet = true;
+            }
+
             statement.addBatch(sql);
+            ++batchSize;
           }
         }
 
-        Statement sessionStatement = null;
+        final int[] counts;
         if (isPrepared) {
-          if (sessionIdPrev != null)
-            compiler.setSessionId(sessionStatement = connection.createStatement(), sessionIdPrev);
+          if (isSessionAware && !Objects.equals(sessionIdSet, sessionIdPrev)) {
+            sessionStatement = setSessionId(compiler, connection, sessionStatement, sessionIdSet = sessionIdPrev);
+            isSessionIdSet = sessionIdSet != null;
+          }
 
           statement = preparedStatement;
+          counts = isMultiRow ? executeMultiRow(compiler, connection, sqlPrev, compilations, insertsWithGeneratedKeys, listenerIndex, noCommands) : statement.executeBatch();
+          total = aggregate(compiler, onNotifyCallbackListPrev, counts, statement, insertsWithGeneratedKeys, index, total);
+          if (sessionIdSet != null) {
+            compiler.setSessionId(sessionStatement, sessionIdSet = null);
+            isSessionIdSet = false;
+          }
         }
-        else if (sessionIdPrev != null) {
-          compiler.setSessionId(sessionStatement = statement, sessionIdPrev);
-        }
-
-        final int[] counts = statement.executeBatch();
-        total = aggregate(compiler, onNotifyCallbackListPrev, counts, statement, insertsWithGeneratedKeys, index, total);
+        else {
+          if (sessionIdSet != null) {
+            inBand.set(batchSize++);
+            statement.addBatch(compiler.compileSessionId(sessionIdSet = null));
+          }
 
-        if (sessionIdPrev != null)
-          compiler.setSessionId(sessionStatement, null);
+          counts = stripInBand(statement.executeBatch(), inBand);
+          isSessionIdSet = false;
+          total = aggregate(compiler, null, counts, statement, insertsWithGeneratedKeys, index, total);
+          setNotifyCounts(commands, listenerIndex, noCommands, counts);
+        }
 
         index += counts.length;
         afterExecute(compilations, listenerIndex, noCommands);
-        onExecute(listenerIndex, noCommands, counts);
-        onCommit(transaction, listenerIndex, noCommands, counts);
+        onExecute(commands, listenerIndex, noCommands, counts);
+        onCommit(commands, transaction, listenerIndex, noCommands, counts);
 
         if (transaction != null)
           transaction.incUpdateCount(total);
@@ -380,6 +596,20 @@ public class Batch implements statement.NotifiableModification.Delete, statement
         return new NotifiableBatchResult(total, onNotifyCallbackLists);
       }
       finally {
+        // If the batch failed, the session ID is reset, unless the connection is in a transaction, whose rollback reverts it
+        if (isSessionIdSet) {
+          try {
+            if (connection.getAutoCommit())
+              sessionStatement = setSessionId(compiler, connection, sessionStatement, null);
+          }
+          catch (final SQLException se) {
+            if (logger.isWarnEnabled()) { logger.warn("Failed to reset session ID", se); }
+          }
+        }
+
+        if (sessionStatement != null)
+          suppressed = Throwables.addSuppressed(suppressed, AuditStatement.close(sessionStatement));
+
         SQLException e = Throwables.addSuppressed(preparedStatement != null ? AuditStatement.close(preparedStatement) : statement != null ? AuditStatement.close(statement) : null, suppressed);
         if (connector != null)
           e = Throwables.addSuppressed(e, AuditConnection.close(connection));
@@ -425,4 +655,34 @@ public class Batch implements statement.NotifiableModification.Delete, statement
   public NotifiableBatchResult execute() throws IOException, SQLException {
     return execute(null, null, null, false, null);
   }
+
+  // The commands of this Batch must not be modified until the returned CompletableFuture is completed
+  private CompletableFuture<NotifiableBatchResult> executeAsync0(final Connector connector, final Transaction.Isolation isolation) {
+    final ArrayList<Command.Modification<?,?,?>> commands = this.commands;
+    if (commands == null || commands.size() == 0)
+      return CompletableFuture.completedFuture(null);
+
+    final Connector asyncConnector = connector != null ? connector : commands.get(0).getSchema().getConnector();
+    return asyncConnector.submit(() -> execute(null, asyncConnector, null, false, isolation));
+  }
+
+  @Override
+  public final CompletableFuture<NotifiableBatchResult> executeAsync(final Connector connector, final Transaction.Isolation isolation) {
+    return executeAsync0(assertNotNull(connector), isolation);
+  }
+
+  @Override
+  public final CompletableFuture<NotifiableBatchResult> executeAsync(final Connector connector) {
+    return executeAsync0(assertNotNull(connector), null);
+  }
+
+  @Override
+  public final CompletableFuture<NotifiableBatchResult> executeAsync(final Transaction.Isolation isolation) {
+    return executeAsync0(null, isolation);
+  }
+
+  @Override
+  public CompletableFuture<NotifiableBatchResult> executeAsync() {
+    return executeAsync0(null, null);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,184 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plans the order of execution of the commands of a {@link Batch} with {@link Batch#withReordering()}, so that commands that compile
+ * to the same SQL are executed as one JDBC batch, even if they were not added consecutively. A command is moved back to the group of
+ * the last preceding command of the same SQL only if it does not pass a command that it may depend on, or that may depend on it:
+ * <ul>
+ * <li>A command on the same table, so that the commands of each table retain their relative order.</li>
+ * <li>A command on a table that references, or is referenced by, the table of the command via a foreign key, as reported by
+ * {@link DatabaseMetaData#getImportedKeys(String,String,String)}.</li>
+ * <li>A command with a session id, or an {@code INSERT ... SELECT}, which are never reordered.</li>
+ * <li>A command on a table that is not found by {@link DatabaseMetaData#getTables(String,String,String,String[])}, whose foreign keys
+ * are therefore unknown, and which is never reordered.</li>
+ * </ul>
+ * Each group is limited to the max batch size of the {@link Batch}, after which a new group is started.
+ */
+final class BatchPlanner {
+  // The names (in upper case) of the tables referenced by each table, by URL, catalog, schema and table name
+  private static final ConcurrentHashMap<String,HashSet<String>> urlToReferences = new ConcurrentHashMap<>();
+
+  private static final class Group {
+    private final String sql;
+    private final String table;
+    private final boolean isBarrier;
+    private final ArrayList<Integer> indices = new ArrayList<>();
+
+    private Group(final String sql, final String table, final boolean isBarrier) {
+      this.sql = sql;
+      this.table = table;
+      this.isBarrier = isBarrier;
+    }
+  }
+
+  private final DatabaseMetaData metaData;
+  private final String catalog;
+  private final String schema;
+  private final String keyPrefix;
+  private final int maxBatchSize;
+
+  /**
+   * Creates a new {@link BatchPlanner}.
+   *
+   * @param connection The {@link Connection} from which the foreign keys of the tables are read.
+   * @param maxBatchSize The maximum number of commands in a group.
+   * @throws SQLException If a SQL error has occurred.
+   */
+  BatchPlanner(final Connection connection, final int maxBatchSize) throws SQLException {
+    this.metaData = connection.getMetaData();
+    this.catalog = connection.getCatalog();
+    this.schema = connection.getSchema();
+    this.keyPrefix = metaData.getURL() + "#" + catalog + "#" + schema + "#";
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Returns the names (in upper case) of the tables referenced by the foreign keys of the provided table, or {@code null} if the
+   * table is not found by {@link DatabaseMetaData#getTables(String,String,String,String[])}.
+   */
+  private HashSet<String> getReferences(final String table) throws SQLException {
+    final String key = keyPrefix + table;
+    HashSet<String> references = urlToReferences.get(key);
+    if (references == null) {
+      final String name = resolve(table);
+      if (name == null)
+        return null;
+
+      references = new HashSet<>();
+      try (final ResultSet resultSet = metaData.getImportedKeys(catalog, schema, name)) {
+        while (resultSet.next())
+          references.add(resultSet.getString("PKTABLE_NAME").toUpperCase(Locale.ROOT));
+      }
+
+      urlToReferences.put(key, references);
+    }
+
+    return references;
+  }
+
+  /**
+   * Returns the name of the provided table as it is stored in the database (as is, in upper case, or in lower case), or {@code null}
+   * if the table is not found.
+   */
+  private String resolve(final String table) throws SQLException {
+    if (exists(table))
+      return table;
+
+    final String upperCase = table.toUpperCase(Locale.ROOT);
+    if (!upperCase.equals(table) && exists(upperCase))
+      return upperCase;
+
+    final String lowerCase = table.toLowerCase(Locale.ROOT);
+    if (!lowerCase.equals(table) && exists(lowerCase))
+      return lowerCase;
+
+    return null;
+  }
+
+  private boolean exists(final String table) throws SQLException {
+    try (final ResultSet resultSet = metaData.getTables(catalog, schema, table, null)) {
+      return resultSet.next();
+    }
+  }
+
+  private boolean isDependent(final String a, final String b) throws SQLException {
+    return getReferences(a).contains(b.toUpperCase(Locale.ROOT)) || getReferences(b).contains(a.toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * Returns the order in which the provided commands are to be executed.
+   *
+   * @param commands The commands, in the order in which they were added to the {@link Batch}.
+   * @param compilations The {@link Compilation}s of the commands.
+   * @return The order in which the provided commands are to be executed, as indices into the provided commands.
+   * @throws SQLException If a SQL error has occurred.
+   */
+  int[] plan(final ArrayList<Command.Modification<?,?,?>> commands, final Compilation[] compilations) throws SQLException {
+    final int noCommands = commands.size();
+    final ArrayList<Group> groups = new ArrayList<>();
+    for (int i = 0; i < noCommands; ++i) { // [RA]
+      final Command.Modification<?,?,?> command = commands.get(i);
+      final String sql = compilations[i].toString();
+      final String table = command.getTable().getName();
+      // A table whose foreign keys are unknown is a barrier, because the commands that depend on it cannot be known
+      final boolean isBarrier = command.sessionId != null || command instanceof Command.Insert && ((Command.Insert<?>)command).isSelect() || getReferences(table) == null;
+      Group target = null;
+      if (!isBarrier) {
+        for (int g = groups.size() - 1; g >= 0; --g) { // [RA]
+          final Group group = groups.get(g);
+          if (group.isBarrier)
+            break;
+
+          if (group.table.equals(table)) {
+            if (group.sql.equals(sql) && group.indices.size() < maxBatchSize)
+              target = group;
+
+            break;
+          }
+
+          if (isDependent(group.table, table))
+            break;
+        }
+      }
+
+      if (target == null)
+        groups.add(target = new Group(sql, table, isBarrier));
+
+      target.indices.add(i);
+    }
+
+    final int[] order = new int[noCommands];
+    for (int g = 0, g$ = groups.size(), o = 0; g < g$; ++g) { // [RA]
+      final ArrayList<Integer> indices = groups.get(g).indices;
+      for (int i = 0, i$ = indices.size(); i < i$; ++i) // [RA]
+        order[o++] = indices.get(i);
+    }
+
+    return order;
+  }
+}
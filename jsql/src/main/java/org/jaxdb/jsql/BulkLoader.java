@@ -0,0 +1,392 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.jaxdb.vendor.DbVendor;
+import org.jaxdb.vendor.Dialect;
+import org.libj.sql.exception.SQLExceptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads large numbers of {@link data.Table} entities into the DB.
+ * <p>
+ * On PostgreSQL with the {@code org.postgresql} JDBC driver, consecutive rows of the same table (and of the same inserted columns)
+ * are streamed through one {@code COPY ... FROM STDIN} in text format, with the {@code CopyManager} of the driver. The rows are
+ * encoded as they are read by the driver, so the entities of a load are not held in memory. The {@code COPY} statement does not
+ * return generated keys, and the {@code AUTO_GENERATED} columns of the entities are therefore not set.
+ * <p>
+ * On other vendors, or other drivers, the rows are loaded in {@link Batch}es of at most {@link #FALLBACK_BATCH_SIZE} rows, with
+ * {@link Batch#withMultiRowInserts()}. Each entity is inserted as one row, so the rows of a {@link Batch} are counted as its entities,
+ * because some drivers (such as Oracle's) report {@link java.sql.Statement#SUCCESS_NO_INFO} rather than the update counts of a batch.
+ * Note that the {@code pgjdbc-ng} driver, with which JAX-DB connects to PostgreSQL by default, does not support {@code COPY}, so a
+ * load on PostgreSQL falls back to {@link Batch}es (with a warning) unless the connection is of the {@code org.postgresql} driver.
+ * <p>
+ * The entities of a {@code COPY} are committed as they are encoded, and are not reverted if the {@code COPY} fails. SQLx data is
+ * loaded by way of its entities, as provided by {@link Entities#toEntities(org.jaxdb.www.sqlx_0_6.xLygluGCXAA.$Database,String)}.
+ */
+public final class BulkLoader {
+  private static final Logger logger = LoggerFactory.getLogger(BulkLoader.class);
+
+  /** The maximum number of rows of each {@link Batch} with which rows are loaded if {@code COPY} is not available. */
+  public static final int FALLBACK_BATCH_SIZE = 10000;
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  private static final Method getCopyAPI;
+  private static final Class<?> pgConnectionClass;
+
+  static {
+    Class<?> cls = null;
+    Method method = null;
+    try {
+      cls = Class.forName("org.postgresql.PGConnection");
+      method = cls.getMethod("getCopyAPI");
+    }
+    catch (final ClassNotFoundException | NoSuchMethodException e) {
+      if (logger.isDebugEnabled()) { logger.debug("COPY is not available, because the org.postgresql JDBC driver is not on the class path"); }
+    }
+
+    pgConnectionClass = cls;
+    getCopyAPI = method;
+  }
+
+  /**
+   * Loads the provided rows into the DB of the provided {@link Connection}.
+   *
+   * @param connection The {@link Connection}.
+   * @param rows The rows.
+   * @return The number of rows that were loaded.
+   * @throws IOException If an I/O error has occurred.
+   * @throws SQLException If a SQL error has occurred.
+   * @throws NullPointerException If {@code connection} or {@code rows} is null.
+   */
+  public static long load(final Connection connection, final Iterable<? extends data.Table> rows) throws IOException, SQLException {
+    return load(connection, rows.iterator());
+  }
+
+  /**
+   * Loads the provided rows into the DB of the provided {@link Connection}.
+   *
+   * @param connection The {@link Connection}.
+   * @param rows The rows.
+   * @return The number of rows that were loaded.
+   * @throws IOException If an I/O error has occurred.
+   * @throws SQLException If a SQL error has occurred.
+   * @throws NullPointerException If {@code connection} or {@code rows} is null.
+   */
+  public static long load(final Connection connection, final Iterator<? extends data.Table> rows) throws IOException, SQLException {
+    final DatabaseMetaData metaData = connection.getMetaData();
+    final DbVendor vendor = DbVendor.valueOf(metaData);
+    if (vendor == DbVendor.POSTGRE_SQL) {
+      final Object copyManager = getCopyManager(connection);
+      if (copyManager != null)
+        return new BulkLoader(vendor, rows).copy(copyManager);
+
+      if (logger.isWarnEnabled()) { logger.warn("COPY is not supported by the JDBC driver \"" + metaData.getDriverName() + "\" (only by the org.postgresql driver), loading in batches of " + FALLBACK_BATCH_SIZE + " rows instead"); }
+    }
+    else if (logger.isInfoEnabled()) { logger.info("COPY is not supported by " + vendor + ", loading in batches of " + FALLBACK_BATCH_SIZE + " rows instead"); }
+
+    return batch(connection, rows);
+  }
+
+  /**
+   * Returns the {@code CopyManager} of the provided {@link Connection}, or {@code null} if the {@link Connection} is not of the
+   * {@code org.postgresql} driver.
+   *
+   * @param connection The {@link Connection}.
+   * @return The {@code CopyManager} of the provided {@link Connection}, or {@code null} if the {@link Connection} is not of the
+   *         {@code org.postgresql} driver.
+   * @throws SQLException If a SQL error has occurred.
+   */
+  static Object getCopyManager(final Connection connection) throws SQLException {
+    if (getCopyAPI == null || !connection.isWrapperFor(pgConnectionClass))
+      return null;
+
+    try {
+      return getCopyAPI.invoke(connection.unwrap(pgConnectionClass));
+    }
+    catch (final IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+    catch (final InvocationTargetException e) {
+      throw toSQLException(e);
+    }
+  }
+
+  private static SQLException toSQLException(final InvocationTargetException e) {
+    final Throwable cause = e.getCause();
+    if (cause instanceof SQLException)
+      return SQLExceptions.toStrongType((SQLException)cause);
+
+    if (cause instanceof RuntimeException)
+      throw (RuntimeException)cause;
+
+    if (cause instanceof Error)
+      throw (Error)cause;
+
+    return new SQLException(cause);
+  }
+
+  private static long batch(final Connection connection, final Iterator<? extends data.Table> rows) throws IOException, SQLException {
+    long total = 0;
+    while (rows.hasNext()) {
+      final Batch batch = new Batch(FALLBACK_BATCH_SIZE).withMultiRowInserts();
+      for (int i = 0; i < FALLBACK_BATCH_SIZE && rows.hasNext(); ++i) // [I]
+        batch.addStatement(DML.INSERT(rows.next()));
+
+      // The count of the Batch is not used, because it is SUCCESS_NO_INFO on drivers that do not report update counts
+      batch.execute(connection, true);
+      total += batch.size();
+    }
+
+    return total;
+  }
+
+  static void escape(final StringBuilder b, final CharSequence value) {
+    for (int i = 0, i$ = value.length(); i < i$; ++i) { // [N]
+      final char ch = value.charAt(i);
+      if (ch == '\\')
+        b.append("\\\\");
+      else if (ch == '\t')
+        b.append("\\t");
+      else if (ch == '\n')
+        b.append("\\n");
+      else if (ch == '\r')
+        b.append("\\r");
+      else
+        b.append(ch);
+    }
+  }
+
+  private static void appendHex(final StringBuilder b, final byte[] bytes, final int len) {
+    for (int i = 0; i < len; ++i) { // [A]
+      final byte v = bytes[i];
+      b.append(HEX[(v >> 4) & 0xf]).append(HEX[v & 0xf]);
+    }
+  }
+
+  static void encodeArray(final StringBuilder b, final Object[] elements) {
+    final StringBuilder array = new StringBuilder().append('{');
+    for (int i = 0, i$ = elements.length; i < i$; ++i) { // [A]
+      if (i > 0)
+        array.append(',');
+
+      final Object element = elements[i];
+      if (element == null) {
+        array.append("NULL");
+      }
+      else {
+        array.append('"');
+        final String string = String.valueOf(element);
+        for (int j = 0, j$ = string.length(); j < j$; ++j) { // [N]
+          final char ch = string.charAt(j);
+          if (ch == '"' || ch == '\\')
+            array.append('\\');
+
+          array.append(ch);
+        }
+
+        array.append('"');
+      }
+    }
+
+    escape(b, array.append('}'));
+  }
+
+  private static void encode(final StringBuilder b, final data.Column<?> column) throws IOException {
+    final Object value = column.get();
+    if (column instanceof data.BOOLEAN) {
+      b.append((Boolean)value ? 't' : 'f');
+    }
+    else if (column instanceof data.DECIMAL) {
+      b.append(((BigDecimal)value).toPlainString());
+    }
+    else if (column instanceof data.BINARY) {
+      final byte[] bytes = (byte[])value;
+      appendHex(b.append("\\\\x"), bytes, bytes.length);
+    }
+    else if (column instanceof data.BLOB) {
+      b.append("\\\\x");
+      final InputStream in = (InputStream)value;
+      final byte[] buffer = new byte[8192];
+      for (int len; (len = in.read(buffer)) != -1;) // [X]
+        appendHex(b, buffer, len);
+    }
+    else if (column instanceof data.CLOB) {
+      final Reader in = (Reader)value;
+      final char[] buffer = new char[8192];
+      for (int len; (len = in.read(buffer)) != -1;) // [X]
+        escape(b, new String(buffer, 0, len));
+    }
+    else if (column instanceof data.ARRAY) {
+      encodeArray(b, (Object[])value);
+    }
+    else {
+      escape(b, String.valueOf(value));
+    }
+  }
+
+  private static void encode(final StringBuilder b, final data.Table row, final boolean[] columns) throws IOException {
+    final data.Column<?>[] tableColumns = row._column$;
+    boolean first = true;
+    for (int i = 0, i$ = tableColumns.length; i < i$; ++i) { // [A]
+      if (!columns[i])
+        continue;
+
+      if (first)
+        first = false;
+      else
+        b.append('\t');
+
+      final data.Column<?> column = tableColumns[i];
+      if (column.isNull())
+        b.append("\\N");
+      else
+        encode(b, column);
+    }
+
+    b.append('\n');
+  }
+
+  /**
+   * A {@link Reader} of the COPY text format of the consecutive rows of a table, of the same inserted columns, which encodes each row
+   * as it is read.
+   */
+  private final class RowReader extends Reader {
+    private final String tableName;
+    private final boolean[] columns;
+    private final StringBuilder buffer = new StringBuilder();
+    private int position;
+
+    private RowReader(final String tableName, final boolean[] columns) {
+      this.tableName = tableName;
+      this.columns = columns;
+    }
+
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+      if (len == 0)
+        return 0;
+
+      while (position == buffer.length()) {
+        if (next == null || !tableName.equals(next.getName()) || !Arrays.equals(columns, nextColumns))
+          return -1;
+
+        buffer.setLength(0);
+        position = 0;
+        encode(buffer, next, columns);
+        next._commitEntity$();
+        advance();
+      }
+
+      final int count = Math.min(len, buffer.length() - position);
+      buffer.getChars(position, position + count, cbuf, off);
+      position += count;
+      return count;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private final DbVendor vendor;
+  private final Iterator<? extends data.Table> rows;
+  // The next row, which has been read from the iterator, but not yet encoded
+  private data.Table next;
+  private boolean[] nextColumns;
+
+  private BulkLoader(final DbVendor vendor, final Iterator<? extends data.Table> rows) {
+    this.vendor = vendor;
+    this.rows = rows;
+  }
+
+  private void advance() {
+    if (!rows.hasNext()) {
+      next = null;
+      nextColumns = null;
+      return;
+    }
+
+    next = rows.next();
+    final data.Column<?>[] columns = next._column$;
+    nextColumns = new boolean[columns.length];
+    for (int i = 0, i$ = columns.length; i < i$; ++i) // [A]
+      nextColumns[i] = Compiler.shouldInsert(columns[i], true, vendor);
+  }
+
+  private long copy(final Object copyManager) throws IOException, SQLException {
+    final Method copyIn;
+    try {
+      copyIn = copyManager.getClass().getMethod("copyIn", String.class, Reader.class);
+    }
+    catch (final NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+
+    final Dialect dialect = vendor.getDialect();
+    long total = 0;
+    advance();
+    while (next != null) {
+      final data.Table table = next;
+      final boolean[] columns = nextColumns;
+      final StringBuilder sql = new StringBuilder("COPY ");
+      dialect.quoteIdentifier(sql, table.getName()).append(" (");
+      final data.Column<?>[] tableColumns = table._column$;
+      boolean first = true;
+      for (int i = 0, i$ = tableColumns.length; i < i$; ++i) { // [A]
+        if (columns[i]) {
+          if (first)
+            first = false;
+          else
+            sql.append(", ");
+
+          dialect.quoteIdentifier(sql, tableColumns[i].name);
+        }
+      }
+
+      sql.append(") FROM STDIN");
+      if (logger.isTraceEnabled()) { logger.trace(sql.toString()); }
+      try {
+        total += (Long)copyIn.invoke(copyManager, sql.toString(), new RowReader(table.getName(), columns));
+      }
+      catch (final IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+      catch (final InvocationTargetException e) {
+        if (e.getCause() instanceof IOException)
+          throw (IOException)e.getCause();
+
+        throw toSQLException(e);
+      }
+    }
+
+    return total;
+  }
+}
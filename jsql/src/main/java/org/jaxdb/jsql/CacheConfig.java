@@ -17,10 +17,12 @@
 package org.jaxdb.jsql;
 
 import static org.jaxdb.jsql.DML.*;
+import static org.libj.lang.Assertions.*;
 
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.Queue;
 
@@ -63,11 +65,35 @@ public class CacheConfig {
     };
   }
 
+  /**
+   * Callback for the progress of the preload of the rows of the {@link data.Table}s of a {@link CacheConfig}. The callback is
+   * invoked on the threads of the preload, and must therefore be thread safe.
+   *
+   * @see CacheConfig#withPreLoadProgress(OnPreLoadProgress)
+   */
+  @FunctionalInterface
+  public static interface OnPreLoadProgress {
+    /**
+     * Invoked when a partition of the preload of the provided table has completed.
+     *
+     * @param table The table.
+     * @param completed The number of partitions of the table that have completed.
+     * @param partitions The total number of partitions of the table.
+     * @param rows The number of rows of the table that have been preloaded in the completed partitions.
+     */
+    void onProgress(data.Table table, int completed, int partitions, long rows);
+  }
+
   private Schema schema;
   private DefaultListener notificationListener;
   private Queue queue;
   private ArrayList<OnConnectPreLoad> onConnectPreLoads = new ArrayList<>();
   private LinkedHashSet tables = new LinkedHashSet<>();
+  private IdentityHashMap<data.Table,CacheEviction> evictions = new IdentityHashMap<>();
+  private CacheMetrics metrics = CacheMetrics.NONE;
+  private RangeLoadPlanner rangeLoadPlanner = RangeLoadPlanner.DEFAULT;
+  private CacheSnapshot snapshot;
+  private PreLoader preLoader = PreLoader.DEFAULT;
 
   CacheConfig(final Schema schema, final DefaultListener<data.Table> notificationListener, final Queue<Notification<data.Table>> queue) {
     this.schema = schema;
@@ -175,13 +201,138 @@ public class CacheConfig {
     return this;
   }
 
+  /**
+   * Adds the provided table to this {@link CacheConfig}, with its cache bounded by the provided {@link CacheEviction}.
+   *
+   * @param <T> The type parameter of the table.
+   * @param eviction The {@link CacheEviction}.
+   * @param table The table.
+   * @return {@code this} {@link CacheConfig}.
+   * @throws IllegalArgumentException If {@code eviction} is null, or if the table is specified multiple times.
+   */
+  public <T extends type.Table$> CacheConfig with(final CacheEviction eviction, final T table) {
+    with(table);
+    evictions.put((data.Table)table, assertNotNull(eviction));
+    return this;
+  }
+
+  public CacheConfig with(final CacheEviction eviction, final type.Table$[] tables) {
+    for (int i = 0, i$ = tables.length; i < i$; ++i) // [A]
+      with(eviction, tables[i]);
+
+    return this;
+  }
+
+  public CacheConfig with(final CacheEviction eviction, final type.Table$ table, final type.Table$ ... tables) {
+    with(eviction, table);
+    with(eviction, tables);
+    return this;
+  }
+
+  /**
+   * Adds the provided table to this {@link CacheConfig}, with the provided {@link OnConnectPreLoad}, and with its cache bounded by
+   * the provided {@link CacheEviction}.
+   *
+   * @param <T> The type parameter of the table.
+   * @param onConnectPreLoad The {@link OnConnectPreLoad}.
+   * @param eviction The {@link CacheEviction}.
+   * @param table The table.
+   * @return {@code this} {@link CacheConfig}.
+   * @throws IllegalArgumentException If {@code eviction} is null, or if the table is specified multiple times.
+   */
+  public <T extends type.Table$> CacheConfig with(final OnConnectPreLoad<? super T> onConnectPreLoad, final CacheEviction eviction, final T table) {
+    with(onConnectPreLoad, table);
+    evictions.put((data.Table)table, assertNotNull(eviction));
+    return this;
+  }
+
+  /**
+   * Sets the {@link CacheMetrics} to which the caches of the {@link Schema} report their hits, misses, loads, applied notifications
+   * and evictions.
+   *
+   * @param metrics The {@link CacheMetrics}.
+   * @return {@code this} {@link CacheConfig}.
+   * @throws IllegalArgumentException If {@code metrics} is null.
+   * @see CacheStats
+   */
+  public CacheConfig withMetrics(final CacheMetrics metrics) {
+    this.metrics = assertNotNull(metrics);
+    return this;
+  }
+
+  /**
+   * Sets how the gaps of the mask of a range of a {@code BTREE} cache are selected. Adjacent gaps between which at most
+   * {@code mergeThreshold} rows are cached are merged into one range, and the resulting ranges are selected in SELECTs of at most
+   * {@code maxDisjuncts} ranges each. The defaults are {@code 0} and {@code 16}.
+   *
+   * @param mergeThreshold The maximum number of cached rows between adjacent gaps, which are re-selected when the gaps are merged.
+   * @param maxDisjuncts The maximum number of ranges in the {@code WHERE} clause of one SELECT.
+   * @return {@code this} {@link CacheConfig}.
+   * @throws IllegalArgumentException If {@code mergeThreshold} is negative, or if {@code maxDisjuncts} is not greater than 0.
+   */
+  public CacheConfig withRangeLoad(final int mergeThreshold, final int maxDisjuncts) {
+    this.rangeLoadPlanner = new RangeLoadPlanner(mergeThreshold, maxDisjuncts);
+    return this;
+  }
+
+  /**
+   * Sets the {@link CacheSnapshot} from which the caches of its tables are restored, instead of being preloaded with their
+   * {@link OnConnectPreLoad}, and to which the caches of its tables are written.
+   *
+   * @param snapshot The {@link CacheSnapshot}.
+   * @return {@code this} {@link CacheConfig}.
+   * @throws IllegalArgumentException If {@code snapshot} is null.
+   */
+  public CacheConfig withSnapshot(final CacheSnapshot snapshot) {
+    this.snapshot = assertNotNull(snapshot);
+    return this;
+  }
+
+  /**
+   * Sets the number of threads on which the {@link OnConnectPreLoad}s of the tables are executed concurrently, each selecting on its
+   * own connection of the {@link Connector}, and the number of partitions in which {@link OnConnectPreLoad#ALL} selects a table
+   * with a single integer primary key. The partitions are equal ranges of the primary key, which are selected concurrently. The
+   * defaults are {@code 1} and {@code 1}, with which the tables are preloaded sequentially on the calling thread.
+   * <p>
+   * <b>Note:</b> A {@code parallelism} greater than {@code 1} requires the {@link ConnectionFactory} of the {@link Connector} to
+   * provide a distinct connection to each thread, such as from a pool of at least {@code parallelism} connections.
+   *
+   * @param parallelism The number of threads on which the tables are preloaded.
+   * @param partitions The number of partitions in which {@link OnConnectPreLoad#ALL} selects a table.
+   * @return {@code this} {@link CacheConfig}.
+   * @throws IllegalArgumentException If {@code parallelism} or {@code partitions} is not greater than 0.
+   */
+  public CacheConfig withPreLoad(final int parallelism, final int partitions) {
+    this.preLoader = preLoader.withParallelism(parallelism, partitions);
+    return this;
+  }
+
+  /**
+   * Sets the {@link OnPreLoadProgress} to which the progress of the preload of the tables is reported.
+   *
+   * @param progress The {@link OnPreLoadProgress}.
+   * @return {@code this} {@link CacheConfig}.
+   * @throws IllegalArgumentException If {@code progress} is null.
+   */
+  public CacheConfig withPreLoadProgress(final OnPreLoadProgress progress) {
+    this.preLoader = preLoader.withProgress(assertNotNull(progress));
+    return this;
+  }
+
   void commit() throws IOException, SQLException {
-    schema.initCache(notificationListener, queue, tables, onConnectPreLoads);
+    schema.cacheMetrics = metrics;
+    schema.rangeLoadPlanner = rangeLoadPlanner;
+    schema.initCache(notificationListener, queue, tables, onConnectPreLoads, evictions, snapshot, preLoader);
 
     schema = null;
     notificationListener = null;
     queue = null;
     onConnectPreLoads = null;
     tables = null;
+    evictions = null;
+    metrics = null;
+    rangeLoadPlanner = null;
+    snapshot = null;
+    preLoader = null;
   }
 }
\ No newline at end of file
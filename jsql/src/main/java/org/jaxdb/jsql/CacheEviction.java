@@ -0,0 +1,213 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.libj.lang.Assertions.*;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounds of the cache of a {@link data.Table}, which are enforced by evicting rows from all {@link CacheMap}s of the table. An
+ * evicted row is removed from the masks of the {@link CacheMap}s, such that a subsequent {@code select(key)} fetches it again from
+ * the DB.
+ *
+ * @see CacheConfig#with(CacheEviction,type.Table$)
+ */
+public final class CacheEviction {
+  /**
+   * The policy by which a row is selected for eviction when the cache exceeds its maximum size or weight.
+   */
+  public enum Policy {
+    /** Evict the least recently used row. */
+    LRU,
+    /** Evict the least frequently used row, and the least recently used of rows of equal frequency. */
+    LFU
+  }
+
+  /**
+   * A snapshot of the eviction statistics of the cache of a {@link data.Table}.
+   */
+  public static final class Stats {
+    private final long size;
+    private final long weight;
+    private final long evictionCount;
+    private final long expirationCount;
+
+    Stats(final long size, final long weight, final long evictionCount, final long expirationCount) {
+      this.size = size;
+      this.weight = weight;
+      this.evictionCount = evictionCount;
+      this.expirationCount = expirationCount;
+    }
+
+    /**
+     * Returns the number of rows that are tracked for eviction.
+     *
+     * @return The number of rows that are tracked for eviction.
+     */
+    public long getSize() {
+      return size;
+    }
+
+    /**
+     * Returns the total weight of the rows that are tracked for eviction, or {@code 0} if the cache is not bounded by weight.
+     *
+     * @return The total weight of the rows that are tracked for eviction, or {@code 0} if the cache is not bounded by weight.
+     */
+    public long getWeight() {
+      return weight;
+    }
+
+    /**
+     * Returns the number of rows that have been evicted because the cache exceeded its maximum size or weight.
+     *
+     * @return The number of rows that have been evicted because the cache exceeded its maximum size or weight.
+     */
+    public long getEvictionCount() {
+      return evictionCount;
+    }
+
+    /**
+     * Returns the number of rows that have been evicted because they expired.
+     *
+     * @return The number of rows that have been evicted because they expired.
+     */
+    public long getExpirationCount() {
+      return expirationCount;
+    }
+
+    @Override
+    public String toString() {
+      return "{size:" + size + ",weight:" + weight + ",evictionCount:" + evictionCount + ",expirationCount:" + expirationCount + "}";
+    }
+  }
+
+  public static class Builder {
+    private Policy policy = Policy.LRU;
+    private long maxSize = -1;
+    private long maxWeight = -1;
+    private ToLongFunction<? super data.Table> weigher;
+    private long expireAfterWriteMs = -1;
+
+    public Builder withPolicy(final Policy policy) {
+      this.policy = assertNotNull(policy);
+      return this;
+    }
+
+    public Builder withMaxSize(final long maxSize) {
+      if (maxSize <= 0)
+        throw new IllegalArgumentException("maxSize (" + maxSize + ") must be greater than 0");
+
+      this.maxSize = maxSize;
+      return this;
+    }
+
+    /**
+     * Sets the maximum total weight of the rows in the cache, as determined by the provided {@code weigher}.
+     *
+     * @param maxWeight The maximum total weight of the rows in the cache.
+     * @param weigher The function that returns the weight of a row, which must not change while the row is in the cache.
+     * @return {@code this} builder.
+     * @throws IllegalArgumentException If {@code maxWeight} is not greater than 0, or if {@code weigher} is null.
+     */
+    public Builder withMaxWeight(final long maxWeight, final ToLongFunction<? super data.Table> weigher) {
+      if (maxWeight <= 0)
+        throw new IllegalArgumentException("maxWeight (" + maxWeight + ") must be greater than 0");
+
+      this.maxWeight = maxWeight;
+      this.weigher = assertNotNull(weigher);
+      return this;
+    }
+
+    public Builder withExpireAfterWrite(final long ms) {
+      if (ms <= 0)
+        throw new IllegalArgumentException("ms (" + ms + ") must be greater than 0");
+
+      this.expireAfterWriteMs = ms;
+      return this;
+    }
+
+    /**
+     * Returns a new {@link CacheEviction} with the bounds of this builder.
+     *
+     * @return A new {@link CacheEviction} with the bounds of this builder.
+     * @throws IllegalStateException If neither a maximum size, a maximum weight, nor an expiration has been specified.
+     */
+    public CacheEviction build() {
+      if (maxSize == -1 && maxWeight == -1 && expireAfterWriteMs == -1)
+        throw new IllegalStateException("maxSize, maxWeight or expireAfterWrite must be specified");
+
+      return new CacheEviction(policy, maxSize, maxWeight, weigher, expireAfterWriteMs);
+    }
+  }
+
+  private final Policy policy;
+  private final long maxSize;
+  private final long maxWeight;
+  private final ToLongFunction<? super data.Table> weigher;
+  private final long expireAfterWriteMs;
+
+  private CacheEviction(final Policy policy, final long maxSize, final long maxWeight, final ToLongFunction<? super data.Table> weigher, final long expireAfterWriteMs) {
+    this.policy = policy;
+    this.maxSize = maxSize;
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+    this.expireAfterWriteMs = expireAfterWriteMs;
+  }
+
+  public Policy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * Returns the maximum number of rows in the cache, or {@code -1} if the cache is not bounded by size.
+   *
+   * @return The maximum number of rows in the cache, or {@code -1} if the cache is not bounded by size.
+   */
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Returns the maximum total weight of the rows in the cache, or {@code -1} if the cache is not bounded by weight.
+   *
+   * @return The maximum total weight of the rows in the cache, or {@code -1} if the cache is not bounded by weight.
+   */
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  ToLongFunction<? super data.Table> getWeigher() {
+    return weigher;
+  }
+
+  /**
+   * Returns the time in milliseconds after which a row expires since it was last written to the cache, or {@code -1} if rows do not
+   * expire.
+   *
+   * @return The time in milliseconds after which a row expires since it was last written to the cache, or {@code -1} if rows do
+   *         not expire.
+   */
+  public long getExpireAfterWrite() {
+    return expireAfterWriteMs;
+  }
+
+  @Override
+  public String toString() {
+    return "{policy:" + policy + ",maxSize:" + maxSize + ",maxWeight:" + maxWeight + ",expireAfterWrite:" + expireAfterWriteMs + "}";
+  }
+}
@@ -0,0 +1,288 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enforces a {@link CacheEviction} on the primary {@link CacheMap} of a {@link data.Table}. The primary {@link CacheMap} reports the
+ * rows that are put to, accessed in, and removed from it, and the {@link CacheEvictor} evicts rows via
+ * {@link data.Table#_commitEvict$()}, which removes the row from all {@link CacheMap}s of the table, as well as from their masks.
+ * <p>
+ * Rows are evicted outside of the lock of the {@link CacheEvictor}, so that {@link data.Table#_commitEvict$()} never re-enters it.
+ * Since a row for the same {@link data.Key} may be put concurrently, a row is evicted only if it is still the row that is cached for
+ * its {@link data.Key}, and an {@link Entry} whose row is no longer cached after such a race is unlinked.
+ */
+final class CacheEvictor {
+  private static final Logger logger = LoggerFactory.getLogger(CacheEvictor.class);
+
+  private static final class Entry implements Comparable<Entry> {
+    private final data.Key key;
+    private data.Table row;
+    private long weight;
+    private long writeTime;
+    private long frequency;
+    private long sequence;
+
+    private Entry(final data.Key key) {
+      this.key = key;
+    }
+
+    @Override
+    public int compareTo(final Entry o) {
+      final int c = Long.compare(frequency, o.frequency);
+      return c != 0 ? c : Long.compare(sequence, o.sequence);
+    }
+  }
+
+  private final CacheEviction eviction;
+  // Returns the row that is cached for a key in the primary CacheMap
+  private final Function<? super data.Key,?> cached;
+  private final ToLongFunction<? super data.Table> weigher;
+  private final boolean isLfu;
+  private final long maxSize;
+  private final long maxWeight;
+  private final long expireAfterWriteMs;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  // In access order for LRU, so that the eldest entry is the least recently used
+  private final LinkedHashMap<data.Key,Entry> entries;
+  // In write order, so that the eldest entry is the first to expire
+  private final LinkedHashMap<data.Key,Entry> writeOrder;
+  private final TreeSet<Entry> byFrequency;
+  private long weight;
+  private long sequence;
+
+  private final AtomicLong evictionCount = new AtomicLong();
+  private final AtomicLong expirationCount = new AtomicLong();
+
+  CacheEvictor(final CacheEviction eviction, final Function<? super data.Key,?> cached) {
+    this.eviction = eviction;
+    this.cached = cached;
+    this.weigher = eviction.getWeigher();
+    this.isLfu = eviction.getPolicy() == CacheEviction.Policy.LFU;
+    this.maxSize = eviction.getMaxSize();
+    this.maxWeight = eviction.getMaxWeight();
+    this.expireAfterWriteMs = eviction.getExpireAfterWrite();
+    this.entries = new LinkedHashMap<>(16, .75f, !isLfu);
+    this.writeOrder = expireAfterWriteMs == -1 ? null : new LinkedHashMap<>();
+    this.byFrequency = isLfu ? new TreeSet<>() : null;
+  }
+
+  CacheEviction getEviction() {
+    return eviction;
+  }
+
+  private boolean isExpired(final Entry entry, final long now) {
+    return expireAfterWriteMs != -1 && now - entry.writeTime >= expireAfterWriteMs;
+  }
+
+  private void touch(final Entry entry) {
+    if (isLfu) {
+      byFrequency.remove(entry);
+      ++entry.frequency;
+      entry.sequence = ++sequence;
+      byFrequency.add(entry);
+    }
+  }
+
+  private void unlink(final Entry entry) {
+    entries.remove(entry.key);
+    if (writeOrder != null)
+      writeOrder.remove(entry.key);
+
+    if (isLfu)
+      byFrequency.remove(entry);
+
+    weight -= entry.weight;
+  }
+
+  private boolean isOverflowed() {
+    return maxSize != -1 && entries.size() > maxSize || maxWeight != -1 && weight > maxWeight;
+  }
+
+  // The entry that is being put is excluded, because it is not yet fully committed to the CacheMaps of the table
+  private Entry eldest(final Entry exclude) {
+    final Iterator<Entry> i = isLfu ? byFrequency.iterator() : entries.values().iterator();
+    while (i.hasNext()) { // [I]
+      final Entry entry = i.next();
+      if (entry != exclude)
+        return entry;
+    }
+
+    return null;
+  }
+
+  /**
+   * Records that the provided row was put to the primary {@link CacheMap} with the provided {@link data.Key}, and evicts the rows
+   * that have expired, or that overflow the maximum size or weight of the cache.
+   *
+   * @param key The {@link data.Key}.
+   * @param row The row.
+   */
+  void onPut(final data.Key key, final data.Table row) {
+    final long now = System.currentTimeMillis();
+    ArrayList<Entry> expired = null;
+    ArrayList<Entry> overflowed = null;
+    lock.lock();
+    try {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        entries.put(key, entry = new Entry(key));
+      }
+      else {
+        weight -= entry.weight;
+        if (writeOrder != null)
+          writeOrder.remove(key);
+      }
+
+      entry.row = row;
+      entry.weight = weigher != null ? weigher.applyAsLong(row) : 0;
+      entry.writeTime = now;
+      weight += entry.weight;
+      touch(entry);
+      if (writeOrder != null) {
+        writeOrder.put(key, entry);
+        for (final Iterator<Entry> i = writeOrder.values().iterator(); i.hasNext();) { // [I]
+          final Entry eldest = i.next();
+          if (!isExpired(eldest, now))
+            break;
+
+          i.remove();
+          unlink(eldest);
+          (expired == null ? expired = new ArrayList<>() : expired).add(eldest);
+        }
+      }
+
+      for (Entry eldest; isOverflowed() && (eldest = eldest(entry)) != null;) { // [X]
+        unlink(eldest);
+        (overflowed == null ? overflowed = new ArrayList<>() : overflowed).add(eldest);
+      }
+    }
+    finally {
+      lock.unlock();
+    }
+
+    if (expired != null)
+      evict(expired, expirationCount);
+
+    if (overflowed != null)
+      evict(overflowed, evictionCount);
+
+    // The row may have been removed by a concurrent eviction of the row that it replaced
+    if (cached.apply(key) != row)
+      unlinkIfNotCached(key);
+  }
+
+  /**
+   * Records an access of the provided {@link data.Key} in the primary {@link CacheMap}, and evicts its row if it has expired.
+   *
+   * @param key The {@link data.Key}.
+   * @return {@code false} if the row of the provided {@link data.Key} has expired and was evicted, otherwise {@code true}.
+   */
+  boolean onAccess(final Object key) {
+    final Entry entry;
+    lock.lock();
+    try {
+      entry = entries.get(key);
+      if (entry == null)
+        return true;
+
+      if (!isExpired(entry, System.currentTimeMillis())) {
+        touch(entry);
+        return true;
+      }
+
+      unlink(entry);
+    }
+    finally {
+      lock.unlock();
+    }
+
+    evict(entry, expirationCount);
+    return false;
+  }
+
+  /**
+   * Records that the provided {@link data.Key} was removed from the primary {@link CacheMap} (i.e. its row was deleted, or its key
+   * was updated).
+   *
+   * @param key The {@link data.Key}.
+   */
+  void onRemove(final data.Key key) {
+    lock.lock();
+    try {
+      final Entry entry = entries.get(key);
+      if (entry != null)
+        unlink(entry);
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  private void evict(final ArrayList<Entry> entries, final AtomicLong count) {
+    for (int i = 0, i$ = entries.size(); i < i$; ++i) // [RA]
+      evict(entries.get(i), count);
+  }
+
+  private void evict(final Entry entry, final AtomicLong count) {
+    // The row was replaced by a concurrent put, whose Entry accounts for the row that replaced it
+    if (cached.apply(entry.key) != entry.row)
+      return;
+
+    if (logger.isTraceEnabled()) { logger.trace("evict(\"" + entry.row.getName() + "\"," + entry.key + ")"); }
+    entry.row._commitEvict$();
+    count.incrementAndGet();
+    entry.row.getSchema().cacheMetrics.onEviction(entry.row, count == expirationCount);
+
+    // A row that was put concurrently after the check above may have been removed by the eviction
+    unlinkIfNotCached(entry.key);
+  }
+
+  private void unlinkIfNotCached(final data.Key key) {
+    lock.lock();
+    try {
+      final Entry entry = entries.get(key);
+      if (entry != null && cached.apply(key) != entry.row)
+        unlink(entry);
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  CacheEviction.Stats getStats() {
+    lock.lock();
+    try {
+      return new CacheEviction.Stats(entries.size(), weight, evictionCount.get(), expirationCount.get());
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+}
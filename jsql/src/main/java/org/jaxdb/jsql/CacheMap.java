@@ -19,17 +19,45 @@ package org.jaxdb.jsql;
 import static org.jaxdb.jsql.DML.*;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.channels.UnsupportedAddressTypeException;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 import org.jaxdb.jsql.CacheConfig.OnConnectPreLoad;
 import org.libj.util.Interval;
 
 public abstract class CacheMap<V> implements Map<data.Key,V> {
+  static final int MAX_COALESCED_KEYS = 128;
+  // The maximum number of threads that concurrently SELECT the missing keys of a CacheMap, beyond which further misses are coalesced
+  // into the SELECTs of the loading threads
+  static final int MAX_CONCURRENT_LOADS = 4;
+  // The maximum number of parameters of an IN list, which is within the limits of Oracle (1000 elements) and SQLite (999 parameters)
+  static final int MAX_IN_PARAMETERS = 500;
+
   final data.Table table;
   private final Schema schema;
+  private final SelectShape keyShape = new SelectShape();
+  // Keys that are being loaded, each with the future of its load, so that concurrent misses for the same key share one SELECT
+  private final ConcurrentHashMap<data.Key,CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+  // Keys that are in flight but not yet taken by a loading thread, so that concurrent misses for different keys are coalesced
+  private final ConcurrentLinkedQueue<data.Key> pending = new ConcurrentLinkedQueue<>();
+  // The number of threads that are selecting pending keys
+  private final AtomicInteger loads = new AtomicInteger();
+  // Set only on the primary CacheMap of a table with a CacheEviction
+  CacheEvictor evictor;
+  // Set only on the OneToOneLong*Map of a unique index on a single integer column
+  LongKeyIndex<V> longIndex;
 
   CacheMap(final data.Table table, final Schema schema) {
     this.table = table;
@@ -39,11 +67,109 @@ public abstract class CacheMap<V> implements Map<data.Key,V> {
   abstract void addKey(data.Key key);
   abstract void addKey(data.Key[] keys);
   public abstract boolean containsKey(data.Key key);
+
+  /**
+   * Clears the mask of this {@link CacheMap}, including the mask of the {@link data.Key#ALL} key, such that a subsequent
+   * {@link #select(data.Key)} of a key (or range of keys) that is not contained in this {@link CacheMap} fetches it again from the DB.
+   * The cached values are retained.
+   */
+  abstract void clearMask();
   abstract V remove$(data.Key key);
   abstract V remove$Old(data.Key key);
   abstract V get$(data.Key key);
   abstract V put$(data.Key key, V value);
 
+  /**
+   * Removes the provided {@link data.Key} from this {@link CacheMap} and from its mask, such that a subsequent
+   * {@link #select(data.Key)} fetches it again from the DB. Unlike {@link #remove$(data.Key)}, which reflects a DELETE of a row,
+   * this method also clears the mask of the {@link data.Key#ALL} key.
+   *
+   * @param key The {@link data.Key} to evict.
+   * @return The evicted value, or {@code null} if this {@link CacheMap} did not contain the provided {@link data.Key}.
+   */
+  abstract V evict$(data.Key key);
+
+  final CacheMetrics getMetrics() {
+    return schema.cacheMetrics;
+  }
+
+  /**
+   * Selects the rows of the provided range condition, and reports the load to the {@link CacheMetrics} of the {@link Schema}.
+   *
+   * @param condition The range condition.
+   * @throws IOException If an I/O error has occurred.
+   * @throws SQLException If a SQL error has occurred.
+   */
+  final void selectRange(final data.BOOLEAN condition) throws IOException, SQLException {
+    final long ts = System.nanoTime();
+    boolean success = false;
+    try {
+      select(condition);
+      success = true;
+    }
+    finally {
+      getMetrics().onLoad(table, 0, System.nanoTime() - ts, success);
+    }
+  }
+
+  /**
+   * Selects the rows of the provided gaps of the mask, in as many SELECTs as the {@link RangeLoadPlanner} of the {@link Schema}
+   * plans for them.
+   *
+   * @param gaps The gaps of the mask, in ascending order.
+   * @param cached The cached rows, by which the {@link RangeLoadPlanner} determines whether adjacent gaps are merged.
+   * @throws IOException If an I/O error has occurred.
+   * @throws SQLException If a SQL error has occurred.
+   */
+  final void selectRange(final Interval<data.Key>[] gaps, final NavigableMap<data.Key,?> cached) throws IOException, SQLException {
+    final ArrayList<Interval<data.Key>[]> batches = schema.rangeLoadPlanner.plan(gaps, cached);
+    for (int i = 0, i$ = batches.size(); i < i$; ++i) // [RA]
+      selectRange(where(batches.get(i)));
+  }
+
+  final void onPut(final data.Key key, final V value) {
+    final LongKeyIndex<V> longIndex = this.longIndex;
+    if (longIndex != null)
+      longIndex.put(key, value);
+
+    final CacheEvictor evictor = this.evictor;
+    if (evictor != null)
+      evictor.onPut(key, (data.Table)value);
+  }
+
+  final void onRemove(final data.Key key) {
+    final LongKeyIndex<V> longIndex = this.longIndex;
+    if (longIndex != null)
+      longIndex.remove(key);
+
+    final CacheEvictor evictor = this.evictor;
+    if (evictor != null)
+      evictor.onRemove(key);
+  }
+
+  final void onEvict(final data.Key key) {
+    final LongKeyIndex<V> longIndex = this.longIndex;
+    if (longIndex != null)
+      longIndex.remove(key);
+  }
+
+  final boolean onAccess(final Object key) {
+    final CacheEvictor evictor = this.evictor;
+    return evictor == null || evictor.onAccess(key);
+  }
+
+  /**
+   * Returns a snapshot of the eviction statistics of this {@link CacheMap}, or {@code null} if this {@link CacheMap} is not bounded
+   * by a {@link CacheEviction}.
+   *
+   * @return A snapshot of the eviction statistics of this {@link CacheMap}, or {@code null} if this {@link CacheMap} is not bounded
+   *         by a {@link CacheEviction}.
+   */
+  public final CacheEviction.Stats getEvictionStats() {
+    final CacheEvictor evictor = this.evictor;
+    return evictor == null ? null : evictor.getStats();
+  }
+
   private static data.BOOLEAN andRange(final type.Column<?> c, final Object min, final Object max) {
     return AND(new ComparisonPredicate.Gte<>(c, min), new ComparisonPredicate.Lt<>(c, max));
   }
@@ -58,6 +184,19 @@ public abstract class CacheMap<V> implements Map<data.Key,V> {
     return and;
   }
 
+  private static data.BOOLEAN where(final Interval<data.Key>[] intervals) {
+    final int len = intervals.length;
+    if (len == 1)
+      return andRange(intervals[0]);
+
+    // A flat OR of all ranges, rather than a chain of nested binary ORs
+    final ArrayList<Condition<?>> conditions = new ArrayList<>(len);
+    for (int i = 0; i < len; ++i) // [A]
+      conditions.add(andRange(intervals[i]));
+
+    return OR(conditions);
+  }
+
   private static data.BOOLEAN eq(final type.Column<?> c, final Object v) {
     return new ComparisonPredicate.Eq<>(c, v);
   }
@@ -132,51 +271,404 @@ public abstract class CacheMap<V> implements Map<data.Key,V> {
   }
 
   final void select(final data.BOOLEAN condition) throws IOException, SQLException {
+    select(condition, null, null);
+  }
+
+  private void select(final data.BOOLEAN condition, final SelectShape shape, final data.Column<?>[] bindings) throws IOException, SQLException {
     final Notifier<?> notifier = schema.getCacheNotifier();
     if (notifier == null)
       return;
 
+    final Command.Select.untyped.SELECT<?> select = (Command.Select.untyped.SELECT<?>)SELECT(table).FROM(table).WHERE(condition);
+    if (shape != null)
+      select.shape(shape, bindings);
+
     final Connector connector = schema.getConnector();
-    try (
-      final RowIterator<? extends data.Table> rows =
-        SELECT(table)
-          .FROM(table)
-          .WHERE(condition)
-          .execute(connector)
-    ) {
+    try (final RowIterator<? extends type.Entity> rows = select.execute(connector)) {
       while (rows.nextRow())
-        notifier.onSelect(rows.nextEntity());
+        notifier.onSelect((data.Table)rows.nextEntity());
     }
   }
 
+  /**
+   * Selects the rows matching the provided {@link data.Key}. The condition of the SELECT has the same shape for all keys of this
+   * {@link CacheMap} (except for keys with null values), and is therefore executed via {@link #keyShape}.
+   *
+   * @param key The {@link data.Key}.
+   * @throws IOException If an I/O error has occurred.
+   * @throws SQLException If a SQL error has occurred.
+   */
+  private void selectEq(final data.Key key) throws IOException, SQLException {
+    final data.Key min = key.getMin();
+    final int len = min.length();
+    final data.Column<?>[] bindings = new data.Column<?>[len];
+    data.BOOLEAN and = null;
+    for (int j = 0; j < len; ++j) { // [A]
+      final Object value = min.value(j);
+      if (value == null) {
+        select(andEq(key));
+        return;
+      }
+
+      final ComparisonPredicate.Eq<?> eq = new ComparisonPredicate.Eq<>(min.column(j), value);
+      bindings[j] = (data.Column<?>)eq.b;
+      and = and == null ? eq : AND(and, eq);
+    }
+
+    select(and, keyShape, bindings);
+  }
+
   void selectAll() throws IOException, SQLException {
-    if (!containsKey(data.Key.ALL))
+    final CacheMetrics metrics = getMetrics();
+    if (containsKey(data.Key.ALL)) {
+      metrics.onHit(table);
+      return;
+    }
+
+    metrics.onMiss(table);
+    final long ts = System.nanoTime();
+    boolean success = false;
+    try {
       OnConnectPreLoad.ALL.apply(table);
+      success = true;
+    }
+    finally {
+      metrics.onLoad(table, -1, System.nanoTime() - ts, success);
+    }
   }
 
-  V select(final data.Key key) throws IOException, SQLException {
-    if (!containsKey(key)) {
-      synchronized (this) {
-        if (!containsKey(key)) {
-          select(andEq(key));
-          addKey(key);
-        }
+  /**
+   * Returns the maximum number of keys of the provided primary key columns that are selected by one {@link #inEq(ArrayList)}, so
+   * that its number of parameters does not exceed {@link #MAX_IN_PARAMETERS}.
+   *
+   * @param primary The primary key columns.
+   * @return The maximum number of keys of the provided primary key columns that are selected by one {@link #inEq(ArrayList)}.
+   */
+  static int getMaxInKeys(final data.Column<?>[] primary) {
+    return getMaxInKeys(primary.length);
+  }
+
+  private static int getMaxInKeys(final int noColumns) {
+    return Math.max(1, MAX_IN_PARAMETERS / noColumns);
+  }
+
+  /**
+   * Returns the maximum number of keys of the provided number of columns that are coalesced into one SELECT, which is
+   * {@value #MAX_COALESCED_KEYS}, or less if the SELECT would otherwise exceed {@link #MAX_IN_PARAMETERS} parameters.
+   *
+   * @param noColumns The number of columns of the keys.
+   * @return The maximum number of keys of the provided number of columns that are coalesced into one SELECT.
+   */
+  static int getMaxCoalescedKeys(final int noColumns) {
+    return Math.min(MAX_COALESCED_KEYS, getMaxInKeys(noColumns));
+  }
+
+  static data.BOOLEAN inEq(final ArrayList<data.Key> keys) {
+    final int size = keys.size();
+    final data.Key first = keys.get(0);
+    if (first.length() == 1) {
+      final ArrayList<Object> values = new ArrayList<>(size);
+      for (int i = 0; i < size; ++i) { // [RA]
+        final Object value = keys.get(i).value(0);
+        if (value == null)
+          break;
+
+        values.add(value);
+      }
+
+      if (values.size() == size)
+        return new InPredicate(first.column(0), values);
+    }
+
+    final ArrayList<Condition<?>> conditions = new ArrayList<>(size);
+    for (int i = 0; i < size; ++i) // [RA]
+      conditions.add(andEq(keys.get(i)));
+
+    return OR(conditions);
+  }
+
+  private static void await(final CompletableFuture<Void> future) throws IOException, SQLException {
+    try {
+      future.get();
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      final InterruptedIOException ie = new InterruptedIOException("Interrupted while awaiting the load of a key");
+      ie.initCause(e);
+      throw ie;
+    }
+    catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException)cause;
+
+      if (cause instanceof SQLException)
+        throw (SQLException)cause;
+
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException)cause;
+
+      if (cause instanceof Error)
+        throw (Error)cause;
+
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  private ArrayList<data.Key> pollPending() {
+    data.Key key = pending.poll();
+    if (key == null)
+      return null;
+
+    final int maxKeys = getMaxCoalescedKeys(key.length());
+    final ArrayList<data.Key> keys = new ArrayList<>();
+    do
+      keys.add(key);
+    while (keys.size() < maxKeys && (key = pending.poll()) != null);
+    return keys;
+  }
+
+  /**
+   * Selects the pending keys, unless {@value #MAX_CONCURRENT_LOADS} threads are already selecting them, in which case the pending
+   * keys are left to be coalesced into the next SELECT of one of those threads. A loading thread selects the pending keys until none
+   * remain, and thereafter checks the pending keys once more, because a key that was added after its last poll may have been left to
+   * it by a thread that found all loads taken.
+   */
+  private void drainPending() {
+    while (!pending.isEmpty()) {
+      if (loads.incrementAndGet() > MAX_CONCURRENT_LOADS) {
+        loads.decrementAndGet();
+        return;
+      }
+
+      try {
+        for (ArrayList<data.Key> keys; (keys = pollPending()) != null;) // [X]
+          selectPending(keys);
+      }
+      finally {
+        loads.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Selects the rows matching the provided keys in a single SELECT, adds the keys to this {@link CacheMap}, and completes the
+   * in-flight futures of the keys. An exception of the SELECT is not thrown, but is propagated via the futures of the keys.
+   *
+   * @param keys The keys to select.
+   */
+  private void selectPending(final ArrayList<data.Key> keys) {
+    final long ts = System.nanoTime();
+    Throwable t = null;
+    try {
+      if (keys.size() == 1)
+        selectEq(keys.get(0));
+      else
+        select(inEq(keys));
+
+      for (int i = 0, i$ = keys.size(); i < i$; ++i) // [RA]
+        addKey(keys.get(i));
+    }
+    catch (final Throwable e) {
+      t = e;
+    }
+
+    getMetrics().onLoad(table, keys.size(), System.nanoTime() - ts, t == null);
+    for (int i = 0, i$ = keys.size(); i < i$; ++i) { // [RA]
+      final CompletableFuture<Void> future = inFlight.remove(keys.get(i));
+      if (future != null) {
+        if (t == null)
+          future.complete(null);
+        else
+          future.completeExceptionally(t);
+      }
+    }
+
+    if (t instanceof Error)
+      throw (Error)t;
+  }
+
+  /**
+   * Loads the provided missing {@link data.Key} with single-flight semantics: concurrent misses for the same key share one SELECT,
+   * and concurrent misses for different keys are selected in parallel by up to {@value #MAX_CONCURRENT_LOADS} threads, beyond which
+   * they are coalesced into {@code WHERE pk IN (...)} SELECTs of up to {@value #MAX_COALESCED_KEYS} keys (or fewer for composite
+   * keys, so as not to exceed {@link #MAX_IN_PARAMETERS} parameters) by those threads. {@code N} concurrent misses that arrive while
+   * {@value #MAX_CONCURRENT_LOADS} SELECTs are in flight are thus loaded by at most {@value #MAX_CONCURRENT_LOADS} further SELECTs
+   * (if {@code N} does not exceed the maximum number of keys per SELECT).
+   *
+   * @param key The missing {@link data.Key}.
+   * @throws IOException If an I/O error has occurred.
+   * @throws SQLException If a SQL error has occurred.
+   */
+  private void load(final data.Key key) throws IOException, SQLException {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    final CompletableFuture<Void> existing = inFlight.putIfAbsent(key, future);
+    if (existing != null) {
+      await(existing);
+      return;
+    }
+
+    // The key may have been loaded between the caller's containsKey(key) and putIfAbsent(key), since a load adds its keys before
+    // it removes them from inFlight
+    if (containsKey(key)) {
+      inFlight.remove(key, future);
+      future.complete(null);
+      return;
+    }
+
+    pending.add(key);
+    drainPending();
+    await(future);
+  }
+
+  /**
+   * Loads the provided missing keys with the same single-flight semantics as {@link #load(data.Key)}: the keys that are already in
+   * flight are awaited, and the remaining keys are selected by the calling thread in {@code WHERE pk IN (...)} SELECTs of up to
+   * {@value #MAX_COALESCED_KEYS} keys each (or fewer for composite keys, so as not to exceed {@link #MAX_IN_PARAMETERS} parameters).
+   *
+   * @param keys The missing keys, without duplicates.
+   * @throws IOException If an I/O error has occurred.
+   * @throws SQLException If a SQL error has occurred.
+   */
+  private void load(final ArrayList<data.Key> keys) throws IOException, SQLException {
+    final int size = keys.size();
+    final ArrayList<data.Key> owned = new ArrayList<>(size);
+    final ArrayList<CompletableFuture<Void>> futures = new ArrayList<>(size);
+    for (int i = 0; i < size; ++i) { // [RA]
+      final data.Key key = keys.get(i);
+      final CompletableFuture<Void> future = new CompletableFuture<>();
+      final CompletableFuture<Void> existing = inFlight.putIfAbsent(key, future);
+      if (existing != null) {
+        futures.add(existing);
+      }
+      else if (containsKey(key)) {
+        inFlight.remove(key, future);
+        future.complete(null);
       }
+      else {
+        owned.add(key);
+        futures.add(future);
+      }
+    }
+
+    final int noOwned = owned.size();
+    if (noOwned > 0) {
+      final int maxKeys = getMaxCoalescedKeys(owned.get(0).length());
+      for (int i = 0; i < noOwned; i += maxKeys) // [RA]
+        selectPending(new ArrayList<>(owned.subList(i, Math.min(i + maxKeys, noOwned))));
     }
 
+    for (int i = 0, i$ = futures.size(); i < i$; ++i) // [RA]
+      await(futures.get(i));
+  }
+
+  /**
+   * Selects the values of the provided keys of a single-column index. The keys that are cached are resolved immediately, and the
+   * missing keys are fetched together in as few SELECTs as {@link #load(ArrayList)} requires.
+   *
+   * @param <K> The type of the keys.
+   * @param index The column of the index, as a single-element array.
+   * @param keys The keys to select.
+   * @return A map of the provided keys to their values, in the iteration order of the provided keys. Keys for which no row exists
+   *         are absent from the map.
+   * @throws IOException If an I/O error has occurred.
+   * @throws SQLException If a SQL error has occurred.
+   */
+  final <K>Map<K,V> select(final data.Column<?>[] index, final Collection<? extends K> keys) throws IOException, SQLException {
+    final CacheMetrics metrics = getMetrics();
+    final LinkedHashMap<K,V> values = new LinkedHashMap<>();
+    ArrayList<K> missing = null;
+    ArrayList<data.Key> missingKeys = null;
+    for (final K k : keys) { // [C]
+      if (values.containsKey(k))
+        continue;
+
+      final data.Key key = data.Key.with(index, k);
+      final V value;
+      // A row that expired upon get(key) was evicted, and is then no longer contained
+      if (containsKey(key) && ((value = get(key)) != null || containsKey(key))) {
+        metrics.onHit(table);
+        values.put(k, value);
+      }
+      else {
+        metrics.onMiss(table);
+        values.put(k, null);
+        (missing == null ? missing = new ArrayList<>() : missing).add(k);
+        (missingKeys == null ? missingKeys = new ArrayList<>() : missingKeys).add(key);
+      }
+    }
+
+    if (missingKeys != null) {
+      load(missingKeys);
+      for (int i = 0, i$ = missingKeys.size(); i < i$; ++i) // [RA]
+        values.put(missing.get(i), get(missingKeys.get(i)));
+    }
+
+    values.values().removeIf(v -> v == null);
+    return values;
+  }
+
+  V select(final data.Key key) throws IOException, SQLException {
+    if (containsKey(key)) {
+      getMetrics().onHit(table);
+    }
+    else {
+      getMetrics().onMiss(table);
+      load(key);
+    }
+
+    final V value = get(key);
+    if (value != null || containsKey(key))
+      return value;
+
+    // The row of the key expired upon get(key), and was evicted
+    load(key);
     return get(key);
   }
 
-  final V select$(final data.Key key) throws IOException, SQLException {
-    if (!containsKey(key)) {
-      synchronized (this) {
-        if (!containsKey(key)) {
-          select(andEq(key));
-          addKey(key);
-        }
+  /**
+   * Returns the value of the provided primitive key of the {@link #longIndex}, without allocating a {@link data.Key}, unless this
+   * {@link CacheMap} is bounded by a {@link CacheEviction}, in which case the access must be recorded by {@link data.Key}.
+   *
+   * @param key The primitive key.
+   * @return The value of the provided primitive key, or {@code null} if this {@link CacheMap} does not contain the key.
+   */
+  final V getLong(final long key) {
+    final LongKeyIndex<V> longIndex = this.longIndex;
+    return evictor == null ? longIndex.get(key) : get(longIndex.key(key));
+  }
+
+  /**
+   * Selects the value of the provided primitive key of the {@link #longIndex}. A hit on a present value does not allocate a
+   * {@link data.Key}, and a miss falls back to {@link #select(data.Key)}.
+   *
+   * @param key The primitive key.
+   * @return The value of the provided primitive key, or {@code null} if no row exists for the key.
+   * @throws IOException If an I/O error has occurred.
+   * @throws SQLException If a SQL error has occurred.
+   */
+  final V selectLong(final long key) throws IOException, SQLException {
+    final LongKeyIndex<V> longIndex = this.longIndex;
+    if (evictor == null) {
+      final V value = longIndex.get(key);
+      if (value != null) {
+        getMetrics().onHit(table);
+        return value;
       }
     }
 
+    return select(longIndex.key(key));
+  }
+
+  final V select$(final data.Key key) throws IOException, SQLException {
+    if (containsKey(key)) {
+      getMetrics().onHit(table);
+    }
+    else {
+      getMetrics().onMiss(table);
+      load(key);
+    }
+
     return get$(key);
   }
-}
\ No newline at end of file
+}
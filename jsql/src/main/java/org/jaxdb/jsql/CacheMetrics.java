@@ -0,0 +1,88 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+/**
+ * A service provider interface for the collection of metrics of the caches of a {@link Schema}. The methods of this interface are
+ * invoked synchronously on the threads that access and update the caches, and must therefore not block.
+ *
+ * @see CacheConfig#withMetrics(CacheMetrics)
+ * @see CacheStats
+ */
+public interface CacheMetrics {
+  /** A {@link CacheMetrics} that discards all metrics. */
+  public static final CacheMetrics NONE = new CacheMetrics() {};
+
+  /**
+   * Invoked when a lookup of the cache of the provided table is satisfied without a {@code SELECT}.
+   *
+   * @param table The table.
+   */
+  default void onHit(final data.Table table) {
+  }
+
+  /**
+   * Invoked when a lookup of the cache of the provided table requires a {@code SELECT}.
+   *
+   * @param table The table.
+   */
+  default void onMiss(final data.Table table) {
+  }
+
+  /**
+   * Invoked when a {@code SELECT} for missing rows of the cache of the provided table completes.
+   *
+   * @param table The table.
+   * @param keys The number of keys that were selected, {@code 0} if a range of keys was selected, or {@code -1} if all rows were
+   *          selected.
+   * @param nanos The duration of the {@code SELECT} in nanoseconds.
+   * @param success Whether the {@code SELECT} succeeded.
+   */
+  default void onLoad(final data.Table table, final int keys, final long nanos, final boolean success) {
+  }
+
+  /**
+   * Invoked when a notification of the provided {@link Notification.Action} has been applied to the cache of the provided table.
+   *
+   * @param table The table.
+   * @param action The {@link Notification.Action}.
+   */
+  default void onNotification(final data.Table table, final Notification.Action action) {
+  }
+
+  /**
+   * Invoked when a row has been evicted from the cache of the provided table.
+   *
+   * @param table The table.
+   * @param expired Whether the row was evicted because it expired, as opposed to because the cache exceeded its maximum size or
+   *          weight.
+   */
+  default void onEviction(final data.Table table, final boolean expired) {
+  }
+
+  /**
+   * Invoked when a resync of the cache of the provided table completes, which reselects its cached rows, because changes were
+   * committed to the table while its notifications were disconnected from the DB.
+   *
+   * @param table The table.
+   * @param keys The number of keys that were reselected, or {@code -1} if all rows were reselected.
+   * @param nanos The duration of the resync in nanoseconds.
+   * @param success Whether the resync succeeded.
+   */
+  default void onResync(final data.Table table, final int keys, final long nanos, final boolean success) {
+  }
+}
@@ -0,0 +1,635 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.libj.lang.Assertions.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jaxdb.jsql.keyword.Select.Entity.SELECT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A snapshot of the cached rows of the tables of a {@link Schema} in a local file, with which the caches are warm-started instead
+ * of being preloaded from the DB.
+ * <p>
+ * A table is included in the snapshot only if a {@link Delta} is specified for it, since a snapshot is stale by the time it is
+ * restored: after the rows of the snapshot are restored, the {@link Delta} of each table selects the rows that were modified since
+ * the snapshot was written. The {@link OnConnectPreLoad} of a restored table is not applied.
+ * <p>
+ * The {@link Delta} selects from a watermark, which is the greatest timestamp of the changes that had been applied to the caches
+ * when the snapshot was written (or the time at which the caches were loaded, if later), less a safety margin (see
+ * {@link Builder#withSafetyMargin(long)}). The margin covers the changes that were committed before the watermark, but whose
+ * notifications had not yet been applied, as well as the skew between the clocks of the DB and the JVM.
+ * <p>
+ * A snapshot of a table is restored only if the names and types of its columns are unchanged. Only the rows of a table, and
+ * whether all of its rows are cached, are restored. The masks of the {@link CacheMap}s of the table (i.e. the keys that are known
+ * to have no row, and the ranges that are known to be loaded) are not restored, so that such keys and ranges are selected from the
+ * DB upon their first access.
+ * <p>
+ * <b>Note:</b> Rows that were deleted since the snapshot was written are not detected by a {@link Delta} that selects by a
+ * modification timestamp, and remain in the cache until they are deleted again, or until the snapshot exceeds its maximum age
+ * (see {@link Builder#withMaxAge(long)}). Tables with {@code BLOB}, {@code CLOB} or {@code ARRAY} columns are not supported.
+ *
+ * @see CacheConfig#withSnapshot(CacheSnapshot)
+ */
+public final class CacheSnapshot {
+  private static final Logger logger = LoggerFactory.getLogger(CacheSnapshot.class);
+
+  private static final int MAGIC = 0x4A584453; // "JXDS"
+  private static final int VERSION = 2;
+  private static final long DEFAULT_SAFETY_MARGIN_MS = 60000;
+
+  private static final byte NULL = 0;
+  private static final byte BOOLEAN = 1;
+  private static final byte BYTE = 2;
+  private static final byte SHORT = 3;
+  private static final byte INTEGER = 4;
+  private static final byte LONG = 5;
+  private static final byte FLOAT = 6;
+  private static final byte DOUBLE = 7;
+  private static final byte DECIMAL = 8;
+  private static final byte STRING = 9;
+  private static final byte BINARY = 10;
+  private static final byte DATE = 11;
+  private static final byte TIME = 12;
+  private static final byte DATETIME = 13;
+  private static final byte ENUM = 14;
+
+  /**
+   * Definition of the {@link SELECT} of the rows of a table that were modified since a snapshot was written.
+   *
+   * @param <T> The type parameter of the {@link data.Table}.
+   */
+  @FunctionalInterface
+  public static interface Delta<T extends data.Table> {
+    /**
+     * Returns the {@link SELECT} of the rows of the provided table that were modified at or after the provided timestamp, or
+     * {@code null} if no rows are to be selected.
+     *
+     * @param table The table.
+     * @param timestamp The epoch millisecond watermark of the snapshot, which is the greatest timestamp of the changes that had been
+     *          applied to the caches when the snapshot was written (or the time at which the caches were loaded, if later), less the
+     *          safety margin of the snapshot.
+     * @return The {@link SELECT} of the rows of the provided table that were modified at or after the provided timestamp.
+     * @throws IOException If an I/O error has occurred.
+     * @throws SQLException If a SQL error has occurred.
+     */
+    SELECT<T> apply(T table, long timestamp) throws IOException, SQLException;
+  }
+
+  public static class Builder {
+    private final Path file;
+    private final IdentityHashMap<data.Table,Delta<?>> deltas = new IdentityHashMap<>();
+    private long intervalMs = -1;
+    private long maxAgeMs = -1;
+    private long safetyMarginMs = DEFAULT_SAFETY_MARGIN_MS;
+    private boolean writeOnShutdown;
+
+    /**
+     * Creates a new {@link Builder} for a {@link CacheSnapshot} in the provided file.
+     *
+     * @param file The file of the snapshot.
+     * @throws IllegalArgumentException If {@code file} is null.
+     */
+    public Builder(final Path file) {
+      this.file = assertNotNull(file);
+    }
+
+    /**
+     * Includes the provided table in the snapshot, with the provided {@link Delta}.
+     *
+     * @param <T> The type parameter of the table.
+     * @param delta The {@link Delta}.
+     * @param table The table.
+     * @return {@code this} builder.
+     * @throws IllegalArgumentException If {@code delta} or {@code table} is null.
+     */
+    public <T extends type.Table$> Builder withDelta(final Delta<? super T> delta, final T table) {
+      deltas.put((data.Table)assertNotNull(table), assertNotNull(delta));
+      return this;
+    }
+
+    /**
+     * Sets the interval at which the snapshot is written by a background thread.
+     *
+     * @param ms The interval in milliseconds.
+     * @return {@code this} builder.
+     * @throws IllegalArgumentException If {@code ms} is not greater than 0.
+     */
+    public Builder withInterval(final long ms) {
+      if (ms <= 0)
+        throw new IllegalArgumentException("ms (" + ms + ") must be greater than 0");
+
+      this.intervalMs = ms;
+      return this;
+    }
+
+    /**
+     * Sets the maximum age of a snapshot that is restored. An older snapshot is ignored, and its tables are preloaded from the DB.
+     *
+     * @param ms The maximum age in milliseconds.
+     * @return {@code this} builder.
+     * @throws IllegalArgumentException If {@code ms} is not greater than 0.
+     */
+    public Builder withMaxAge(final long ms) {
+      if (ms <= 0)
+        throw new IllegalArgumentException("ms (" + ms + ") must be greater than 0");
+
+      this.maxAgeMs = ms;
+      return this;
+    }
+
+    /**
+     * Sets the safety margin by which the watermark of the snapshot precedes the greatest timestamp of the changes that had been
+     * applied to the caches when the snapshot was written. The margin must exceed the latency of the notifications of changes, and
+     * the skew between the clocks of the DB and the JVM. The default is 60 seconds.
+     *
+     * @param ms The safety margin in milliseconds.
+     * @return {@code this} builder.
+     * @throws IllegalArgumentException If {@code ms} is negative.
+     */
+    public Builder withSafetyMargin(final long ms) {
+      if (ms < 0)
+        throw new IllegalArgumentException("ms (" + ms + ") must be greater than or equal to 0");
+
+      this.safetyMarginMs = ms;
+      return this;
+    }
+
+    /**
+     * Specifies that the snapshot is written when the JVM shuts down.
+     *
+     * @return {@code this} builder.
+     */
+    public Builder withWriteOnShutdown() {
+      this.writeOnShutdown = true;
+      return this;
+    }
+
+    public CacheSnapshot build() {
+      if (deltas.size() == 0)
+        throw new IllegalStateException("At least one table must be specified with withDelta(Delta,Table)");
+
+      return new CacheSnapshot(file, new IdentityHashMap<>(deltas), intervalMs, maxAgeMs, safetyMarginMs, writeOnShutdown);
+    }
+  }
+
+  private final Path file;
+  private final IdentityHashMap<data.Table,Delta<?>> deltas;
+  private final long intervalMs;
+  private final long maxAgeMs;
+  private final long safetyMarginMs;
+  private final boolean writeOnShutdown;
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private data.Table[] tables;
+  private ScheduledExecutorService scheduler;
+  // The Notifier that applies changes to the caches, and the time at which the caches were loaded, which are set upon restore
+  private volatile Notifier<?> notifier;
+  private volatile long loadedAt = -1;
+
+  private CacheSnapshot(final Path file, final IdentityHashMap<data.Table,Delta<?>> deltas, final long intervalMs, final long maxAgeMs, final long safetyMarginMs, final boolean writeOnShutdown) {
+    this.file = file;
+    this.deltas = deltas;
+    this.intervalMs = intervalMs;
+    this.maxAgeMs = maxAgeMs;
+    this.safetyMarginMs = safetyMarginMs;
+    this.writeOnShutdown = writeOnShutdown;
+  }
+
+  public Path getFile() {
+    return file;
+  }
+
+  private static boolean isSupported(final data.Table table) {
+    if (table.getCache() == null)
+      return false;
+
+    for (final data.Column<?> column : table._column$) // [A]
+      if (column instanceof data.BLOB || column instanceof data.CLOB || column instanceof data.ARRAY)
+        return false;
+
+    return true;
+  }
+
+  /**
+   * Binds this {@link CacheSnapshot} to the provided cached tables, and starts its background writes.
+   *
+   * @param cached The cached tables of the {@link Schema}.
+   */
+  void bind(final data.Table[] cached) {
+    final ArrayList<data.Table> tables = new ArrayList<>();
+    for (final data.Table table : cached) { // [A]
+      if (deltas.containsKey(table)) {
+        if (isSupported(table))
+          tables.add(table);
+        else if (logger.isWarnEnabled()) { logger.warn("Table \"" + table.getName() + "\" is not supported by CacheSnapshot, and is excluded"); }
+      }
+    }
+
+    this.tables = tables.toArray(new data.Table[tables.size()]);
+    if (intervalMs != -1) {
+      scheduler = Executors.newSingleThreadScheduledExecutor((final Runnable r) -> {
+        final Thread thread = new Thread(r, "JAXDB-Snapshot");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+      scheduler.scheduleWithFixedDelay(this::writeQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    if (writeOnShutdown)
+      Runtime.getRuntime().addShutdownHook(new Thread(this::writeQuietly, "JAXDB-Snapshot-Shutdown"));
+  }
+
+  private void writeQuietly() {
+    try {
+      write();
+    }
+    catch (final Throwable t) {
+      if (logger.isErrorEnabled()) { logger.error("Unable to write cache snapshot to " + file, t); }
+    }
+  }
+
+  /**
+   * Returns the watermark from which the {@link Delta}s select the rows that were modified after the cached rows were written.
+   *
+   * @return The watermark from which the {@link Delta}s select the rows that were modified after the cached rows were written.
+   */
+  private long getWatermark() {
+    final Notifier<?> notifier = this.notifier;
+    final long applied = notifier != null ? notifier.getLastTimestamp() : -1;
+    // Before the caches were loaded (i.e. loadedAt == -1), the watermark precedes all changes
+    final long watermark = Math.max(loadedAt, applied);
+    return watermark == -1 ? 0 : Math.max(0, watermark - safetyMarginMs);
+  }
+
+  /**
+   * Writes the cached rows of the tables of this {@link CacheSnapshot} to its file. The file is replaced atomically, so that a
+   * failed write does not corrupt the previous snapshot.
+   *
+   * @throws IOException If an I/O error has occurred.
+   * @throws IllegalStateException If this {@link CacheSnapshot} has not been bound to a {@link Schema} via
+   *           {@link CacheConfig#withSnapshot(CacheSnapshot)}.
+   */
+  public void write() throws IOException {
+    final data.Table[] tables = this.tables;
+    if (tables == null)
+      throw new IllegalStateException("CacheSnapshot is not bound to a Schema");
+
+    writeLock.lock();
+    try {
+      final long ts = System.nanoTime();
+      final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+      try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        // The watermark is determined before the rows are written, so that the rows reflect at least the changes before it
+        out.writeLong(getWatermark());
+        for (final data.Table table : tables) { // [A]
+          out.writeBoolean(true);
+          writeTable(out, table);
+        }
+
+        out.writeBoolean(false);
+      }
+
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      if (logger.isDebugEnabled()) { logger.debug("Wrote cache snapshot to " + file + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ts) + "ms"); }
+    }
+    finally {
+      writeLock.unlock();
+    }
+  }
+
+  private static void writeTable(final DataOutputStream out, final data.Table table) throws IOException {
+    final CacheMap<?> cache = table.getCache();
+    final data.Column<?>[] columns = table._column$;
+    writeString(out, table.getName());
+    out.writeBoolean(cache.containsKey(data.Key.ALL));
+    out.writeInt(columns.length);
+    for (final data.Column<?> column : columns) { // [A]
+      writeString(out, column.getName());
+      writeString(out, getType(column));
+    }
+
+    for (final Object value : cache.values()) { // [C]
+      final data.Table row = (data.Table)value;
+      out.writeBoolean(true);
+      for (final data.Column<?> column : row._column$) // [A]
+        writeValue(out, column.get());
+    }
+
+    out.writeBoolean(false);
+  }
+
+  private static void writeString(final DataOutputStream out, final String value) throws IOException {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(final DataInputStream in) throws IOException {
+    final byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeValue(final DataOutputStream out, final Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    }
+    else if (value instanceof EntityEnum) {
+      out.writeByte(ENUM);
+      writeString(out, value.toString());
+    }
+    else if (value instanceof String) {
+      out.writeByte(STRING);
+      writeString(out, (String)value);
+    }
+    else if (value instanceof Integer) {
+      out.writeByte(INTEGER);
+      out.writeInt((Integer)value);
+    }
+    else if (value instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long)value);
+    }
+    else if (value instanceof Short) {
+      out.writeByte(SHORT);
+      out.writeShort((Short)value);
+    }
+    else if (value instanceof Byte) {
+      out.writeByte(BYTE);
+      out.writeByte((Byte)value);
+    }
+    else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean)value);
+    }
+    else if (value instanceof Float) {
+      out.writeByte(FLOAT);
+      out.writeFloat((Float)value);
+    }
+    else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double)value);
+    }
+    else if (value instanceof BigDecimal) {
+      out.writeByte(DECIMAL);
+      writeString(out, ((BigDecimal)value).toString());
+    }
+    else if (value instanceof byte[]) {
+      final byte[] bytes = (byte[])value;
+      out.writeByte(BINARY);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+    else if (value instanceof LocalDate) {
+      out.writeByte(DATE);
+      out.writeLong(((LocalDate)value).toEpochDay());
+    }
+    else if (value instanceof LocalTime) {
+      out.writeByte(TIME);
+      out.writeLong(((LocalTime)value).toNanoOfDay());
+    }
+    else if (value instanceof LocalDateTime) {
+      final LocalDateTime dateTime = (LocalDateTime)value;
+      out.writeByte(DATETIME);
+      out.writeLong(dateTime.toLocalDate().toEpochDay());
+      out.writeLong(dateTime.toLocalTime().toNanoOfDay());
+    }
+    else {
+      throw new IOException("Unsupported type: " + value.getClass().getName());
+    }
+  }
+
+  private static EntityEnum toEnum(final data.Column<?> column, final String text) throws IOException {
+    for (final EntityEnum constant : ((data.ENUM<?>)column).type().getEnumConstants()) // [A]
+      if (constant.toString().equals(text))
+        return constant;
+
+    throw new IOException("Unknown value \"" + text + "\" of ENUM column \"" + column.getName() + "\"");
+  }
+
+  /**
+   * Returns the value that is read from the provided {@link DataInputStream}, or {@code null} if {@code column} is null, in which
+   * case the value is skipped.
+   */
+  private static Object readValue(final DataInputStream in, final data.Column<?> column) throws IOException {
+    final byte type = in.readByte();
+    switch (type) {
+      case NULL:
+        return null;
+      case BOOLEAN:
+        return in.readBoolean();
+      case BYTE:
+        return in.readByte();
+      case SHORT:
+        return in.readShort();
+      case INTEGER:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case FLOAT:
+        return in.readFloat();
+      case DOUBLE:
+        return in.readDouble();
+      case DECIMAL:
+        return new BigDecimal(readString(in));
+      case STRING:
+        return readString(in);
+      case BINARY:
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+      case DATE:
+        return LocalDate.ofEpochDay(in.readLong());
+      case TIME:
+        return LocalTime.ofNanoOfDay(in.readLong());
+      case DATETIME:
+        final LocalDate date = LocalDate.ofEpochDay(in.readLong());
+        return LocalDateTime.of(date, LocalTime.ofNanoOfDay(in.readLong()));
+      case ENUM:
+        final String text = readString(in);
+        return column == null ? null : toEnum(column, text);
+      default:
+        throw new IOException("Unknown type: " + type);
+    }
+  }
+
+  private data.Table getTable(final String name) {
+    for (final data.Table table : tables) // [A]
+      if (table.getName().equals(name))
+        return table;
+
+    return null;
+  }
+
+  private static String getType(final data.Column<?> column) {
+    final String type = column.getClass().getName();
+    return column instanceof data.ENUM ? type + "<" + ((data.ENUM<?>)column).type().getName() + ">" : type;
+  }
+
+  private static boolean isCompatible(final data.Table table, final String[] columnNames, final String[] columnTypes) {
+    final data.Column<?>[] columns = table._column$;
+    if (columns.length != columnNames.length)
+      return false;
+
+    for (int i = 0, i$ = columns.length; i < i$; ++i) // [A]
+      if (!columns[i].getName().equals(columnNames[i]) || !getType(columns[i]).equals(columnTypes[i]))
+        return false;
+
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static data.Table readRow(final DataInputStream in, final data.Table table) throws IOException {
+    final data.Table row = table.clone();
+    final data.Column<?>[] columns = row._column$;
+    for (int i = 0, i$ = columns.length; i < i$; ++i) { // [A]
+      final data.Column<Object> column = (data.Column<Object>)columns[i];
+      column.set(readValue(in, column), data.Column.SetBy.SYSTEM);
+      column._commitEntity$();
+    }
+
+    return row;
+  }
+
+  /**
+   * Restores the rows of the tables of this {@link CacheSnapshot} from its file, and then selects the rows of each restored table
+   * that were modified since the snapshot was written. The rows of a table are applied only after all of its rows have been read,
+   * so that a truncated or corrupt file restores none of the rows of the table being read.
+   *
+   * @param notifier The {@link Notifier} to which the restored rows are applied.
+   * @return The tables that were restored, which are not to be preloaded.
+   * @throws IOException If an I/O error has occurred selecting the deltas.
+   * @throws SQLException If a SQL error has occurred selecting the deltas.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  Set<data.Table> restore(final Notifier<?> notifier) throws IOException, SQLException {
+    this.notifier = notifier;
+    this.loadedAt = System.currentTimeMillis();
+    final Set<data.Table> restored = Collections.newSetFromMap(new IdentityHashMap<>());
+    if (!Files.exists(file))
+      return restored;
+
+    final long ts = System.nanoTime();
+    long watermark = -1;
+    try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        if (logger.isWarnEnabled()) { logger.warn("Ignoring cache snapshot " + file + " of unknown format"); }
+        return restored;
+      }
+
+      final long timestamp = in.readLong();
+      watermark = in.readLong();
+      if (maxAgeMs != -1 && System.currentTimeMillis() - timestamp > maxAgeMs) {
+        if (logger.isInfoEnabled()) { logger.info("Ignoring cache snapshot " + file + " older than " + maxAgeMs + "ms"); }
+        return restored;
+      }
+
+      while (in.readBoolean()) {
+        final String name = readString(in);
+        final boolean all = in.readBoolean();
+        final int noColumns = in.readInt();
+        final String[] columnNames = new String[noColumns];
+        final String[] columnTypes = new String[noColumns];
+        for (int i = 0; i < noColumns; ++i) { // [A]
+          columnNames[i] = readString(in);
+          columnTypes[i] = readString(in);
+        }
+
+        data.Table table = getTable(name);
+        if (table != null && !isCompatible(table, columnNames, columnTypes)) {
+          if (logger.isWarnEnabled()) { logger.warn("Ignoring cache snapshot of \"" + name + "\", because its columns have changed"); }
+          table = null;
+        }
+
+        final ArrayList<data.Table> rows = new ArrayList<>();
+        while (in.readBoolean()) {
+          if (table != null) {
+            rows.add(readRow(in, table));
+          }
+          else {
+            for (int i = 0, i$ = columnNames.length; i < i$; ++i) // [A]
+              readValue(in, null);
+          }
+        }
+
+        if (table != null) {
+          for (int i = 0, i$ = rows.size(); i < i$; ++i) // [RA]
+            notifier.onSelect(rows.get(i));
+
+          if (all)
+            table._commitSelectAll$();
+
+          restored.add(table);
+          if (logger.isDebugEnabled()) { logger.debug("Restored " + rows.size() + " rows of \"" + name + "\" from cache snapshot " + file); }
+        }
+      }
+    }
+    catch (final IOException e) {
+      if (logger.isWarnEnabled()) { logger.warn("Unable to read cache snapshot " + file + ", restored " + restored.size() + " tables", e); }
+    }
+
+    for (final data.Table table : restored) { // [S]
+      final SELECT<data.Table> select = ((Delta)deltas.get(table)).apply(table, watermark);
+      if (select != null) {
+        try (final RowIterator<data.Table> rows = select.execute(table.getSchema().getConnector(), CacheConfig.withoutCacheSelectEntity)) {
+          while (rows.nextRow())
+            notifier.onSelect(rows.nextEntity());
+        }
+      }
+    }
+
+    if (logger.isInfoEnabled()) { logger.info("Restored " + restored.size() + " tables from cache snapshot " + file + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ts) + "ms"); }
+    return restored;
+  }
+
+  /**
+   * Stops the background writes of this {@link CacheSnapshot}.
+   */
+  public void close() {
+    final ScheduledExecutorService scheduler = this.scheduler;
+    if (scheduler != null)
+      scheduler.shutdown();
+  }
+}
@@ -0,0 +1,395 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.libj.lang.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A {@link CacheMetrics} that keeps per-table counters and load-latency histograms in memory. The metrics can be exposed via JMX
+ * with {@link #registerMBeans(MBeanServer)}, or bound to a meter registry (such as Micrometer's) with {@link #bindTo(Registry)}.
+ */
+public class CacheStats implements CacheMetrics {
+  /**
+   * A registry of meters, to which a {@link CacheStats} binds its metrics with {@link CacheStats#bindTo(Registry)}. For Micrometer,
+   * the methods map to {@code FunctionCounter.builder(name, ...)} and {@code Gauge.builder(name, ...)} with {@code Tags.of(tags)}.
+   */
+  public interface Registry {
+    /**
+     * Registers a monotonically increasing counter.
+     *
+     * @param name The name of the counter.
+     * @param tags The tags of the counter, as alternating keys and values.
+     * @param value The supplier of the value of the counter.
+     */
+    void counter(String name, String[] tags, DoubleSupplier value);
+
+    /**
+     * Registers a gauge.
+     *
+     * @param name The name of the gauge.
+     * @param tags The tags of the gauge, as alternating keys and values.
+     * @param value The supplier of the value of the gauge.
+     */
+    void gauge(String name, String[] tags, DoubleSupplier value);
+  }
+
+  /**
+   * The JMX management interface of the metrics of the cache of a single table.
+   */
+  public interface TableStatsMBean {
+    String getTableName();
+    long getHitCount();
+    long getMissCount();
+    double getHitRatio();
+    long getLoadCount();
+    long getLoadFailureCount();
+    long getLoadedKeyCount();
+    long getTotalLoadTime();
+    double getAverageLoadTime();
+    long[] getLoadTimeHistogram();
+    long getInsertCount();
+    long getUpdateCount();
+    long getDeleteCount();
+    long getEvictionCount();
+    long getExpirationCount();
+    long getResyncCount();
+    long getResyncFailureCount();
+    int getEntryCount();
+  }
+
+  /**
+   * The metrics of the cache of a single table. The load-time histogram has {@value #BUCKETS} buckets, where bucket {@code i} counts
+   * the loads that took less than {@code 2^i} microseconds (and the last bucket counts all longer loads).
+   */
+  public static final class TableStats implements TableStatsMBean {
+    public static final int BUCKETS = 24;
+
+    private final data.Table table;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadedKeys = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final AtomicLongArray loadTimeHistogram = new AtomicLongArray(BUCKETS);
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder deletes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+    private final LongAdder resyncFailures = new LongAdder();
+
+    private TableStats(final data.Table table) {
+      this.table = table;
+    }
+
+    @Override
+    public String getTableName() {
+      return table.getName();
+    }
+
+    @Override
+    public long getHitCount() {
+      return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+      return misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+      final long hits = getHitCount();
+      final long total = hits + getMissCount();
+      return total == 0 ? 1 : (double)hits / total;
+    }
+
+    @Override
+    public long getLoadCount() {
+      return loads.sum();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+      return loadFailures.sum();
+    }
+
+    @Override
+    public long getLoadedKeyCount() {
+      return loadedKeys.sum();
+    }
+
+    /**
+     * Returns the total time spent in loads, in nanoseconds.
+     *
+     * @return The total time spent in loads, in nanoseconds.
+     */
+    @Override
+    public long getTotalLoadTime() {
+      return loadNanos.sum();
+    }
+
+    /**
+     * Returns the average time of a load, in nanoseconds.
+     *
+     * @return The average time of a load, in nanoseconds.
+     */
+    @Override
+    public double getAverageLoadTime() {
+      final long loads = getLoadCount() + getLoadFailureCount();
+      return loads == 0 ? 0 : (double)getTotalLoadTime() / loads;
+    }
+
+    @Override
+    public long[] getLoadTimeHistogram() {
+      final long[] histogram = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; ++i) // [A]
+        histogram[i] = loadTimeHistogram.get(i);
+
+      return histogram;
+    }
+
+    @Override
+    public long getInsertCount() {
+      return inserts.sum();
+    }
+
+    @Override
+    public long getUpdateCount() {
+      return updates.sum();
+    }
+
+    @Override
+    public long getDeleteCount() {
+      return deletes.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+      return evictions.sum();
+    }
+
+    @Override
+    public long getExpirationCount() {
+      return expirations.sum();
+    }
+
+    @Override
+    public long getResyncCount() {
+      return resyncs.sum();
+    }
+
+    @Override
+    public long getResyncFailureCount() {
+      return resyncFailures.sum();
+    }
+
+    @Override
+    public int getEntryCount() {
+      final CacheMap<?> cache = table.getCache();
+      return cache == null ? 0 : cache.size();
+    }
+
+    private void recordLoad(final int keys, final long nanos, final boolean success) {
+      (success ? loads : loadFailures).increment();
+      if (keys > 0)
+        loadedKeys.add(keys);
+
+      loadNanos.add(nanos);
+      final long micros = nanos / 1000;
+      final int bucket = micros <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+      loadTimeHistogram.incrementAndGet(bucket);
+    }
+
+    @Override
+    public String toString() {
+      return "{table:\"" + getTableName() + "\",hits:" + getHitCount() + ",misses:" + getMissCount() + ",loads:" + getLoadCount() + ",loadFailures:" + getLoadFailureCount() + ",totalLoadTime:" + getTotalLoadTime() + ",inserts:" + getInsertCount() + ",updates:" + getUpdateCount() + ",deletes:" + getDeleteCount() + ",evictions:" + getEvictionCount() + ",expirations:" + getExpirationCount() + ",resyncs:" + getResyncCount() + ",resyncFailures:" + getResyncFailureCount() + ",entries:" + getEntryCount() + "}";
+    }
+  }
+
+  private final ConcurrentHashMap<String,TableStats> tableNameToStats = new ConcurrentHashMap<>();
+
+  private TableStats stats(final data.Table table) {
+    final String tableName = table.getName();
+    final TableStats stats = tableNameToStats.get(tableName);
+    return stats != null ? stats : tableNameToStats.computeIfAbsent(tableName, (final String k) -> new TableStats(table.singleton()));
+  }
+
+  /**
+   * Returns the {@link TableStats} of the provided table, or {@code null} if no metrics have been recorded for the table.
+   *
+   * @param table The table.
+   * @return The {@link TableStats} of the provided table, or {@code null} if no metrics have been recorded for the table.
+   * @throws NullPointerException If {@code table} is null.
+   */
+  public TableStats getStats(final type.Table$ table) {
+    return tableNameToStats.get(((data.Table)table).getName());
+  }
+
+  /**
+   * Returns an unmodifiable view of the {@link TableStats} of all tables for which metrics have been recorded.
+   *
+   * @return An unmodifiable view of the {@link TableStats} of all tables for which metrics have been recorded.
+   */
+  public Collection<TableStats> getStats() {
+    return Collections.unmodifiableCollection(tableNameToStats.values());
+  }
+
+  /**
+   * Creates the {@link TableStats} of the provided tables, so that their metrics are exposed by
+   * {@link #registerMBeans(MBeanServer)} and {@link #bindTo(Registry)} before any metrics are recorded for them.
+   *
+   * @param tables The tables.
+   * @return {@code this} {@link CacheStats}.
+   */
+  public CacheStats with(final type.Table$ ... tables) {
+    for (final type.Table$ table : tables) // [A]
+      stats((data.Table)table);
+
+    return this;
+  }
+
+  @Override
+  public void onHit(final data.Table table) {
+    stats(table).hits.increment();
+  }
+
+  @Override
+  public void onMiss(final data.Table table) {
+    stats(table).misses.increment();
+  }
+
+  @Override
+  public void onLoad(final data.Table table, final int keys, final long nanos, final boolean success) {
+    stats(table).recordLoad(keys, nanos, success);
+  }
+
+  @Override
+  public void onNotification(final data.Table table, final Notification.Action action) {
+    final TableStats stats = stats(table);
+    if (action == Notification.Action.INSERT)
+      stats.inserts.increment();
+    else if (action == Notification.Action.DELETE)
+      stats.deletes.increment();
+    else
+      stats.updates.increment();
+  }
+
+  @Override
+  public void onEviction(final data.Table table, final boolean expired) {
+    final TableStats stats = stats(table);
+    (expired ? stats.expirations : stats.evictions).increment();
+  }
+
+  @Override
+  public void onResync(final data.Table table, final int keys, final long nanos, final boolean success) {
+    final TableStats stats = stats(table);
+    (success ? stats.resyncs : stats.resyncFailures).increment();
+  }
+
+  private static ObjectName getObjectName(final String domain, final TableStats stats) throws JMException {
+    return new ObjectName(domain + ":type=CacheStats,table=" + ObjectName.quote(stats.getTableName()));
+  }
+
+  /**
+   * Registers a {@link TableStatsMBean} for each table whose {@link TableStats} exist at the time of this call, with the object name
+   * {@code org.jaxdb.jsql:type=CacheStats,table="<name>"}. An MBean that is already registered is skipped.
+   *
+   * @param server The {@link MBeanServer}.
+   * @return The {@link ObjectName}s of the registered MBeans.
+   * @throws JMException If a JMX error occurs.
+   * @throws IllegalArgumentException If {@code server} is null.
+   */
+  public ArrayList<ObjectName> registerMBeans(final MBeanServer server) throws JMException {
+    assertNotNull(server);
+    final ArrayList<ObjectName> names = new ArrayList<>();
+    for (final TableStats stats : tableNameToStats.values()) { // [C]
+      final ObjectName name = getObjectName("org.jaxdb.jsql", stats);
+      try {
+        server.registerMBean(stats, name);
+        names.add(name);
+      }
+      catch (final InstanceAlreadyExistsException e) {
+      }
+    }
+
+    return names;
+  }
+
+  /**
+   * Unregisters the MBeans that were registered with {@link #registerMBeans(MBeanServer)}.
+   *
+   * @param server The {@link MBeanServer}.
+   * @throws JMException If a JMX error occurs.
+   * @throws IllegalArgumentException If {@code server} is null.
+   */
+  public void unregisterMBeans(final MBeanServer server) throws JMException {
+    assertNotNull(server);
+    for (final TableStats stats : tableNameToStats.values()) { // [C]
+      try {
+        server.unregisterMBean(getObjectName("org.jaxdb.jsql", stats));
+      }
+      catch (final InstanceNotFoundException e) {
+      }
+    }
+  }
+
+  /**
+   * Binds the metrics of each table whose {@link TableStats} exist at the time of this call to the provided {@link Registry}. All
+   * meters are named {@code jaxdb.cache.*}, and are tagged with {@code table=<name>}.
+   *
+   * @param registry The {@link Registry}.
+   * @throws IllegalArgumentException If {@code registry} is null.
+   */
+  public void bindTo(final Registry registry) {
+    assertNotNull(registry);
+    for (final TableStats stats : tableNameToStats.values()) { // [C]
+      final String[] tags = {"table", stats.getTableName()};
+      registry.counter("jaxdb.cache.hits", tags, stats::getHitCount);
+      registry.counter("jaxdb.cache.misses", tags, stats::getMissCount);
+      registry.counter("jaxdb.cache.loads", tags, stats::getLoadCount);
+      registry.counter("jaxdb.cache.load.failures", tags, stats::getLoadFailureCount);
+      registry.counter("jaxdb.cache.load.keys", tags, stats::getLoadedKeyCount);
+      registry.counter("jaxdb.cache.load.time", tags, () -> stats.getTotalLoadTime() / 1e9);
+      registry.counter("jaxdb.cache.inserts", tags, stats::getInsertCount);
+      registry.counter("jaxdb.cache.updates", tags, stats::getUpdateCount);
+      registry.counter("jaxdb.cache.deletes", tags, stats::getDeleteCount);
+      registry.counter("jaxdb.cache.evictions", tags, stats::getEvictionCount);
+      registry.counter("jaxdb.cache.expirations", tags, stats::getExpirationCount);
+      registry.counter("jaxdb.cache.resyncs", tags, stats::getResyncCount);
+      registry.counter("jaxdb.cache.resync.failures", tags, stats::getResyncFailureCount);
+      registry.gauge("jaxdb.cache.entries", tags, stats::getEntryCount);
+      registry.gauge("jaxdb.cache.hit.ratio", tags, stats::getHitRatio);
+    }
+  }
+}
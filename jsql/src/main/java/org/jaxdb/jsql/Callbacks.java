@@ -21,8 +21,11 @@ import static org.libj.lang.Assertions.*;
 import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 import java.util.function.IntConsumer;
 
@@ -98,15 +101,27 @@ public final class Callbacks implements Closeable {
     private final AtomicInteger indexOut = new AtomicInteger();
     private final AtomicReference<OnNotifyCallback> root = new AtomicReference<>();
     private final AtomicReference<OnNotifyCallback> head = new AtomicReference<>();
+    // Guards the count, which is awaited on the changed condition
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private boolean isNotified;
 
     OnNotifyCallbackList(final String sessionId) {
       this.sessionId = sessionId;
     }
 
+    int getCount() {
+      return count.get();
+    }
+
     void setCount(final int count) {
-      synchronized (this.count) {
+      lock.lock();
+      try {
         this.count.set(count);
-        this.count.notify();
+        changed.signalAll();
+      }
+      finally {
+        lock.unlock();
       }
     }
 
@@ -124,21 +139,22 @@ public final class Callbacks implements Closeable {
         return true;
       }
 
-      synchronized (this.count) {
-        try {
-          index = this.indexOut.get();
-          count = this.count.get();
-          if (index == count)
-            return true;
-
-          final long ts = System.currentTimeMillis();
-          // if (logger.isTraceEnabled()) { logger.trace(getClass().getSimpleName() + "[" + sessionId + "].await(" + timeout + ")"); }
-          this.count.wait(timeoutMs);
-          return System.currentTimeMillis() - ts < timeoutMs || this.indexOut.get() == this.count.get();
-        }
-        finally {
-          clear();
-        }
+      lock.lock();
+      try {
+        index = this.indexOut.get();
+        count = this.count.get();
+        if (index == count)
+          return true;
+
+        // if (logger.isTraceEnabled()) { logger.trace(getClass().getSimpleName() + "[" + sessionId + "].await(" + timeout + ")"); }
+        for (long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs); !isNotified && nanos > 0;) // [X]
+          nanos = changed.awaitNanos(nanos);
+
+        return isNotified || this.indexOut.get() == this.count.get();
+      }
+      finally {
+        clear();
+        lock.unlock();
       }
     }
 
@@ -147,17 +163,16 @@ public final class Callbacks implements Closeable {
       final int index = this.indexIn.incrementAndGet();
       int count = this.count.get();
       if (count == -1) {
-        synchronized (this.count) {
-          count = this.count.get();
-          if (count == -1) {
-            try {
-              this.count.wait();
-              count = this.count.get();
-            }
-            catch (final InterruptedException ie) {
-              throw new IllegalStateException(ie);
-            }
-          }
+        lock.lock();
+        try {
+          while ((count = this.count.get()) == -1)
+            changed.await();
+        }
+        catch (final InterruptedException ie) {
+          throw new IllegalStateException(ie);
+        }
+        finally {
+          lock.unlock();
         }
       }
 
@@ -192,12 +207,17 @@ public final class Callbacks implements Closeable {
       finally {
         if (indexOut.incrementAndGet() == count || isEmpty()) {
           schema.removeSession(sessionId);
-          synchronized (this.count) {
+          lock.lock();
+          try {
             // if (logger.isTraceEnabled()) { logger.trace(getClass().getSimpleName() + "[" + sessionId + "].testThrows(" +
             // ObjectUtil.simpleIdentityString(e) + ").notify()"); }
-            this.count.notify();
+            isNotified = true;
+            changed.signalAll();
             clear();
           }
+          finally {
+            lock.unlock();
+          }
         }
       }
     }
@@ -0,0 +1,135 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+/**
+ * Configuration of the change-log tables and of their poller, with which the {@link Notification.Listener}s of a {@link Connector}
+ * are notified of changes on DB vendors other than PostgreSQL.
+ * <p>
+ * For each table with a {@link Notification.Listener}, a change-log table named {@code jaxdb_log_<table>} is created, to which
+ * triggers on the table write the action and the old and new primary key of each changed row. The change-log tables are polled in
+ * order of their monotonically increasing sequence, and the current rows of the changed keys are then selected from their tables.
+ * <p>
+ * <b>Note:</b> If multiple applications consume the same change-log tables, the retention must exceed the number of changes that
+ * accumulate while an application is disconnected.
+ *
+ * @see Connector#getChangeLog()
+ */
+public final class ChangeLog {
+  /** The default {@link ChangeLog}, with a poll interval of 1s, a batch size of 1000, and a retention of 10000 entries. */
+  public static final ChangeLog DEFAULT = new Builder().build();
+
+  public static class Builder {
+    private long pollIntervalMs = 1000;
+    private int batchSize = 1000;
+    private long retention = 10000;
+
+    /**
+     * Sets the interval at which the change-log tables are polled when no changes are pending.
+     *
+     * @param ms The interval in milliseconds.
+     * @return {@code this} builder.
+     * @throws IllegalArgumentException If {@code ms} is not greater than 0.
+     */
+    public Builder withPollInterval(final long ms) {
+      if (ms <= 0)
+        throw new IllegalArgumentException("ms (" + ms + ") must be greater than 0");
+
+      this.pollIntervalMs = ms;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of changes that are read from a change-log table in one poll.
+     *
+     * @param batchSize The maximum number of changes that are read from a change-log table in one poll.
+     * @return {@code this} builder.
+     * @throws IllegalArgumentException If {@code batchSize} is not greater than 0.
+     */
+    public Builder withBatchSize(final int batchSize) {
+      if (batchSize <= 0)
+        throw new IllegalArgumentException("batchSize (" + batchSize + ") must be greater than 0");
+
+      this.batchSize = batchSize;
+      return this;
+    }
+
+    /**
+     * Sets the number of the most recent entries of a change-log table that are retained after they have been read. Older entries
+     * are deleted by the poller.
+     *
+     * @param retention The number of the most recent entries of a change-log table that are retained.
+     * @return {@code this} builder.
+     * @throws IllegalArgumentException If {@code retention} is negative.
+     */
+    public Builder withRetention(final long retention) {
+      if (retention < 0)
+        throw new IllegalArgumentException("retention (" + retention + ") must be greater than or equal to 0");
+
+      this.retention = retention;
+      return this;
+    }
+
+    /**
+     * Specifies that entries of the change-log tables are never deleted by the poller.
+     *
+     * @return {@code this} builder.
+     */
+    public Builder withoutPruning() {
+      this.retention = -1;
+      return this;
+    }
+
+    public ChangeLog build() {
+      return new ChangeLog(pollIntervalMs, batchSize, retention);
+    }
+  }
+
+  private final long pollIntervalMs;
+  private final int batchSize;
+  private final long retention;
+
+  private ChangeLog(final long pollIntervalMs, final int batchSize, final long retention) {
+    this.pollIntervalMs = pollIntervalMs;
+    this.batchSize = batchSize;
+    this.retention = retention;
+  }
+
+  public long getPollInterval() {
+    return pollIntervalMs;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Returns the number of the most recent entries of a change-log table that are retained, or {@code -1} if entries are never
+   * deleted.
+   *
+   * @return The number of the most recent entries of a change-log table that are retained, or {@code -1} if entries are never
+   *         deleted.
+   */
+  public long getRetention() {
+    return retention;
+  }
+
+  @Override
+  public String toString() {
+    return "{pollInterval:" + pollIntervalMs + ",batchSize:" + batchSize + ",retention:" + retention + "}";
+  }
+}
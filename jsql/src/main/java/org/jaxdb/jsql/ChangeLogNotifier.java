@@ -0,0 +1,459 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.jaxdb.jsql.DML.*;
+import static org.libj.logging.LoggerUtil.*;
+import static org.slf4j.event.Level.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Predicate;
+
+import org.jaxdb.jsql.Notification.Action;
+import org.jaxdb.vendor.DbVendor;
+import org.jaxdb.vendor.Dialect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Notifier} for DB vendors without {@code LISTEN/NOTIFY}, which polls change-log tables that are written by triggers.
+ * <p>
+ * For each table, the triggers write the action, and the old ({@code o_}) and/or new ({@code n_}) primary key columns of each
+ * changed row to {@code jaxdb_log_<table>}, with a monotonically increasing sequence. The poller reads the entries after the last
+ * read sequence, selects the current rows of the inserted and updated keys from the table, and dispatches the changes in order of
+ * their sequence. Since the current row is selected, a row that is changed multiple times between polls is notified with its latest
+ * state, and a row that no longer exists is not notified as inserted or updated.
+ * <p>
+ * A sequence that is allocated by a transaction that has not yet committed is skipped by the entries that are read after it. Such a
+ * skipped sequence is read again on each poll until it is found, or until {@link #gapTimeoutMs} has elapsed. The skipped sequences,
+ * as well as the keys of the rows that are selected from the table, are bound in chunks of at most
+ * {@link CacheMap#MAX_IN_PARAMETERS} parameters, so that no statement exceeds the limits of the DB.
+ *
+ * @see ChangeLog
+ */
+class ChangeLogNotifier extends Notifier<Runnable> {
+  private static final Logger logger = LoggerFactory.getLogger(ChangeLogNotifier.class);
+
+  private static final String prefix = "jaxdb_log_";
+  private static final long gapTimeoutMs = 10000;
+
+  private static final char INSERT = 'I';
+  private static final char UPDATE = 'U';
+  private static final char DELETE = 'D';
+
+  /** The state of the poll of the change-log table of one table. */
+  private final class Log {
+    private final data.Table table;
+    private final String selectFrom;
+    private final String select;
+    private final String delete;
+    private long lastSeq;
+    private long prunedSeq;
+    // The skipped sequences, mapped to the time at which they were first skipped
+    private final TreeMap<Long,Long> gaps = new TreeMap<>();
+
+    private Log(final data.Table table, final long lastSeq) {
+      this.table = table;
+      this.lastSeq = lastSeq;
+      this.prunedSeq = lastSeq;
+      final String log = q(prefix + table.getName());
+      final StringBuilder select = new StringBuilder("SELECT ").append(q("jaxdb_seq")).append(", ").append(q("jaxdb_action"));
+      for (final data.Column<?> column : table._primary$) // [A]
+        select.append(", ").append(q("o_" + column.name)).append(", ").append(q("n_" + column.name));
+
+      this.selectFrom = select.append(" FROM ").append(log).append(" WHERE ").append(q("jaxdb_seq")).toString();
+      this.select = selectFrom + " > ?";
+      this.delete = "DELETE FROM " + log + " WHERE " + q("jaxdb_seq") + " <= ?";
+    }
+
+    private StringBuilder appendIn(final StringBuilder sql, final int noGaps) {
+      sql.append(" IN (");
+      for (int i = 0; i < noGaps; ++i) // [N]
+        sql.append(i == 0 ? "?" : ", ?");
+
+      return sql.append(") ORDER BY ").append(q("jaxdb_seq"));
+    }
+
+    /**
+     * Returns the SQL of the entries after {@link #lastSeq}, and of the provided number of skipped sequences.
+     */
+    private String getSelect(final int noGaps) {
+      if (noGaps == 0)
+        return select + " ORDER BY " + q("jaxdb_seq");
+
+      return appendIn(new StringBuilder(select).append(" OR ").append(q("jaxdb_seq")), noGaps).toString();
+    }
+
+    /**
+     * Returns the SQL of the entries of the provided number of skipped sequences.
+     */
+    private String getSelectGaps(final int noGaps) {
+      return appendIn(new StringBuilder(selectFrom), noGaps).toString();
+    }
+
+    /**
+     * Reads the entries of the provided {@link ResultSet} into {@code changes}, and records the sequences that were skipped.
+     */
+    private void read(final ResultSet resultSet, final ArrayList<Object[]> changes, final long now) throws SQLException {
+      while (resultSet.next()) {
+        final long seq = resultSet.getLong(1);
+        final char action = resultSet.getString(2).charAt(0);
+        if (gaps.remove(seq) == null) {
+          // A skip that exceeds the batch size is a jump of the sequence (i.e. a cached range that was lost on restart of the DB),
+          // rather than sequences of transactions that are yet to commit
+          if (seq - lastSeq <= changeLog.getBatchSize())
+            for (long s = lastSeq + 1; s < seq; ++s) // [N]
+              gaps.put(s, now);
+
+          lastSeq = seq;
+        }
+
+        changes.add(new Object[] {seq, action, action == INSERT ? null : readKey(resultSet, 3), action == DELETE ? null : readKey(resultSet, 4)});
+      }
+    }
+
+    private data.Table readKey(final ResultSet resultSet, final int offset) throws SQLException {
+      final data.Table row = table.clone();
+      final data.Column<?>[] primary = row._primary$;
+      for (int i = 0, i$ = primary.length; i < i$; ++i) // [A]
+        primary[i].read(compiler, resultSet, offset + i * 2);
+
+      return row;
+    }
+
+    /**
+     * Reads, selects and dispatches the next changes of this change-log table, and returns the number of changes that were read.
+     */
+    private int poll(final Connection connection) throws IOException, SQLException {
+      final long now = System.currentTimeMillis();
+      for (final Iterator<Long> i = gaps.values().iterator(); i.hasNext();) // [I]
+        if (now - i.next() > gapTimeoutMs)
+          i.remove();
+
+      final Long[] skipped = gaps.keySet().toArray(new Long[gaps.size()]);
+      final ArrayList<Object[]> changes = new ArrayList<>();
+      // The first chunk of the skipped sequences is read with the entries after lastSeq
+      int from = Math.min(skipped.length, CacheMap.MAX_IN_PARAMETERS);
+      try (final PreparedStatement statement = connection.prepareStatement(getSelect(from))) {
+        statement.setMaxRows(changeLog.getBatchSize());
+        statement.setLong(1, lastSeq);
+        for (int i = 0; i < from; ++i) // [A]
+          statement.setLong(i + 2, skipped[i]);
+
+        try (final ResultSet resultSet = statement.executeQuery()) {
+          read(resultSet, changes, now);
+        }
+      }
+
+      // The remaining skipped sequences are read in chunks, and their entries are dispatched in order of their sequence
+      if (from < skipped.length) {
+        for (int to; from < skipped.length; from = to) { // [A]
+          to = Math.min(skipped.length, from + CacheMap.MAX_IN_PARAMETERS);
+          try (final PreparedStatement statement = connection.prepareStatement(getSelectGaps(to - from))) {
+            for (int i = from; i < to; ++i) // [A]
+              statement.setLong(i - from + 1, skipped[i]);
+
+            try (final ResultSet resultSet = statement.executeQuery()) {
+              read(resultSet, changes, now);
+            }
+          }
+        }
+
+        changes.sort((final Object[] a, final Object[] b) -> Long.compare((Long)a[0], (Long)b[0]));
+      }
+
+      if (changes.size() == 0)
+        return 0;
+
+      dispatch(changes);
+      prune(connection);
+      return changes.size();
+    }
+
+    private void dispatch(final ArrayList<Object[]> changes) throws IOException, SQLException {
+      final HashMap<data.Key,data.Table> rows = new HashMap<>();
+      final int maxKeys = CacheMap.getMaxInKeys(table._primary$);
+      final ArrayList<data.Key> keys = new ArrayList<>(Math.min(changes.size(), maxKeys));
+      for (int i = 0, i$ = changes.size(); i < i$; ++i) { // [RA]
+        final data.Table cur = (data.Table)changes.get(i)[3];
+        if (cur != null) {
+          keys.add(cur.getKey());
+          if (keys.size() == maxKeys) {
+            select(keys, rows);
+            keys.clear();
+          }
+        }
+      }
+
+      if (keys.size() > 0)
+        select(keys, rows);
+
+      final long timestamp = System.currentTimeMillis();
+      for (int i = 0, i$ = changes.size(); i < i$; ++i) { // [RA]
+        final Object[] change = changes.get(i);
+        final char action = (Character)change[1];
+        final data.Table old = (data.Table)change[2];
+        if (action == DELETE) {
+          ChangeLogNotifier.this.notify(old, null, timestamp, Action.DELETE);
+          continue;
+        }
+
+        final data.Table cur = rows.get(((data.Table)change[3]).getKey());
+        if (cur == null)
+          continue;
+
+        if (action == INSERT)
+          ChangeLogNotifier.this.notify(cur, null, timestamp, Action.INSERT);
+        else
+          ChangeLogNotifier.this.notify(old.merge$(cur), null, timestamp, Action.UPDATE);
+      }
+    }
+
+    /**
+     * Selects the current rows of the provided keys from the table into {@code rows}.
+     */
+    private void select(final ArrayList<data.Key> keys, final HashMap<data.Key,data.Table> rows) throws IOException, SQLException {
+      final Connector connector = table.getSchema().getConnector();
+      try (final RowIterator<data.Table> iterator = SELECT(table).FROM(table).WHERE(CacheMap.inEq(keys)).execute(connector, CacheConfig.withoutCacheSelectEntity)) {
+        while (iterator.nextRow()) {
+          final data.Table row = iterator.nextEntity();
+          rows.put(row.getKey(), row);
+        }
+      }
+    }
+
+    private void prune(final Connection connection) throws SQLException {
+      final long retention = changeLog.getRetention();
+      if (retention == -1)
+        return;
+
+      // Entries at or after the first gap are retained, so that an entry of a transaction that commits late is not deleted
+      final long upTo = (gaps.size() == 0 ? lastSeq : Math.min(lastSeq, gaps.firstKey() - 1)) - retention;
+      if (upTo <= prunedSeq)
+        return;
+
+      try (final PreparedStatement statement = connection.prepareStatement(delete)) {
+        statement.setLong(1, upTo);
+        statement.executeUpdate();
+      }
+
+      prunedSeq = upTo;
+    }
+  }
+
+  private final DbVendor vendor;
+  private final ChangeLog changeLog;
+  private final Dialect dialect;
+  private final Compiler compiler;
+  private final ConcurrentHashMap<String,Log> logs = new ConcurrentHashMap<>();
+  private volatile Thread poller;
+
+  ChangeLogNotifier(final DbVendor vendor, final Connection connection, final ConnectionFactory connectionFactory, final ThreadFactory threadFactory, final Executor executor, final int queueCapacity, final Predicate<data.Table> isCoalesce, final ChangeLog changeLog) throws SQLException {
+    super(vendor, connection, connectionFactory, threadFactory, executor, queueCapacity, isCoalesce);
+    if (vendor != DbVendor.DERBY && vendor != DbVendor.MARIA_DB && vendor != DbVendor.MY_SQL && vendor != DbVendor.ORACLE && vendor != DbVendor.SQLITE)
+      throw new UnsupportedOperationException("Unsupported DbVendor: " + vendor);
+
+    this.vendor = vendor;
+    this.changeLog = changeLog;
+    this.dialect = vendor.getDialect();
+    this.compiler = Compiler.getCompiler(vendor);
+  }
+
+  private String q(final String identifier) {
+    return dialect.quoteIdentifier(new StringBuilder(), identifier).toString();
+  }
+
+  private String getCreateLogTable(final data.Table table) {
+    final StringBuilder sql = new StringBuilder("CREATE TABLE ").append(q(prefix + table.getName())).append(" (").append(q("jaxdb_seq"));
+    compiler.compileChangeLogSequence(sql).append(", ").append(q("jaxdb_action")).append(" CHAR(1) NOT NULL");
+    for (final data.Column<?> column : table._primary$) { // [A]
+      column.declare(sql.append(", ").append(q("o_" + column.name)).append(' '), vendor);
+      column.declare(sql.append(", ").append(q("n_" + column.name)).append(' '), vendor);
+    }
+
+    return sql.append(')').toString();
+  }
+
+  private static String getTriggerName(final data.Table table, final char action) {
+    return prefix + table.getName() + "_" + Character.toLowerCase(action);
+  }
+
+  private String getCreateTrigger(final data.Table table, final char action) {
+    final String oldRecord = compiler.getTriggerRecord("OLD");
+    final String newRecord = compiler.getTriggerRecord("NEW");
+    final StringBuilder sql = new StringBuilder("CREATE TRIGGER ").append(q(getTriggerName(table, action))).append(" AFTER ").append(action == INSERT ? "INSERT" : action == UPDATE ? "UPDATE" : "DELETE").append(" ON ").append(q(table.getName()));
+    compiler.compileTriggerReferencing(sql, action != INSERT, action != DELETE).append(" FOR EACH ROW ");
+
+    final StringBuilder columns = new StringBuilder(q("jaxdb_action"));
+    final StringBuilder values = new StringBuilder("'").append(action).append('\'');
+    for (final data.Column<?> column : table._primary$) { // [A]
+      if (action != INSERT) {
+        columns.append(", ").append(q("o_" + column.name));
+        values.append(", ").append(oldRecord).append('.').append(q(column.name));
+      }
+
+      if (action != DELETE) {
+        columns.append(", ").append(q("n_" + column.name));
+        values.append(", ").append(newRecord).append('.').append(q(column.name));
+      }
+    }
+
+    final StringBuilder insert = new StringBuilder("INSERT INTO ").append(q(prefix + table.getName())).append(" (").append(columns).append(") VALUES (").append(values).append(')');
+    return compiler.compileTriggerBody(sql, insert).toString();
+  }
+
+  private static boolean exists(final PreparedStatement statement, final String name) throws SQLException {
+    statement.setString(1, name);
+    try (final ResultSet resultSet = statement.executeQuery()) {
+      return resultSet.next();
+    }
+  }
+
+  private static boolean hasTable(final Connection connection, final String name) throws SQLException {
+    final DatabaseMetaData metaData = connection.getMetaData();
+    try (final ResultSet resultSet = metaData.getTables(connection.getCatalog(), null, name, new String[] {"TABLE"})) {
+      return resultSet.next();
+    }
+  }
+
+  private long getMaxSeq(final Statement statement, final data.Table table) throws SQLException {
+    try (final ResultSet resultSet = statement.executeQuery("SELECT MAX(" + q("jaxdb_seq") + ") FROM " + q(prefix + table.getName()))) {
+      return resultSet.next() ? resultSet.getLong(1) : 0;
+    }
+  }
+
+  @Override
+  void checkCreateTriggers(final Statement statement, final data.Table[] tables, final Action[][] actionSets) throws SQLException {
+    logm(logger, TRACE, "%?.checkCreateTriggers", "%?", this, statement);
+    final Connection connection = statement.getConnection();
+    try (final PreparedStatement selectTrigger = connection.prepareStatement(compiler.getSelectTrigger())) {
+      for (int i = 0, i$ = tables.length; i < i$; ++i) { // [A]
+        final Action[] actionSet = actionSets[i];
+        if (actionSet == null)
+          continue;
+
+        final data.Table table = tables[i];
+        if (table._primary$.length == 0)
+          throw new IllegalArgumentException("Cannot create change-log on table without primary key: " + table.getName());
+
+        boolean isEmpty = true;
+        for (final Action action : actionSet) // [A]
+          if (action != null)
+            isEmpty = false;
+
+        for (final char action : new char[] {INSERT, UPDATE, DELETE}) { // [A]
+          final String triggerName = getTriggerName(table, action);
+          final boolean exists = exists(selectTrigger, triggerName);
+          // The triggers are created and dropped together, since the actions are filtered by the TableNotifier
+          if (isEmpty) {
+            if (exists)
+              statement.execute("DROP TRIGGER " + q(triggerName));
+          }
+          else if (!exists) {
+            if (!hasTable(connection, prefix + table.getName()))
+              statement.execute(getCreateLogTable(table));
+
+            statement.execute(getCreateTrigger(table, action));
+          }
+        }
+
+        if (isEmpty)
+          logs.remove(table.getName());
+        else if (!logs.containsKey(table.getName()))
+          logs.put(table.getName(), new Log(table, getMaxSeq(statement, table)));
+      }
+    }
+  }
+
+  @Override
+  void listenTriggers(final Statement statement) {
+  }
+
+  private final Runnable pollTask = new Runnable() {
+    @Override
+    public void run() {
+      while (poller == Thread.currentThread() && !isClosed() && !isErrored()) {
+        try {
+          int count = 0;
+          if (isStarted()) {
+            final Connection connection = getConnection(null);
+            for (final Log log : logs.values()) // [C]
+              count += log.poll(connection);
+          }
+
+          if (count == 0)
+            Thread.sleep(changeLog.getPollInterval());
+        }
+        catch (final InterruptedException e) {
+          return;
+        }
+        catch (final IOException | SQLException e) {
+          // The change-log tables retain the entries that were not read, so polling resumes from the last read sequence
+          if (logger.isWarnEnabled()) { logger.warn("Failed to poll change-log tables, retrying in " + changeLog.getPollInterval() + "ms", e); }
+          try {
+            Thread.sleep(changeLog.getPollInterval());
+          }
+          catch (final InterruptedException ie) {
+            return;
+          }
+        }
+      }
+    }
+  };
+
+  @Override
+  void start(final Connection connection) throws IOException, SQLException {
+    logm(logger, TRACE, "%?.start", "%?", this, connection);
+    if (isClosed())
+      return;
+
+    reconnect(connection, pollTask);
+  }
+
+  @Override
+  void tryReconnect(final Connection connection, final Runnable listener) {
+    logm(logger, TRACE, "%?.tryReconnect", "%?,%?", this, connection, listener);
+    if (poller != null)
+      return;
+
+    final Thread poller = newThread(listener, "JAXDB-ChangeLog");
+    this.poller = poller;
+    poller.start();
+  }
+
+  @Override
+  protected void stop() {
+    final Thread poller = this.poller;
+    if (poller != null) {
+      this.poller = null;
+      poller.interrupt();
+    }
+  }
+}
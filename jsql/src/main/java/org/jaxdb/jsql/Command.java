@@ -32,6 +32,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.jaxdb.jsql.Callbacks.OnCommit;
 import org.jaxdb.jsql.Callbacks.OnExecute;
@@ -49,7 +51,6 @@ import org.jaxdb.vendor.DbVendor;
 import org.libj.lang.Throwables;
 import org.libj.lang.UUIDs;
 import org.libj.sql.AuditConnection;
-import org.libj.sql.AuditStatement;
 import org.libj.sql.ResultSets;
 import org.libj.sql.exception.SQLExceptions;
 import org.libj.util.ArrayUtil;
@@ -180,6 +181,20 @@ abstract class Command<E> extends Keyword implements Closeable {
       return this;
     }
 
+    boolean isSelect() {
+      return select != null;
+    }
+
+    /**
+     * Returns whether this {@link Insert} is compiled to a single-row {@code INSERT ... VALUES (...)}, which can be combined with
+     * other such {@link Insert}s of the same SQL into a multi-row {@code INSERT}.
+     *
+     * @return Whether this {@link Insert} is compiled to a single-row {@code INSERT ... VALUES (...)}.
+     */
+    boolean isValues() {
+      return select == null && !isOnConflict;
+    }
+
     @Override
     public keyword.Insert.ON_CONFLICT ON_CONFLICT() {
       isOnConflict = true;
@@ -632,52 +647,125 @@ abstract class Command<E> extends Keyword implements Closeable {
           return columns.toArray(new data.Column<?>[columns.size()]);
         }
 
-        private Object[][] compile(final type.Entity[] entities, final int length, final int index, final int depth) {
-          if (index == length)
-            return new Object[depth][2];
+        private int getNoProtoSubjects(final type.Entity[] entities) {
+          int noProtoSubjects = 0;
+          for (final type.Entity entity : entities) { // [A]
+            if (entity instanceof data.Table) {
+              noProtoSubjects += ((data.Table)entity)._column$.length;
+            }
+            else if (entity instanceof type.Column || entity instanceof untyped.SELECT) {
+              isEntityOnlySelect = false;
+              ++noProtoSubjects;
+            }
+            else {
+              throw new IllegalStateException("Unknown entity type: " + entity.getClass().getName());
+            }
+          }
 
-          final type.Entity entity = entities[index];
-          if (entity instanceof data.Table) {
-            final data.Table table = (data.Table)entity;
-            final int noColumns = table._column$.length;
-            final Object[][] protoSubjectIndexes = compile(entities, length, index + 1, depth + noColumns);
-            for (int i = 0; i < noColumns; ++i) { // [A]
-              final Object[] array = protoSubjectIndexes[depth + i];
-              array[0] = table._column$[i];
-              array[1] = i;
+          return noProtoSubjects;
+        }
+
+        /**
+         * Fills the provided {@code protoSubjects} with the {@link Subject}s of the projection of this SELECT, and the provided
+         * {@code protoIndexes} (if not null) with the index of each {@link Subject} in its {@link data.Table}, or {@code -1} if the
+         * {@link Subject} is not a column of a selected {@link data.Table}.
+         *
+         * @param entities The entities of this SELECT.
+         * @param protoSubjects The array of {@link Subject}s to fill.
+         * @param protoIndexes The array of indexes to fill, or {@code null} if the indexes are already known.
+         */
+        private static void compile(final type.Entity[] entities, final Subject[] protoSubjects, final int[] protoIndexes) {
+          for (int i = 0, i$ = entities.length, depth = 0; i < i$; ++i) { // [A]
+            final type.Entity entity = entities[i];
+            if (entity instanceof data.Table) {
+              final data.Column<?>[] columns = ((data.Table)entity)._column$;
+              for (int j = 0, j$ = columns.length; j < j$; ++j, ++depth) { // [A]
+                protoSubjects[depth] = columns[j];
+                if (protoIndexes != null)
+                  protoIndexes[depth] = j;
+              }
             }
+            else {
+              if (entity instanceof type.Column) {
+                protoSubjects[depth] = (Subject)entity;
+              }
+              else {
+                final type.Entity[] selectEntities = ((untyped.SELECT<?>)entity).entities;
+                if (selectEntities.length != 1)
+                  throw new IllegalStateException("Expected 1 entity, but got " + selectEntities.length);
 
-            return protoSubjectIndexes;
-          }
+                final type.Entity selectEntity = selectEntities[0];
+                if (!(selectEntity instanceof data.Column))
+                  throw new IllegalStateException("Expected data.Column, but got: " + selectEntity.getClass().getName());
+
+                protoSubjects[depth] = (Subject)selectEntity;
+              }
 
-          if (entity instanceof type.Column) {
-            isEntityOnlySelect = false;
-            final type.Column<?> column = (type.Column<?>)entity;
-            final Object[][] protoSubjectIndexes = compile(entities, length, index + 1, depth + 1);
-            final Object[] array = protoSubjectIndexes[depth];
-            array[0] = column;
-            array[1] = -1;
-            return protoSubjectIndexes;
+              if (protoIndexes != null)
+                protoIndexes[depth] = -1;
+
+              ++depth;
+            }
           }
+        }
+
+        private SelectShape shape;
+        private data.Column<?>[] shapeBindings;
 
-          if (entity instanceof untyped.SELECT) {
-            isEntityOnlySelect = false;
-            final type.Entity[] selectEntities = ((untyped.SELECT<?>)entity).entities;
-            if (selectEntities.length != 1)
-              throw new IllegalStateException("Expected 1 entity, but got " + selectEntities.length);
+        @Override
+        public final SELECT<D> shape(final SelectShape shape, final data.Column<?> ... bindings) {
+          assertNotNull(shape);
+          assertNotNull(bindings);
+          this.shape = shape;
+          this.shapeBindings = bindings;
+          return this;
+        }
 
-            final type.Entity selectEntity = selectEntities[0];
-            if (!(selectEntity instanceof data.Column))
-              throw new IllegalStateException("Expected data.Column, but got: " + selectEntity.getClass().getName());
+        /**
+         * Returns the signature of this SELECT for its {@link SelectShape}, or {@code null} if this SELECT cannot be cached by a
+         * {@link SelectShape}.
+         *
+         * @return The signature of this SELECT for its {@link SelectShape}, or {@code null} if this SELECT cannot be cached by a
+         *         {@link SelectShape}.
+         * @see SelectShape#appendSignature(ArrayList,Subject,data.Column[])
+         */
+        private ArrayList<Object> getShapeSignature() {
+          if (joins != null || groupBy != null || having != null || unions != null)
+            return null;
 
-            final Object[][] protoSubjectIndexes = compile(entities, length, index + 1, depth + 1);
-            final Object[] array = protoSubjectIndexes[depth];
-            array[0] = selectEntity;
-            array[1] = -1;
-            return protoSubjectIndexes;
-          }
+          final ArrayList<Object> signature = new ArrayList<>();
+          signature.add(distinct);
+          for (final type.Entity entity : entities) // [A]
+            if (!SelectShape.appendSignature(signature, (Subject)entity, shapeBindings))
+              return null;
 
-          throw new IllegalStateException("Unknown entity type: " + entity.getClass().getName());
+          final data.Table[] from = from();
+          if (from != null)
+            for (final data.Table table : from) // [A]
+              signature.add(table.getClass());
+
+          if (!SelectShape.appendSignature(signature, (Subject)where(), shapeBindings))
+            return null;
+
+          if (orderBy != null)
+            for (final data.Column<?> column : orderBy) // [A]
+              if (!SelectShape.appendSignature(signature, column, shapeBindings))
+                return null;
+
+          if (orderByIndexes != null)
+            for (final int orderByIndex : orderByIndexes) // [A]
+              signature.add(orderByIndex);
+
+          signature.add(limit);
+          signature.add(offset);
+          signature.add(forLockStrength);
+          signature.add(forLockOption);
+          if (forSubjects != null)
+            for (final Subject forSubject : forSubjects) // [A]
+              if (!SelectShape.appendSignature(signature, forSubject, shapeBindings))
+                return null;
+
+          return signature;
         }
 
         void assertRowIteratorConsumed(final boolean endReached, final boolean isCacheable, final SQLException e, final boolean isCacheableRowIteratorFullConsume) throws SQLException {
@@ -698,10 +786,12 @@ abstract class Command<E> extends Keyword implements Closeable {
           assertNotClosed();
 
           Statement statement = null;
+          StatementCache statementCache = null;
           try {
             if (transaction != null) {
               isPrepared = transaction.isPrepared();
               connection = transaction.getConnection();
+              statementCache = transaction.getStatementCache();
             }
             else if (connection == null) {
               if (connector == null)
@@ -712,172 +802,268 @@ abstract class Command<E> extends Keyword implements Closeable {
               connection.setAutoCommit(true);
             }
 
-            final DbVendor vendor = DbVendor.valueOf(connection.getMetaData());
-            try (final Compilation compilation = new Compilation(this, vendor, isPrepared)) {
-              final QueryConfig defaultQueryConfig = schema.defaultQueryConfig;
-
-              isEntityOnlySelect = true;
-              final Object[][] protoSubjectIndexes = compile(entities, entities.length, 0, 0);
-              final boolean cacheSelectEntity = QueryConfig.getCacheSelectEntity(contextQueryConfig, defaultQueryConfig);
-              compile(compilation, false, cacheSelectEntity);
-              final Notifier<?> notifier;
-              final boolean isSelectAll;
-              if (cacheSelectEntity) {
-                notifier = schema.getCacheNotifier();
-                isSelectAll = isEntityOnlySelect && !isConditionalSelect;
-              }
-              else {
-                notifier = null;
-                isSelectAll = false;
+            final DbVendor vendor = Connector.getVendor(transaction, connector, connection);
+            final Compiler compiler = Compiler.getCompiler(vendor);
+            final QueryConfig defaultQueryConfig = schema.defaultQueryConfig;
+
+            isEntityOnlySelect = true;
+            final Subject[] protoSubjects = new Subject[getNoProtoSubjects(entities)];
+            final boolean cacheSelectEntity = QueryConfig.getCacheSelectEntity(contextQueryConfig, defaultQueryConfig);
+            final boolean flyweightRows = QueryConfig.getFlyweightRows(contextQueryConfig, defaultQueryConfig);
+            if (flyweightRows && cacheSelectEntity)
+              throw new IllegalStateException("QueryConfig.flyweightRows=true cannot be combined with QueryConfig.cacheSelectEntity=true");
+
+            final ArrayList<Object> shapeSignature = shape == null ? null : getShapeSignature();
+            final SelectShape.Plan plan = shape == null ? null : shape.get(vendor, isPrepared);
+            final int[] protoIndexes;
+            final int columnOffset;
+            final ResultSet resultSet;
+            if (plan != null) {
+              if (cacheSelectEntity && !isEntityOnlySelect)
+                throw new IllegalStateException("QueryConfig.cacheSelectEntity=true can only be fulfilled for queries that exclusively select entities instead of individual columns");
+
+              if (!plan.signature.equals(shapeSignature))
+                throw new IllegalStateException("SELECT does not match its shape: " + shapeSignature + " != " + plan.signature);
+
+              compile(entities, protoSubjects, null);
+              protoIndexes = plan.protoIndexes;
+              columnOffset = plan.columnOffset;
+              isConditionalSelect = plan.isConditionalSelect;
+              resultSet = QueryConfig.executeQuery(contextQueryConfig, defaultQueryConfig, plan.sql, isPrepared, compiler, plan.bind(shapeBindings), statementCache, connection);
+            }
+            else {
+              try (final Compilation compilation = new Compilation(this, vendor, compiler, isPrepared)) {
+                compile(entities, protoSubjects, protoIndexes = new int[protoSubjects.length]);
+                compile(compilation, false, cacheSelectEntity);
+                columnOffset = compilation.skipFirstColumn() ? 2 : 1;
+                if (shape != null && shape.isCacheable(vendor, isPrepared))
+                  shape.put(compilation, shapeBindings, protoIndexes, isConditionalSelect, shapeSignature);
+
+                resultSet = QueryConfig.executeQuery(contextQueryConfig, defaultQueryConfig, compilation, statementCache, connection);
               }
+            }
 
-              final int columnOffset = compilation.skipFirstColumn() ? 2 : 1;
-              final Compiler compiler = compilation.compiler;
-
-              final ResultSet resultSet = QueryConfig.executeQuery(contextQueryConfig, defaultQueryConfig, compilation, connection);
-              if (callbacks != null)
-                callbacks.onExecute(Statement.SUCCESS_NO_INFO);
-
-              final Connector connectorFinal = connector;
-              final Connection connectionFinal = connection;
-              final Statement statementFinal = statement = resultSet.getStatement();
-              final int noColumns = resultSet.getMetaData().getColumnCount() + 1 - columnOffset;
-              return new RowIterator<D>(resultSet, contextQueryConfig, defaultQueryConfig) {
-                private final boolean isCacheableRowIteratorFullConsume = QueryConfig.getCacheableRowIteratorFullConsume(contextQueryConfig, defaultQueryConfig);
-                private HashMap<Class<?>,data.Table> prototypes = new HashMap<>();
-                private HashMap<data.Table,data.Table> cachedTables = new HashMap<>();
-                private data.Table currentTable;
-                private boolean mustFetchRow = false;
-
-                @Override
-                public boolean nextRow() throws SQLException {
-                  if (endReached)
-                    return false;
-
-                  try {
-                    if (endReached = !resultSet.next()) {
-                      if (isSelectAll)
-                        table._commitSelectAll$();
+            final Notifier<?> notifier;
+            final boolean isSelectAll;
+            if (cacheSelectEntity) {
+              notifier = schema.getCacheNotifier();
+              isSelectAll = isEntityOnlySelect && !isConditionalSelect;
+            }
+            else {
+              notifier = null;
+              isSelectAll = false;
+            }
 
-                      return false;
-                    }
+            if (callbacks != null)
+              callbacks.onExecute(Statement.SUCCESS_NO_INFO);
+
+            final Connector connectorFinal = connector;
+            final Connection connectionFinal = connection;
+            final StatementCache statementCacheFinal = statementCache;
+            final Statement statementFinal = statement = resultSet.getStatement();
+            final int noColumns = resultSet.getMetaData().getColumnCount() + 1 - columnOffset;
+            return new RowIterator<D>(resultSet, contextQueryConfig, defaultQueryConfig, compiler) {
+              private final boolean isCacheableRowIteratorFullConsume = QueryConfig.getCacheableRowIteratorFullConsume(contextQueryConfig, defaultQueryConfig);
+              private HashMap<Class<?>,data.Table> prototypes = flyweightRows ? null : new HashMap<>();
+              private HashMap<data.Table,data.Table> cachedTables = flyweightRows ? null : new HashMap<>();
+              private data.Table currentTable;
+              private boolean mustFetchRow = false;
+              private type.Entity[] flyweightRow;
+              private data.Column<?>[] flyweightColumns;
+
+              @Override
+              public boolean nextRow() throws SQLException {
+                if (endReached)
+                  return false;
+
+                try {
+                  if (endReached = !resultSet.next()) {
+                    if (isSelectAll)
+                      table._commitSelectAll$();
 
-                    mustFetchRow = true;
-                  }
-                  catch (SQLException e) {
-                    e = Throwables.addSuppressed(e, suppressed);
-                    suppressed = null;
-                    throw SQLExceptions.toStrongType(e);
+                    return false;
                   }
 
-                  return true;
+                  mustFetchRow = true;
                 }
-
-                @Override
-                public D nextEntity() throws SQLException {
-                  fetchRow();
-                  return super.nextEntity();
+                catch (SQLException e) {
+                  e = Throwables.addSuppressed(e, suppressed);
+                  suppressed = null;
+                  throw SQLExceptions.toStrongType(e);
                 }
 
-                private void onSelect(final data.Table row) {
-                  if (notifier != null && row.getCacheSelectEntity())
-                    notifier.onSelect(row);
+                return true;
+              }
+
+              @Override
+              public D nextEntity() throws SQLException {
+                fetchRow();
+                return super.nextEntity();
+              }
+
+              private void onSelect(final data.Table row) {
+                if (notifier != null && row.getCacheSelectEntity())
+                  notifier.onSelect(row);
+              }
+
+              @SuppressWarnings("null")
+              private void fetchRow() throws SQLException {
+                if (!mustFetchRow)
+                  return;
+
+                if (flyweightRows) {
+                  fetchFlyweightRow();
+                  return;
                 }
 
-                @SuppressWarnings("null")
-                private void fetchRow() throws SQLException {
-                  if (!mustFetchRow)
-                    return;
-
-                  final type.Entity[] row;
-                  int index = 0;
-                  data.Table table;
-                  try {
-                    row = new type.Entity[entities.length];
-                    table = null;
-                    for (int i = 0; i < noColumns; ++i) { // [A]
-                      final Object[] protoSubjectIndex = protoSubjectIndexes[i];
-                      final Subject protoSubject = (Subject)protoSubjectIndex[0];
-                      final Integer protoIndex = (Integer)protoSubjectIndex[1];
-                      if (currentTable != null && (currentTable != protoSubject.getTable() || protoIndex == -1)) {
-                        data.Table cachedTable = cachedTables.get(table);
-                        if (cachedTable == null) {
-                          cachedTables.put(table, cachedTable = table);
-                          prototypes.put(table.getClass(), table.newInstance());
-                        }
-
-                        row[index++] = cachedTable;
-                        onSelect(cachedTable);
+                final type.Entity[] row;
+                int index = 0;
+                data.Table table;
+                try {
+                  row = new type.Entity[entities.length];
+                  table = null;
+                  for (int i = 0; i < noColumns; ++i) { // [A]
+                    final Subject protoSubject = protoSubjects[i];
+                    final int protoIndex = protoIndexes[i];
+                    if (currentTable != null && (currentTable != protoSubject.getTable() || protoIndex == -1)) {
+                      data.Table cachedTable = cachedTables.get(table);
+                      if (cachedTable == null) {
+                        cachedTables.put(table, cachedTable = table);
+                        prototypes.put(table.getClass(), table.newInstance());
                       }
 
-                      final data.Column<?> column;
-                      if (protoIndex != -1) {
-                        currentTable = protoSubject.getTable();
-                        if (currentTable._mutable$) {
-                          table = currentTable;
-                        }
-                        else {
-                          table = prototypes.get(currentTable.getClass());
-                          if (table == null)
-                            prototypes.put(currentTable.getClass(), table = currentTable.newInstance());
-                        }
-
-                        column = table._column$[protoIndex];
+                      row[index++] = cachedTable;
+                      onSelect(cachedTable);
+                    }
+
+                    final data.Column<?> column;
+                    if (protoIndex != -1) {
+                      currentTable = protoSubject.getTable();
+                      if (currentTable._mutable$) {
+                        table = currentTable;
                       }
                       else {
-                        table = null;
-                        currentTable = null;
-                        if (protoSubject instanceof data.Column) {
-                          final data.Column<?> col = (data.Column<?>)protoSubject;
-                          column = col._mutable$ ? col : col.clone();
-                        }
-                        else {
-                          column = protoSubject.getColumn().clone();
-                        }
-
-                        row[index++] = column;
+                        table = prototypes.get(currentTable.getClass());
+                        if (table == null)
+                          prototypes.put(currentTable.getClass(), table = currentTable.newInstance());
                       }
 
-                      column.read(compiler, resultSet, i + columnOffset);
+                      column = table._column$[protoIndex];
                     }
+                    else {
+                      table = null;
+                      currentTable = null;
+                      if (protoSubject instanceof data.Column) {
+                        final data.Column<?> col = (data.Column<?>)protoSubject;
+                        column = col._mutable$ ? col : col.clone();
+                      }
+                      else {
+                        column = protoSubject.getColumn().clone();
+                      }
+
+                      row[index++] = column;
+                    }
+
+                    column.read(compiler, resultSet, i + columnOffset);
                   }
-                  catch (SQLException e) {
-                    e = Throwables.addSuppressed(e, suppressed);
-                    suppressed = null;
-                    throw SQLExceptions.toStrongType(e);
-                  }
+                }
+                catch (SQLException e) {
+                  e = Throwables.addSuppressed(e, suppressed);
+                  suppressed = null;
+                  throw SQLExceptions.toStrongType(e);
+                }
+
+                if (table != null) {
+                  final data.Table cachedTable = cachedTables.getOrDefault(table, table);
+                  row[index++] = cachedTable;
+                  onSelect(cachedTable);
+                }
 
-                  if (table != null) {
-                    final data.Table cachedTable = cachedTables.getOrDefault(table, table);
-                    row[index++] = cachedTable;
-                    onSelect(cachedTable);
+                setRow((D[])row);
+                prototypes.clear();
+                currentTable = null;
+                mustFetchRow = false;
+              }
+
+              /**
+               * Creates the single set of entities that is refilled for each row, and the columns into which each column of the
+               * {@link ResultSet} is read.
+               */
+              private void initFlyweightRow() {
+                final type.Entity[] row = flyweightRow = new type.Entity[entities.length];
+                final data.Column<?>[] columns = flyweightColumns = new data.Column<?>[noColumns];
+                data.Table table = null;
+                for (int i = 0, index = 0; i < noColumns; ++i) { // [A]
+                  final Subject protoSubject = protoSubjects[i];
+                  final int protoIndex = protoIndexes[i];
+                  if (protoIndex != -1) {
+                    if (protoIndex == 0) {
+                      final data.Table protoTable = protoSubject.getTable();
+                      row[index++] = table = protoTable._mutable$ ? protoTable : protoTable.newInstance();
+                    }
+
+                    columns[i] = table._column$[protoIndex];
                   }
+                  else {
+                    final data.Column<?> column;
+                    if (protoSubject instanceof data.Column) {
+                      final data.Column<?> col = (data.Column<?>)protoSubject;
+                      column = col._mutable$ ? col : col.clone();
+                    }
+                    else {
+                      column = protoSubject.getColumn().clone();
+                    }
 
-                  setRow((D[])row);
-                  prototypes.clear();
-                  currentTable = null;
-                  mustFetchRow = false;
+                    row[index++] = columns[i] = column;
+                  }
                 }
+              }
+
+              private void fetchFlyweightRow() throws SQLException {
+                if (flyweightRow == null)
+                  initFlyweightRow();
 
-                @Override
-                public void close() throws SQLException {
-                  SQLException e = Throwables.addSuppressed(suppressed, ResultSets.close(resultSet));
-                  e = Throwables.addSuppressed(e, AuditStatement.close(statementFinal));
-                  if (connectorFinal != null)
-                    e = Throwables.addSuppressed(e, AuditConnection.close(connectionFinal));
+                try {
+                  final data.Column<?>[] columns = flyweightColumns;
+                  for (int i = 0; i < noColumns; ++i) // [A]
+                    columns[i].read(compiler, resultSet, i + columnOffset);
+                }
+                catch (SQLException e) {
+                  e = Throwables.addSuppressed(e, suppressed);
+                  suppressed = null;
+                  throw SQLExceptions.toStrongType(e);
+                }
 
-                  prototypes = null;
-                  cachedTables = null;
-                  currentTable = null;
+                setRow((D[])flyweightRow);
+                mustFetchRow = false;
+              }
 
-                  assertRowIteratorConsumed(endReached, isEntityOnlySelect, e, isCacheableRowIteratorFullConsume);
+              @Override
+              public void close() throws SQLException {
+                SQLException e = Throwables.addSuppressed(suppressed, ResultSets.close(resultSet));
+                e = Throwables.addSuppressed(e, StatementCache.close(statementCacheFinal, statementFinal));
+                if (connectorFinal != null)
+                  e = Throwables.addSuppressed(e, AuditConnection.close(connectionFinal));
+
+                prototypes = null;
+                cachedTables = null;
+                currentTable = null;
+                flyweightRow = null;
+                flyweightColumns = null;
+
+                final Runnable onClose = this.onClose;
+                if (onClose != null) {
+                  this.onClose = null;
+                  onClose.run();
                 }
-              };
-            }
+
+                assertRowIteratorConsumed(endReached, isEntityOnlySelect, e, isCacheableRowIteratorFullConsume);
+              }
+            };
           }
           catch (SQLException e) {
             if (statement != null)
-              e = Throwables.addSuppressed(e, AuditStatement.close(statement));
+              e = Throwables.addSuppressed(e, StatementCache.close(statementCache, statement));
 
             if (connector != null && connection != null)
               e = Throwables.addSuppressed(e, AuditConnection.close(connection));
@@ -953,6 +1139,89 @@ abstract class Command<E> extends Keyword implements Closeable {
           return execute(schema, null, null, null, false, null, null);
         }
 
+        private CompletableFuture<RowIterator<D>> executeAsync0(final Connector connector, final Transaction.Isolation isolation, final QueryConfig config) {
+          assertNotClosed();
+          final Schema schema = getSchema();
+          final Connector asyncConnector = connector != null ? connector : schema.getConnector();
+          return asyncConnector.submit(() -> execute(schema, null, asyncConnector, null, false, isolation, config));
+        }
+
+        @Override
+        public final CompletableFuture<RowIterator<D>> executeAsync(final Connector connector, final Transaction.Isolation isolation, final QueryConfig config) {
+          return executeAsync0(assertNotNull(connector), isolation, config);
+        }
+
+        @Override
+        public final CompletableFuture<RowIterator<D>> executeAsync(final Connector connector, final QueryConfig config) {
+          return executeAsync0(assertNotNull(connector), null, config);
+        }
+
+        @Override
+        public final CompletableFuture<RowIterator<D>> executeAsync(final Transaction.Isolation isolation, final QueryConfig config) {
+          return executeAsync0(null, isolation, config);
+        }
+
+        @Override
+        public final CompletableFuture<RowIterator<D>> executeAsync(final QueryConfig config) {
+          return executeAsync0(null, null, config);
+        }
+
+        @Override
+        public final CompletableFuture<RowIterator<D>> executeAsync(final Connector connector, final Transaction.Isolation isolation) {
+          return executeAsync0(assertNotNull(connector), isolation, null);
+        }
+
+        @Override
+        public final CompletableFuture<RowIterator<D>> executeAsync(final Connector connector) {
+          return executeAsync0(assertNotNull(connector), null, null);
+        }
+
+        @Override
+        public final CompletableFuture<RowIterator<D>> executeAsync(final Transaction.Isolation isolation) {
+          return executeAsync0(null, isolation, null);
+        }
+
+        @Override
+        public CompletableFuture<RowIterator<D>> executeAsync() {
+          return executeAsync0(null, null, null);
+        }
+
+        private RowPublisher<D> publish(final Executor executor, final Transaction transaction, final Connector connector, final QueryConfig config) {
+          assertNotClosed();
+          final Schema schema = getSchema();
+          return new RowPublisher<>(() -> execute(schema, transaction, connector, null, false, null, config), executor, QueryConfig.getFetchSize(config, schema.defaultQueryConfig));
+        }
+
+        @Override
+        public final RowPublisher<D> publish(final Executor executor, final Connector connector, final QueryConfig config) {
+          return publish(executor, null, assertNotNull(connector), config);
+        }
+
+        @Override
+        public final RowPublisher<D> publish(final Executor executor, final Transaction transaction, final QueryConfig config) {
+          return publish(executor, assertNotNull(transaction), null, config);
+        }
+
+        @Override
+        public final RowPublisher<D> publish(final Executor executor, final QueryConfig config) {
+          return publish(executor, null, null, config);
+        }
+
+        @Override
+        public final RowPublisher<D> publish(final Executor executor, final Connector connector) {
+          return publish(executor, null, assertNotNull(connector), null);
+        }
+
+        @Override
+        public final RowPublisher<D> publish(final Executor executor, final Transaction transaction) {
+          return publish(executor, assertNotNull(transaction), null, null);
+        }
+
+        @Override
+        public final RowPublisher<D> publish(final Executor executor) {
+          return publish(executor, null, null, null);
+        }
+
         @Override
         final data.Table getTable() {
           if (tableCalled)
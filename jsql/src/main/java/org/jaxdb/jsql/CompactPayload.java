@@ -0,0 +1,203 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jaxdb.jsql.Notification.Action;
+import org.jaxdb.vendor.DbVendor;
+
+/**
+ * A compact notification payload, which is an alternative to the JSON payload of {@code ROW_TO_JSON(...)}. Columns are identified
+ * by their index in {@link data.Table#_column$}, instead of by name, and their values are length-prefixed, so that they are read
+ * directly from the payload into the {@link data.Column}s of a cloned row, without an intermediate JSON object.
+ *
+ * <pre>
+ * payload := '~' action ',' timestamp (':' seq)? ',' table ',' value section*
+ * action  := 'I' | 'U' | 'G' | 'D'           (INSERT, UPDATE, UPGRADE, DELETE)
+ * section := ('O' | 'C' | 'K') entry* ';'    (old row, current row, keyForUpdate)
+ * entry   := index value
+ * value   := '=' length ':' chars | '~'      (length in characters, or '~' for NULL)
+ * </pre>
+ *
+ * The {@code seq} is the change sequence of the table, and the first {@code value} is the session id. Each value is the text of the JSON representation of the column, so that it is parsed
+ * exactly as a value of the JSON payload.
+ */
+final class CompactPayload {
+  static final char PREFIX = '~';
+
+  static boolean isCompact(final String payload) {
+    return payload.length() > 0 && payload.charAt(0) == PREFIX;
+  }
+
+  /**
+   * Returns the name of the table of the provided compact payload.
+   *
+   * @param payload The compact payload.
+   * @return The name of the table of the provided compact payload.
+   */
+  static String getTableName(final String payload) {
+    final int i = payload.indexOf(',', payload.indexOf(',', 1) + 1) + 1;
+    return payload.substring(i, payload.indexOf(',', i));
+  }
+
+  private static Action toAction(final char ch) {
+    switch (ch) {
+      case 'I':
+        return Action.INSERT;
+      case 'U':
+        return Action.UPDATE;
+      case 'G':
+        return Action.UPGRADE;
+      case 'D':
+        return Action.DELETE;
+      default:
+        throw new IllegalArgumentException("Unknown action: " + ch);
+    }
+  }
+
+  private final String payload;
+  private int index;
+
+  final Action action;
+  final long timestamp;
+  final long seq;
+  final String sessionId;
+
+  data.Table old;
+  data.Table cur;
+  Map<String,String> keyForUpdate;
+
+  /**
+   * Creates a new {@link CompactPayload} by parsing the header of the provided payload. The sections of the payload are parsed by
+   * {@link #readRows(DbVendor,data.Table)}.
+   *
+   * @param payload The compact payload.
+   * @throws IllegalArgumentException If the header of the payload is malformed.
+   */
+  CompactPayload(final String payload) {
+    this.payload = payload;
+    this.action = toAction(payload.charAt(1));
+    if (payload.charAt(2) != ',')
+      throw new IllegalArgumentException("Expected ',' at 2: " + payload);
+
+    int i = payload.indexOf(',', 3);
+    final int j = payload.lastIndexOf(':', i);
+    if (j > 3) {
+      this.timestamp = Long.parseLong(payload.substring(3, j));
+      this.seq = Long.parseLong(payload.substring(j + 1, i));
+    }
+    else {
+      this.timestamp = Long.parseLong(payload.substring(3, i));
+      this.seq = -1;
+    }
+
+    i = payload.indexOf(',', i + 1);
+    this.index = i + 1;
+    this.sessionId = readValue();
+  }
+
+  private int readInt(final char terminator) {
+    int value = 0;
+    for (char ch; (ch = payload.charAt(index++)) != terminator;) { // [X]
+      if (ch < '0' || '9' < ch)
+        throw new IllegalArgumentException("Expected digit or '" + terminator + "' at " + (index - 1) + ": " + payload);
+
+      value = value * 10 + (ch - '0');
+    }
+
+    return value;
+  }
+
+  private String readValue() {
+    final char ch = payload.charAt(index++);
+    if (ch == '~')
+      return null;
+
+    if (ch != '=')
+      throw new IllegalArgumentException("Expected '=' or '~' at " + (index - 1) + ": " + payload);
+
+    final int length = readInt(':');
+    final int start = index;
+    // The length is in characters (i.e. code points), as counted by char_length() in the DB
+    index = payload.offsetByCodePoints(start, length);
+    return payload.substring(start, index);
+  }
+
+  /**
+   * Reads the columns of a section into a clone of the provided table, and returns the clone.
+   */
+  private data.Table readRow(final DbVendor vendor, final data.Table table) {
+    final data.Table row = table.clone();
+    final data.Column<?>[] columns = row._column$;
+    while (payload.charAt(index) != ';') {
+      final data.Column<?> column = columns[readColumnIndex()];
+      column.setFromString(vendor, readValue(), data.Column.SetBy.SYSTEM);
+      column._commitEntity$();
+    }
+
+    ++index;
+    return row;
+  }
+
+  private Map<String,String> readKeyForUpdate(final data.Table table) {
+    final data.Column<?>[] columns = table._column$;
+    final HashMap<String,String> keyForUpdate = new HashMap<>();
+    while (payload.charAt(index) != ';') {
+      final data.Column<?> column = columns[readColumnIndex()];
+      keyForUpdate.put(column.name, readValue());
+    }
+
+    ++index;
+    return keyForUpdate;
+  }
+
+  private int readColumnIndex() {
+    int value = 0;
+    for (char ch; (ch = payload.charAt(index)) != '=' && ch != '~'; ++index) { // [X]
+      if (ch < '0' || '9' < ch)
+        throw new IllegalArgumentException("Expected digit at " + index + ": " + payload);
+
+      value = value * 10 + (ch - '0');
+    }
+
+    return value;
+  }
+
+  /**
+   * Reads the sections of this payload into clones of the provided table, which are thereafter available as {@link #old} and
+   * {@link #cur}, and reads the key for update into {@link #keyForUpdate}.
+   *
+   * @param vendor The {@link DbVendor} with which the values are parsed.
+   * @param table The table.
+   * @throws IllegalArgumentException If a section of the payload is malformed.
+   */
+  void readRows(final DbVendor vendor, final data.Table table) {
+    for (final int len = payload.length(); index < len;) { // [X]
+      final char section = payload.charAt(index++);
+      if (section == 'O')
+        old = readRow(vendor, table);
+      else if (section == 'C')
+        cur = readRow(vendor, table);
+      else if (section == 'K')
+        keyForUpdate = readKeyForUpdate(table);
+      else
+        throw new IllegalArgumentException("Unknown section '" + section + "' at " + (index - 1) + ": " + payload);
+    }
+  }
+}
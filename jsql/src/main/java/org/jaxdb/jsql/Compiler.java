@@ -527,8 +527,13 @@ abstract class Compiler extends DbVendorCompiler {
 
   abstract void compileInsertOnConflict(data.Column<?>[] columns, Select.untyped.SELECT<?> select, data.Column<?>[] onConflict, boolean doUpdate, Compilation compilation) throws IOException, SQLException;
 
-  @SuppressWarnings({"rawtypes", "unchecked"})
+  @SuppressWarnings("rawtypes")
   static boolean shouldInsert(final data.Column column, final boolean modify, final Compilation compilation) {
+    return shouldInsert(column, modify, compilation.vendor);
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  static boolean shouldInsert(final data.Column column, final boolean modify, final DbVendor vendor) {
     if (column.setByCur == data.Column.SetBy.USER || column.setByCur == data.Column.SetBy.SYSTEM && (column.primaryIndexType != null || column.isKeyForUpdate))
       return true;
 
@@ -543,7 +548,7 @@ abstract class Compiler extends DbVendorCompiler {
       return false;
 
     if (modify)
-      column.generateOnInsert.generate(column, compilation.vendor);
+      column.generateOnInsert.generate(column, vendor);
 
     return true;
   }
@@ -1454,6 +1459,18 @@ abstract class Compiler extends DbVendorCompiler {
     return column.getForUpdateWhereIsNullOld(isForUpdateWhere) ? b.append("NULL") : b.append('\'').append(Dialect.timeToString(column.getForUpdateWhereGetOld(isForUpdateWhere))).append('\'');
   }
 
+  /**
+   * Returns the SQL that sets the session ID of the statements that follow it on the connection, or that resets the session ID if
+   * {@code sessionId} is null, or {@code null} if this vendor does not support session IDs. The SQL does not return a result, so
+   * that it can be added to a {@link Statement} batch in-band with the statements to which it applies.
+   *
+   * @param sessionId The session ID to set, or {@code null} to reset the session ID.
+   * @return The SQL that sets (or resets) the session ID, or {@code null} if this vendor does not support session IDs.
+   */
+  String compileSessionId(final String sessionId) {
+    return null;
+  }
+
   /**
    * Method called during statement execution workflow to set the statement's session.
    *
@@ -1461,7 +1478,46 @@ abstract class Compiler extends DbVendorCompiler {
    * @param sessionId The session ID to set.
    * @throws SQLException If a SQL error has occurred.
    */
-  void setSessionId(final Statement statement, final String sessionId) throws SQLException {
+  final void setSessionId(final Statement statement, final String sessionId) throws SQLException {
+    final String sql = compileSessionId(sessionId);
+    if (sql != null)
+      statement.execute(sql);
+  }
+
+  /**
+   * Executes the provided SQL with the provided {@link Statement}. If {@code sessionId} is not null, the session ID is set and reset
+   * in-band, in one JDBC batch with the SQL. If the batch fails, its reset may not have been executed (the driver may stop at the
+   * failed statement), so the session ID is reset with another {@link Statement} of the provided {@link Connection}, so that it does
+   * not apply to subsequent statements on the connection.
+   *
+   * @param connection The {@link Connection} of the provided {@link Statement}.
+   * @param statement The {@link Statement}.
+   * @param sql The SQL to execute.
+   * @param sessionId The session ID of the SQL, or {@code null} if the SQL has no session ID.
+   * @return The update count of the provided SQL.
+   * @throws SQLException If a SQL error has occurred.
+   */
+  final int executeUpdate(final Connection connection, final Statement statement, final String sql, final String sessionId) throws SQLException {
+    final String setSessionId = sessionId != null ? compileSessionId(sessionId) : null;
+    if (setSessionId == null)
+      return statement.executeUpdate(sql);
+
+    statement.addBatch(setSessionId);
+    statement.addBatch(sql);
+    statement.addBatch(compileSessionId(null));
+    try {
+      return statement.executeBatch()[1];
+    }
+    catch (final SQLException e) {
+      try (final Statement sessionStatement = connection.createStatement()) {
+        setSessionId(sessionStatement, null);
+      }
+      catch (final SQLException se) {
+        e.addSuppressed(se);
+      }
+
+      throw e;
+    }
   }
 
   void assignAliases(final data.Table[] from, final ArrayList<Object> joins, final Compilation compilation) throws IOException, SQLException {
@@ -1784,6 +1840,44 @@ abstract class Compiler extends DbVendorCompiler {
     return true;
   }
 
+  /**
+   * Returns the maximum number of parameters of a prepared statement, by which the number of rows of a multi-row {@code INSERT} is
+   * limited, or {@code 0} if this vendor does not support multi-row {@code INSERT}s.
+   *
+   * @return The maximum number of parameters of a prepared statement, or {@code 0} if this vendor does not support multi-row
+   *         {@code INSERT}s.
+   */
+  int getMaxInsertParameters() {
+    return 0;
+  }
+
+  /**
+   * Returns the SQL of a multi-row {@code INSERT} of the provided number of rows, given the SQL of a single-row {@code INSERT} as
+   * compiled by {@link #compileInsert(data.Column[],boolean,Compilation)}, or {@code null} if the provided SQL does not end with a
+   * {@code VALUES} clause.
+   *
+   * @param sql The SQL of the single-row {@code INSERT}.
+   * @param rows The number of rows.
+   * @return The SQL of a multi-row {@code INSERT} of the provided number of rows, or {@code null} if the provided SQL does not end
+   *         with a {@code VALUES} clause.
+   */
+  String compileMultiRowInsert(final String sql, final int rows) {
+    final int index = sql.lastIndexOf(" VALUES (") + 8;
+    if (index == 7 || sql.charAt(sql.length() - 1) != ')')
+      return null;
+
+    final int len = sql.length() - index;
+    final StringBuilder b = new StringBuilder(index + rows * (len + 2)).append(sql, 0, index);
+    for (int i = 0; i < rows; ++i) { // [N]
+      if (i > 0)
+        b.append(", ");
+
+      b.append(sql, index, sql.length());
+    }
+
+    return b.toString();
+  }
+
   StringBuilder prepareSqlReturning(final StringBuilder sql, final data.Column<?>[] autos) {
     return sql;
   }
@@ -1795,4 +1889,63 @@ abstract class Compiler extends DbVendorCompiler {
   int executeUpdateReturning(final Statement statement, final StringBuilder sql, final data.Column<?>[] autos) throws SQLException {
     return statement.executeUpdate(prepareSqlReturning(sql, autos).toString(), Statement.RETURN_GENERATED_KEYS);
   }
-}
\ No newline at end of file
+
+  /**
+   * Appends the type and constraints of the sequence column of a change-log table, which is an auto-incremented primary key, to the
+   * provided {@link StringBuilder}.
+   *
+   * @param sql The {@link StringBuilder}.
+   * @return The provided {@link StringBuilder}.
+   * @see ChangeLogNotifier
+   */
+  StringBuilder compileChangeLogSequence(final StringBuilder sql) {
+    return sql.append(" BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY");
+  }
+
+  /**
+   * Appends the clause of a row-level trigger that names its {@code OLD} and {@code NEW} records, if the vendor requires one.
+   *
+   * @param sql The {@link StringBuilder}.
+   * @param hasOld Whether the trigger references the {@code OLD} record.
+   * @param hasNew Whether the trigger references the {@code NEW} record.
+   * @return The provided {@link StringBuilder}.
+   * @see ChangeLogNotifier
+   */
+  StringBuilder compileTriggerReferencing(final StringBuilder sql, final boolean hasOld, final boolean hasNew) {
+    return sql;
+  }
+
+  /**
+   * Returns the reference of the provided record (i.e. {@code OLD} or {@code NEW}) in the body of a row-level trigger.
+   *
+   * @param record The record.
+   * @return The reference of the provided record in the body of a row-level trigger.
+   * @see ChangeLogNotifier
+   */
+  String getTriggerRecord(final String record) {
+    return record;
+  }
+
+  /**
+   * Appends the body of a row-level trigger that executes the provided statement.
+   *
+   * @param sql The {@link StringBuilder}.
+   * @param statement The statement.
+   * @return The provided {@link StringBuilder}.
+   * @see ChangeLogNotifier
+   */
+  StringBuilder compileTriggerBody(final StringBuilder sql, final CharSequence statement) {
+    return sql.append(statement);
+  }
+
+  /**
+   * Returns the SQL of a prepared statement that selects a row if the trigger of the name of its parameter exists.
+   *
+   * @return The SQL of a prepared statement that selects a row if the trigger of the name of its parameter exists.
+   * @throws UnsupportedOperationException If this vendor does not support change-log triggers.
+   * @see ChangeLogNotifier
+   */
+  String getSelectTrigger() {
+    throw new UnsupportedOperationException("Unsupported DbVendor: " + getVendor());
+  }
+}
@@ -20,9 +20,22 @@ import static org.libj.lang.Assertions.*;
 
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.jaxdb.jsql.Notification.Action;
 import org.jaxdb.jsql.Notification.Action.DELETE;
@@ -35,21 +48,80 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class Connector implements ConnectionFactory {
+  /** The default of {@link #getAsyncConcurrency()}, which is the default maximum size of the pool of common connection pools. */
+  public static final int DEFAULT_ASYNC_CONCURRENCY = 10;
+
   private static final Logger logger = LoggerFactory.getLogger(Connector.class);
   private static final ConcurrentHashMap<String,ConcurrentHashSet<Class<? extends Schema>>> initialized = new ConcurrentHashMap<>();
+  // Serializes the onConnect(Connection) and onRegister(Connection) hooks of the first registration of each URL, which perform JDBC I/O
+  private static final ReentrantLock initializedLock = new ReentrantLock();
 
   private final Schema schema;
   private final Class<? extends Schema> schemaClass;
 
   private final ConnectionFactory connectionFactory;
   private final boolean isPrepared;
+  private final int statementCacheSize;
   private volatile Notifier<?> notifier;
+  // Serializes the creation of the notifier, which performs JDBC I/O
+  private final ReentrantLock notifierLock = new ReentrantLock();
+  private volatile DbVendor vendor;
+  private volatile boolean registered;
+  private volatile Executor asyncExecutor;
+  // Serializes the initialization of the async executor and permits
+  private final ReentrantLock asyncLock = new ReentrantLock();
+  private Semaphore asyncPermits;
+  // The executions that are waiting for a permit, which are dispatched to the executor only once they have acquired one
+  private final ConcurrentLinkedQueue<AsyncExecution<?>> asyncQueue = new ConcurrentLinkedQueue<>();
+
+  private static final class DefaultAsyncExecutor {
+    private static final Executor instance;
+
+    static {
+      Executor executor;
+      try {
+        // Executors.newVirtualThreadPerTaskExecutor() is available on JDK 21+
+        executor = (Executor)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      }
+      catch (final ReflectiveOperationException e) {
+        // The platform threads are bounded, beyond which the executions are queued, and are terminated when idle
+        final int threads = Math.max(DEFAULT_ASYNC_CONCURRENCY, Runtime.getRuntime().availableProcessors());
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), (final Runnable r) -> {
+          final Thread thread = new Thread(r, "JAXDB-Async");
+          thread.setDaemon(true);
+          return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+      }
+
+      instance = executor;
+    }
+  }
 
   protected Connector(final Schema schema, final ConnectionFactory connectionFactory, final boolean isPrepared) {
+    this(schema, connectionFactory, isPrepared, 0);
+  }
+
+  /**
+   * Creates a new {@link Connector} with the provided parameters.
+   *
+   * @param schema The {@link Schema}.
+   * @param connectionFactory The {@link ConnectionFactory}.
+   * @param isPrepared Whether statements are to be executed as {@link java.sql.PreparedStatement}s.
+   * @param statementCacheSize The maximum number of idle {@link java.sql.PreparedStatement}s to be cached per {@link Connection} of a
+   *          {@link Transaction}, or {@code 0} to disable statement caching.
+   * @throws IllegalArgumentException If {@code statementCacheSize} is negative.
+   */
+  protected Connector(final Schema schema, final ConnectionFactory connectionFactory, final boolean isPrepared, final int statementCacheSize) {
     this.schema = schema;
     this.schemaClass = schema.getClass();
     this.connectionFactory = assertNotNull(connectionFactory);
     this.isPrepared = isPrepared;
+    if (statementCacheSize < 0)
+      throw new IllegalArgumentException("statementCacheSize (" + statementCacheSize + ") must be greater than or equal to 0");
+
+    this.statementCacheSize = statementCacheSize;
   }
 
   Schema getSchema() {
@@ -60,6 +132,284 @@ public class Connector implements ConnectionFactory {
     return isPrepared;
   }
 
+  /**
+   * Returns the maximum number of idle {@link java.sql.PreparedStatement}s to be cached per {@link Connection} of a
+   * {@link Transaction}, or {@code 0} if statement caching is disabled.
+   *
+   * @return The maximum number of idle {@link java.sql.PreparedStatement}s to be cached per {@link Connection} of a
+   *         {@link Transaction}, or {@code 0} if statement caching is disabled.
+   */
+  public int getStatementCacheSize() {
+    return statementCacheSize;
+  }
+
+  /**
+   * Returns the {@link ThreadFactory} of the thread on which the {@link Notification.Listener}s of this {@link Connector} are
+   * invoked, and of the threads that poll the DB for changes, or {@code null} to use daemon platform threads. This method can be
+   * overridden to supply a factory of virtual threads on JDK 21+, since the threads do not park on object monitors.
+   *
+   * @return The {@link ThreadFactory} of the thread on which the {@link Notification.Listener}s of this {@link Connector} are
+   *         invoked, or {@code null} to use a daemon platform thread.
+   */
+  protected ThreadFactory getNotifierThreadFactory() {
+    return null;
+  }
+
+  /**
+   * Returns the {@link Executor} on which the {@link Notification.Listener}s of this {@link Connector} are invoked, or {@code null}
+   * to invoke them on a single thread created by {@link #getNotifierThreadFactory()}. With an {@link Executor}, the notifications of
+   * different tables are dispatched in parallel, and the notifications of each table are dispatched serially in the order they were
+   * received. This method can be overridden to supply a thread pool, or an executor of virtual threads on JDK 21+.
+   * <p>
+   * <b>Note:</b> With an {@link Executor}, the notifications of each table are queued internally, instead of in the {@link Queue}
+   * provided to {@code addNotificationListener(...)}.
+   *
+   * @return The {@link Executor} on which the {@link Notification.Listener}s of this {@link Connector} are invoked, or {@code null}
+   *         to invoke them on a single thread created by {@link #getNotifierThreadFactory()}.
+   */
+  protected Executor getNotifierExecutor() {
+    return null;
+  }
+
+  /**
+   * Returns the maximum number of notifications that are queued for the {@link Notification.Listener}s of this {@link Connector},
+   * or {@code 0} for no limit. Beyond the capacity, the notifications of a table are dropped (instead of blocking the thread that
+   * receives them from the DB), and the table is resynced once its queued notifications have been dispatched.
+   *
+   * @return The maximum number of notifications that are queued for the {@link Notification.Listener}s of this {@link Connector},
+   *         or {@code 0} for no limit.
+   */
+  protected int getNotifierQueueCapacity() {
+    return 0;
+  }
+
+  /**
+   * Returns the {@link Executor} on which statements are executed by {@code executeAsync(...)} with this {@link Connector}, or
+   * {@code null} to use a shared executor of virtual threads on JDK 21+, or otherwise of at most
+   * {@code max(}{@link #DEFAULT_ASYNC_CONCURRENCY}{@code , availableProcessors)} daemon platform threads. Each asynchronous
+   * execution acquires its own {@link Connection} from this {@link Connector}, so that independent statements are pipelined on
+   * separate pooled connections.
+   *
+   * @return The {@link Executor} on which statements are executed by {@code executeAsync(...)} with this {@link Connector}, or
+   *         {@code null} to use a shared executor of virtual threads on JDK 21+, or of a bounded number of daemon platform threads
+   *         otherwise.
+   */
+  protected Executor getAsyncExecutor() {
+    return null;
+  }
+
+  /**
+   * Returns the maximum number of statements that execute concurrently by {@code executeAsync(...)} with this {@link Connector},
+   * beyond which further executions are queued (without occupying a thread of the {@link #getAsyncExecutor() async executor}) until
+   * a running execution completes, or {@code 0} for no limit. The {@link RowIterator} of an asynchronous {@code SELECT} counts
+   * against this limit until it is closed, because it holds its {@link Connection} until then. This limit should not exceed the
+   * maximum size of the pool of the {@link ConnectionFactory} of this {@link Connector}, and is {@link #DEFAULT_ASYNC_CONCURRENCY}
+   * by default.
+   *
+   * @return The maximum number of statements that execute concurrently by {@code executeAsync(...)} with this {@link Connector},
+   *         or {@code 0} for no limit.
+   */
+  protected int getAsyncConcurrency() {
+    return DEFAULT_ASYNC_CONCURRENCY;
+  }
+
+  private Executor initAsync() {
+    Executor executor = asyncExecutor;
+    if (executor == null) {
+      asyncLock.lock();
+      try {
+        if ((executor = asyncExecutor) == null) {
+          final int concurrency = getAsyncConcurrency();
+          if (concurrency < 0)
+            throw new IllegalStateException("getAsyncConcurrency() (" + concurrency + ") must be greater than or equal to 0");
+
+          asyncPermits = concurrency == 0 ? null : new Semaphore(concurrency, true);
+          executor = getAsyncExecutor();
+          asyncExecutor = executor = executor != null ? executor : DefaultAsyncExecutor.instance;
+        }
+      }
+      finally {
+        asyncLock.unlock();
+      }
+    }
+
+    return executor;
+  }
+
+  /**
+   * An execution of {@link #submit(Callable)}, which holds a permit of {@link #asyncPermits} (if any) from when it is dispatched to
+   * the executor, until its result is produced, or, if its result is a {@link RowIterator}, until the {@link RowIterator} is closed.
+   */
+  private final class AsyncExecution<T> implements Runnable {
+    private final Callable<T> callable;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    private AsyncExecution(final Callable<T> callable) {
+      this.callable = callable;
+    }
+
+    @Override
+    public void run() {
+      boolean release = asyncPermits != null;
+      try {
+        if (future.isDone())
+          return;
+
+        final T result = callable.call();
+        if (release && result instanceof RowIterator) {
+          ((RowIterator<?>)result).onClose = Connector.this::releaseAsync;
+          release = false;
+        }
+
+        if (!future.complete(result) && result instanceof AutoCloseable)
+          ((AutoCloseable)result).close();
+      }
+      catch (final Throwable t) {
+        future.completeExceptionally(t);
+      }
+      finally {
+        if (release)
+          releaseAsync();
+      }
+    }
+  }
+
+  /**
+   * Dispatches the queued executions to the executor, each with a permit of {@link #asyncPermits}, until no permits or no queued
+   * executions remain. The permit is acquired before the dispatch, so that no thread of the executor waits for a permit.
+   */
+  private void dispatchAsync() {
+    final Semaphore permits = asyncPermits;
+    while (permits.tryAcquire()) {
+      final AsyncExecution<?> execution = asyncQueue.poll();
+      if (execution == null) {
+        permits.release();
+        // An execution that was queued before the permit was released is dispatched by this thread, because its submitter may have
+        // failed to acquire the permit that was held by this thread
+        if (asyncQueue.isEmpty())
+          return;
+      }
+      else {
+        try {
+          asyncExecutor.execute(execution);
+        }
+        catch (final RejectedExecutionException e) {
+          permits.release();
+          execution.future.completeExceptionally(e);
+        }
+      }
+    }
+  }
+
+  private void releaseAsync() {
+    asyncPermits.release();
+    dispatchAsync();
+  }
+
+  /**
+   * Submits the provided {@link Callable} to the {@link #getAsyncExecutor() async executor} of this {@link Connector}, within the
+   * {@link #getAsyncConcurrency() concurrency limit} of this {@link Connector}. Beyond the limit, the {@link Callable} is queued, and
+   * is dispatched to the executor once a running execution completes. If the returned {@link CompletableFuture} is completed before
+   * the {@link Callable} is called, the {@link Callable} is not called. If the {@link CompletableFuture} is completed while the
+   * {@link Callable} is being called, its result is closed if it is {@link AutoCloseable}.
+   *
+   * @param <T> The type of the result.
+   * @param callable The {@link Callable}.
+   * @return A {@link CompletableFuture} that is completed with the result of the provided {@link Callable}, or exceptionally with
+   *         the exception it has thrown.
+   */
+  <T> CompletableFuture<T> submit(final Callable<T> callable) {
+    final AsyncExecution<T> execution = new AsyncExecution<>(callable);
+    try {
+      final Executor executor = initAsync();
+      if (asyncPermits == null) {
+        executor.execute(execution);
+      }
+      else {
+        asyncQueue.add(execution);
+        dispatchAsync();
+      }
+    }
+    catch (final IllegalStateException | RejectedExecutionException e) {
+      execution.future.completeExceptionally(e);
+    }
+
+    return execution.future;
+  }
+
+  /**
+   * Returns whether the notifications of the provided table are sent in a compact format, instead of as JSON. The compact format
+   * identifies columns by index instead of by name, and an {@code UPGRADE} sends only the changed columns, which significantly
+   * reduces the size of the payload, and the cost of its parsing, for wide tables.
+   * <p>
+   * <b>Note:</b> In the compact format, the rows of {@code DELETE} notifications contain only the primary key columns, and the rows
+   * of {@code UPGRADE} notifications contain only the primary key columns and the changed columns. The triggers of a table are
+   * recreated when its format is changed.
+   *
+   * @param table The table.
+   * @return Whether the notifications of the provided table are sent in a compact format, instead of as JSON.
+   */
+  protected boolean isCompactNotification(final data.Table table) {
+    return false;
+  }
+
+  /**
+   * Returns whether the queued notifications of the provided table are coalesced per primary key before they are dispatched. A
+   * notification that is received while a notification of the same row is queued (i.e. during a bulk update) is merged into the
+   * queued notification, so that the listeners receive the net change of the row (e.g. an {@code INSERT} followed by an
+   * {@code UPDATE} is dispatched as an {@code INSERT} of the updated row, and any change followed by a {@code DELETE} is dispatched
+   * as a {@code DELETE}).
+   * <p>
+   * <b>Note:</b> Coalesced notifications of different rows are not dispatched in the order in which they were received.
+   * Notifications with a session id are not coalesced, so that the {@code onNotify} callbacks of the session receive each of them.
+   *
+   * @param table The table.
+   * @return Whether the queued notifications of the provided table are coalesced per primary key before they are dispatched.
+   */
+  protected boolean isCoalesceNotification(final data.Table table) {
+    return false;
+  }
+
+  /**
+   * Returns the name of the PostgreSQL logical replication slot from which the changes of the tables are consumed, instead of from
+   * triggers and {@code LISTEN/NOTIFY}, or {@code null} to use triggers. The slot is created with the {@code wal2json} plugin if it
+   * does not exist, and is advanced as its changes are dispatched, so that the changes that are committed while disconnected are
+   * dispatched upon reconnect.
+   * <p>
+   * <b>Note:</b> The session id of a change is not available from a replication slot, so statements with {@code onNotify}
+   * callbacks are rejected with an {@link UnsupportedOperationException}. A slot that is no longer consumed must be dropped with
+   * {@link PostgreSQLReplicationNotifier#dropReplicationSlot(Connection,String)}, because it retains the WAL of the DB indefinitely.
+   *
+   * @return The name of the PostgreSQL logical replication slot from which the changes of the tables are consumed, or {@code null}
+   *         to use triggers.
+   * @see PostgreSQLReplicationNotifier
+   */
+  protected String getReplicationSlot() {
+    return null;
+  }
+
+  /**
+   * Returns the {@link ChangeLog} with which the change-log tables are polled for the notifications of DB vendors that do not support
+   * {@code LISTEN/NOTIFY} (i.e. Derby, MariaDB, MySQL, Oracle, and SQLite).
+   *
+   * @return The {@link ChangeLog} with which the change-log tables are polled.
+   */
+  protected ChangeLog getChangeLog() {
+    return ChangeLog.DEFAULT;
+  }
+
+  /**
+   * Returns a snapshot of the dispatch statistics of the notifications of this {@link Connector}, or {@code null} if no
+   * {@link Notification.Listener} has been added.
+   *
+   * @return A snapshot of the dispatch statistics of the notifications of this {@link Connector}, or {@code null} if no
+   *         {@link Notification.Listener} has been added.
+   */
+  public NotifierStats getNotifierStats() {
+    final Notifier<?> notifier = this.notifier;
+    return notifier != null ? notifier.getStats() : null;
+  }
+
   Notifier<?> getNotifier() {
     return notifier;
   }
@@ -136,13 +486,21 @@ public class Connector implements ConnectionFactory {
   <T extends data.Table & type.Table$> boolean addNotificationListener0(final INSERT insert, final UP up, final DELETE delete, final Notification.Listener<T> notificationListener, final Queue<Notification<T>> queue, final T[] tables) throws IOException, SQLException {
     Notifier<?> notifier = this.notifier;
     if (notifier == null) {
-      synchronized (this) {
+      notifierLock.lock();
+      try {
         notifier = this.notifier;
         if (notifier == null) {
           final Connection connection = connectionFactory.getConnection();
-          final DbVendor vendor = DbVendor.valueOf(connection.getMetaData());
+          final DbVendor vendor = getVendor(connection);
           if (vendor == DbVendor.POSTGRE_SQL) {
-            this.notifier = notifier = new PostgreSQLNotifier(connection, this);
+            final String replicationSlot = getReplicationSlot();
+            if (replicationSlot != null)
+              this.notifier = notifier = new PostgreSQLReplicationNotifier(connection, this, getNotifierThreadFactory(), getNotifierExecutor(), getNotifierQueueCapacity(), this::isCoalesceNotification, replicationSlot);
+            else
+              this.notifier = notifier = new PostgreSQLNotifier(connection, this, getNotifierThreadFactory(), getNotifierExecutor(), getNotifierQueueCapacity(), this::isCoalesceNotification, this::isCompactNotification);
+          }
+          else if (vendor != DbVendor.DB2) {
+            this.notifier = notifier = new ChangeLogNotifier(vendor, connection, this, getNotifierThreadFactory(), getNotifierExecutor(), getNotifierQueueCapacity(), this::isCoalesceNotification, getChangeLog());
           }
           else {
             connection.close();
@@ -150,6 +508,9 @@ public class Connector implements ConnectionFactory {
           }
         }
       }
+      finally {
+        notifierLock.unlock();
+      }
     }
 
     return notifier.addNotificationListener(insert, up, delete, notificationListener, (Queue)queue, tables);
@@ -232,36 +593,52 @@ public class Connector implements ConnectionFactory {
     return notifier != null && notifier.removeNotificationListeners(insert, up, delete, (data.Table[])tables);
   }
 
+  /**
+   * Returns the {@link DbVendor} of the database to which this {@link Connector} connects, resolving it from the provided
+   * {@link Connection} if it has not yet been resolved.
+   *
+   * @param connection The {@link Connection} from which to resolve the {@link DbVendor}, if it has not yet been resolved.
+   * @return The {@link DbVendor} of the database to which this {@link Connector} connects.
+   * @throws SQLException If a database access error has occurred.
+   */
+  DbVendor getVendor(final Connection connection) throws SQLException {
+    final DbVendor vendor = this.vendor;
+    return vendor != null ? vendor : (this.vendor = DbVendor.valueOf(connection.getMetaData()));
+  }
+
+  /**
+   * Returns the {@link DbVendor} for the execution of a statement in the context of the provided {@link Transaction},
+   * {@link Connector} or {@link Connection} (in that order of precedence). The {@link DbVendor} is resolved from the
+   * {@link java.sql.DatabaseMetaData} of the provided {@link Connection} only if neither a {@link Transaction} nor a
+   * {@link Connector} is provided.
+   *
+   * @param transaction The {@link Transaction}, or {@code null}.
+   * @param connector The {@link Connector}, or {@code null}.
+   * @param connection The {@link Connection}.
+   * @return The {@link DbVendor} for the execution of a statement in the provided context.
+   * @throws IOException If an I/O error has occurred.
+   * @throws SQLException If a database access error has occurred.
+   */
+  static DbVendor getVendor(final Transaction transaction, final Connector connector, final Connection connection) throws IOException, SQLException {
+    return transaction != null ? transaction.getVendor() : connector != null ? connector.getVendor(connection) : DbVendor.valueOf(connection.getMetaData());
+  }
+
+  /**
+   * Invalidates the {@link DbVendor} and the registration state cached by this {@link Connector}, such that they are resolved again
+   * from the next {@link Connection} returned by {@link #getConnection(Transaction.Isolation)}. This method should be called if the
+   * underlying {@link ConnectionFactory} is redirected to a different database.
+   */
+  public void invalidate() {
+    registered = false;
+    vendor = null;
+  }
+
   @Override
   public Connection getConnection(final Transaction.Isolation isolation) throws IOException, SQLException {
     try {
       final Connection connection = connectionFactory.getConnection(isolation);
-      final String url = connection.getMetaData().getURL();
-      ConcurrentHashSet<Class<? extends Schema>> schemas = initialized.get(url);
-      if (schemas == null) {
-        synchronized (initialized) {
-          schemas = initialized.get(url);
-          if (schemas == null) {
-            initialized.put(url, schemas = new ConcurrentHashSet<>());
-            schemas.add(schemaClass);
-            final Compiler compiler = Compiler.getCompiler(DbVendor.valueOf(connection.getMetaData()));
-            compiler.onConnect(connection);
-
-            if (!connection.isReadOnly())
-              compiler.onRegister(connection);
-            else if (logger.isWarnEnabled()) { logger.warn("Unable to run onRegister(Connection) hooks on read-only connection"); }
-
-            if (!connection.getAutoCommit())
-              connection.commit();
-          }
-        }
-      }
-      else if (schemas.add(schemaClass)) {
-        final Compiler compiler = Compiler.getCompiler(DbVendor.valueOf(connection.getMetaData()));
-        compiler.onRegister(connection);
-        if (!connection.getAutoCommit())
-          connection.commit();
-      }
+      if (!registered)
+        register(connection);
 
       return connection;
     }
@@ -270,6 +647,43 @@ public class Connector implements ConnectionFactory {
     }
   }
 
+  private void register(final Connection connection) throws SQLException {
+    final DatabaseMetaData metaData = connection.getMetaData();
+    final DbVendor vendor = this.vendor = DbVendor.valueOf(metaData);
+    final String url = metaData.getURL();
+    ConcurrentHashSet<Class<? extends Schema>> schemas = initialized.get(url);
+    if (schemas == null) {
+      initializedLock.lock();
+      try {
+        schemas = initialized.get(url);
+        if (schemas == null) {
+          initialized.put(url, schemas = new ConcurrentHashSet<>());
+          schemas.add(schemaClass);
+          final Compiler compiler = Compiler.getCompiler(vendor);
+          compiler.onConnect(connection);
+
+          if (!connection.isReadOnly())
+            compiler.onRegister(connection);
+          else if (logger.isWarnEnabled()) { logger.warn("Unable to run onRegister(Connection) hooks on read-only connection"); }
+
+          if (!connection.getAutoCommit())
+            connection.commit();
+        }
+      }
+      finally {
+        initializedLock.unlock();
+      }
+    }
+    else if (schemas.add(schemaClass)) {
+      final Compiler compiler = Compiler.getCompiler(vendor);
+      compiler.onRegister(connection);
+      if (!connection.getAutoCommit())
+        connection.commit();
+    }
+
+    registered = true;
+  }
+
   @Override
   public int hashCode() {
     return 31 + schema.hashCode();
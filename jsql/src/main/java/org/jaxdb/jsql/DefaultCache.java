@@ -22,9 +22,12 @@ import static org.libj.lang.Assertions.*;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Map;
 
 import org.jaxdb.jsql.Callbacks.OnNotifyCallbackList;
+import org.jaxdb.jsql.keyword.Select.untyped.SELECT;
 import org.libj.lang.ObjectUtil;
 import org.openjax.json.JSON;
 import org.slf4j.Logger;
@@ -69,6 +72,13 @@ public class DefaultCache implements Notification.DefaultListener<data.Table> {
     }
   }
 
+  private static data.Table onNotification(final data.Table row, final Notification.Action action, final data.Table entity) {
+    if (entity != null)
+      row.getSchema().cacheMetrics.onNotification(row, action);
+
+    return entity;
+  }
+
   private static data.Table insert(final data.Table entity) {
     if (logger.isTraceEnabled()) { logger.trace("insert(" + log(entity) + ")"); }
     entity._commitInsert$();
@@ -95,6 +105,81 @@ public class DefaultCache implements Notification.DefaultListener<data.Table> {
     onNotifyCallbacks(sessionId, e);
   }
 
+  /**
+   * Reselects the cached rows of the provided table, and removes the cached rows that no longer exist. If all rows of the table are
+   * cached, all rows are reselected, otherwise the cached keys are reselected in batches of {@link CacheMap#getMaxInKeys(data.Column[])}
+   * keys. The masks of the {@link CacheMap}s of the table are cleared before the reselect, because a key that was masked as missing
+   * may have been inserted while notifications were missed. The reselected rows are masked again.
+   *
+   * @param table The table.
+   */
+  @Override
+  public void onResync(final data.Table table) {
+    if (logger.isDebugEnabled()) { logger.debug("onResync(\"" + table.getName() + "\")"); }
+    final CacheMap<? extends data.Table> cache = table.getCache();
+    if (cache == null)
+      return;
+
+    final boolean all = cache.containsKey(data.Key.ALL);
+    table._clearCacheMasks$();
+    final HashSet<data.Key> stale = new HashSet<>();
+    for (final data.Table row : cache.values()) // [C]
+      stale.add(row.getKey());
+
+    final int keys = all ? -1 : stale.size();
+    final long ts = System.nanoTime();
+    boolean success = false;
+    try {
+      if (all) {
+        resync(table, SELECT(table).FROM(table), stale);
+        table._commitSelectAll$();
+      }
+      else if (stale.size() > 0) {
+        final ArrayList<data.Key> cached = new ArrayList<>(stale);
+        final int maxKeys = CacheMap.getMaxInKeys(table._primary$);
+        final ArrayList<data.Key> batch = new ArrayList<>(Math.min(cached.size(), maxKeys));
+        for (int i = 0, i$ = cached.size(); i < i$; ++i) { // [RA]
+          batch.add(cached.get(i));
+          if (batch.size() == maxKeys) {
+            resync(table, SELECT(table).FROM(table).WHERE(CacheMap.inEq(batch)), stale);
+            batch.clear();
+          }
+        }
+
+        if (batch.size() > 0)
+          resync(table, SELECT(table).FROM(table).WHERE(CacheMap.inEq(batch)), stale);
+      }
+
+      // The keys that were not reselected no longer exist
+      for (final data.Key key : stale) { // [S]
+        final data.Table entity = cache.remove$(key);
+        if (entity != null) {
+          entity._commitDelete$();
+          entity._commitEntity$();
+        }
+      }
+
+      success = true;
+    }
+    catch (final IOException | SQLException e) {
+      if (logger.isErrorEnabled()) { logger.error("onResync(\"" + table.getName() + "\")", e); }
+    }
+    finally {
+      table.getSchema().cacheMetrics.onResync(table, keys, System.nanoTime() - ts, success);
+    }
+  }
+
+  private void resync(final data.Table table, final SELECT<? extends data.Table> select, final HashSet<data.Key> stale) throws IOException, SQLException {
+    try (final RowIterator<? extends data.Table> rows = select.execute(table.getSchema().getConnector(), CacheConfig.withoutCacheSelectEntity)) {
+      while (rows.nextRow()) {
+        final data.Table row = rows.nextEntity();
+        stale.remove(row.getKey());
+        // An unchanged entity is returned as is, so it is masked again here
+        onSelectInsert(row.getCache(), null, -1, row)._commitInsert$();
+      }
+    }
+  }
+
   @Override
   public void onSelect(final data.Table row) {
     if (logger.isTraceEnabled()) { logger.trace("onSelect(" + log(row) + ")"); }
@@ -104,7 +189,7 @@ public class DefaultCache implements Notification.DefaultListener<data.Table> {
   @Override
   public data.Table onInsert(final String sessionId, final long timestamp, final data.Table row) {
     if (logger.isTraceEnabled()) { logger.trace("onInsert(" + log(sessionId, timestamp) + "," + log(row) + ")"); }
-    return onSelectInsert(row.getCache(), sessionId, timestamp, row);
+    return onNotification(row, Notification.Action.INSERT, onSelectInsert(row.getCache(), sessionId, timestamp, row));
   }
 
   protected data.Table onSelectInsert(final CacheMap<? extends data.Table> cache, final String sessionId, final long timestamp, final data.Table row) {
@@ -132,7 +217,7 @@ public class DefaultCache implements Notification.DefaultListener<data.Table> {
   @SuppressWarnings("unchecked")
   public data.Table onUpdate(final String sessionId, final long timestamp, final data.Table row, final Map<String,String> keyForUpdate) {
     try {
-      return onUpdate((CacheMap<data.Table>)row.getCache(), sessionId, timestamp, row, keyForUpdate);
+      return onNotification(row, Notification.Action.UPDATE, onUpdate((CacheMap<data.Table>)row.getCache(), sessionId, timestamp, row, keyForUpdate));
     }
     catch (final IOException | SQLException e) {
       if (logger.isErrorEnabled()) { logger.error(log(sessionId, timestamp) + "," + log(row) + "," + JSON.toString(keyForUpdate), e); }
@@ -200,7 +285,7 @@ public class DefaultCache implements Notification.DefaultListener<data.Table> {
 
       entity._commitDelete$();
       entity._commitEntity$();
-      return entity;
+      return onNotification(row, Notification.Action.DELETE, entity);
     }
     catch (final Exception e) {
       exception = e;
@@ -393,4 +393,21 @@ final class DerbyCompiler extends Compiler {
 
     sql.append(')');
   }
-}
\ No newline at end of file
+
+  @Override
+  StringBuilder compileTriggerReferencing(final StringBuilder sql, final boolean hasOld, final boolean hasNew) {
+    sql.append(" REFERENCING");
+    if (hasOld)
+      sql.append(" OLD AS OLD");
+
+    if (hasNew)
+      sql.append(" NEW AS NEW");
+
+    return sql;
+  }
+
+  @Override
+  String getSelectTrigger() {
+    return "SELECT 1 FROM SYS.SYSTRIGGERS WHERE TRIGGERNAME = ?";
+  }
+}
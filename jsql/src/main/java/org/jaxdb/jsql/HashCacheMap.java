@@ -50,6 +50,17 @@ public abstract class HashCacheMap<V> extends CacheMap<V> {
     public boolean contains(final Object o) {
       return all || super.contains(o);
     }
+
+    void evict(final data.Key key) {
+      all = false;
+      remove(key);
+    }
+
+    @Override
+    public void clear() {
+      all = false;
+      super.clear();
+    }
   }
 
   final KeyConcurrentHashSet mask = new KeyConcurrentHashSet();
@@ -81,6 +92,11 @@ public abstract class HashCacheMap<V> extends CacheMap<V> {
     return mask.contains(key);
   }
 
+  @Override
+  final void clearMask() {
+    mask.clear();
+  }
+
   @Override
   final V get$(final data.Key key) {
     return map.get(key);
@@ -89,18 +105,29 @@ public abstract class HashCacheMap<V> extends CacheMap<V> {
   @Override
   final V put$(final data.Key key, final V value) {
     mask.add(key);
-    return map.put(key, value);
+    final V previous = map.put(key, value);
+    onPut(key, value);
+    return previous;
   }
 
   @Override
   final V remove$(final data.Key key) {
     mask.remove(key);
+    onRemove(key);
     return map.remove(key);
   }
 
   @Override
   final V remove$Old(final data.Key key) {
     mask.remove(key);
+    onRemove(key);
+    return map.remove(key);
+  }
+
+  @Override
+  final V evict$(final data.Key key) {
+    mask.evict(key);
+    onEvict(key);
     return map.remove(key);
   }
 
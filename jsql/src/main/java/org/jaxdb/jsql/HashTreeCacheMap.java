@@ -16,8 +16,6 @@
 
 package org.jaxdb.jsql;
 
-import static org.jaxdb.jsql.DML.*;
-
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.Collection;
@@ -29,6 +27,7 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -38,17 +37,11 @@ import org.libj.util.Interval;
 import org.openjax.binarytree.ConcurrentIntervalTreeSet;
 
 public abstract class HashTreeCacheMap<V> extends CacheMap<V> implements NavigableMap<data.Key,V> {
-  private static data.BOOLEAN where(final Interval<data.Key>[] intervals) {
-    data.BOOLEAN or = andRange(intervals[0]);
-    for (int i = 1, i$ = intervals.length; i < i$; ++i) // [A]
-      or = OR(or, andRange(intervals[i]));
-
-    return or;
-  }
-
   final Map<data.Key,V> hashMap;
   final NavigableMap<data.Key,V> treeMap;
   final ConcurrentIntervalTreeSet<data.Key> treeMask = new ConcurrentIntervalTreeSet<>();
+  // Guards the SELECT of a missing range
+  private final ReentrantLock rangeLock = new ReentrantLock();
   final KeyConcurrentHashSet hashMask = new KeyConcurrentHashSet();
 
   HashTreeCacheMap(final data.Table table) {
@@ -80,6 +73,12 @@ public abstract class HashTreeCacheMap<V> extends CacheMap<V> implements Navigab
     return hashMask.contains(key);
   }
 
+  @Override
+  final void clearMask() {
+    hashMask.clear();
+    treeMask.clear();
+  }
+
   final Interval<data.Key>[] diffKeys(final data.Key fromKey, final data.Key toKey) {
     return treeMask.difference(new Interval<>(fromKey, toKey));
   }
@@ -94,19 +93,32 @@ public abstract class HashTreeCacheMap<V> extends CacheMap<V> implements Navigab
     hashMask.add(key);
     treeMask.add(key);
     hashMap.put(key, value);
-    return treeMap.put(key, value);
+    final V previous = treeMap.put(key, value);
+    onPut(key, value);
+    return previous;
   }
 
   @Override
   final V remove$(final data.Key key) {
     hashMask.remove(key);
     treeMask.remove(key);
+    onRemove(key);
     hashMap.remove(key);
     return treeMap.remove(key);
   }
 
   @Override
   final V remove$Old(final data.Key key) {
+    onRemove(key);
+    hashMap.remove(key);
+    return treeMap.remove(key);
+  }
+
+  @Override
+  final V evict$(final data.Key key) {
+    hashMask.evict(key);
+    treeMask.remove(key);
+    onEvict(key);
     hashMap.remove(key);
     return treeMap.remove(key);
   }
@@ -275,15 +287,23 @@ public abstract class HashTreeCacheMap<V> extends CacheMap<V> implements Navigab
       throw new UnsupportedOperationException("Composite keys are not yet supported");
 
     Interval<data.Key>[] diff = diffKeys(fromKey, toKey);
-    if (diff.length > 0) {
-      synchronized (this) {
+    if (diff.length == 0) {
+      getMetrics().onHit(table);
+    }
+    else {
+      getMetrics().onMiss(table);
+      rangeLock.lock();
+      try {
         diff = diffKeys(fromKey, toKey);
         if (diff.length > 0) {
-          select(where(diff));
+          selectRange(diff, treeMap);
           hashMask.addAll(diff);
           treeMask.addAll(diff);
         }
       }
+      finally {
+        rangeLock.unlock();
+      }
     }
 
     return subMap(fromKey, toKey);
@@ -0,0 +1,196 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An open-addressing index of {@code long} keys to the values of a unique {@link CacheMap} on a single integer column, which is
+ * maintained alongside the {@link data.Key}-keyed map of the {@link CacheMap}, so that a lookup by a primitive key neither boxes the
+ * key nor allocates a {@link data.Key}.
+ * <p>
+ * Lookups are lock-free. Updates are serialized by a lock, and never move an entry of the current table: a removed entry is
+ * replaced by a tombstone, and the table is rebuilt (and published as a new table) when its load of entries and tombstones exceeds
+ * 3/4.
+ *
+ * @param <V> The type of the values.
+ */
+final class LongKeyIndex<V> {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final Object TOMBSTONE = new Object();
+
+  private static final class Entry {
+    private final long key;
+    private final Object value;
+
+    private Entry(final long key, final Object value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  private static int hash(final long key) {
+    final long h = key * 0x9E3779B97F4A7C15L;
+    return (int)(h ^ (h >>> 32));
+  }
+
+  private final data.Column<?>[] columns;
+  private final ReentrantLock lock = new ReentrantLock();
+  private volatile AtomicReferenceArray<Object> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+  private int size;
+  // The number of slots that are not null, i.e. entries and tombstones
+  private int used;
+
+  /**
+   * Creates a new {@link LongKeyIndex} for the provided integer column.
+   *
+   * @param column The {@link data.BIGINT}, {@link data.INT}, {@link data.SMALLINT}, or {@link data.TINYINT} column of the keys.
+   * @throws IllegalArgumentException If the provided column is not of an integer type.
+   */
+  LongKeyIndex(final data.Column<?> column) {
+    if (!(column instanceof data.BIGINT || column instanceof data.INT || column instanceof data.SMALLINT || column instanceof data.TINYINT))
+      throw new IllegalArgumentException("column (" + column.getName() + ") must be BIGINT, INT, SMALLINT or TINYINT");
+
+    this.columns = new data.Column<?>[] {column};
+  }
+
+  /**
+   * Returns the {@link data.Key} of the provided primitive key, which is equal to the {@link data.Key} by which the row of the
+   * primitive key is mapped in the {@link CacheMap}.
+   *
+   * @param key The primitive key.
+   * @return The {@link data.Key} of the provided primitive key.
+   */
+  data.Key key(final long key) {
+    final data.Column<?> column = columns[0];
+    final Object value;
+    if (column instanceof data.BIGINT)
+      value = key;
+    else if (column instanceof data.INT)
+      value = (int)key;
+    else if (column instanceof data.SMALLINT)
+      value = (short)key;
+    else
+      value = (byte)key;
+
+    return data.Key.with(columns, value);
+  }
+
+  @SuppressWarnings("unchecked")
+  V get(final long key) {
+    final AtomicReferenceArray<Object> table = this.table;
+    final int mask = table.length() - 1;
+    for (int i = hash(key) & mask;; i = (i + 1) & mask) { // [X]
+      final Object slot = table.get(i);
+      if (slot == null)
+        return null;
+
+      if (slot != TOMBSTONE && ((Entry)slot).key == key)
+        return (V)((Entry)slot).value;
+    }
+  }
+
+  void put(final data.Key key, final V value) {
+    final Object k = key.value(0);
+    if (k == null)
+      return;
+
+    final long l = ((Number)k).longValue();
+    lock.lock();
+    try {
+      final AtomicReferenceArray<Object> table = this.table;
+      final int mask = table.length() - 1;
+      int free = -1;
+      int i = hash(l) & mask;
+      for (Object slot; (slot = table.get(i)) != null; i = (i + 1) & mask) { // [X]
+        if (slot == TOMBSTONE) {
+          if (free == -1)
+            free = i;
+        }
+        else if (((Entry)slot).key == l) {
+          table.set(i, new Entry(l, value));
+          return;
+        }
+      }
+
+      if (free == -1) {
+        free = i;
+        ++used;
+      }
+
+      table.set(free, new Entry(l, value));
+      ++size;
+      if (used * 4 >= table.length() * 3)
+        rebuild();
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  void remove(final data.Key key) {
+    final Object k = key.value(0);
+    if (k == null)
+      return;
+
+    final long l = ((Number)k).longValue();
+    lock.lock();
+    try {
+      final AtomicReferenceArray<Object> table = this.table;
+      final int mask = table.length() - 1;
+      for (int i = hash(l) & mask;; i = (i + 1) & mask) { // [X]
+        final Object slot = table.get(i);
+        if (slot == null)
+          return;
+
+        if (slot != TOMBSTONE && ((Entry)slot).key == l) {
+          table.set(i, TOMBSTONE);
+          --size;
+          return;
+        }
+      }
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  // Must be called with the lock held
+  private void rebuild() {
+    final AtomicReferenceArray<Object> table = this.table;
+    int capacity = INITIAL_CAPACITY;
+    while (capacity * 3 <= size * 8)
+      capacity <<= 1;
+
+    final AtomicReferenceArray<Object> rebuilt = new AtomicReferenceArray<>(capacity);
+    final int mask = capacity - 1;
+    for (int i = 0, i$ = table.length(); i < i$; ++i) { // [A]
+      final Object slot = table.get(i);
+      if (slot != null && slot != TOMBSTONE) {
+        int j = hash(((Entry)slot).key) & mask;
+        while (rebuilt.get(j) != null)
+          j = (j + 1) & mask;
+
+        rebuilt.set(j, slot);
+      }
+    }
+
+    used = size;
+    this.table = rebuilt;
+  }
+}
@@ -248,4 +248,19 @@ class MySQLCompiler extends Compiler {
         throw new SQLException("No columns to update");
     }
   }
-}
\ No newline at end of file
+
+  @Override
+  int getMaxInsertParameters() {
+    return 65535;
+  }
+
+  @Override
+  StringBuilder compileChangeLogSequence(final StringBuilder sql) {
+    return sql.append(" BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY");
+  }
+
+  @Override
+  String getSelectTrigger() {
+    return "SELECT 1 FROM information_schema.TRIGGERS WHERE TRIGGER_SCHEMA = DATABASE() AND TRIGGER_NAME = ?";
+  }
+}
@@ -248,14 +248,29 @@ public final class Notification<T extends data.Table> {
      */
     default void onFailure(String sessionId, long timestamp, T table, Exception e) {
     }
+
+    /**
+     * Called when notifications of the provided {@link type.Table$} may have been missed, i.e. when changes were committed to the
+     * table while the {@link Notifier} was disconnected from the DB. This method is called in order with the notifications of the
+     * table, after the notifications that were received before the disconnect.
+     *
+     * @param table The {@link type.Table$}.
+     */
+    default void onResync(T table) {
+    }
   }
 
   private final Notification.Listener<T> listener;
-  private final Action action;
-  private final Map<String,String> keyForUpdate;
+  private Action action;
+  private Map<String,String> keyForUpdate;
   private final String sessionId;
-  private final long timestamp;
-  private final T row;
+  private long timestamp;
+  private T row;
+  // Whether the row is a clone that is not shared with the notifications of other listeners
+  private boolean isRowOwned;
+
+  // The key of this Notification among the queued notifications with which a subsequent notification can be coalesced, or null
+  Object pendingKey;
 
   Notification(final String sessionId, final long timestamp, final Notification.Listener<T> listener, final Action action, final Map<String,String> keyForUpdate, final T row) {
     this.sessionId = sessionId;
@@ -266,8 +281,85 @@ public final class Notification<T extends data.Table> {
     this.row = row;
   }
 
+  Notification.Listener<T> getListener() {
+    return listener;
+  }
+
+  Action getAction() {
+    return action;
+  }
+
+  long getTimestamp() {
+    return timestamp;
+  }
+
+  T getRow() {
+    return row;
+  }
+
+  /**
+   * Returns whether this {@link Notification} can be coalesced with another notification of the same row, which is the case if it
+   * is a change without a session id (i.e. a change for which no {@link Callbacks.OnNotifyCallbackList} counts notifications).
+   *
+   * @return Whether this {@link Notification} can be coalesced with another notification of the same row.
+   */
+  boolean isCoalescable() {
+    return action != null && sessionId == null;
+  }
+
+  /**
+   * Coalesces the provided subsequent {@link Notification} of the same listener and row into this {@link Notification}, such that
+   * this {@link Notification} represents the net change of both:
+   * <ul>
+   * <li>{@code INSERT} followed by {@code UPDATE} or {@code UPGRADE} is an {@code INSERT} of the updated row.</li>
+   * <li>{@code UPDATE} or {@code UPGRADE} followed by {@code UPDATE} or {@code UPGRADE} is an {@code UPDATE} (or an
+   * {@code UPGRADE} if both are {@code UPGRADE}) from the old row of the first to the current row of the second, with the
+   * {@code keyForUpdate} of the first.</li>
+   * <li>Any change followed by {@code DELETE} is a {@code DELETE}.</li>
+   * </ul>
+   * A {@code DELETE} followed by an {@code INSERT}, and an {@code UPDATE} that changes the primary key of the row, are not
+   * coalesced.
+   *
+   * @param next The subsequent {@link Notification}.
+   * @return Whether the provided {@link Notification} was coalesced into this {@link Notification}.
+   */
+  @SuppressWarnings("unchecked")
+  boolean coalesce(final Notification<T> next) {
+    final Action action = this.action;
+    final Action nextAction = next.action;
+    if (action == Action.DELETE || nextAction == Action.INSERT)
+      return false;
+
+    if (nextAction == Action.DELETE) {
+      this.action = Action.DELETE;
+      this.keyForUpdate = null;
+      this.row = next.row;
+      this.isRowOwned = false;
+    }
+    else {
+      if (!next.row.getKeyOld().equals(next.row.getKey()))
+        return false;
+
+      if (!isRowOwned) {
+        row = (T)row.clone();
+        isRowOwned = true;
+      }
+
+      row.merge$(next.row);
+      if (action != Action.INSERT && nextAction == Action.UPDATE)
+        this.action = Action.UPDATE;
+    }
+
+    this.timestamp = next.timestamp;
+    return true;
+  }
+
+  // A Notification without an action is a resync of the table of the row
   void invoke() {
-    action.invoke(sessionId, timestamp, listener, keyForUpdate, row);
+    if (action == null)
+      listener.onResync(row);
+    else
+      action.invoke(sessionId, timestamp, listener, keyForUpdate, row);
   }
 
   @Override
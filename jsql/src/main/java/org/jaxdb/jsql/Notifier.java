@@ -32,8 +32,20 @@ import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
 import org.jaxdb.jsql.Notification.Action;
 import org.jaxdb.jsql.Notification.Action.DELETE;
@@ -57,6 +69,11 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
   private static final String OLD = "old";
   private static final String CUR = "cur";
 
+  // The time after which a skipped change sequence that has not been received is counted as a gap
+  private static final long GAP_TIMEOUT_MS = 30000;
+  // The greatest number of consecutive skipped change sequences that are awaited individually
+  private static final int MAX_GAPS = 1000;
+
   private enum State {
     CREATED,
     STARTED,
@@ -115,7 +132,115 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
     .put(Type.NUMBER, String::new)
     .put(Type.BOOLEAN, Boolean::toString);
 
+  // The JAXDB-Notify thread, or null if notifications are dispatched on an executor
   private final Thread thread;
+  private final ThreadFactory threadFactory;
+
+  // The JAXDB-Notify thread parks on the conditions of this lock
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition signalled = lock.newCondition();
+  private final Condition stateChanged = lock.newCondition();
+  private boolean isSignalled;
+
+  // Serializes the start of the Notifier, which performs JDBC I/O
+  private final ReentrantLock startLock = new ReentrantLock();
+
+  // If not null, notifications are dispatched on this executor, serially per table, instead of on the JAXDB-Notify thread
+  private final Executor executor;
+  private final int queueCapacity;
+  private final AtomicInteger queueDepth = new AtomicInteger();
+  private final AtomicInteger maxQueueDepth = new AtomicInteger();
+  private final LongAdder dispatchedCount = new LongAdder();
+  private final LongAdder failedCount = new LongAdder();
+  private final LongAdder droppedCount = new LongAdder();
+  private final LongAdder gapCount = new LongAdder();
+  private final LongAdder resyncCount = new LongAdder();
+  private final LongAdder coalescedCount = new LongAdder();
+  // The greatest timestamp of the changes that have been dispatched, or -1 if none
+  private final LongAccumulator lastTimestamp = new LongAccumulator(Math::max, -1);
+
+  // The key of a queued notification with which a subsequent notification of the same listener, table and primary key is coalesced
+  private static final class PendingKey {
+    private final Notification.Listener<?> listener;
+    private final String tableName;
+    private final data.Key key;
+
+    private PendingKey(final Notification.Listener<?> listener, final String tableName, final data.Key key) {
+      this.listener = listener;
+      this.tableName = tableName;
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (obj == this)
+        return true;
+
+      if (!(obj instanceof PendingKey))
+        return false;
+
+      final PendingKey that = (PendingKey)obj;
+      return listener == that.listener && tableName.equals(that.tableName) && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+      return (System.identityHashCode(listener) * 31 + tableName.hashCode()) * 31 + key.hashCode();
+    }
+  }
+
+  // The queued notifications that have not yet been dispatched, with which subsequent notifications are coalesced
+  private final ConcurrentHashMap<PendingKey,Notification<?>> pending = new ConcurrentHashMap<>();
+  private final Predicate<data.Table> isCoalesce;
+
+  private void onQueued() {
+    final int depth = queueDepth.incrementAndGet();
+    for (int max; depth > (max = maxQueueDepth.get()) && !maxQueueDepth.compareAndSet(max, depth);); // [X]
+  }
+
+  private void dispatch(final Notification<?> notification) {
+    queueDepth.decrementAndGet();
+    // The notification is removed from the pending notifications before it is invoked, so that it is no longer coalesced
+    if (notification.pendingKey != null)
+      pending.remove(notification.pendingKey, notification);
+
+    try {
+      notification.invoke();
+      dispatchedCount.increment();
+      if (notification.getAction() != null)
+        lastTimestamp.accumulate(notification.getTimestamp());
+    }
+    catch (final Exception e) {
+      failedCount.increment();
+      if (logger.isErrorEnabled()) { logger.error("Uncaught exception dispatching notification: " + notification, e); }
+    }
+  }
+
+  /**
+   * Returns the greatest timestamp of the changes that have been dispatched to the {@link Notification.Listener}s of this
+   * {@link Notifier}, or {@code -1} if none have been dispatched. The timestamp of a change is the epoch millisecond time of its
+   * transaction by the clock of the DB (or, for a {@link ChangeLogNotifier}, the time at which it was polled).
+   *
+   * @return The greatest timestamp of the changes that have been dispatched, or {@code -1} if none have been dispatched.
+   */
+  long getLastTimestamp() {
+    return lastTimestamp.get();
+  }
+
+  NotifierStats getStats() {
+    return new NotifierStats(queueDepth.get(), maxQueueDepth.get(), dispatchedCount.sum(), failedCount.sum(), droppedCount.sum(), gapCount.sum(), resyncCount.sum(), coalescedCount.sum());
+  }
+
+  private void signal() {
+    lock.lock();
+    try {
+      isSignalled = true;
+      signalled.signal();
+    }
+    finally {
+      lock.unlock();
+    }
+  }
 
   @SuppressWarnings("rawtypes")
   private class TableNotifier<T extends data.Table> implements Closeable {
@@ -123,15 +248,158 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
     // FIXME: Review this code, because use of IdentityHashMap usually means an OO approach can be used instead.
     // FIXME: In this case, IdentityHashMap is used because Notification.Listener is an interface.
     // FIXME: Maybe convert Notification.Listener to a class, and have it manage its own actions?
-    private final IdentityHashMap<Notification.Listener,Action[]> notificationListenerToActions = new IdentityHashMap<>();
+    // Guards the mutations of notificationListenerToActions, which is copied on write, so that the threads that dispatch the
+    // notifications of the table iterate a snapshot that is never mutated
+    private final ReentrantLock listenersLock = new ReentrantLock();
+    private volatile IdentityHashMap<Notification.Listener,Action[]> notificationListenerToActions = new IdentityHashMap<>();
     private final Action[] allActions = new Action[3];
 
     private final T table;
     private final Queue<Notification<T>> queue;
+    private final AtomicBoolean isScheduled = new AtomicBoolean();
+    // Whether notifications of the table were dropped because the queue was at capacity, and the table is yet to be resynced
+    private final AtomicBoolean isOverflowed = new AtomicBoolean();
+    private final boolean isCoalesce;
+
+    // The greatest change sequence of the table that has been received, or that was current upon connect, or -1 if unknown
+    private long seq = -1;
+    // The skipped change sequences, mapped to the time at which they were first skipped
+    private final TreeMap<Long,Long> gaps = new TreeMap<>();
+
+    // Drains the queue of this table on the executor. At most one drain per table is scheduled at any time, which preserves the
+    // order of the notifications of the table, while different tables are drained in parallel. As on the JAXDB-Notify thread, the
+    // queue is not drained until the Notifier is started, upon which setState(State) schedules the drain again.
+    private final Runnable drain = new Runnable() {
+      @Override
+      public void run() {
+        do {
+          if (state.get() == Notifier.State.STARTED)
+            flush();
+
+          isScheduled.set(false);
+        }
+        while (state.get() == Notifier.State.STARTED && (!queue.isEmpty() || isOverflowed.get()) && isScheduled.compareAndSet(false, true));
+      }
+    };
 
     private TableNotifier(final T table, final Queue<Notification<T>> queue) {
       this.table = table;
-      this.queue = queue;
+      // With an executor, each table has its own queue, so that its drain only dispatches notifications of its own table
+      this.queue = executor != null ? new ConcurrentLinkedQueue<Notification<T>>() : queue;
+      this.isCoalesce = Notifier.this.isCoalesce != null && Notifier.this.isCoalesce.test(table);
+    }
+
+    private void flush() {
+      while (true) {
+        for (Notification<T> notification; (notification = queue.poll()) != null;) // [X]
+          dispatch(notification);
+
+        // The notifications that were dropped at capacity are recovered by a resync, once the notifications before them are dispatched
+        if (!isOverflowed.compareAndSet(true, false))
+          return;
+
+        resync();
+      }
+    }
+
+    private void schedule() {
+      if (executor == null) {
+        signal();
+      }
+      else if (isScheduled.compareAndSet(false, true)) {
+        try {
+          executor.execute(drain);
+        }
+        catch (final RejectedExecutionException e) {
+          if (logger.isWarnEnabled()) { logger.warn("Notification executor rejected the drain of \"" + table.getName() + "\", draining on the calling thread", e); }
+          drain.run();
+        }
+      }
+    }
+
+    private void offer(final Notification<T> notification) {
+      queue.add(notification);
+      onQueued();
+      schedule();
+    }
+
+    /**
+     * Queues a resync of the table for each {@link Notification.Listener}, regardless of the capacity of the queue.
+     */
+    @SuppressWarnings("unchecked")
+    private void resync() {
+      resyncCount.increment();
+      final IdentityHashMap<Notification.Listener,Action[]> notificationListenerToActions = this.notificationListenerToActions;
+      if (notificationListenerToActions.size() > 0)
+        for (final Notification.Listener listener : notificationListenerToActions.keySet()) // [S]
+          offer(new Notification<>(null, System.currentTimeMillis(), listener, null, null, table));
+    }
+
+    /**
+     * Drops the provided notification, instead of blocking the calling thread until the queue drains, because the calling thread
+     * receives notifications from the DB, and can be an I/O thread of the driver (such as a netty event loop of pgjdbc-ng) on which
+     * the dispatch of other notifications depends. The table is resynced once the notifications that precede the dropped ones have
+     * been dispatched, and all notifications of the table are dropped until then.
+     *
+     * @param notification The notification.
+     */
+    private void drop(final Notification<T> notification) {
+      // A dropped notification must not remain the target of coalescing
+      if (notification.pendingKey != null)
+        pending.remove(notification.pendingKey, notification);
+
+      droppedCount.increment();
+      if (isOverflowed.compareAndSet(false, true)) {
+        if (logger.isWarnEnabled()) { logger.warn("Dropping notifications of \"" + table.getName() + "\" until it is resynced, because the notification queue is at capacity (" + queueCapacity + ")"); }
+        schedule();
+      }
+    }
+
+    /**
+     * Coalesces the provided notification into the queued notification of the same listener and row, if one has not yet been
+     * dispatched, and otherwise registers the provided notification as the queued notification of its listener and row.
+     *
+     * @param notification The notification.
+     * @return Whether the provided notification was coalesced into a queued notification.
+     * @see Notification#coalesce(Notification)
+     */
+    @SuppressWarnings("unchecked")
+    private boolean coalesce(final Notification<T> notification) {
+      final T row = notification.getRow();
+      final data.Key key = row.getKey();
+      final data.Key keyOld = notification.getAction() instanceof UP ? row.getKeyOld() : key;
+      final PendingKey pendingKey = new PendingKey(notification.getListener(), table.getName(), key);
+      if (keyOld.equals(key)) {
+        final Notification<?> queued = pending.compute(pendingKey, (final PendingKey k, final Notification<?> p) -> {
+          if (p != null && ((Notification<T>)p).coalesce(notification))
+            return p;
+
+          notification.pendingKey = k;
+          return notification;
+        });
+
+        if (queued != notification) {
+          coalescedCount.increment();
+          return true;
+        }
+      }
+      else {
+        // A change of the primary key is not coalesced, but the changes that follow it are coalesced into it
+        notification.pendingKey = pendingKey;
+        pending.put(pendingKey, notification);
+      }
+
+      return false;
+    }
+
+    private void enqueue(final Notification<T> notification) {
+      if (isCoalesce && notification.isCoalescable() && coalesce(notification))
+        return;
+
+      if (queueCapacity > 0 && (isOverflowed.get() || queueDepth.get() >= queueCapacity))
+        drop(notification);
+      else
+        offer(notification);
     }
 
     private boolean isClosed() {
@@ -142,62 +410,159 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
       return true;
     }
 
+    // Must be called with listenersLock held
+    private IdentityHashMap<Notification.Listener,Action[]> copyListeners() {
+      final IdentityHashMap<Notification.Listener,Action[]> copy = new IdentityHashMap<>(notificationListenerToActions);
+      for (final Map.Entry<Notification.Listener,Action[]> entry : copy.entrySet()) // [S]
+        entry.setValue(entry.getValue().clone());
+
+      return copy;
+    }
+
     private Action[] addNotificationListener(final Notification.Listener<? super T> notificationListener, final INSERT insert, final UP up, final DELETE delete) {
       logm(logger, TRACE, "%?[%s].addNotificationListener", "Listener@%h,%s,%s,%s", this, table.getName(), notificationListener, insert, up, delete);
       if (isClosed())
         return null;
 
-      add(allActions, insert, up, delete);
+      listenersLock.lock();
+      try {
+        add(allActions, insert, up, delete);
+
+        final IdentityHashMap<Notification.Listener,Action[]> notificationListenerToActions = copyListeners();
+        Action[] actionSet = notificationListenerToActions.get(assertNotNull(notificationListener));
+        if (actionSet == null) {
+          notificationListenerToActions.put(notificationListener, actionSet = new Action[3]);
+          add(actionSet, insert, up, delete);
+        }
+        else if (!add(actionSet, insert, up, delete)) {
+          return null;
+        }
 
-      Action[] actionSet = notificationListenerToActions.get(assertNotNull(notificationListener));
-      if (actionSet == null) {
-        notificationListenerToActions.put(notificationListener, actionSet = new Action[3]);
-        add(actionSet, insert, up, delete);
+        this.notificationListenerToActions = notificationListenerToActions;
+        return allActions;
       }
-      else if (!add(actionSet, insert, up, delete)) {
-        return null;
+      finally {
+        listenersLock.unlock();
       }
-
-      return allActions;
     }
 
     private boolean removeActions(final INSERT insert, final UP up, final DELETE delete) {
       if (isClosed())
         return false;
 
-      if (!remove(allActions, insert) && !remove(allActions, up) && !remove(allActions, delete))
-        return false;
+      listenersLock.lock();
+      try {
+        if (!remove(allActions, insert) && !remove(allActions, up) && !remove(allActions, delete))
+          return false;
 
-      if (notificationListenerToActions.size() > 0) {
-        if (size(allActions) == 0) {
-          notificationListenerToActions.clear();
-        }
-        else {
-          for (final Iterator<Map.Entry<Notification.Listener,Action[]>> iterator = notificationListenerToActions.entrySet().iterator(); iterator.hasNext();) { // [I]
-            final Map.Entry<Notification.Listener,Action[]> entry = iterator.next();
-            final Action[] actions = entry.getValue();
-            remove(actions, insert);
-            remove(actions, up);
-            remove(actions, delete);
-            if (size(actions) == 0)
-              iterator.remove();
+        if (this.notificationListenerToActions.size() > 0) {
+          if (size(allActions) == 0) {
+            this.notificationListenerToActions = new IdentityHashMap<>();
+          }
+          else {
+            final IdentityHashMap<Notification.Listener,Action[]> notificationListenerToActions = copyListeners();
+            for (final Iterator<Map.Entry<Notification.Listener,Action[]>> iterator = notificationListenerToActions.entrySet().iterator(); iterator.hasNext();) { // [I]
+              final Map.Entry<Notification.Listener,Action[]> entry = iterator.next();
+              final Action[] actions = entry.getValue();
+              remove(actions, insert);
+              remove(actions, up);
+              remove(actions, delete);
+              if (size(actions) == 0)
+                iterator.remove();
+            }
+
+            this.notificationListenerToActions = notificationListenerToActions;
           }
         }
-      }
 
-      return true;
+        return true;
+      }
+      finally {
+        listenersLock.unlock();
+      }
     }
 
     void onConnect(final Connection connection) throws IOException, SQLException {
       if (isClosed.get())
         return;
 
+      final IdentityHashMap<Notification.Listener,Action[]> notificationListenerToActions = this.notificationListenerToActions;
       if (notificationListenerToActions.size() > 0)
         for (final Notification.Listener<T> listener : notificationListenerToActions.keySet()) // [S]
           listener.onConnect(connection, table);
     }
 
+    /**
+     * Records the receipt of the provided change sequence of the table. A sequence that is skipped is expected to be received later
+     * (i.e. from a transaction that committed after the transactions of greater sequences), and is counted as a gap if it is not
+     * received within {@code GAP_TIMEOUT_MS}. On a live connection, an unresolved gap is usually a transaction that rolled back,
+     * because {@code LISTEN/NOTIFY} does not drop notifications, which is why a gap is counted, but does not resync the table.
+     *
+     * @param seq The change sequence, or {@code -1} if the notification does not carry a sequence.
+     */
+    private synchronized void onSequence(final long seq) {
+      if (seq == -1)
+        return;
+
+      final long now = System.currentTimeMillis();
+      for (final Iterator<Long> i = gaps.values().iterator(); i.hasNext();) { // [I]
+        if (now - i.next() > GAP_TIMEOUT_MS) {
+          i.remove();
+          gapCount.increment();
+        }
+      }
+
+      if (this.seq == -1 || seq <= this.seq) {
+        gaps.remove(seq);
+      }
+      else if (seq - this.seq > MAX_GAPS) {
+        gapCount.increment();
+      }
+      else {
+        for (long s = this.seq + 1; s < seq; ++s) // [N]
+          gaps.put(s, now);
+      }
+
+      if (seq > this.seq)
+        this.seq = seq;
+    }
+
+    /**
+     * Compares the current change sequence of the table in the DB with the greatest sequence that has been received, and resyncs
+     * the table if changes were committed that have not been received, or if skipped sequences are outstanding. The notification of
+     * a skipped sequence of a transaction that committed while disconnected is lost, so an outstanding gap upon reconnect is not
+     * expected to be received later. Only the tables with missed changes or outstanding gaps are resynced.
+     *
+     * @param connection The {@link Connection}.
+     * @throws SQLException If a SQL error has occurred.
+     */
+    @SuppressWarnings("unchecked")
+    private void checkSequence(final Connection connection) throws SQLException {
+      final long current = selectSequence(connection, table);
+      if (current == -1)
+        return;
+
+      final long seq;
+      final int noGaps;
+      synchronized (this) {
+        seq = this.seq;
+        if (current > seq)
+          this.seq = current;
+
+        noGaps = gaps.size();
+        if (seq == -1 || current <= seq && noGaps == 0)
+          return;
+
+        gaps.clear();
+      }
+
+      if (logger.isWarnEnabled()) { logger.warn("Resync of \"" + table.getName() + "\", because " + (current > seq ? "its changes were committed while disconnected" : noGaps + " of its changes were not received before reconnect")); }
+
+      resync();
+    }
+
     void onFailure(final String sessionId, final long timestamp, final Exception e) {
+      final IdentityHashMap<Notification.Listener,Action[]> notificationListenerToActions = this.notificationListenerToActions;
       if (notificationListenerToActions.size() > 0)
         for (final Notification.Listener<T> listener : notificationListenerToActions.keySet()) // [S]
           listener.onFailure(sessionId, timestamp, table, e);
@@ -224,6 +589,7 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
       boolean inited = false;
       T old = null;
       T cur = null;
+      final IdentityHashMap<Notification.Listener,Action[]> notificationListenerToActions = this.notificationListenerToActions;
       if (notificationListenerToActions.size() > 0) {
         for (final Map.Entry<Notification.Listener,Action[]> entry : notificationListenerToActions.entrySet()) { // [S]
           if (entry.getValue()[action.ordinal()] == null)
@@ -250,19 +616,60 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
           }
 
           if (action == Action.INSERT) {
-            queue.add(new Notification<>(sessionId, timestamp, entry.getKey(), action, null, cur));
+            enqueue(new Notification<>(sessionId, timestamp, entry.getKey(), action, null, cur));
           }
           else if (action == Action.DELETE) {
-            queue.add(new Notification<>(sessionId, timestamp, entry.getKey(), action, null, old));
+            enqueue(new Notification<>(sessionId, timestamp, entry.getKey(), action, null, old));
           }
           else {
             old.merge$(cur);
-            queue.add(new Notification<>(sessionId, timestamp, entry.getKey(), action, (Map<String,String>)json.get("keyForUpdate"), old));
+            enqueue(new Notification<>(sessionId, timestamp, entry.getKey(), action, (Map<String,String>)json.get("keyForUpdate"), old));
           }
+        }
+      }
+    }
+
+    void notify(final String sessionId, final long timestamp, final Action action, final T row) {
+      logm(logger, TRACE, "%?.notify", "%?,%d,%s", this, sessionId, timestamp, action);
+      if (isClosed.get())
+        return;
+
+      final IdentityHashMap<Notification.Listener,Action[]> notificationListenerToActions = this.notificationListenerToActions;
+      if (notificationListenerToActions.size() > 0)
+        for (final Map.Entry<Notification.Listener,Action[]> entry : notificationListenerToActions.entrySet()) // [S]
+          if (entry.getValue()[action.ordinal()] != null)
+            enqueue(new Notification<>(sessionId, timestamp, entry.getKey(), action, null, row));
+    }
+
+    @SuppressWarnings("unchecked")
+    void notify(final CompactPayload payload) {
+      logm(logger, TRACE, "%?.notify", "%?,%d,%s", this, payload.sessionId, payload.timestamp, payload.action);
+      if (isClosed.get())
+        return;
 
-          synchronized (thread) {
-            thread.notify();
+      final Action action = payload.action;
+      boolean inited = false;
+      T old = null;
+      T cur = null;
+      final IdentityHashMap<Notification.Listener,Action[]> notificationListenerToActions = this.notificationListenerToActions;
+      if (notificationListenerToActions.size() > 0) {
+        for (final Map.Entry<Notification.Listener,Action[]> entry : notificationListenerToActions.entrySet()) { // [S]
+          if (entry.getValue()[action.ordinal()] == null)
+            continue;
+
+          if (!inited) {
+            inited = true;
+            payload.readRows(Notifier.this.vendor, table);
+            old = (T)payload.old;
+            cur = (T)payload.cur;
+            if (old != null && cur != null)
+              old.merge$(cur);
           }
+
+          if (action == Action.INSERT)
+            enqueue(new Notification<>(payload.sessionId, payload.timestamp, entry.getKey(), action, null, cur));
+          else
+            enqueue(new Notification<>(payload.sessionId, payload.timestamp, entry.getKey(), action, payload.keyForUpdate, old));
         }
       }
     }
@@ -277,8 +684,14 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
         return;
 
       isClosed.set(true);
-      notificationListenerToActions.clear();
-      clear(allActions);
+      listenersLock.lock();
+      try {
+        notificationListenerToActions = new IdentityHashMap<>();
+        clear(allActions);
+      }
+      finally {
+        listenersLock.unlock();
+      }
     }
   }
 
@@ -286,34 +699,77 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
   private Connection connection;
   protected final ConnectionFactory connectionFactory;
 
-  Notifier(final DbVendor vendor, final Connection connection, final ConnectionFactory connectionFactory) throws SQLException {
+  /**
+   * Creates a new {@link Notifier} that dispatches notifications on a thread created by the provided {@link ThreadFactory}.
+   *
+   * @param vendor The {@link DbVendor}.
+   * @param connection The {@link Connection}.
+   * @param connectionFactory The {@link ConnectionFactory}.
+   * @param threadFactory The {@link ThreadFactory} of the {@code JAXDB-Notify} thread and of the threads that receive changes from
+   *          the DB, or {@code null} to create daemon platform threads (of maximum priority, for the {@code JAXDB-Notify} thread).
+   * @param executor The {@link Executor} on which notifications are dispatched serially per table, or {@code null} to dispatch all
+   *          notifications on the {@code JAXDB-Notify} thread.
+   * @param queueCapacity The maximum number of queued notifications, beyond which notifications are dropped and their tables are
+   *          resynced, or {@code 0} for no limit.
+   * @param isCoalesce The {@link Predicate} of whether the queued notifications of a table are coalesced per primary key, or
+   *          {@code null} to coalesce no notifications.
+   * @throws SQLException If a database access error occurs.
+   */
+  Notifier(final DbVendor vendor, final Connection connection, final ConnectionFactory connectionFactory, final ThreadFactory threadFactory, final Executor executor, final int queueCapacity, final Predicate<data.Table> isCoalesce) throws SQLException {
     logm(logger, TRACE, "%?.<init>", "%?,%?", this, connection, connectionFactory);
     this.vendor = assertNotNull(vendor);
     this.connection = assertNotNull(connection);
     this.connectionFactory = assertNotNull(connectionFactory);
+    this.threadFactory = threadFactory;
+    this.executor = executor;
+    if (queueCapacity < 0)
+      throw new IllegalArgumentException("queueCapacity (" + queueCapacity + ") must be greater than or equal to 0");
+
+    this.queueCapacity = queueCapacity;
+    this.isCoalesce = isCoalesce;
     connection.setAutoCommit(true);
 
-    this.thread = new Thread("JAXDB-Notify") {
+    final Runnable dispatcher = new Runnable() {
       @SuppressWarnings("resource")
       private void flushQueues() {
         if (logger.isTraceEnabled()) { logger.trace("JAXDB-Notify Thread.flushQueues()"); }
 
+        // An exception of one notification is isolated in dispatch(Notification), so that it does not abort the pass
         final ArrayList<TableNotifier<?>> tableNotifiers = tableNameToNotifier.values();
-        final int size = tableNotifiers.size();
-        if (size > 0) {
-          Notification<?> notification = null;
-          try {
-            int i = 0;
-            do { // [RA]
-              while ((notification = tableNotifiers.get(i).queue.poll()) != null)
-                notification.invoke();
+        for (int i = 0, i$ = tableNotifiers.size(); i < i$; ++i) // [RA]
+          tableNotifiers.get(i).flush();
+      }
+
+      private void awaitStarted() {
+        lock.lock();
+        try {
+          while (state.get() != Notifier.State.STARTED) {
+            try {
+              stateChanged.await();
+            }
+            catch (final InterruptedException e) {
+              if (logger.isErrorEnabled()) { logger.error("JAXDB-Notify state wait interrupted, continuing", e); }
             }
-            while (++i < size);
-          }
-          catch (final Exception e) {
-            if (logger.isErrorEnabled()) { logger.error("Uncaught exception in Notifier.flushQueues(): " + notification, e); }
           }
         }
+        finally {
+          lock.unlock();
+        }
+      }
+
+      private void awaitSignal() throws InterruptedException {
+        lock.lock();
+        try {
+          // isSignalled is set after each Queue.add(...), so a notification that is queued after flushQueues() has passed its queue
+          // is never missed
+          while (!isSignalled && state.get() == Notifier.State.STARTED)
+            signalled.await();
+
+          isSignalled = false;
+        }
+        finally {
+          lock.unlock();
+        }
       }
 
       @Override
@@ -321,24 +777,10 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
         if (logger.isTraceEnabled()) { logger.trace("JAXDB-Notify Thread.run()"); }
 
         while (true) {
-          while (state.get() != Notifier.State.STARTED) {
-            synchronized (state) {
-              try {
-                if (state.get() != Notifier.State.STARTED)
-                  state.wait();
-              }
-              catch (final InterruptedException e) {
-                if (logger.isErrorEnabled()) { logger.error("JAXDB-Notify state wait interrupted, continuing", e); }
-              }
-            }
-          }
-
+          awaitStarted();
           try {
             flushQueues();
-            synchronized (thread) {
-              flushQueues();
-              thread.wait();
-            }
+            awaitSignal();
           }
           catch (final Throwable t) {
             if (logger.isErrorEnabled()) { logger.error("Uncaught exception in Notifier.run()", t); }
@@ -351,11 +793,40 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
       }
     };
 
-    thread.setPriority(Thread.MAX_PRIORITY);
-    thread.setDaemon(true);
+    if (executor != null) {
+      this.thread = null;
+      return;
+    }
+
+    if (threadFactory != null) {
+      this.thread = threadFactory.newThread(dispatcher);
+    }
+    else {
+      this.thread = new Thread(dispatcher, "JAXDB-Notify");
+      thread.setPriority(Thread.MAX_PRIORITY);
+      thread.setDaemon(true);
+    }
+
     thread.start();
   }
 
+  /**
+   * Returns a new {@link Thread} for the provided {@link Runnable}, created by the {@link ThreadFactory} of this {@link Notifier}, or
+   * a daemon platform thread of the provided name if the {@link ThreadFactory} is null.
+   *
+   * @param runnable The {@link Runnable}.
+   * @param name The name of the daemon platform thread, if the {@link ThreadFactory} is null.
+   * @return A new {@link Thread} for the provided {@link Runnable}.
+   */
+  final Thread newThread(final Runnable runnable, final String name) {
+    if (threadFactory != null)
+      return threadFactory.newThread(runnable);
+
+    final Thread thread = new Thread(runnable, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+
   @Override
   public final Connection getConnection(final Transaction.Isolation isolation) throws IOException, SQLException {
     logm(logger, TRACE, "%?.getConnection", this);
@@ -383,9 +854,48 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
     String sessionId = null;
     long timestamp = 0;
     try {
-      final Map<String,Object> json = (Map<String,Object>)JSON.parse(payload, typeMap);
-      sessionId = (String)json.get("sessionId");
-      timestamp = Numbers.parseLong((String)json.get("timestamp"), 0L);
+      if (CompactPayload.isCompact(payload)) {
+        final CompactPayload compact = new CompactPayload(payload);
+        sessionId = compact.sessionId;
+        timestamp = compact.timestamp;
+        tableNotifier.onSequence(compact.seq);
+        tableNotifier.notify(compact);
+      }
+      else {
+        final Map<String,Object> json = (Map<String,Object>)JSON.parse(payload, typeMap);
+        sessionId = (String)json.get("sessionId");
+        timestamp = Numbers.parseLong((String)json.get("timestamp"), 0L);
+        tableNotifier.onSequence(Numbers.parseLong((String)json.get("seq"), -1L));
+        tableNotifier.notify(sessionId, timestamp, json);
+      }
+    }
+    catch (final Exception e) {
+      if (logger.isErrorEnabled()) { logger.error("Uncaught exception in Notifier.notify()", e); }
+      setState(Notifier.State.FAILED);
+      tableNotifier.onFailure(sessionId, timestamp, e);
+    }
+  }
+
+  /**
+   * Dispatches a change of the provided table that has already been decoded into the structure of the JSON payload, i.e. with
+   * {@code "action"}, and the {@code "old"} and/or {@code "cur"} maps of column names to values.
+   *
+   * @param tableName The name of the table.
+   * @param sessionId The session id, or {@code null}.
+   * @param timestamp The epoch millisecond time of the change.
+   * @param json The decoded change.
+   */
+  final void notify(final String tableName, final String sessionId, final long timestamp, final Map<String,Object> json) {
+    final State state = this.state.get();
+    logm(logger, TRACE, "%?.notify", "state=%s,%s,%s", this, state, tableName, json);
+    if (state != Notifier.State.STARTED)
+      return;
+
+    final TableNotifier<?> tableNotifier = tableNameToNotifier.get(tableName);
+    if (tableNotifier == null)
+      return;
+
+    try {
       tableNotifier.notify(sessionId, timestamp, json);
     }
     catch (final Exception e) {
@@ -395,6 +905,35 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
     }
   }
 
+  /**
+   * Dispatches a change of the provided row, which has already been read from the DB.
+   *
+   * @param row The row, whose old primary key is the key of the row before an {@code UPDATE}.
+   * @param sessionId The session id, or {@code null}.
+   * @param timestamp The epoch millisecond time of the change.
+   * @param action The {@link Action}.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  final void notify(final data.Table row, final String sessionId, final long timestamp, final Action action) {
+    final State state = this.state.get();
+    logm(logger, TRACE, "%?.notify", "state=%s,%s,%s", this, state, row.getName(), action);
+    if (state != Notifier.State.STARTED)
+      return;
+
+    final TableNotifier tableNotifier = tableNameToNotifier.get(row.getName());
+    if (tableNotifier == null)
+      return;
+
+    try {
+      tableNotifier.notify(sessionId, timestamp, action, row);
+    }
+    catch (final Exception e) {
+      if (logger.isErrorEnabled()) { logger.error("Uncaught exception in Notifier.notify()", e); }
+      setState(Notifier.State.FAILED);
+      tableNotifier.onFailure(sessionId, timestamp, e);
+    }
+  }
+
   private final AtomicReference<State> state = new AtomicReference<>(Notifier.State.CREATED);
 
   private void setState(final State state) {
@@ -402,8 +941,20 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
 
     this.state.set(state);
 
-    synchronized (this.state) {
-      this.state.notifyAll();
+    lock.lock();
+    try {
+      stateChanged.signalAll();
+      signalled.signal();
+    }
+    finally {
+      lock.unlock();
+    }
+
+    // The drains on the executor that were skipped before the Notifier was started
+    if (state == Notifier.State.STARTED && executor != null) {
+      final ArrayList<TableNotifier<?>> tableNotifiers = tableNameToNotifier.values();
+      for (int i = 0, i$ = tableNotifiers.size(); i < i$; ++i) // [RA]
+        tableNotifiers.get(i).schedule();
     }
   }
 
@@ -478,6 +1029,10 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
         tableNotifiers.get(i).onConnect(connection);
 
       listenTriggers(connection);
+
+      // The sequences are selected after LISTEN, so that a change that is committed thereafter is received as a notification
+      for (int i = 0, i$ = tableNotifiers.size(); i < i$; ++i) // [RA]
+        tableNotifiers.get(i).checkSequence(connection);
     }
     catch (final Exception e) {
       setState(Notifier.State.FAILED);
@@ -485,6 +1040,20 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
     }
   }
 
+  /**
+   * Returns the current change sequence of the provided table in the DB, which is the sequence of the last change that was
+   * committed to the table (or rolled back), or {@code -1} if this {@link Notifier} does not sequence the changes of tables.
+   *
+   * @param connection The {@link Connection}.
+   * @param table The table.
+   * @return The current change sequence of the provided table in the DB, or {@code -1} if this {@link Notifier} does not sequence
+   *         the changes of tables.
+   * @throws SQLException If a SQL error has occurred.
+   */
+  long selectSequence(final Connection connection, final data.Table table) throws SQLException {
+    return -1;
+  }
+
   protected abstract void stop() throws SQLException;
 
   @SuppressWarnings("resource")
@@ -574,6 +1143,13 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
     }
 
     recreateTrigger(connection, tables, actionSets);
+
+    // Establish the change sequence of new tables, from which changes that are missed during a disconnect are detected
+    for (int i = 0; i < len; ++i) { // [A]
+      final TableNotifier<?> tableNotifier = tableNameToNotifier.get(tables[i].getName());
+      if (tableNotifier != null && tableNotifier.seq == -1)
+        tableNotifier.checkSequence(connection);
+    }
   }
 
   private void listenTriggers(final Connection connection) throws SQLException {
@@ -601,7 +1177,8 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
       setState(Notifier.State.CREATED);
 
     if (state.get() != Notifier.State.STARTED) {
-      synchronized (state) {
+      startLock.lock();
+      try {
         if (state.get() != Notifier.State.STARTED) {
           // This will be the Connection for PG-JDBC I/O
           final Connection connection = getConnection(null);
@@ -620,6 +1197,9 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
           return true;
         }
       }
+      finally {
+        startLock.unlock();
+      }
     }
 
     // Create a connection that will close, because Notifier is already running on another connection.
@@ -638,6 +1218,10 @@ abstract class Notifier<L> extends Notifiable implements AutoCloseable, Connecti
     return true;
   }
 
+  final boolean isStarted() {
+    return state.get() == Notifier.State.STARTED;
+  }
+
   final boolean isErrored() {
     return state.get() == Notifier.State.FAILED;
   }
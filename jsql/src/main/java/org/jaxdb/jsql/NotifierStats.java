@@ -0,0 +1,126 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+/**
+ * A snapshot of the dispatch statistics of the notifications of a {@link Connector}.
+ *
+ * @see Connector#getNotifierStats()
+ */
+public final class NotifierStats {
+  private final int queueDepth;
+  private final int maxQueueDepth;
+  private final long dispatchedCount;
+  private final long failedCount;
+  private final long droppedCount;
+  private final long gapCount;
+  private final long resyncCount;
+  private final long coalescedCount;
+
+  NotifierStats(final int queueDepth, final int maxQueueDepth, final long dispatchedCount, final long failedCount, final long droppedCount, final long gapCount, final long resyncCount, final long coalescedCount) {
+    this.queueDepth = queueDepth;
+    this.maxQueueDepth = maxQueueDepth;
+    this.dispatchedCount = dispatchedCount;
+    this.failedCount = failedCount;
+    this.droppedCount = droppedCount;
+    this.gapCount = gapCount;
+    this.resyncCount = resyncCount;
+    this.coalescedCount = coalescedCount;
+  }
+
+  /**
+   * Returns the number of notifications that are queued and not yet dispatched.
+   *
+   * @return The number of notifications that are queued and not yet dispatched.
+   */
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  /**
+   * Returns the greatest number of notifications that have been queued at once.
+   *
+   * @return The greatest number of notifications that have been queued at once.
+   */
+  public int getMaxQueueDepth() {
+    return maxQueueDepth;
+  }
+
+  /**
+   * Returns the number of notifications that have been dispatched to their {@link Notification.Listener}s without exception.
+   *
+   * @return The number of notifications that have been dispatched to their {@link Notification.Listener}s without exception.
+   */
+  public long getDispatchedCount() {
+    return dispatchedCount;
+  }
+
+  /**
+   * Returns the number of notifications whose {@link Notification.Listener} threw an exception.
+   *
+   * @return The number of notifications whose {@link Notification.Listener} threw an exception.
+   */
+  public long getFailedCount() {
+    return failedCount;
+  }
+
+  /**
+   * Returns the number of notifications that were dropped, because the queue was at capacity. The tables of dropped notifications
+   * are resynced.
+   *
+   * @return The number of notifications that were dropped, because the queue was at capacity.
+   */
+  public long getDroppedCount() {
+    return droppedCount;
+  }
+
+  /**
+   * Returns the number of change sequences of tables that were skipped by the received notifications, and were not received
+   * thereafter. On a live connection, such a gap is usually a transaction that rolled back.
+   *
+   * @return The number of change sequences of tables that were skipped by the received notifications, and were not received
+   *         thereafter.
+   */
+  public long getGapCount() {
+    return gapCount;
+  }
+
+  /**
+   * Returns the number of times a table was resynced, because changes were committed to it while disconnected from the DB, or
+   * because its notifications were dropped.
+   *
+   * @return The number of times a table was resynced, because changes were committed to it while disconnected from the DB, or
+   *         because its notifications were dropped.
+   */
+  public long getResyncCount() {
+    return resyncCount;
+  }
+
+  /**
+   * Returns the number of notifications that were coalesced into a queued notification of the same row, instead of being queued.
+   *
+   * @return The number of notifications that were coalesced into a queued notification of the same row, instead of being queued.
+   */
+  public long getCoalescedCount() {
+    return coalescedCount;
+  }
+
+  @Override
+  public String toString() {
+    return "{queueDepth:" + queueDepth + ",maxQueueDepth:" + maxQueueDepth + ",dispatchedCount:" + dispatchedCount + ",failedCount:" + failedCount + ",droppedCount:" + droppedCount + ",gapCount:" + gapCount + ",resyncCount:" + resyncCount + ",coalescedCount:" + coalescedCount + "}";
+  }
+}
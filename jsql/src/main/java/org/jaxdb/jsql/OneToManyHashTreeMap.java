@@ -74,4 +74,11 @@ public class OneToManyHashTreeMap<V extends data.Table> extends HashTreeCacheMap
     if (v != null)
       v.remove$(value.getKeyOld());
   }
+
+  final void evict$(final data.Key key, final V value) {
+    // The key is removed from the masks, because its values are no longer complete
+    hashMask.evict(key);
+    treeMask.remove(key);
+    remove$(key, value);
+  }
 }
\ No newline at end of file
@@ -59,4 +59,12 @@ public class OneToManyTreeMap<V extends data.Table> extends TreeCacheMap<Navigab
     if (v != null)
       v.remove$(value.getKeyOld());
   }
+
+  final void evict$(final data.Key key, final V value) {
+    // The key is removed from the mask, because its values are no longer complete
+    mask.remove(key);
+    final OneToOneTreeMap<V> v = (OneToOneTreeMap<V>)map.get(key);
+    if (v != null)
+      v.remove$(value.getKey());
+  }
 }
\ No newline at end of file
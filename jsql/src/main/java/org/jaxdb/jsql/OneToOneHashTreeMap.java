@@ -40,6 +40,6 @@ public class OneToOneHashTreeMap<V extends data.Table> extends HashTreeCacheMap<
 
   @Override
   public V get(final Object key) {
-    return hashMap.get(key);
+    return onAccess(key) ? hashMap.get(key) : null;
   }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * A {@link OneToOneHashMap} of a unique index on a single integer column, which additionally indexes its rows by primitive
+ * {@code long} key, so that {@link #get(long)} neither boxes the key nor allocates a {@link data.Key}.
+ *
+ * @param <V> The type of the rows.
+ */
+public class OneToOneLongHashMap<V extends data.Table> extends OneToOneHashMap<V> {
+  OneToOneLongHashMap(final data.Table table, final data.Column<?> column) {
+    super(table);
+    this.longIndex = new LongKeyIndex<>(column);
+  }
+
+  /**
+   * Returns the row of the provided primitive key, or {@code null} if this map does not contain the key.
+   *
+   * @param key The primitive key.
+   * @return The row of the provided primitive key, or {@code null} if this map does not contain the key.
+   */
+  public V get(final long key) {
+    return getLong(key);
+  }
+
+  V select(final long key) throws IOException, SQLException {
+    return selectLong(key);
+  }
+}
@@ -38,6 +38,6 @@ public class OneToOneTreeMap<V extends data.Table> extends TreeCacheMap<V> imple
 
   @Override
   public V get(final Object key) {
-    return map.get(key);
+    return onAccess(key) ? map.get(key) : null;
   }
 }
\ No newline at end of file
@@ -442,6 +442,26 @@ final class OracleCompiler extends Compiler {
     return statement.executeUpdate(sql.toString(), getNames(autos));
   }
 
+  @Override
+  StringBuilder compileChangeLogSequence(final StringBuilder sql) {
+    return sql.append(" NUMBER(19) GENERATED ALWAYS AS IDENTITY PRIMARY KEY");
+  }
+
+  @Override
+  String getTriggerRecord(final String record) {
+    return ":" + record;
+  }
+
+  @Override
+  StringBuilder compileTriggerBody(final StringBuilder sql, final CharSequence statement) {
+    return sql.append("BEGIN ").append(statement).append("; END;");
+  }
+
+  @Override
+  String getSelectTrigger() {
+    return "SELECT 1 FROM USER_TRIGGERS WHERE TRIGGER_NAME = ?";
+  }
+
   // FIXME: Figure out how to remove this
   private final String q(final CharSequence identifier) {
     return getDialect().quoteIdentifier(new StringBuilder(identifier.length() + 2), identifier).toString();
@@ -114,8 +114,8 @@ final class PostgreSQLCompiler extends Compiler {
   }
 
   @Override
-  void setSessionId(final Statement statement, final String sessionId) throws SQLException {
-    statement.execute(sessionId != null ? "SET SESSION jaxdb.session_id = '" + sessionId + "'" : "SET SESSION jaxdb.session_id = DEFAULT");
+  String compileSessionId(final String sessionId) {
+    return sessionId != null ? "SET SESSION jaxdb.session_id = '" + sessionId + "'" : "SET SESSION jaxdb.session_id = DEFAULT";
   }
 
   @Override
@@ -488,4 +488,9 @@ final class PostgreSQLCompiler extends Compiler {
   StringBuilder prepareSqlReturning(final StringBuilder sql, final data.Column<?>[] autos) {
     return super.prepareSqlReturning(sql.append(" RETURNING ").append(getNames(autos)), autos);
   }
-}
\ No newline at end of file
+
+  @Override
+  int getMaxInsertParameters() {
+    return 32767;
+  }
+}
@@ -29,6 +29,9 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Predicate;
 
 import org.jaxdb.jsql.Notification.Action;
 import org.jaxdb.jsql.Notification.Action.UP;
@@ -48,8 +51,17 @@ public class PostgreSQLNotifier extends Notifier<PGNotificationListener> {
   private static final String pgNotifyPageFunction = "pg_notify_page";
   private static final String sessionIdTimestamp = "SELECT CURRENT_SETTING('jaxdb.session_id', 't') INTO _sessionId;\nSELECT (EXTRACT(EPOCH FROM CURRENT_TIMESTAMP) * 1000)::BIGINT INTO _timestamp;\n";
 
-  private static String getFunctionName(final data.Table table, final Action action) {
-    return channelName + "_" + table.getName() + "_" + action.toString().toLowerCase();
+  private static String getSequenceName(final data.Table table) {
+    return channelName + "_" + table.getName() + "_seq";
+  }
+
+  private static String getSessionIdTimestampSeq(final data.Table table) {
+    return sessionIdTimestamp + "SELECT NEXTVAL('\"" + getSequenceName(table) + "\"') INTO _seq;\n";
+  }
+
+  private static String getFunctionName(final data.Table table, final Action action, final boolean compact) {
+    final String functionName = channelName + "_" + table.getName() + "_" + action.toString().toLowerCase();
+    return compact ? functionName + "_c" : functionName;
   }
 
   // list all LISTEN channels: SELECT * FROM pg_listening_channels()
@@ -100,9 +112,11 @@ public class PostgreSQLNotifier extends Notifier<PGNotificationListener> {
 
   private PGNotificationListener listener;
   private final Map<String,StringBuilder> hashToPages = new ConcurrentHashMap<>();
+  private final Predicate<data.Table> isCompact;
 
-  PostgreSQLNotifier(final Connection connection, final ConnectionFactory connectionFactory) throws SQLException {
-    super(DbVendor.POSTGRE_SQL, connection, connectionFactory);
+  PostgreSQLNotifier(final Connection connection, final ConnectionFactory connectionFactory, final ThreadFactory threadFactory, final Executor executor, final int queueCapacity, final Predicate<data.Table> isCoalesce, final Predicate<data.Table> isCompact) throws SQLException {
+    super(DbVendor.POSTGRE_SQL, connection, connectionFactory, threadFactory, executor, queueCapacity, isCoalesce);
+    this.isCompact = isCompact;
   }
 
   @Override
@@ -158,9 +172,16 @@ public class PostgreSQLNotifier extends Notifier<PGNotificationListener> {
             hashToPages.remove(hash);
           }
 
-          i = payload.indexOf("\"table\"");
-          i = payload.indexOf('"', i + 7);
-          final String tableName = payload.substring(++i, payload.indexOf('"', ++i));
+          final String tableName;
+          if (CompactPayload.isCompact(payload)) {
+            tableName = CompactPayload.getTableName(payload);
+          }
+          else {
+            i = payload.indexOf("\"table\"");
+            i = payload.indexOf('"', i + 7);
+            tableName = payload.substring(++i, payload.indexOf('"', ++i));
+          }
+
           PostgreSQLNotifier.this.notify(tableName, payload);
         }
 
@@ -209,17 +230,18 @@ public class PostgreSQLNotifier extends Notifier<PGNotificationListener> {
     sql.append("CREATE OR REPLACE FUNCTION ").append(functionName).append("() RETURNS TRIGGER AS $$ DECLARE\n");
     sql.append("  _sessionId TEXT;\n");
     sql.append("  _timestamp BIGINT;\n");
+    sql.append("  _seq BIGINT;\n");
 
     if (action == INSERT) {
       sql.append("BEGIN\n");
-      sql.append("  ").append(sessionIdTimestamp);
-      sql.append("  PERFORM ").append(pgNotifyPageFunction).append("('").append(channelName).append("', JSON_BUILD_OBJECT('sessionId', _sessionId, 'timestamp', _timestamp, 'table', '").append(tableName).append("', 'action', 'INSERT', 'cur', ROW_TO_JSON(NEW))::TEXT);\n");
+      sql.append("  ").append(getSessionIdTimestampSeq(table));
+      sql.append("  PERFORM ").append(pgNotifyPageFunction).append("('").append(channelName).append("', JSON_BUILD_OBJECT('sessionId', _sessionId, 'timestamp', _timestamp, 'seq', _seq, 'table', '").append(tableName).append("', 'action', 'INSERT', 'cur', ROW_TO_JSON(NEW))::TEXT);\n");
     }
     else if (action == UPDATE) {
       sql.append("BEGIN\n");
       sql.append("  IF NEW IS DISTINCT FROM OLD THEN\n");
-      sql.append("    ").append(sessionIdTimestamp);
-      sql.append("    PERFORM ").append(pgNotifyPageFunction).append("('").append(channelName).append("', JSON_BUILD_OBJECT('sessionId', _sessionId, 'timestamp', _timestamp, 'table', '").append(tableName).append("', 'action', 'UPDATE', 'old', ROW_TO_JSON(OLD), 'cur', ROW_TO_JSON(NEW))::TEXT);\n");
+      sql.append("    ").append(getSessionIdTimestampSeq(table));
+      sql.append("    PERFORM ").append(pgNotifyPageFunction).append("('").append(channelName).append("', JSON_BUILD_OBJECT('sessionId', _sessionId, 'timestamp', _timestamp, 'seq', _seq, 'table', '").append(tableName).append("', 'action', 'UPDATE', 'old', ROW_TO_JSON(OLD), 'cur', ROW_TO_JSON(NEW))::TEXT);\n");
       sql.append("  END IF;\n");
     }
     else if (action == UPGRADE) {
@@ -227,7 +249,7 @@ public class PostgreSQLNotifier extends Notifier<PGNotificationListener> {
       sql.append("  _cur JSON;\n");
       sql.append("BEGIN\n");
       sql.append("  IF NEW IS DISTINCT FROM OLD THEN\n");
-      sql.append("    ").append(sessionIdTimestamp);
+      sql.append("    ").append(getSessionIdTimestampSeq(table));
       sql.append("    _old = ROW_TO_JSON(OLD);\n");
       sql.append("    SELECT JSON_OBJECT_AGG(COALESCE(old_json.key, new_json.key), new_json.value) INTO _cur\n");
       sql.append("    FROM JSON_EACH_TEXT(_old) old_json\n");
@@ -242,7 +264,7 @@ public class PostgreSQLNotifier extends Notifier<PGNotificationListener> {
 
       sql.append(";\n");
 
-      sql.append("    PERFORM ").append(pgNotifyPageFunction).append("('").append(channelName).append("', JSON_BUILD_OBJECT('sessionId', _sessionId, 'timestamp', _timestamp, 'table', '").append(tableName).append("', 'action', 'UPGRADE'");
+      sql.append("    PERFORM ").append(pgNotifyPageFunction).append("('").append(channelName).append("', JSON_BUILD_OBJECT('sessionId', _sessionId, 'timestamp', _timestamp, 'seq', _seq, 'table', '").append(tableName).append("', 'action', 'UPGRADE'");
       if (hasKeyForUpdate) {
         sql.append(", 'keyForUpdate', JSON_BUILD_OBJECT(");
         for (final data.Column<?> keyForUpdate : table._keyForUpdate$) // [A]
@@ -256,8 +278,8 @@ public class PostgreSQLNotifier extends Notifier<PGNotificationListener> {
     }
     else if (action == DELETE) {
       sql.append("BEGIN\n");
-      sql.append("  ").append(sessionIdTimestamp);
-      sql.append("  PERFORM ").append(pgNotifyPageFunction).append("('").append(channelName).append("', JSON_BUILD_OBJECT('sessionId', _sessionId, 'timestamp', _timestamp, 'table', '").append(tableName).append("', 'action', 'DELETE', 'old', ROW_TO_JSON(OLD))::TEXT);\n");
+      sql.append("  ").append(getSessionIdTimestampSeq(table));
+      sql.append("  PERFORM ").append(pgNotifyPageFunction).append("('").append(channelName).append("', JSON_BUILD_OBJECT('sessionId', _sessionId, 'timestamp', _timestamp, 'seq', _seq, 'table', '").append(tableName).append("', 'action', 'DELETE', 'old', ROW_TO_JSON(OLD))::TEXT);\n");
     }
     else {
       throw new UnsupportedOperationException("Unsupported Action: " + action);
@@ -270,6 +292,125 @@ public class PostgreSQLNotifier extends Notifier<PGNotificationListener> {
     return sql.toString();
   }
 
+  /**
+   * Appends the SQL expression of the compact {@code value} of the provided column of the provided record (i.e. {@code OLD} or
+   * {@code NEW}) to the provided {@link StringBuilder}. The value is the text of the JSON representation of the column, so that it
+   * is parsed exactly as a value of the JSON payload.
+   *
+   * @see CompactPayload
+   */
+  private static StringBuilder appendCompactEntry(final StringBuilder sql, final int index, final String record, final data.Column<?> column) {
+    final String value = "(TO_JSON(" + record + ".\"" + column.name + "\")#>>'{}')";
+    return sql.append(" || '").append(index).append("' || COALESCE('=' || char_length(").append(value).append(") || ':' || ").append(value).append(", '~')");
+  }
+
+  /**
+   * Appends the SQL expression of the compact entries of the provided record (i.e. {@code OLD} or {@code NEW}) for the key columns
+   * of the provided table, which are its primary key columns, or all of its columns if it does not have a primary key.
+   */
+  private static void appendCompactKey(final StringBuilder sql, final data.Table table, final String record) {
+    final data.Column<?>[] columns = table._column$;
+    final boolean hasPrimary = table._primary$.length > 0;
+    for (int i = 0, i$ = columns.length; i < i$; ++i) // [A]
+      if (!hasPrimary || columns[i].primaryIndexType != null)
+        appendCompactEntry(sql, i, record, columns[i]);
+  }
+
+  /**
+   * Returns the SQL of the function of the provided trigger that sends a {@link CompactPayload}. An {@code INSERT} sends all columns
+   * of {@code NEW}. An {@code UPDATE} sends the key columns of {@code OLD} and all columns of {@code NEW}. An {@code UPGRADE} sends
+   * the primary key columns of {@code OLD} and of {@code NEW}, the columns of {@code NEW} that differ from {@code OLD}, and the
+   * {@code keyForUpdate} columns of {@code OLD}. A {@code DELETE} sends the key columns of {@code OLD}.
+   */
+  private static String getCreateCompactFunction(final data.Table table, final Action action, final String functionName) {
+    logm(logger, TRACE, "PostgreSQLNotifier.getCreateCompactFunction", "%s,%s,%s", table, action, functionName);
+    final String tableName = table.getName();
+    final data.Column<?>[] columns = table._column$;
+
+    final StringBuilder sql = new StringBuilder("BEGIN;");
+    sql.append("SELECT pg_advisory_xact_lock(2142616474639426746);\n");
+    sql.append("CREATE OR REPLACE FUNCTION ").append(functionName).append("() RETURNS TRIGGER AS $$ DECLARE\n");
+    sql.append("  _sessionId TEXT;\n");
+    sql.append("  _timestamp BIGINT;\n");
+    sql.append("  _seq BIGINT;\n");
+    sql.append("BEGIN\n");
+
+    final char code;
+    if (action == INSERT) {
+      code = 'I';
+    }
+    else if (action == UPDATE) {
+      code = 'U';
+    }
+    else if (action == UPGRADE) {
+      if (table._primary$.length == 0)
+        throw new IllegalArgumentException("Cannot create UPGRADE trigger on table without primary key");
+
+      code = 'G';
+    }
+    else if (action == DELETE) {
+      code = 'D';
+    }
+    else {
+      throw new UnsupportedOperationException("Unsupported Action: " + action);
+    }
+
+    final boolean isUp = action instanceof UP;
+    if (isUp)
+      sql.append("  IF NEW IS DISTINCT FROM OLD THEN\n");
+
+    sql.append("  ").append(getSessionIdTimestampSeq(table));
+    sql.append("  PERFORM ").append(pgNotifyPageFunction).append("('").append(channelName).append("', '").append(CompactPayload.PREFIX).append(code).append(",' || _timestamp || ':' || _seq || ',").append(tableName).append(",' || COALESCE('=' || char_length(_sessionId) || ':' || _sessionId, '~')");
+    if (action == INSERT) {
+      sql.append(" || 'C'");
+      for (int i = 0, i$ = columns.length; i < i$; ++i) // [A]
+        appendCompactEntry(sql, i, "NEW", columns[i]);
+    }
+    else if (action == UPDATE) {
+      sql.append(" || 'O'");
+      appendCompactKey(sql, table, "OLD");
+      sql.append(" || ';C'");
+      for (int i = 0, i$ = columns.length; i < i$; ++i) // [A]
+        appendCompactEntry(sql, i, "NEW", columns[i]);
+    }
+    else if (action == UPGRADE) {
+      sql.append(" || 'O'");
+      appendCompactKey(sql, table, "OLD");
+      sql.append(" || ';C'");
+      for (int i = 0, i$ = columns.length; i < i$; ++i) { // [A]
+        final data.Column<?> column = columns[i];
+        if (column.primaryIndexType != null) {
+          appendCompactEntry(sql, i, "NEW", column);
+        }
+        else {
+          sql.append(" || CASE WHEN NEW.\"").append(column.name).append("\" IS DISTINCT FROM OLD.\"").append(column.name).append("\" THEN ''");
+          appendCompactEntry(sql, i, "NEW", column);
+          sql.append(" ELSE '' END");
+        }
+      }
+
+      // The keyForUpdate section is always sent, so that a row that is not cached is refreshed instead of inserted partially
+      sql.append(" || ';K'");
+      for (int i = 0, i$ = columns.length; i < i$; ++i) // [A]
+        if (columns[i].isKeyForUpdate)
+          appendCompactEntry(sql, i, "OLD", columns[i]);
+    }
+    else {
+      sql.append(" || 'O'");
+      appendCompactKey(sql, table, "OLD");
+    }
+
+    sql.append(" || ';');\n");
+    if (isUp)
+      sql.append("  END IF;\n");
+
+    sql.append("  RETURN NULL;\n");
+    sql.append("END;\n");
+    sql.append("$$ LANGUAGE plpgsql;\n");
+    sql.append("END;");
+    return sql.toString();
+  }
+
   private static String getCreateTrigger(final data.Table table, final Action action, final String triggerName) {
     logm(logger, TRACE, "PostgreSQLNotifier.getCreateTrigger", "%s,%s,%s", table, action, triggerName);
 
@@ -294,9 +435,13 @@ public class PostgreSQLNotifier extends Notifier<PGNotificationListener> {
         continue;
 
       final data.Table table = tables[i];
+      final boolean compact = isCompact.test(table);
+      statement.addBatch("CREATE SEQUENCE IF NOT EXISTS \"" + getSequenceName(table) + "\"");
       for (final Action action : Action.values()) { // [A]
+        // Drop the trigger of the payload format that is not selected, so that a table does not notify in both formats
+        statement.addBatch("DROP TRIGGER IF EXISTS \"" + getFunctionName(table, action, !compact) + "\" ON \"" + table.getName() + "\"");
         if (!ArrayUtil.contains(actionSet, action)) {
-          statement.addBatch("DROP TRIGGER IF EXISTS \"" + getFunctionName(table, action) + "\" ON \"" + table.getName() + "\"");
+          statement.addBatch("DROP TRIGGER IF EXISTS \"" + getFunctionName(table, action, compact) + "\" ON \"" + table.getName() + "\"");
         }
       }
     }
@@ -327,7 +472,7 @@ public class PostgreSQLNotifier extends Notifier<PGNotificationListener> {
           if (functionNameByAction == null)
             functionNameByAction = functionNameByActions[i] = new String[actionSet.length];
 
-          final String functionName = functionNameByAction[j] = getFunctionName(table, action);
+          final String functionName = functionNameByAction[j] = getFunctionName(table, action, isCompact.test(table));
           selectFunctions.append(" '").append(functionName).append("',");
           selectTriggers.append(" '").append(functionName).append("',");
           functionNames.add(functionName);
@@ -341,6 +486,8 @@ public class PostgreSQLNotifier extends Notifier<PGNotificationListener> {
 
     selectFunctions.setCharAt(136, '(');
     selectFunctions.setCharAt(selectFunctions.length() - 1, ')');
+    // A function that does not sequence its changes (i.e. that was created by a prior version) is replaced
+    selectFunctions.append(" AND routine_definition LIKE '%NEXTVAL%'");
 
     selectTriggers.setCharAt(104, '(');
     selectTriggers.setCharAt(selectTriggers.length() - 1, ')');
@@ -363,7 +510,7 @@ public class PostgreSQLNotifier extends Notifier<PGNotificationListener> {
       for (int j = 0, $j = functionNameByAction.length; j < $j; ++j) { // [A]
         final String functionName = functionNameByAction[j];
         if (functionNames.contains(functionName))
-          statement.addBatch(getCreateFunction(tables[i], actionSets[i][j], functionName));
+          statement.addBatch(isCompact.test(tables[i]) ? getCreateCompactFunction(tables[i], actionSets[i][j], functionName) : getCreateFunction(tables[i], actionSets[i][j], functionName));
 
         if (triggerNames.contains(functionName))
           statement.addBatch(getCreateTrigger(tables[i], actionSets[i][j], functionName));
@@ -371,6 +518,16 @@ public class PostgreSQLNotifier extends Notifier<PGNotificationListener> {
     }
   }
 
+  @Override
+  long selectSequence(final Connection connection, final data.Table table) throws SQLException {
+    try (
+      final Statement statement = connection.createStatement();
+      final ResultSet resultSet = statement.executeQuery("SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM \"" + getSequenceName(table) + "\"")
+    ) {
+      return resultSet.next() ? resultSet.getLong(1) : -1;
+    }
+  }
+
   @Override
   void listenTriggers(final Statement statement) throws SQLException {
     if (logger.isTraceEnabled()) { logm(logger, TRACE, "%?.listenTriggers", "%?", this, statement.getConnection()); }
@@ -0,0 +1,381 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.libj.lang.Assertions.*;
+import static org.libj.logging.LoggerUtil.*;
+import static org.slf4j.event.Level.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import org.jaxdb.jsql.Notification.Action;
+import org.jaxdb.vendor.DbVendor;
+import org.openjax.json.JSON;
+import org.openjax.json.JSON.Type;
+import org.openjax.json.JSON.TypeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Notifier} that consumes the changes of a PostgreSQL logical replication slot, instead of triggers and
+ * {@code LISTEN/NOTIFY}. The changes are decoded by the {@code wal2json} output plugin (format version 2), and are dispatched
+ * through the same pipeline as the JSON payloads of {@link PostgreSQLNotifier}.
+ * <p>
+ * The slot is read with {@code pg_logical_slot_peek_changes(...)}, and is advanced with {@code pg_replication_slot_advance(...)}
+ * only to the commit LSN of the last transaction of which all changes have been dispatched. The position of the slot is therefore
+ * the checkpoint from which a new connection resumes, so that the changes that are committed while disconnected are not lost, and
+ * a reconnect does not require the caches to be reloaded. A change may be dispatched twice if the application fails between its
+ * dispatch and the advance of the slot.
+ * <p>
+ * <b>Note:</b> The DB must be configured with {@code wal_level = logical}, and the {@code wal2json} plugin must be installed. The
+ * old rows of {@code UPDATE} and {@code DELETE} changes contain the columns of the {@code REPLICA IDENTITY} of the table, which is
+ * the primary key by default. The session id of a change is not available, and is {@code null}, so statements with
+ * {@code onNotify} callbacks are rejected with an {@link UnsupportedOperationException}.
+ * <p>
+ * <b>Warning:</b> A replication slot retains the WAL of the DB from its position onward, whether or not it is being consumed. A slot
+ * that is no longer consumed (e.g. because the application was decommissioned, or was reconfigured to use another slot) therefore
+ * causes the WAL to grow until the disk of the DB is full. Such a slot must be dropped with
+ * {@link #dropReplicationSlot(Connection,String)}.
+ *
+ * @see Connector#getReplicationSlot()
+ */
+public class PostgreSQLReplicationNotifier extends Notifier<Runnable> {
+  private static final Logger logger = LoggerFactory.getLogger(PostgreSQLReplicationNotifier.class);
+
+  private static final TypeMap typeMap = new TypeMap()
+    .put(Type.NUMBER, String::new)
+    .put(Type.BOOLEAN, Boolean::toString);
+
+  // The timestamps of wal2json are formatted as "2024-01-31 12:34:56.789012+00"
+  private static final DateTimeFormatter TIMESTAMP_PARSE = new DateTimeFormatterBuilder().appendPattern("yyyy-MM-dd HH:mm:ss").optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true).optionalEnd().appendPattern("[XXX][X]").toFormatter();
+
+  private static final String plugin = "wal2json";
+  private static final int maxChanges = 1000;
+  private static final long pollIntervalMs = 100;
+  private static final long retryIntervalMs = 1000;
+
+  private final String slotName;
+  private volatile Thread poller;
+  // Guards tableNames
+  private final ReentrantLock tablesLock = new ReentrantLock();
+  private final TreeSet<String> tableNames = new TreeSet<>();
+  // The wal2json "add-tables" option of the tables with notification listeners, so that the changes of other tables are not decoded
+  private volatile String addTables;
+  private volatile String confirmedLsn;
+
+  PostgreSQLReplicationNotifier(final Connection connection, final ConnectionFactory connectionFactory, final ThreadFactory threadFactory, final Executor executor, final int queueCapacity, final Predicate<data.Table> isCoalesce, final String slotName) throws SQLException {
+    super(DbVendor.POSTGRE_SQL, connection, connectionFactory, threadFactory, executor, queueCapacity, isCoalesce);
+    this.slotName = slotName;
+  }
+
+  /**
+   * Returns the LSN to which the replication slot has been advanced by this {@link PostgreSQLReplicationNotifier}, or {@code null}
+   * if it has not been advanced.
+   *
+   * @return The LSN to which the replication slot has been advanced by this {@link PostgreSQLReplicationNotifier}, or {@code null}
+   *         if it has not been advanced.
+   */
+  public String getConfirmedLsn() {
+    return confirmedLsn;
+  }
+
+  /**
+   * Drops the logical replication slot of the provided name, if it exists.
+   * <p>
+   * <b>Warning:</b> This operation is irreversible. The changes that were committed after the position of the slot, and that have
+   * not been dispatched, are lost, and a {@link PostgreSQLReplicationNotifier} that is subsequently started with the slot creates a
+   * new slot from the current position of the WAL, without the changes that were committed in the interim. The caches of the tables
+   * of a {@link Schema} that consumed the slot are therefore stale, and must be reloaded. The slot must not be dropped while it is
+   * consumed by a {@link PostgreSQLReplicationNotifier} of any process, in which case the DB rejects this operation with a
+   * {@link SQLException}.
+   *
+   * @param connection The {@link Connection} to the DB.
+   * @param slotName The name of the replication slot.
+   * @return {@code true} if the replication slot existed, and was dropped, otherwise {@code false}.
+   * @throws IllegalArgumentException If {@code connection} or {@code slotName} is null.
+   * @throws SQLException If a SQL error has occurred, or if the replication slot is active.
+   */
+  public static boolean dropReplicationSlot(final Connection connection, final String slotName) throws SQLException {
+    assertNotNull(connection);
+    assertNotNull(slotName);
+    try (final PreparedStatement statement = connection.prepareStatement("SELECT pg_drop_replication_slot(slot_name) FROM pg_replication_slots WHERE slot_name = ?")) {
+      statement.setString(1, slotName);
+      try (final ResultSet resultSet = statement.executeQuery()) {
+        if (!resultSet.next())
+          return false;
+      }
+    }
+
+    if (logger.isWarnEnabled()) { logger.warn("Dropped logical replication slot \"" + slotName + "\""); }
+    return true;
+  }
+
+  private static long parseTimestamp(final String timestamp) {
+    if (timestamp != null) {
+      try {
+        return OffsetDateTime.parse(timestamp, TIMESTAMP_PARSE).toInstant().toEpochMilli();
+      }
+      catch (final DateTimeParseException e) {
+        if (logger.isDebugEnabled()) { logger.debug("Unable to parse timestamp: " + timestamp, e); }
+      }
+    }
+
+    return System.currentTimeMillis();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String,String> toColumns(final Object columns) {
+    if (columns == null)
+      return new HashMap<>(0);
+
+    final List<Map<String,Object>> list = (List<Map<String,Object>>)columns;
+    final HashMap<String,String> map = new HashMap<>(list.size());
+    for (int i = 0, i$ = list.size(); i < i$; ++i) { // [RA]
+      final Map<String,Object> column = list.get(i);
+      map.put((String)column.get("name"), (String)column.get("value"));
+    }
+
+    return map;
+  }
+
+  /**
+   * Dispatches the provided {@code wal2json} change, and returns whether the change is the commit of a transaction.
+   */
+  @SuppressWarnings("unchecked")
+  private boolean dispatch(final String data) {
+    final Map<String,Object> change = (Map<String,Object>)JSON.parse(data, typeMap);
+    final String code = (String)change.get("action");
+    final Action action;
+    if ("I".equals(code)) {
+      action = Action.INSERT;
+    }
+    else if ("U".equals(code)) {
+      action = Action.UPDATE;
+    }
+    else if ("D".equals(code)) {
+      action = Action.DELETE;
+    }
+    else {
+      // "B" (begin), "C" (commit), "T" (truncate) and "M" (message)
+      return "C".equals(code);
+    }
+
+    final HashMap<String,Object> json = new HashMap<>();
+    json.put("action", action.toString());
+    if (action != Action.INSERT)
+      json.put("old", toColumns(change.get("identity")));
+
+    if (action != Action.DELETE)
+      json.put("cur", toColumns(change.get("columns")));
+
+    notify((String)change.get("table"), null, parseTimestamp((String)change.get("timestamp")), json);
+    return false;
+  }
+
+  /**
+   * Appends the provided table name to the provided {@code add-tables} option of {@code wal2json}, in which the tables are separated
+   * by commas, and of which the schema is a wildcard. The special characters of the name are escaped with a backslash.
+   */
+  private static StringBuilder appendTable(final StringBuilder addTables, final String tableName) {
+    if (addTables.length() > 0)
+      addTables.append(',');
+
+    addTables.append("*.");
+    for (int i = 0, i$ = tableName.length(); i < i$; ++i) { // [N]
+      final char ch = tableName.charAt(i);
+      if (ch == ' ' || ch == '\'' || ch == ',' || ch == '.' || ch == '*' || ch == '\\')
+        addTables.append('\\');
+
+      addTables.append(ch);
+    }
+
+    return addTables;
+  }
+
+  /**
+   * Reads, dispatches and confirms the next changes of the replication slot, and returns the number of changes that were read.
+   */
+  private int poll(final Connection connection) throws SQLException {
+    final String addTables = this.addTables;
+    if (addTables == null)
+      return 0;
+
+    int count = 0;
+    String commitLsn = null;
+    try (final PreparedStatement statement = connection.prepareStatement("SELECT lsn::TEXT, data FROM pg_logical_slot_peek_changes(?, NULL, ?, 'format-version', '2', 'include-timestamp', '1', 'include-transaction', '1', 'add-tables', ?)")) {
+      statement.setString(1, slotName);
+      statement.setInt(2, maxChanges);
+      statement.setString(3, addTables);
+      try (final ResultSet resultSet = statement.executeQuery()) {
+        // A change that is dispatched after the Notifier has failed or stopped is not delivered, so the slot must not be advanced past it
+        while (isStarted() && resultSet.next()) {
+          ++count;
+          final String lsn = resultSet.getString(1);
+          if (dispatch(resultSet.getString(2)))
+            commitLsn = lsn;
+        }
+      }
+    }
+
+    // Advance only to the commit of the last complete transaction, so that a partially dispatched transaction is read again
+    if (commitLsn != null) {
+      try (final PreparedStatement statement = connection.prepareStatement("SELECT pg_replication_slot_advance(?, ?::pg_lsn)")) {
+        statement.setString(1, slotName);
+        statement.setString(2, commitLsn);
+        statement.execute();
+      }
+
+      confirmedLsn = commitLsn;
+      if (logger.isTraceEnabled()) { logger.trace("Advanced replication slot \"" + slotName + "\" to " + commitLsn); }
+    }
+
+    return count;
+  }
+
+  private final Runnable pollTask = new Runnable() {
+    @Override
+    public void run() {
+      while (poller == Thread.currentThread() && !isClosed() && !isErrored()) {
+        try {
+          if (!isStarted() || poll(getConnection(null)) == 0)
+            Thread.sleep(pollIntervalMs);
+        }
+        catch (final InterruptedException e) {
+          return;
+        }
+        catch (final RuntimeException e) {
+          // A change that cannot be decoded would be read again on every poll
+          if (logger.isErrorEnabled()) { logger.error("Unable to decode change of replication slot \"" + slotName + "\", stopping", e); }
+          return;
+        }
+        catch (final IOException | SQLException e) {
+          // The slot retains the changes that were not confirmed, so polling resumes from the slot on a new connection
+          if (logger.isWarnEnabled()) { logger.warn("Failed to poll replication slot \"" + slotName + "\", retrying in " + retryIntervalMs + "ms", e); }
+          try {
+            Thread.sleep(retryIntervalMs);
+          }
+          catch (final InterruptedException ie) {
+            return;
+          }
+        }
+      }
+    }
+  };
+
+  @Override
+  void start(final Connection connection) throws IOException, SQLException {
+    logm(logger, TRACE, "%?.start", "%?", this, connection);
+    if (isClosed())
+      return;
+
+    reconnect(connection, pollTask);
+  }
+
+  @Override
+  void tryReconnect(final Connection connection, final Runnable listener) throws SQLException {
+    logm(logger, TRACE, "%?.tryReconnect", "%?,%?", this, connection, listener);
+    if (poller != null)
+      return;
+
+    final Thread poller = newThread(listener, "JAXDB-Replication");
+    this.poller = poller;
+    poller.start();
+  }
+
+  @Override
+  void checkCreateTriggers(final Statement statement, final data.Table[] tables, final Action[][] actionSets) throws SQLException {
+    logm(logger, TRACE, "%?.checkCreateTriggers", "%?", this, statement);
+    tablesLock.lock();
+    try {
+      for (int i = 0, i$ = tables.length; i < i$; ++i) { // [A]
+        final Action[] actionSet = actionSets[i];
+        if (actionSet == null)
+          continue;
+
+        boolean hasActions = false;
+        for (final Action action : actionSet) // [A]
+          hasActions |= action != null;
+
+        if (hasActions)
+          tableNames.add(tables[i].getName());
+        else
+          tableNames.remove(tables[i].getName());
+      }
+
+      if (tableNames.size() == 0) {
+        addTables = null;
+      }
+      else {
+        final StringBuilder addTables = new StringBuilder();
+        for (final String tableName : tableNames) // [S]
+          appendTable(addTables, tableName);
+
+        this.addTables = addTables.toString();
+      }
+    }
+    finally {
+      tablesLock.unlock();
+    }
+
+    final Connection connection = statement.getConnection();
+    try (final PreparedStatement select = connection.prepareStatement("SELECT 1 FROM pg_replication_slots WHERE slot_name = ?")) {
+      select.setString(1, slotName);
+      try (final ResultSet resultSet = select.executeQuery()) {
+        if (resultSet.next())
+          return;
+      }
+    }
+
+    try (final PreparedStatement create = connection.prepareStatement("SELECT pg_create_logical_replication_slot(?, '" + plugin + "')")) {
+      create.setString(1, slotName);
+      create.execute();
+    }
+
+    if (logger.isInfoEnabled()) { logger.info("Created logical replication slot \"" + slotName + "\""); }
+  }
+
+  @Override
+  void listenTriggers(final Statement statement) {
+  }
+
+  @Override
+  protected void stop() {
+    final Thread poller = this.poller;
+    if (poller != null) {
+      this.poller = null;
+      poller.interrupt();
+    }
+  }
+}
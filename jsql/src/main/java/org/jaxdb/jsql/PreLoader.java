@@ -0,0 +1,290 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.jaxdb.jsql.DML.*;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jaxdb.jsql.CacheConfig.OnConnectPreLoad;
+import org.jaxdb.jsql.CacheConfig.OnPreLoadProgress;
+import org.jaxdb.jsql.keyword.Select.untyped.SELECT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the {@link OnConnectPreLoad}s of the tables of a {@link Schema} on a bounded number of threads, each of which selects
+ * on its own connection of the {@link Connector}. The {@link OnConnectPreLoad#ALL} of a table with a single integer primary key is
+ * split into partitions of equal ranges of the primary key, which are selected concurrently, and the table is committed as fully
+ * selected only after all of its partitions have been selected.
+ * <p>
+ * With a {@link #parallelism} of {@code 1}, the {@link OnConnectPreLoad}s are executed sequentially on the calling thread.
+ *
+ * @see CacheConfig#withPreLoad(int,int)
+ */
+final class PreLoader {
+  private static final Logger logger = LoggerFactory.getLogger(PreLoader.class);
+
+  static final PreLoader DEFAULT = new PreLoader(1, 1, null);
+
+  private final int parallelism;
+  private final int partitions;
+  private final OnPreLoadProgress progress;
+
+  PreLoader(final int parallelism, final int partitions, final OnPreLoadProgress progress) {
+    if (parallelism <= 0)
+      throw new IllegalArgumentException("parallelism (" + parallelism + ") must be greater than 0");
+
+    if (partitions <= 0)
+      throw new IllegalArgumentException("partitions (" + partitions + ") must be greater than 0");
+
+    this.parallelism = parallelism;
+    this.partitions = partitions;
+    this.progress = progress;
+  }
+
+  PreLoader withProgress(final OnPreLoadProgress progress) {
+    return new PreLoader(parallelism, partitions, progress);
+  }
+
+  PreLoader withParallelism(final int parallelism, final int partitions) {
+    return new PreLoader(parallelism, partitions, progress);
+  }
+
+  /** The state of the preload of one table, shared by the tasks of its partitions. */
+  private final class Load {
+    private final data.Table table;
+    private final int partitions;
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicLong rows = new AtomicLong();
+    private final long startTime = System.nanoTime();
+
+    private Load(final data.Table table, final int partitions) {
+      this.table = table;
+      this.partitions = partitions;
+    }
+
+    /**
+     * Records the completion of a partition with the provided number of rows, and returns whether it was the last partition.
+     */
+    private boolean onPartition(final long count) {
+      final long rows = this.rows.addAndGet(count);
+      final int completed = this.completed.incrementAndGet();
+      if (progress != null)
+        progress.onProgress(table, completed, partitions, rows);
+
+      if (completed < partitions)
+        return false;
+
+      if (logger.isInfoEnabled()) { logger.info("Preloaded " + rows + " rows of \"" + table.getName() + "\" in " + partitions + " partition(s) in " + (System.nanoTime() - startTime) / 1000000 + "ms"); }
+      return true;
+    }
+  }
+
+  private static long select(final Notifier<?> notifier, final data.Table table, final SELECT<? extends data.Table> select) throws IOException, SQLException {
+    long count = 0;
+    final Connector connector = table.getSchema().getConnector();
+    try (final RowIterator<? extends data.Table> rows = select.execute(connector, CacheConfig.withoutCacheSelectEntity)) {
+      while (rows.nextRow()) {
+        notifier.onSelect(rows.nextEntity());
+        ++count;
+      }
+    }
+
+    return count;
+  }
+
+  private static Number box(final data.Column<?> column, final long value) {
+    if (column instanceof data.BIGINT)
+      return value;
+
+    if (column instanceof data.INT)
+      return (int)value;
+
+    if (column instanceof data.SMALLINT)
+      return (short)value;
+
+    return (byte)value;
+  }
+
+  /**
+   * Returns the single integer primary key column of the provided table, or {@code null} if the primary key of the table is not a
+   * single integer column.
+   */
+  private static data.Numeric<Number> getPartitionColumn(final data.Table table) {
+    final data.Column<?>[] primary = table._primary$;
+    if (primary.length != 1)
+      return null;
+
+    final data.Column<?> column = primary[0];
+    if (!(column instanceof data.BIGINT || column instanceof data.INT || column instanceof data.SMALLINT || column instanceof data.TINYINT))
+      return null;
+
+    @SuppressWarnings("unchecked")
+    final data.Numeric<Number> numeric = (data.Numeric<Number>)column;
+    return numeric;
+  }
+
+  /**
+   * Selects the rows of the provided table in {@link #partitions} ranges of its primary key, and commits the table as fully
+   * selected after the last of the ranges has been selected.
+   */
+  private void selectAll(final Executor executor, final ConcurrentLinkedQueue<Future<?>> futures, final Notifier<?> notifier, final data.Table table) throws IOException, SQLException {
+    if (table._mutable$)
+      throw new IllegalArgumentException("Table is mutable");
+
+    final data.Numeric<Number> column = partitions > 1 ? getPartitionColumn(table) : null;
+    if (column == null) {
+      final Load load = new Load(table, 1);
+      load.onPartition(select(notifier, table, SELECT(table).FROM(table)));
+      table._commitSelectAll$();
+      return;
+    }
+
+    final Number min;
+    final Number max;
+    try (final RowIterator<data.Numeric<Number>> rows = SELECT(MIN(column), MAX(column)).FROM(table).execute(table.getSchema().getConnector(), CacheConfig.withoutCacheSelectEntity)) {
+      if (!rows.nextRow())
+        throw new IllegalStateException("Expected a row");
+
+      min = rows.nextEntity().get();
+      max = rows.nextEntity().get();
+    }
+
+    if (min == null) {
+      new Load(table, 1).onPartition(0);
+      table._commitSelectAll$();
+      return;
+    }
+
+    final long from = min.longValue();
+    final long to = max.longValue();
+    // The span may overflow for keys that straddle the extremes of BIGINT, in which case the table is selected in one partition
+    final long span = to - from;
+    final int partitions = span < 0 ? 1 : (int)Math.min(this.partitions, span + 1);
+    final long step = span < 0 ? 0 : span / partitions + 1;
+    final Load load = new Load(table, partitions);
+    for (int i = 0; i < partitions; ++i) { // [RA]
+      final long lower = from + step * i;
+      final data.BOOLEAN where = i == partitions - 1 ? GTE(column, box(column, lower)) : AND(GTE(column, box(column, lower)), LT(column, box(column, lower + step)));
+      submit(executor, futures, () -> {
+        if (load.onPartition(select(notifier, table, SELECT(table).FROM(table).WHERE(where))))
+          table._commitSelectAll$();
+      });
+    }
+  }
+
+  @FunctionalInterface
+  private static interface Task {
+    void run() throws IOException, SQLException;
+  }
+
+  private static void submit(final Executor executor, final ConcurrentLinkedQueue<Future<?>> futures, final Task task) {
+    final FutureTask<Void> future = new FutureTask<>(() -> {
+      task.run();
+      return null;
+    });
+
+    futures.add(future);
+    executor.execute(future);
+  }
+
+  /**
+   * Executes the {@link OnConnectPreLoad}s of the provided tables, except for the tables in {@code skip}, and returns when all of
+   * them have completed.
+   *
+   * @param tables The tables.
+   * @param onConnectPreLoads The {@link OnConnectPreLoad}s, at the same indexes as their tables in {@code tables}.
+   * @param skip The tables that are not to be preloaded, or {@code null}.
+   * @param notifier The {@link Notifier} to which the selected rows are applied.
+   * @throws IOException If an I/O error has occurred.
+   * @throws SQLException If a SQL error has occurred.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  void preLoad(final data.Table[] tables, final ArrayList<OnConnectPreLoad> onConnectPreLoads, final Set<data.Table> skip, final Notifier<?> notifier) throws IOException, SQLException {
+    final ExecutorService executorService = parallelism == 1 ? null : Executors.newFixedThreadPool(parallelism, (final Runnable r) -> {
+      final Thread thread = new Thread(r, "JAXDB-PreLoad");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    final Executor executor = executorService != null ? executorService : Runnable::run;
+    final ConcurrentLinkedQueue<Future<?>> futures = new ConcurrentLinkedQueue<>();
+    try {
+      for (int i = 0, i$ = tables.length; i < i$; ++i) { // [A]
+        final OnConnectPreLoad onConnectPreLoad = onConnectPreLoads.get(i);
+        final data.Table table = tables[i];
+        if (onConnectPreLoad == null || skip != null && skip.contains(table))
+          continue;
+
+        if (onConnectPreLoad == OnConnectPreLoad.ALL) {
+          submit(executor, futures, () -> selectAll(executor, futures, notifier, table));
+        }
+        else {
+          submit(executor, futures, () -> {
+            final Load load = new Load(table, 1);
+            final SELECT select = onConnectPreLoad.apply(table);
+            load.onPartition(select == null ? 0 : select(notifier, table, select));
+          });
+        }
+      }
+
+      // The task of a table submits the tasks of its partitions before it completes, so the queue is drained only after all tasks
+      for (Future<?> future; (future = futures.poll()) != null;) { // [X]
+        try {
+          future.get();
+        }
+        catch (final ExecutionException e) {
+          final Throwable cause = e.getCause();
+          if (cause instanceof IOException)
+            throw (IOException)cause;
+
+          if (cause instanceof SQLException)
+            throw (SQLException)cause;
+
+          if (cause instanceof RuntimeException)
+            throw (RuntimeException)cause;
+
+          if (cause instanceof Error)
+            throw (Error)cause;
+
+          throw new IllegalStateException(cause);
+        }
+        catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException(e);
+        }
+      }
+    }
+    finally {
+      if (executorService != null)
+        executorService.shutdownNow();
+    }
+  }
+}
@@ -99,6 +99,7 @@ public class QueryConfig implements Serializable {
 
     private boolean cacheSelectEntity = false;
     private boolean cacheableRowIteratorFullConsume = false;
+    private boolean flyweightRows = false;
 
     Builder(final QueryConfig config) {
       this.cursorName = config.cursorName;
@@ -115,6 +116,7 @@ public class QueryConfig implements Serializable {
       this.holdability = config.holdability;
       this.cacheSelectEntity = config.cacheSelectEntity;
       this.cacheableRowIteratorFullConsume = config.cacheableRowIteratorFullConsume;
+      this.flyweightRows = config.flyweightRows;
     }
 
     public Builder() {
@@ -205,8 +207,22 @@ public class QueryConfig implements Serializable {
       return this;
     }
 
+    /**
+     * Sets whether the {@link RowIterator} is to reuse a single set of entity instances for all rows, refilling them in place upon
+     * each {@link RowIterator#nextRow()}. With {@code flyweightRows=true}, the entities returned for a row are only valid until the
+     * next call to {@link RowIterator#nextRow()}, and must therefore be copied if they are to be retained. This mode cannot be
+     * combined with {@link #withCacheSelectEntity(boolean) cacheSelectEntity=true}.
+     *
+     * @param flyweightRows Whether the {@link RowIterator} is to reuse a single set of entity instances for all rows.
+     * @return {@code this} builder.
+     */
+    public Builder withFlyweightRows(final boolean flyweightRows) {
+      this.flyweightRows = flyweightRows;
+      return this;
+    }
+
     public QueryConfig build() {
-      return new QueryConfig(cursorName, escapeProcessing, fetchDirection, fetchSize, largeMaxRows, maxFieldSize, maxRows, poolable, queryTimeoutSe, type, concurrency, holdability, cacheSelectEntity, cacheableRowIteratorFullConsume);
+      return new QueryConfig(cursorName, escapeProcessing, fetchDirection, fetchSize, largeMaxRows, maxFieldSize, maxRows, poolable, queryTimeoutSe, type, concurrency, holdability, cacheSelectEntity, cacheableRowIteratorFullConsume, flyweightRows);
     }
 
     @Override
@@ -226,6 +242,7 @@ public class QueryConfig implements Serializable {
       hashCode = hashCode * 31 + Objects.hashCode(holdability);
       hashCode = hashCode * 31 + Objects.hashCode(cacheSelectEntity);
       hashCode = hashCode * 31 + Boolean.hashCode(cacheableRowIteratorFullConsume);
+      hashCode = hashCode * 31 + Boolean.hashCode(flyweightRows);
       return hashCode;
     }
 
@@ -281,6 +298,9 @@ public class QueryConfig implements Serializable {
       if (cacheableRowIteratorFullConsume != that.cacheableRowIteratorFullConsume)
         return false;
 
+      if (flyweightRows != that.flyweightRows)
+        return false;
+
       return true;
     }
 
@@ -323,8 +343,9 @@ public class QueryConfig implements Serializable {
 
   private final boolean cacheSelectEntity;
   private final boolean cacheableRowIteratorFullConsume;
+  private final boolean flyweightRows;
 
-  private QueryConfig(final String cursorName, final Boolean escapeProcessing, final FetchDirection fetchDirection, final int fetchSize, final long largeMaxRows, final int maxFieldSize, final int maxRows, final Boolean poolable, final int queryTimeoutSe, final Type type, final Concurrency concurrency, final Holdability holdability, final boolean cacheSelectEntity, final boolean cacheableRowIteratorFullConsume) {
+  private QueryConfig(final String cursorName, final Boolean escapeProcessing, final FetchDirection fetchDirection, final int fetchSize, final long largeMaxRows, final int maxFieldSize, final int maxRows, final Boolean poolable, final int queryTimeoutSe, final Type type, final Concurrency concurrency, final Holdability holdability, final boolean cacheSelectEntity, final boolean cacheableRowIteratorFullConsume, final boolean flyweightRows) {
     this.cursorName = cursorName;
     this.escapeProcessing = escapeProcessing;
     this.fetchDirection = fetchDirection;
@@ -339,6 +360,7 @@ public class QueryConfig implements Serializable {
     this.holdability = holdability;
     this.cacheSelectEntity = cacheSelectEntity;
     this.cacheableRowIteratorFullConsume = cacheableRowIteratorFullConsume;
+    this.flyweightRows = flyweightRows;
   }
 
   public String getCursorName() {
@@ -397,6 +419,10 @@ public class QueryConfig implements Serializable {
     return cacheableRowIteratorFullConsume;
   }
 
+  public boolean getFlyweightRows() {
+    return flyweightRows;
+  }
+
   public Builder toBuilder() {
     return new Builder(this);
   }
@@ -418,6 +444,7 @@ public class QueryConfig implements Serializable {
     hashCode = hashCode * 31 + Objects.hashCode(holdability);
     hashCode = hashCode * 31 + Boolean.hashCode(cacheSelectEntity);
     hashCode = hashCode * 31 + Boolean.hashCode(cacheableRowIteratorFullConsume);
+    hashCode = hashCode * 31 + Boolean.hashCode(flyweightRows);
     return hashCode;
   }
 
@@ -473,6 +500,9 @@ public class QueryConfig implements Serializable {
     if (cacheableRowIteratorFullConsume != that.cacheableRowIteratorFullConsume)
       return false;
 
+    if (flyweightRows != that.flyweightRows)
+      return false;
+
     return true;
   }
 
@@ -492,10 +522,16 @@ public class QueryConfig implements Serializable {
     return contextQueryConfig != null && contextQueryConfig.cacheableRowIteratorFullConsume || defaultQueryConfig != null && defaultQueryConfig.cacheableRowIteratorFullConsume;
   }
 
-  private static ResultSet executeQuery(final QueryConfig queryConfig, final Compilation compilation, final Connection connection) throws IOException, SQLException {
-    final String sql = compilation.toString();
+  static int getFetchSize(final QueryConfig contextQueryConfig, final QueryConfig defaultQueryConfig) {
+    return contextQueryConfig != null && contextQueryConfig.fetchSize != -1 ? contextQueryConfig.fetchSize : defaultQueryConfig != null ? defaultQueryConfig.fetchSize : -1;
+  }
+
+  static boolean getFlyweightRows(final QueryConfig contextQueryConfig, final QueryConfig defaultQueryConfig) {
+    return contextQueryConfig != null && contextQueryConfig.flyweightRows || defaultQueryConfig != null && defaultQueryConfig.flyweightRows;
+  }
+
+  private static ResultSet executeQuery(final QueryConfig queryConfig, final String sql, final boolean isPrepared, final Compiler compiler, final ArrayList<data.Column<?>> parameters, final Connection connection) throws IOException, SQLException {
     final Statement statement;
-    final boolean isPrepared = compilation.isPrepared();
     if (queryConfig.holdability != null)
       statement = isPrepared ? connection.prepareStatement(sql, queryConfig.type.index, queryConfig.concurrency.index, queryConfig.holdability.index) : connection.createStatement(queryConfig.type.index, queryConfig.concurrency.index, queryConfig.holdability.index);
     else
@@ -528,13 +564,11 @@ public class QueryConfig implements Serializable {
     if (queryConfig.queryTimeoutSe != -1)
       statement.setQueryTimeout(queryConfig.queryTimeoutSe);
 
-    return isPrepared ? executeQueryPrepared((PreparedStatement)statement, compilation) : statement.executeQuery(sql);
+    return isPrepared ? executeQueryPrepared((PreparedStatement)statement, compiler, parameters) : statement.executeQuery(sql);
   }
 
-  private static ResultSet executeQueryPrepared(final PreparedStatement statement, final Compilation compilation) throws IOException, SQLException {
-    final ArrayList<data.Column<?>> parameters = compilation.getParameters();
+  private static ResultSet executeQueryPrepared(final PreparedStatement statement, final Compiler compiler, final ArrayList<data.Column<?>> parameters) throws IOException, SQLException {
     if (parameters != null) {
-      final Compiler compiler = compilation.compiler;
       for (int i = 0, i$ = parameters.size(); i < i$;) // [RA]
         parameters.get(i++).write(compiler, statement, false, i);
     }
@@ -542,23 +576,41 @@ public class QueryConfig implements Serializable {
     return statement.executeQuery();
   }
 
-  static ResultSet executeQuery(final QueryConfig contextQueryConfig, final QueryConfig defaultQueryConfig, final Compilation compilation, final Connection connection) throws IOException, SQLException {
-    final String sql = compilation.toString();
+  /**
+   * Returns whether the provided {@link QueryConfig} specifies a property that is set directly on the {@link Statement}. Such
+   * properties would leak to subsequent executions of a {@link Statement} that is reused via a {@link StatementCache}.
+   *
+   * @param queryConfig The {@link QueryConfig}.
+   * @return Whether the provided {@link QueryConfig} specifies a property that is set directly on the {@link Statement}.
+   */
+  private static boolean hasStatementProperties(final QueryConfig queryConfig) {
+    return queryConfig != null && (queryConfig.fetchSize != -1 || queryConfig.cursorName != null || queryConfig.escapeProcessing != null || queryConfig.fetchDirection != null || queryConfig.largeMaxRows != -1 || queryConfig.maxFieldSize != -1 || queryConfig.maxRows != -1 || queryConfig.poolable != null || queryConfig.queryTimeoutSe != -1);
+  }
+
+  static ResultSet executeQuery(final QueryConfig contextQueryConfig, final QueryConfig defaultQueryConfig, final Compilation compilation, final StatementCache statementCache, final Connection connection) throws IOException, SQLException {
+    return executeQuery(contextQueryConfig, defaultQueryConfig, compilation.toString(), compilation.isPrepared(), compilation.compiler, compilation.getParameters(), statementCache, connection);
+  }
+
+  static ResultSet executeQuery(final QueryConfig contextQueryConfig, final QueryConfig defaultQueryConfig, final String sql, final boolean isPrepared, final Compiler compiler, final ArrayList<data.Column<?>> parameters, final StatementCache statementCache, final Connection connection) throws IOException, SQLException {
+    if (isPrepared && statementCache != null && !hasStatementProperties(contextQueryConfig) && !hasStatementProperties(defaultQueryConfig)) {
+      final Holdability holdability = contextQueryConfig != null && contextQueryConfig.holdability != null ? contextQueryConfig.holdability : defaultQueryConfig != null ? defaultQueryConfig.holdability : null;
+      return executeQueryPrepared(statementCache.prepareStatement(sql, getType(contextQueryConfig, defaultQueryConfig).index, getConcurrency(contextQueryConfig, defaultQueryConfig).index, holdability != null ? holdability.index : -1), compiler, parameters);
+    }
+
     if (contextQueryConfig == null) {
       if (defaultQueryConfig == null)
-        return compilation.isPrepared() ? executeQueryPrepared(connection.prepareStatement(sql), compilation) : connection.createStatement().executeQuery(sql);
+        return isPrepared ? executeQueryPrepared(connection.prepareStatement(sql), compiler, parameters) : connection.createStatement().executeQuery(sql);
 
-      return executeQuery(defaultQueryConfig, compilation, connection);
+      return executeQuery(defaultQueryConfig, sql, isPrepared, compiler, parameters, connection);
     }
 
     if (defaultQueryConfig == null)
-      return executeQuery(contextQueryConfig, compilation, connection);
+      return executeQuery(contextQueryConfig, sql, isPrepared, compiler, parameters, connection);
 
     final Type type = contextQueryConfig.type != defaultType ? contextQueryConfig.type : defaultQueryConfig.type;
     final Concurrency concurrency = contextQueryConfig.concurrency != defaultConcurrency ? contextQueryConfig.concurrency : defaultQueryConfig.concurrency;
     final Holdability holdability = contextQueryConfig.holdability != null ? contextQueryConfig.holdability : defaultQueryConfig.holdability;
     final Statement statement;
-    final boolean isPrepared = compilation.isPrepared();
     if (holdability != null)
       statement = isPrepared ? connection.prepareStatement(sql, type.index, concurrency.index, holdability.index) : connection.createStatement(type.index, concurrency.index, holdability.index);
     else
@@ -609,6 +661,6 @@ public class QueryConfig implements Serializable {
     else if (defaultQueryConfig.queryTimeoutSe != -1)
       statement.setQueryTimeout(defaultQueryConfig.queryTimeoutSe);
 
-    return isPrepared ? executeQueryPrepared((PreparedStatement)statement, compilation) : statement.executeQuery(sql);
+    return isPrepared ? executeQueryPrepared((PreparedStatement)statement, compiler, parameters) : statement.executeQuery(sql);
   }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NavigableMap;
+
+import org.libj.util.Interval;
+
+/**
+ * Plans the SELECTs that load the gaps of the mask of a {@link TreeCacheMap} or {@link HashTreeCacheMap} for a range. Adjacent
+ * gaps are merged if at most {@link #mergeThreshold} cached rows lie between them, since re-selecting a few cached rows is cheaper
+ * than an extra disjunct in the {@code WHERE} clause. The merged gaps are then split into batches of at most
+ * {@link #maxDisjuncts} gaps, each of which is selected by its own SELECT, so that the {@code WHERE} clause of a fragmented mask
+ * does not grow without bound.
+ *
+ * @see CacheConfig#withRangeLoad(int,int)
+ */
+final class RangeLoadPlanner {
+  static final RangeLoadPlanner DEFAULT = new RangeLoadPlanner(0, 16);
+
+  private final int mergeThreshold;
+  private final int maxDisjuncts;
+
+  RangeLoadPlanner(final int mergeThreshold, final int maxDisjuncts) {
+    if (mergeThreshold < 0)
+      throw new IllegalArgumentException("mergeThreshold (" + mergeThreshold + ") must be greater than or equal to 0");
+
+    if (maxDisjuncts <= 0)
+      throw new IllegalArgumentException("maxDisjuncts (" + maxDisjuncts + ") must be greater than 0");
+
+    this.mergeThreshold = mergeThreshold;
+    this.maxDisjuncts = maxDisjuncts;
+  }
+
+  /**
+   * Returns whether at most {@link #mergeThreshold} cached rows lie between the provided keys, without counting further than
+   * {@link #mergeThreshold} + 1.
+   */
+  private boolean isNear(final NavigableMap<data.Key,?> cached, final data.Key fromKey, final data.Key toKey) {
+    final Iterator<data.Key> i = cached.subMap(fromKey, true, toKey, false).keySet().iterator();
+    for (int count = 0; i.hasNext(); i.next()) // [I]
+      if (++count > mergeThreshold)
+        return false;
+
+    return true;
+  }
+
+  /**
+   * Returns the batches of gaps to be selected, each by one SELECT.
+   *
+   * @param gaps The gaps of the mask, in ascending order.
+   * @param cached The cached rows, by which the cost of the merge of adjacent gaps is determined.
+   * @return The batches of gaps to be selected, each by one SELECT.
+   */
+  @SuppressWarnings("unchecked")
+  ArrayList<Interval<data.Key>[]> plan(final Interval<data.Key>[] gaps, final NavigableMap<data.Key,?> cached) {
+    final ArrayList<Interval<data.Key>> merged = new ArrayList<>(gaps.length);
+    Interval<data.Key> gap = gaps[0];
+    for (int i = 1, i$ = gaps.length; i < i$; ++i) { // [A]
+      final Interval<data.Key> next = gaps[i];
+      if (isNear(cached, gap.getMax(), next.getMin())) {
+        gap = new Interval<>(gap.getMin(), next.getMax());
+      }
+      else {
+        merged.add(gap);
+        gap = next;
+      }
+    }
+
+    merged.add(gap);
+
+    final int size = merged.size();
+    final ArrayList<Interval<data.Key>[]> batches = new ArrayList<>((size + maxDisjuncts - 1) / maxDisjuncts);
+    final Interval<data.Key>[] all = merged.toArray(new Interval[size]);
+    for (int i = 0; i < size; i += maxDisjuncts) // [A]
+      batches.add(Arrays.copyOfRange(all, i, Math.min(i + maxDisjuncts, size)));
+
+    return batches;
+  }
+}
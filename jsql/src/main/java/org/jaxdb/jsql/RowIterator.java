@@ -21,6 +21,11 @@ import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.libj.sql.exception.SQLExceptions;
 
@@ -30,23 +35,32 @@ public abstract class RowIterator<D extends type.Entity> implements AutoCloseabl
   }
 
   final ResultSet resultSet;
+  final Compiler compiler;
   private final QueryConfig.Type type;
   private final QueryConfig.Concurrency concurrency;
 
   boolean endReached;
   SQLException suppressed;
+  // Called once upon close, such as to release the permit of an asynchronous execution by Connector#submit(Callable)
+  Runnable onClose;
 
   private D[] row;
   private int entityIndex = -1;
 
-  public RowIterator(final ResultSet resultSet, final QueryConfig contextQueryConfig, final QueryConfig defaultQueryConfig) {
+  RowIterator(final ResultSet resultSet, final QueryConfig contextQueryConfig, final QueryConfig defaultQueryConfig, final Compiler compiler) {
     this.resultSet = resultSet;
+    this.compiler = compiler;
     this.type = QueryConfig.getType(contextQueryConfig, defaultQueryConfig);
     this.concurrency = QueryConfig.getConcurrency(contextQueryConfig, defaultQueryConfig);
   }
 
+  public RowIterator(final ResultSet resultSet, final QueryConfig contextQueryConfig, final QueryConfig defaultQueryConfig) {
+    this(resultSet, contextQueryConfig, defaultQueryConfig, null);
+  }
+
   public RowIterator(final ResultSet resultSet) {
     this.resultSet = resultSet;
+    this.compiler = null;
     this.type = QueryConfig.defaultType;
     this.concurrency = QueryConfig.defaultConcurrency;
   }
@@ -174,7 +188,7 @@ public abstract class RowIterator<D extends type.Entity> implements AutoCloseabl
           return hasNext = next != null;
         }
         catch (final SQLException e) {
-          throw new RuntimeException(e);
+          throw new JSQLException(e);
         }
       }
 
@@ -191,6 +205,51 @@ public abstract class RowIterator<D extends type.Entity> implements AutoCloseabl
     };
   }
 
+  /**
+   * Returns a sequential {@link Stream} of the entities of this {@link RowIterator}, which fetches rows lazily as the stream is
+   * consumed. Closing the returned {@link Stream} closes this {@link RowIterator}. A {@link SQLException} that occurs during the
+   * consumption or closing of the {@link Stream} is rethrown as a {@link JSQLException}, of which it is the cause.
+   *
+   * @return A sequential {@link Stream} of the entities of this {@link RowIterator}.
+   */
+  public Stream<D> stream() {
+    final Spliterator<D> spliterator = new Spliterators.AbstractSpliterator<D>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+      private boolean hasRow;
+
+      @Override
+      public boolean tryAdvance(final Consumer<? super D> action) {
+        try {
+          D next;
+          if (hasRow && (next = nextEntity()) != null) {
+            action.accept(next);
+            return true;
+          }
+
+          while (hasRow = nextRow()) {
+            if ((next = nextEntity()) != null) {
+              action.accept(next);
+              return true;
+            }
+          }
+
+          return false;
+        }
+        catch (final SQLException e) {
+          throw new JSQLException(e);
+        }
+      }
+    };
+
+    return StreamSupport.stream(spliterator, false).onClose(() -> {
+      try {
+        close();
+      }
+      catch (final SQLException e) {
+        throw new JSQLException(e);
+      }
+    });
+  }
+
   @Override
   public abstract void close() throws SQLException;
 }
\ No newline at end of file
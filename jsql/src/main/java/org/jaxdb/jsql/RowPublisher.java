@@ -0,0 +1,283 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.libj.lang.Assertions.*;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A publisher of the entities of a {@code SELECT} statement, which executes the statement and fetches its rows on an
+ * {@link Executor}, only as fast as its {@link Subscriber} requests them.
+ * <p>
+ * The {@link Subscriber} and {@link Subscription} interfaces have the same contract as those of the Reactive Streams specification
+ * (and {@code java.util.concurrent.Flow} of Java 9+), and can therefore be bridged to either with a trivial adapter.
+ * <p>
+ * The statement is executed upon the first {@link Subscription#request(long)}, and rows are emitted in chunks of at most the
+ * {@link QueryConfig#getFetchSize() fetch size} per task submitted to the {@link Executor}, such that a long result set does not
+ * monopolize an executor thread. A {@link RowPublisher} supports a single {@link Subscriber}.
+ *
+ * @param <D> The type of the published entities.
+ */
+public final class RowPublisher<D extends type.Entity> {
+  private static final Logger logger = LoggerFactory.getLogger(RowPublisher.class);
+
+  /**
+   * A receiver of entities from a {@link RowPublisher}.
+   *
+   * @param <D> The type of the received entities.
+   */
+  public interface Subscriber<D> {
+    void onSubscribe(Subscription subscription);
+    void onNext(D item);
+    void onError(Throwable throwable);
+    void onComplete();
+  }
+
+  /**
+   * A link between a {@link RowPublisher} and its {@link Subscriber}.
+   */
+  public interface Subscription {
+    void request(long n);
+    void cancel();
+  }
+
+  @FunctionalInterface
+  interface Executable<D extends type.Entity> {
+    RowIterator<D> execute() throws IOException, SQLException;
+  }
+
+  private static final int DEFAULT_CHUNK_SIZE = 256;
+
+  private static final Subscription CANCELLED = new Subscription() {
+    @Override
+    public void request(final long n) {
+    }
+
+    @Override
+    public void cancel() {
+    }
+  };
+
+  private final Executable<D> executable;
+  private final Executor executor;
+  private final int chunkSize;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  RowPublisher(final Executable<D> executable, final Executor executor, final int fetchSize) {
+    this.executable = executable;
+    this.executor = assertNotNull(executor, "executor is null");
+    this.chunkSize = fetchSize > 0 ? fetchSize : DEFAULT_CHUNK_SIZE;
+  }
+
+  /**
+   * Subscribes the provided {@link Subscriber} to this {@link RowPublisher}.
+   *
+   * @param subscriber The {@link Subscriber}.
+   * @throws IllegalArgumentException If {@code subscriber} is null.
+   */
+  public void subscribe(final Subscriber<? super D> subscriber) {
+    assertNotNull(subscriber, "subscriber is null");
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(CANCELLED);
+      subscriber.onError(new IllegalStateException("RowPublisher supports a single Subscriber"));
+      return;
+    }
+
+    subscriber.onSubscribe(new RowSubscription(subscriber));
+  }
+
+  private final class RowSubscription implements Subscription, Runnable {
+    private final Subscriber<? super D> subscriber;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+    // Set by the first terminal signal, so that onError or onComplete is signalled at most once, even if a failure of the executor
+    // in schedule() races with a failure of the drain loop
+    private final AtomicBoolean terminated = new AtomicBoolean();
+
+    // Accessed only from the drain loop, which is serialized by wip
+    private RowIterator<D> rows;
+    private boolean hasRow;
+
+    private RowSubscription(final Subscriber<? super D> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(final long n) {
+      if (n <= 0) {
+        error = new IllegalArgumentException("n (" + n + ") must be greater than 0");
+        cancelled = true;
+      }
+      else {
+        long r;
+        do {
+          r = requested.get();
+          if (r == Long.MAX_VALUE)
+            break;
+        }
+        while (!requested.compareAndSet(r, r + n < 0 ? Long.MAX_VALUE : r + n));
+      }
+
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      schedule();
+    }
+
+    private void schedule() {
+      if (wip.getAndIncrement() == 0) {
+        try {
+          executor.execute(this);
+        }
+        catch (final RuntimeException e) {
+          cancelled = true;
+          // Since wip is not released, the drain loop is never run again, so the RowIterator is closed here
+          onError(close(e));
+        }
+      }
+    }
+
+    private void onError(final Throwable t) {
+      if (terminated.compareAndSet(false, true))
+        subscriber.onError(t);
+      else if (logger.isWarnEnabled()) { logger.warn("Failure after RowPublisher subscription was terminated", t); }
+    }
+
+    private void onComplete() {
+      if (terminated.compareAndSet(false, true))
+        subscriber.onComplete();
+    }
+
+    private D next() throws SQLException {
+      D next;
+      if (hasRow && (next = rows.nextEntity()) != null)
+        return next;
+
+      while (hasRow = rows.nextRow())
+        if ((next = rows.nextEntity()) != null)
+          return next;
+
+      return null;
+    }
+
+    private Throwable close(Throwable t) {
+      if (rows != null) {
+        try {
+          rows.close();
+        }
+        catch (final SQLException e) {
+          if (t == null)
+            t = e;
+          else
+            t.addSuppressed(e);
+        }
+
+        rows = null;
+      }
+
+      return t;
+    }
+
+    /**
+     * Closes the {@link RowIterator} after the {@link Subscriber} has cancelled the subscription (or after it has been signalled
+     * {@code onComplete}), in which case no further signal can be sent to the {@link Subscriber}, and any failure is therefore only
+     * logged.
+     *
+     * @param t The {@link Throwable} that was thrown after cancellation, or {@code null}.
+     */
+    private void closeCancelled(final Throwable t) {
+      final Throwable e = close(t);
+      if (e != null && logger.isWarnEnabled()) { logger.warn("Failure after RowPublisher subscription was cancelled", e); }
+    }
+
+    // NOTE: Upon termination, wip is intentionally not released, so that no further runs are ever scheduled.
+    @Override
+    public void run() {
+      try {
+        int missed = 1;
+        int emitted = 0;
+        while (true) {
+          if (cancelled) {
+            final Throwable error = this.error;
+            if (error != null)
+              onError(close(error));
+            else
+              closeCancelled(null);
+
+            return;
+          }
+
+          final long r = requested.get();
+          if (r > 0) {
+            if (emitted == chunkSize) {
+              executor.execute(this);
+              return;
+            }
+
+            if (rows == null)
+              rows = executable.execute();
+
+            final D next = next();
+            if (next == null) {
+              cancelled = true;
+              final Throwable t = close(null);
+              if (t != null)
+                onError(t);
+              else
+                onComplete();
+
+              return;
+            }
+
+            if (r != Long.MAX_VALUE)
+              requested.decrementAndGet();
+
+            subscriber.onNext(next);
+            ++emitted;
+            continue;
+          }
+
+          if ((missed = wip.addAndGet(-missed)) == 0)
+            return;
+        }
+      }
+      catch (final Throwable t) {
+        if (cancelled && error == null) {
+          closeCancelled(t);
+        }
+        else {
+          cancelled = true;
+          onError(close(t));
+        }
+      }
+    }
+  }
+}
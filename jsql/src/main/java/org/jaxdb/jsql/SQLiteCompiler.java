@@ -397,4 +397,24 @@ final class SQLiteCompiler extends Compiler {
   boolean supportsReturnGeneratedKeysBatch() {
     return false;
   }
-}
\ No newline at end of file
+
+  @Override
+  int getMaxInsertParameters() {
+    return 999;
+  }
+
+  @Override
+  StringBuilder compileChangeLogSequence(final StringBuilder sql) {
+    return sql.append(" INTEGER PRIMARY KEY AUTOINCREMENT");
+  }
+
+  @Override
+  StringBuilder compileTriggerBody(final StringBuilder sql, final CharSequence statement) {
+    return sql.append("BEGIN ").append(statement).append("; END;");
+  }
+
+  @Override
+  String getSelectTrigger() {
+    return "SELECT 1 FROM sqlite_master WHERE type = 'trigger' AND name = ?";
+  }
+}
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -34,7 +35,6 @@ import javax.sql.DataSource;
 import org.jaxdb.jsql.CacheConfig.OnConnectPreLoad;
 import org.jaxdb.jsql.Callbacks.OnNotifyCallbackList;
 import org.jaxdb.jsql.Notification.DefaultListener;
-import org.jaxdb.jsql.keyword.Select.untyped.SELECT;
 import org.libj.lang.ObjectUtil;
 import org.libj.sql.AuditConnection;
 import org.slf4j.Logger;
@@ -59,16 +59,39 @@ public abstract class Schema {
   private boolean isPrepared;
 
   public Connector connect(final ConnectionFactory connectionFactory, final boolean isPrepared) {
-    this.isPrepared = isPrepared;
-    return connector = new Connector(this, connectionFactory, isPrepared);
+    return connect(connectionFactory, isPrepared, 0);
   }
 
   public Connector connect(final DataSource dataSource, final boolean isPrepared) {
-    return connect(toConnectionFactory(dataSource, AuditConnection::wrapIfDebugEnabled), isPrepared);
+    return connect(dataSource, isPrepared, 0);
   }
 
   public Connector connect(final DataSource dataSource, final Function<Connection,Connection> connectionWrapper, final boolean isPrepared) {
-    return connect(toConnectionFactory(dataSource, connectionWrapper != null ? connectionWrapper : AuditConnection::wrapIfDebugEnabled), isPrepared);
+    return connect(dataSource, connectionWrapper, isPrepared, 0);
+  }
+
+  /**
+   * Connects this {@link Schema} to the provided {@link ConnectionFactory}, with {@link java.sql.PreparedStatement}s of each
+   * {@link Transaction} being cached in a least-recently-used cache of the provided {@code statementCacheSize}.
+   *
+   * @param connectionFactory The {@link ConnectionFactory}.
+   * @param isPrepared Whether statements are to be executed as {@link java.sql.PreparedStatement}s.
+   * @param statementCacheSize The maximum number of idle {@link java.sql.PreparedStatement}s to be cached per {@link Connection} of a
+   *          {@link Transaction}, or {@code 0} to disable statement caching.
+   * @return The {@link Connector}.
+   * @throws IllegalArgumentException If {@code connectionFactory} is null, or if {@code statementCacheSize} is negative.
+   */
+  public Connector connect(final ConnectionFactory connectionFactory, final boolean isPrepared, final int statementCacheSize) {
+    this.isPrepared = isPrepared;
+    return connector = new Connector(this, connectionFactory, isPrepared, statementCacheSize);
+  }
+
+  public Connector connect(final DataSource dataSource, final boolean isPrepared, final int statementCacheSize) {
+    return connect(toConnectionFactory(dataSource, AuditConnection::wrapIfDebugEnabled), isPrepared, statementCacheSize);
+  }
+
+  public Connector connect(final DataSource dataSource, final Function<Connection,Connection> connectionWrapper, final boolean isPrepared, final int statementCacheSize) {
+    return connect(toConnectionFactory(dataSource, connectionWrapper != null ? connectionWrapper : AuditConnection::wrapIfDebugEnabled), isPrepared, statementCacheSize);
   }
 
   protected Schema() {
@@ -88,37 +111,45 @@ public abstract class Schema {
   }
 
   private Notifier<?> cacheNotifier;
+  CacheMetrics cacheMetrics = CacheMetrics.NONE;
+  RangeLoadPlanner rangeLoadPlanner = RangeLoadPlanner.DEFAULT;
 
   Notifier<?> getCacheNotifier() {
     return cacheNotifier;
   }
 
-  <T extends data.Table & type.Table$,L extends Notification.InsertListener<T> & Notification.UpdateListener<T> & Notification.DeleteListener<T>> void initCache(final L notificationListener, final Queue<Notification<T>> queue, final Set<T> tables, final ArrayList<OnConnectPreLoad> onConnectPreLoads) throws IOException, SQLException {
+  <T extends data.Table & type.Table$,L extends Notification.InsertListener<T> & Notification.UpdateListener<T> & Notification.DeleteListener<T>> void initCache(final L notificationListener, final Queue<Notification<T>> queue, final Set<T> tables, final ArrayList<OnConnectPreLoad> onConnectPreLoads, final Map<data.Table,CacheEviction> evictions, final CacheSnapshot snapshot, final PreLoader preLoader) throws IOException, SQLException {
     if (this.cacheNotifier != null)
       throw new IllegalStateException("Cache was already initialized");
 
     final int len = tables.size();
     final T[] array = (T[])tables.toArray(new data.Table[len]);
-    for (int i = 0; i < len; ++i) // [RA]
-      array[i]._initCache$();
+    for (int i = 0; i < len; ++i) { // [RA]
+      final T table = array[i];
+      table._initCache$();
+      final CacheEviction eviction = evictions.get(table);
+      if (eviction != null) {
+        final CacheMap<?> cache = table.getCache();
+        if (cache == null)
+          throw new IllegalArgumentException("Table \"" + table.getName() + "\" does not have a primary key, and its cache cannot be bounded");
+
+        cache.evictor = new CacheEvictor(eviction, cache::get$);
+      }
+    }
 
     connector.addNotificationListener(INSERT, UPGRADE, DELETE, notificationListener, queue, array);
     this.cacheNotifier = connector.getNotifier();
 
-    for (int i = 0; i < len; ++i) { // [RA]
-      final OnConnectPreLoad<T> onConnectPreLoad = onConnectPreLoads.get(i);
-      if (onConnectPreLoad != null) {
-        final T table = array[i];
-        final SELECT<T> select = onConnectPreLoad.apply(table);
-        if (select != null) {
-          final Connector connector = table.getSchema().getConnector();
-          try (final RowIterator<T> rows = select.execute(connector, CacheConfig.withoutCacheSelectEntity)) {
-            while (rows.nextRow())
-              cacheNotifier.onSelect(rows.nextEntity());
-          }
-        }
-      }
+    final Set<data.Table> restored;
+    if (snapshot != null) {
+      snapshot.bind(array);
+      restored = snapshot.restore(cacheNotifier);
+    }
+    else {
+      restored = null;
     }
+
+    preLoader.preLoad(array, onConnectPreLoads, restored, cacheNotifier);
   }
 
   public void configCache(final DefaultListener<data.Table> notificationListener, final Queue<Notification<data.Table>> queue, final Consumer<CacheConfig> cacheBuilder) throws IOException, SQLException {
@@ -136,6 +167,11 @@ public abstract class Schema {
   void awaitNotify(final String sessionId, final OnNotifyCallbackList onNotifyCallbackList) {
     if (logger.isTraceEnabled()) { logger.trace(getClass().getSimpleName() + ".awaitNotify(" + sessionId + "," + ObjectUtil.simpleIdentityString(onNotifyCallbackList) + ")"); }
 
+    // The changes of a replication slot have no session id, so an onNotify callback would never be invoked
+    final Connector connector = getConnector();
+    if (connector != null && connector.getReplicationSlot() != null)
+      throw new UnsupportedOperationException("onNotify is not supported with the replication slot \"" + connector.getReplicationSlot() + "\", because the session id of a change is not available from the WAL");
+
     if (notifyListeners == null) {
       synchronized (this) {
         if (notifyListeners == null) {
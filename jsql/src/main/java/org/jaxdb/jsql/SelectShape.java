@@ -0,0 +1,215 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import java.util.ArrayList;
+
+import org.jaxdb.vendor.DbVendor;
+
+/**
+ * A cache of compiled {@link Command.Select.untyped.SELECT} plans for a single query shape. A shape is a SELECT whose structure
+ * does not change between executions, such that only the values of its parameters differ. The plans are held per {@link DbVendor}
+ * and {@code isPrepared}, and store the SQL text, the parameter-slot layout and the projection layout of the first compilation of
+ * the shape, so that subsequent executions only bind values.
+ * <p>
+ * The parameter-slot layout is resolved against the {@code bindings} that the caller provides with each execution of the shape
+ * (i.e. the value columns of the SELECT's condition, in a fixed order). A compilation that produces a parameter that is not one of
+ * the provided {@code bindings}, or that inlines values (i.e. {@code isPrepared=false} with {@code bindings.length > 0}), is
+ * deemed not cacheable, and the shape then always falls back to full compilation.
+ * <p>
+ * Each plan also stores the signature of the SELECT from which it was compiled, i.e. its tables, its projected and compared
+ * columns, and the structure of its condition, and a SELECT whose signature differs from that of the plan is rejected, instead of
+ * being executed with the SQL of another SELECT. Only SELECTs whose condition consists of {@code AND}, {@code OR} and comparison
+ * predicates of columns and {@code bindings}, and that have no {@code JOIN}, {@code GROUP BY}, {@code HAVING} or {@code UNION},
+ * have a signature, and are therefore cacheable.
+ * <p>
+ * The {@link CacheMap} implementations use a {@link SelectShape} for their key SELECTs, and any other SELECT can opt in with
+ * {@link statement.Query#shape(SelectShape,data.Column[])}.
+ */
+public final class SelectShape {
+  static final class Plan {
+    final String sql;
+    final int[] parameterSlots;
+    final int[] protoIndexes;
+    final int columnOffset;
+    final boolean isConditionalSelect;
+    final ArrayList<Object> signature;
+
+    private Plan(final String sql, final int[] parameterSlots, final int[] protoIndexes, final int columnOffset, final boolean isConditionalSelect, final ArrayList<Object> signature) {
+      this.sql = sql;
+      this.signature = signature;
+      this.parameterSlots = parameterSlots;
+      this.protoIndexes = protoIndexes;
+      this.columnOffset = columnOffset;
+      this.isConditionalSelect = isConditionalSelect;
+    }
+
+    ArrayList<data.Column<?>> bind(final data.Column<?>[] bindings) {
+      final int[] parameterSlots = this.parameterSlots;
+      final int len = parameterSlots.length;
+      if (len == 0)
+        return null;
+
+      final ArrayList<data.Column<?>> parameters = new ArrayList<>(len);
+      for (int i = 0; i < len; ++i) // [A]
+        parameters.add(bindings[parameterSlots[i]]);
+
+      return parameters;
+    }
+  }
+
+  private static final int noVendors = DbVendor.values().length;
+  private static final Plan UNCACHEABLE = new Plan(null, null, null, 0, false, null);
+
+  // Plans are immutable, and are therefore safe to publish without synchronization: a racing thread either sees null (and
+  // compiles the shape one more time), or a fully constructed Plan.
+  private final Plan[] plans = new Plan[noVendors * 2];
+
+  /**
+   * Creates a new {@link SelectShape} with no compiled plans. A {@link SelectShape} is meant to be held in a {@code static final}
+   * field, and shared by all executions of the SELECT that it describes.
+   *
+   * @see statement.Query#shape(SelectShape,data.Column[])
+   */
+  public SelectShape() {
+  }
+
+  private static int index(final DbVendor vendor, final boolean isPrepared) {
+    return isPrepared ? noVendors + vendor.ordinal() : vendor.ordinal();
+  }
+
+  /**
+   * Returns the {@link Plan} for the provided {@link DbVendor} and {@code isPrepared}, or {@code null} if the shape has not yet been
+   * compiled, or is not cacheable.
+   *
+   * @param vendor The {@link DbVendor}.
+   * @param isPrepared Whether the plan is for a {@link java.sql.PreparedStatement}.
+   * @return The {@link Plan} for the provided {@link DbVendor} and {@code isPrepared}, or {@code null} if the shape has not yet been
+   *         compiled, or is not cacheable.
+   */
+  Plan get(final DbVendor vendor, final boolean isPrepared) {
+    final Plan plan = plans[index(vendor, isPrepared)];
+    return plan == UNCACHEABLE ? null : plan;
+  }
+
+  boolean isCacheable(final DbVendor vendor, final boolean isPrepared) {
+    return plans[index(vendor, isPrepared)] != UNCACHEABLE;
+  }
+
+  void put(final Compilation compilation, final data.Column<?>[] bindings, final int[] protoIndexes, final boolean isConditionalSelect, final ArrayList<Object> signature) {
+    final int index = index(compilation.vendor, compilation.isPrepared());
+    if (signature == null) {
+      plans[index] = UNCACHEABLE;
+      return;
+    }
+
+    final ArrayList<data.Column<?>> parameters = compilation.getParameters();
+    final int[] parameterSlots;
+    if (parameters == null || parameters.size() == 0) {
+      if (!compilation.isPrepared() && bindings.length > 0) {
+        plans[index] = UNCACHEABLE;
+        return;
+      }
+
+      parameterSlots = new int[0];
+    }
+    else {
+      parameterSlots = new int[parameters.size()];
+      for (int i = 0, i$ = parameterSlots.length; i < i$; ++i) { // [RA]
+        final int slot = indexOf(bindings, parameters.get(i));
+        if (slot == -1) {
+          plans[index] = UNCACHEABLE;
+          return;
+        }
+
+        parameterSlots[i] = slot;
+      }
+    }
+
+    plans[index] = new Plan(compilation.toString(), parameterSlots, protoIndexes, compilation.skipFirstColumn() ? 2 : 1, isConditionalSelect, signature);
+  }
+
+  /**
+   * Appends the signature of the provided {@link Subject} to the provided signature, whereby a {@link data.Table} is identified by
+   * its class, a column of a {@link data.Table} by the class of its {@link data.Table} and its index, and a value column by its
+   * slot in the provided {@code bindings}.
+   *
+   * @param signature The signature to which to append.
+   * @param subject The {@link Subject}, or {@code null}.
+   * @param bindings The value columns of the SELECT's condition.
+   * @return {@code false} if the provided {@link Subject} (or any of its operands) cannot be part of a signature, otherwise
+   *         {@code true}.
+   */
+  static boolean appendSignature(final ArrayList<Object> signature, final Subject subject, final data.Column<?>[] bindings) {
+    if (subject == null) {
+      signature.add(null);
+      return true;
+    }
+
+    if (subject instanceof data.Table) {
+      signature.add(subject.getClass());
+      return true;
+    }
+
+    if (subject instanceof data.Column) {
+      final data.Column<?> column = (data.Column<?>)subject;
+      if (column.table != null) {
+        signature.add(column.table.getClass());
+        signature.add(column.columnIndex);
+        return true;
+      }
+
+      final int slot = indexOf(bindings, column);
+      if (slot == -1)
+        return false;
+
+      signature.add(-1 - slot);
+      return true;
+    }
+
+    if (subject instanceof ComparisonPredicate) {
+      final ComparisonPredicate<?> predicate = (ComparisonPredicate<?>)subject;
+      signature.add(predicate.getClass());
+      return appendSignature(signature, predicate.a, bindings) && appendSignature(signature, predicate.b, bindings);
+    }
+
+    if (subject instanceof BooleanTerm) {
+      final BooleanTerm term = (BooleanTerm)subject;
+      final Condition<?>[] conditions = term.conditions;
+      signature.add(term.getClass());
+      signature.add(conditions.length);
+      if (!appendSignature(signature, term.a, bindings) || !appendSignature(signature, term.b, bindings))
+        return false;
+
+      for (final Condition<?> condition : conditions) // [A]
+        if (!appendSignature(signature, condition, bindings))
+          return false;
+
+      return true;
+    }
+
+    return false;
+  }
+
+  private static int indexOf(final data.Column<?>[] bindings, final data.Column<?> parameter) {
+    for (int i = 0, i$ = bindings.length; i < i$; ++i) // [A]
+      if (bindings[i] == parameter)
+        return i;
+
+    return -1;
+  }
+}
@@ -0,0 +1,280 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.libj.lang.Throwables;
+import org.libj.sql.AuditStatement;
+
+/**
+ * A bounded, least-recently-used cache of {@link PreparedStatement}s for a single {@link Connection}. Statements are keyed by their
+ * SQL text, and result set type, concurrency and holdability.
+ * <p>
+ * A statement is checked out of the cache with {@link #prepareStatement(String,int,int,int)}, and must be returned to the cache with
+ * {@link #release(Statement)} (instead of {@link Statement#close()}). A statement that is checked out is not handed out again until
+ * it is released, so concurrent executions of the same SQL on the same {@link Connection} each get their own statement.
+ * <p>
+ * The state of the cache is guarded by a {@link ReentrantLock}, and the statements that are prepared, cleared or closed by the
+ * cache are prepared, cleared or closed after the lock is released, so that no JDBC call is made while the lock is held.
+ */
+final class StatementCache implements AutoCloseable {
+  private static final class Key {
+    private final String sql;
+    private final int type;
+    private final int concurrency;
+    private final int holdability;
+
+    private Key(final String sql, final int type, final int concurrency, final int holdability) {
+      this.sql = sql;
+      this.type = type;
+      this.concurrency = concurrency;
+      this.holdability = holdability;
+    }
+
+    @Override
+    public int hashCode() {
+      int hashCode = sql.hashCode();
+      hashCode = 31 * hashCode + type;
+      hashCode = 31 * hashCode + concurrency;
+      hashCode = 31 * hashCode + holdability;
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (obj == this)
+        return true;
+
+      if (!(obj instanceof Key))
+        return false;
+
+      final Key that = (Key)obj;
+      return type == that.type && concurrency == that.concurrency && holdability == that.holdability && sql.equals(that.sql);
+    }
+  }
+
+  /**
+   * Closes the provided {@link Statement}, or returns it to the provided {@link StatementCache} if the statement was checked out of
+   * it.
+   *
+   * @param statementCache The {@link StatementCache} (can be null).
+   * @param statement The {@link Statement} to release or close.
+   * @return The {@link SQLException} that occurred while closing the statement, or {@code null} if no exception occurred.
+   */
+  static SQLException close(final StatementCache statementCache, final Statement statement) {
+    return statementCache != null && statementCache.release(statement) ? null : AuditStatement.close(statement);
+  }
+
+  private final Connection connection;
+  private final int maxSize;
+  private final IdentityHashMap<Statement,Key> checkedOut = new IdentityHashMap<>();
+  private final LinkedHashMap<Key,PreparedStatement> idle;
+  private final ReentrantLock lock = new ReentrantLock();
+  // The eldest idle statement that was removed by the last put into idle, which is to be closed after the lock is released
+  private PreparedStatement evicted;
+  private SQLException suppressed;
+  private boolean closed;
+
+  StatementCache(final Connection connection, final int maxSize) {
+    if (maxSize <= 0)
+      throw new IllegalArgumentException("maxSize (" + maxSize + ") must be greater than 0");
+
+    this.connection = connection;
+    this.maxSize = maxSize;
+    this.idle = new LinkedHashMap<Key,PreparedStatement>(maxSize + 1, 1f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Key,PreparedStatement> eldest) {
+        if (size() <= StatementCache.this.maxSize)
+          return false;
+
+        evicted = eldest.getValue();
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Returns a {@link PreparedStatement} for the provided SQL text, result set type, concurrency and holdability, which is either a
+   * previously prepared idle statement, or a newly prepared statement. A value of {@code -1} for {@code type}, {@code concurrency}
+   * or {@code holdability} signifies the driver's default.
+   *
+   * @param sql The SQL text.
+   * @param type The result set type, or {@code -1} for the default.
+   * @param concurrency The result set concurrency, or {@code -1} for the default.
+   * @param holdability The result set holdability, or {@code -1} for the default.
+   * @return A {@link PreparedStatement} for the provided SQL text, result set type, concurrency and holdability.
+   * @throws SQLException If a database access error occurs.
+   */
+  PreparedStatement prepareStatement(final String sql, final int type, final int concurrency, final int holdability) throws SQLException {
+    final Key key = new Key(sql, type, concurrency, holdability);
+    final PreparedStatement idleStatement;
+    lock.lock();
+    try {
+      if (closed)
+        throw new IllegalStateException("StatementCache is closed");
+
+      idleStatement = idle.remove(key);
+      if (idleStatement != null)
+        checkedOut.put(idleStatement, key);
+    }
+    finally {
+      lock.unlock();
+    }
+
+    if (idleStatement != null) {
+      if (!idleStatement.isClosed())
+        return idleStatement;
+
+      lock.lock();
+      try {
+        checkedOut.remove(idleStatement);
+      }
+      finally {
+        lock.unlock();
+      }
+    }
+
+    final PreparedStatement statement;
+    if (holdability != -1)
+      statement = connection.prepareStatement(sql, type, concurrency, holdability);
+    else if (type != -1)
+      statement = connection.prepareStatement(sql, type, concurrency);
+    else
+      statement = connection.prepareStatement(sql);
+
+    lock.lock();
+    try {
+      checkedOut.put(statement, key);
+    }
+    finally {
+      lock.unlock();
+    }
+
+    return statement;
+  }
+
+  /**
+   * Returns the provided {@link Statement} to this cache, if it was checked out of this cache.
+   *
+   * @param statement The {@link Statement} to release.
+   * @return {@code true} if the provided {@link Statement} was checked out of this cache, and has been released or closed by this
+   *         cache; otherwise {@code false}, in which case the caller remains responsible for closing the statement.
+   */
+  boolean release(final Statement statement) {
+    final Key key;
+    lock.lock();
+    try {
+      key = checkedOut.remove(statement);
+      if (key == null)
+        return false;
+    }
+    finally {
+      lock.unlock();
+    }
+
+    // The statement to close after the lock is released: the released statement itself, unless it is returned to idle, in which
+    // case the statement that it displaced or evicted from idle (if any)
+    Statement close = statement;
+    SQLException e = null;
+    try {
+      if (statement.isClosed()) {
+        close = null;
+      }
+      else {
+        ((PreparedStatement)statement).clearParameters();
+        lock.lock();
+        try {
+          if (!closed) {
+            final PreparedStatement existing = idle.put(key, (PreparedStatement)statement);
+            close = existing != null ? existing : evicted;
+            evicted = null;
+          }
+        }
+        finally {
+          lock.unlock();
+        }
+      }
+    }
+    catch (final SQLException se) {
+      e = se;
+    }
+
+    if (close != null)
+      e = Throwables.addSuppressed(e, AuditStatement.close(close));
+
+    if (e != null) {
+      lock.lock();
+      try {
+        suppressed = Throwables.addSuppressed(suppressed, e);
+      }
+      finally {
+        lock.unlock();
+      }
+    }
+
+    return true;
+  }
+
+  int size() {
+    lock.lock();
+    try {
+      return idle.size();
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Closes all idle statements in this cache. Statements that are checked out at the time of this call are closed when they are
+   * released.
+   *
+   * @throws SQLException If a database access error occurred while closing a statement, or while releasing a statement since the
+   *           last call to {@link #close()}.
+   */
+  @Override
+  public void close() throws SQLException {
+    final ArrayList<PreparedStatement> statements;
+    SQLException e;
+    lock.lock();
+    try {
+      closed = true;
+      e = suppressed;
+      suppressed = null;
+      statements = new ArrayList<>(idle.values());
+      idle.clear();
+    }
+    finally {
+      lock.unlock();
+    }
+
+    for (int i = 0, i$ = statements.size(); i < i$; ++i) // [RA]
+      e = Throwables.addSuppressed(e, AuditStatement.close(statements.get(i)));
+
+    if (e != null)
+      throw e;
+  }
+}
@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import org.jaxdb.jsql.Callbacks.OnNotifyCallbackList;
 import org.jaxdb.jsql.statement.NotifiableModification.NotifiableBatchResult;
 import org.jaxdb.vendor.DbVendor;
+import org.libj.lang.Throwables;
 import org.libj.sql.exception.SQLExceptions;
 
 public class Transaction implements AutoCloseable {
@@ -56,6 +57,7 @@ public class Transaction implements AutoCloseable {
   private Connection connection;
   private Boolean isPrepared;
   private Connector connector;
+  private StatementCache statementCache;
 
   private Callbacks callbacks;
 
@@ -82,7 +84,7 @@ public class Transaction implements AutoCloseable {
   }
 
   public DbVendor getVendor() throws IOException, SQLException {
-    return vendor == null ? vendor = DbVendor.valueOf(getConnection().getMetaData()) : vendor;
+    return vendor == null ? vendor = getConnector().getVendor(getConnection()) : vendor;
   }
 
   public Connection getConnection() throws IOException, SQLException {
@@ -107,6 +109,23 @@ public class Transaction implements AutoCloseable {
     return connector == null ? connector = schema.getConnector() : connector;
   }
 
+  /**
+   * Returns the {@link StatementCache} of this {@link Transaction}'s {@link Connection}, or {@code null} if statement caching is not
+   * enabled for this {@link Transaction}'s {@link Connector}.
+   *
+   * @return The {@link StatementCache} of this {@link Transaction}'s {@link Connection}, or {@code null} if statement caching is not
+   *         enabled for this {@link Transaction}'s {@link Connector}.
+   * @throws IOException If an I/O error has occurred.
+   * @throws SQLException If a database access error has occurred.
+   */
+  StatementCache getStatementCache() throws IOException, SQLException {
+    if (statementCache != null)
+      return statementCache;
+
+    final int statementCacheSize = getConnector().getStatementCacheSize();
+    return statementCacheSize == 0 ? null : (statementCache = new StatementCache(getConnection(), statementCacheSize));
+  }
+
   protected void addCallbacks(final Callbacks callbacks) {
     if (callbacks != null)
       getCallbacks().merge(callbacks);
@@ -236,14 +255,29 @@ public class Transaction implements AutoCloseable {
     if (connection == null)
       return;
 
+    SQLException e = null;
+    if (statementCache != null) {
+      try {
+        statementCache.close();
+      }
+      catch (final SQLException se) {
+        e = se;
+      }
+
+      statementCache = null;
+    }
+
     try {
       connection.close();
     }
-    catch (final SQLException e) {
-      throw SQLExceptions.toStrongType(e);
+    catch (final SQLException se) {
+      e = Throwables.addSuppressed(e, se);
     }
     finally {
       connection = null;
     }
+
+    if (e != null)
+      throw SQLExceptions.toStrongType(e);
   }
 }
\ No newline at end of file
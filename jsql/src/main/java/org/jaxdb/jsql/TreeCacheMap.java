@@ -16,8 +16,6 @@
 
 package org.jaxdb.jsql;
 
-import static org.jaxdb.jsql.DML.*;
-
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.Collection;
@@ -28,6 +26,7 @@ import java.util.NavigableSet;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -36,16 +35,10 @@ import org.libj.util.Interval;
 import org.openjax.binarytree.ConcurrentIntervalTreeSet;
 
 public abstract class TreeCacheMap<V> extends CacheMap<V> implements NavigableMap<data.Key,V> {
-  private static data.BOOLEAN where(final Interval<data.Key>[] intervals) {
-    data.BOOLEAN or = andRange(intervals[0]);
-    for (int i = 1, i$ = intervals.length; i < i$; ++i) // [A]
-      or = OR(or, andRange(intervals[i]));
-
-    return or;
-  }
-
   final NavigableMap<data.Key,V> map;
   final ConcurrentIntervalTreeSet<data.Key> mask = new ConcurrentIntervalTreeSet<>();
+  // Guards the SELECT of a missing range
+  private final ReentrantLock rangeLock = new ReentrantLock();
 
   TreeCacheMap(final data.Table table) {
     this(table, table.getSchema(), new ConcurrentSkipListMap<>());
@@ -73,6 +66,11 @@ public abstract class TreeCacheMap<V> extends CacheMap<V> implements NavigableMa
     return mask.contains(key);
   }
 
+  @Override
+  final void clearMask() {
+    mask.clear();
+  }
+
   final Interval<data.Key>[] diffKeys(final data.Key fromKey, final data.Key toKey) {
     return mask.difference(new Interval<>(fromKey, toKey));
   }
@@ -85,17 +83,28 @@ public abstract class TreeCacheMap<V> extends CacheMap<V> implements NavigableMa
   @Override
   final V put$(final data.Key key, final V value) {
     mask.add(key);
-    return map.put(key, value);
+    final V previous = map.put(key, value);
+    onPut(key, value);
+    return previous;
   }
 
   @Override
   final V remove$(final data.Key key) {
     mask.remove(key);
+    onRemove(key);
     return map.remove(key);
   }
 
   @Override
   final V remove$Old(final data.Key key) {
+    onRemove(key);
+    return map.remove(key);
+  }
+
+  @Override
+  final V evict$(final data.Key key) {
+    mask.remove(key);
+    onEvict(key);
     return map.remove(key);
   }
 
@@ -260,14 +269,22 @@ public abstract class TreeCacheMap<V> extends CacheMap<V> implements NavigableMa
       throw new UnsupportedOperationException("Composite keys are not yet supported");
 
     Interval<data.Key>[] diff = diffKeys(fromKey, toKey);
-    if (diff.length > 0) {
-      synchronized (this) {
+    if (diff.length == 0) {
+      getMetrics().onHit(table);
+    }
+    else {
+      getMetrics().onMiss(table);
+      rangeLock.lock();
+      try {
         diff = diffKeys(fromKey, toKey);
         if (diff.length > 0) {
-          select(where(diff));
+          selectRange(diff, map);
           mask.addAll(diff);
         }
       }
+      finally {
+        rangeLock.unlock();
+      }
     }
 
     return subMap(fromKey, toKey);
@@ -2101,7 +2101,7 @@ public final class data {
       if (rows.getConcurrency() == Concurrency.READ_ONLY)
         throw new IllegalStateException(rows.getConcurrency().getClass().getSimpleName() + "." + rows.getConcurrency());
 
-      update(Compiler.getCompiler(DbVendor.valueOf(rows.resultSet.getStatement().getConnection().getMetaData())), rows.resultSet, columnIndex);
+      update(rows.compiler != null ? rows.compiler : Compiler.getCompiler(DbVendor.valueOf(rows.resultSet.getStatement().getConnection().getMetaData())), rows.resultSet, columnIndex);
     }
 
     /**
@@ -5530,6 +5530,9 @@ public final class data {
     void _commitDelete$() {
     }
 
+    void _commitEvict$() {
+    }
+
     final void _commitEntity$() {
       for (final Column<?> column : _column$) // [A]
         column._commitEntity$();
@@ -5541,6 +5544,9 @@ public final class data {
     void _commitSelectAll$() {
     }
 
+    void _clearCacheMasks$() {
+    }
+
     @SuppressWarnings("unchecked")
     final void _onModifyUpdate$() {
       for (final Column<?> column : _column$) // [A]
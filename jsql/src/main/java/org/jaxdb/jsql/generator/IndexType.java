@@ -24,6 +24,9 @@ import org.jaxdb.jsql.OneToManyHashTreeMap;
 import org.jaxdb.jsql.OneToManyTreeMap;
 import org.jaxdb.jsql.OneToOneHashMap;
 import org.jaxdb.jsql.OneToOneHashTreeMap;
+import org.jaxdb.jsql.OneToOneLongHashMap;
+import org.jaxdb.jsql.OneToOneLongHashTreeMap;
+import org.jaxdb.jsql.OneToOneLongTreeMap;
 import org.jaxdb.jsql.OneToOneTreeMap;
 import org.jaxdb.jsql.data;
 import org.jaxdb.www.ddlx_0_6.xLygluGCXAA.$IndexType;
@@ -32,16 +35,16 @@ import org.jaxdb.www.ddlx_0_6.xLygluGCXAA.$IndexType;
 abstract class IndexType {
   static final IndexType UNDEFINED = new UNDEFINED(false);
   static final IndexType UNDEFINED_UNIQUE = new UNDEFINED(true);
-  static final IndexType BTREE = new BTREE(false, OneToManyTreeMap.class);
-  static final IndexType BTREE_UNIQUE = new BTREE(true, OneToOneTreeMap.class);
-  static final IndexType HASH = new HASH(false, OneToManyHashMap.class);
-  static final IndexType HASH_UNIQUE = new HASH(true, OneToOneHashMap.class);
-  static final IndexType HASH_BTREE = new HASH_BTREE(false, OneToManyHashTreeMap.class);
-  static final IndexType HASH_BTREE_UNIQUE = new HASH_BTREE(true, OneToOneHashTreeMap.class);
+  static final IndexType BTREE = new BTREE(false, OneToManyTreeMap.class, null);
+  static final IndexType BTREE_UNIQUE = new BTREE(true, OneToOneTreeMap.class, OneToOneLongTreeMap.class);
+  static final IndexType HASH = new HASH(false, OneToManyHashMap.class, null);
+  static final IndexType HASH_UNIQUE = new HASH(true, OneToOneHashMap.class, OneToOneLongHashMap.class);
+  static final IndexType HASH_BTREE = new HASH_BTREE(false, OneToManyHashTreeMap.class, null);
+  static final IndexType HASH_BTREE_UNIQUE = new HASH_BTREE(true, OneToOneHashTreeMap.class, OneToOneLongHashTreeMap.class);
 
   static class UNDEFINED extends IndexType {
     UNDEFINED(final boolean isUnique) {
-      super(isUnique, null, null, false);
+      super(isUnique, null, null, null, false);
     }
 
     @Override
@@ -66,8 +69,8 @@ abstract class IndexType {
   }
 
   static class BTREE extends IndexType {
-    BTREE(final boolean isUnique, final Class<? extends Map> cls) {
-      super(isUnique, cls, NavigableMap.class, true);
+    BTREE(final boolean isUnique, final Class<? extends Map> cls, final Class<? extends Map> longCls) {
+      super(isUnique, cls, longCls, NavigableMap.class, true);
     }
 
     @Override
@@ -92,8 +95,8 @@ abstract class IndexType {
   }
 
   static class HASH extends IndexType {
-    HASH(final boolean isUnique, final Class<? extends Map> cls) {
-      super(isUnique, cls, Map.class, true);
+    HASH(final boolean isUnique, final Class<? extends Map> cls, final Class<? extends Map> longCls) {
+      super(isUnique, cls, longCls, Map.class, true);
     }
 
     @Override
@@ -118,8 +121,8 @@ abstract class IndexType {
   }
 
   static class HASH_BTREE extends IndexType {
-    HASH_BTREE(final boolean isUnique, final Class<? extends Map> cls) {
-      super(isUnique, cls, NavigableMap.class, true);
+    HASH_BTREE(final boolean isUnique, final Class<? extends Map> cls, final Class<? extends Map> longCls) {
+      super(isUnique, cls, longCls, NavigableMap.class, true);
     }
 
     @Override
@@ -145,6 +148,8 @@ abstract class IndexType {
 
   final boolean isUnique;
   private final Class<? extends Map> cls;
+  // The class of the map that additionally indexes its values by primitive long key, or null if not unique
+  private final Class<? extends Map> longCls;
   private final boolean clsKey = false;
   private final Class<? extends Map> iface;
   private final boolean iFaceKey;
@@ -171,6 +176,13 @@ abstract class IndexType {
     return cls.getName() + (declarationName == null ? "" : "<" + (clsKey ? data.Key.class.getCanonicalName() + "," : "") + declarationName + ">");
   }
 
+  String getConcreteLongClass(final String declarationName) {
+    if (longCls == null)
+      throw new IllegalStateException();
+
+    return longCls.getName() + (declarationName == null ? "" : "<" + declarationName + ">");
+  }
+
   String getInterfaceClass(final String declarationName) {
     if (iface == null)
       throw new IllegalStateException();
@@ -178,9 +190,10 @@ abstract class IndexType {
     return iface.getName() + "<" + (iFaceKey ? data.Key.class.getCanonicalName() + "," : "") + declarationName + ">";
   }
 
-  IndexType(final boolean isUnique, final Class<? extends Map> cls, final Class<? extends Map> iface, final boolean iFaceKey) {
+  IndexType(final boolean isUnique, final Class<? extends Map> cls, final Class<? extends Map> longCls, final Class<? extends Map> iface, final boolean iFaceKey) {
     this.isUnique = isUnique;
     this.cls = cls;
+    this.longCls = longCls;
     this.iface = iface;
     this.iFaceKey = iFaceKey;
   }
@@ -18,8 +18,11 @@ package org.jaxdb.jsql.generator;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.SortedMap;
 
 import org.jaxdb.jsql.data;
@@ -55,6 +58,9 @@ class Relation {
   private final String rangeParams;
   private final String keyParams;
   final KeyModels.KeyModel keyModel;
+  // The unique single integer column of a map that is additionally indexed by primitive long key, otherwise null
+  private final ColumnModel longKeyColumn;
+  private final String longKeyType;
 
   Relation(final String schemaClassName, final TableModel sourceTable, final TableModel tableModel, final ColumnModels columns, final IndexType indexType, final KeyModels keyModels) {
     this.cacheMethodName = columns.getInstanceNameForCache(tableModel.classCase);
@@ -91,12 +97,71 @@ class Relation {
     this.rangeParams = rangeParams.toString();
 
     keyModel = keyModels.add(tableModel.singletonInstanceName, columnName, tableModel.classCase, columns, indexType);
+
+    this.longKeyType = indexType.isUnique && columns.size() == 1 ? getPrimitiveIntegerType(columns.iterator().next().rawType) : null;
+    this.longKeyColumn = longKeyType == null ? null : columns.iterator().next();
+  }
+
+  private static String getPrimitiveIntegerType(final String rawType) {
+    if (Long.class.getName().equals(rawType))
+      return "long";
+
+    if (Integer.class.getName().equals(rawType))
+      return "int";
+
+    if (Short.class.getName().equals(rawType))
+      return "short";
+
+    if (Byte.class.getName().equals(rawType))
+      return "byte";
+
+    return null;
+  }
+
+  private String getConcreteClass(final String declarationName) {
+    return longKeyColumn != null ? indexType.getConcreteLongClass(declarationName) : indexType.getConcreteClass(declarationName);
+  }
+
+  private String writeGetLongMethod(final String returnType) {
+    if (longKeyColumn == null)
+      return "";
+
+    final String param = "final " + longKeyType + " " + longKeyColumn.instanceCase;
+    return "\n    public " + returnType + " " + cacheMethodName + "_CACHED(" + param + ") {" +
+      "\n      return " + tableModel.singletonInstanceName + "." + cacheMapFieldName + ".get((long)" + longKeyColumn.instanceCase + ");" +
+      "\n    }\n" +
+      "\n    public " + returnType + " " + cacheMethodName + "_SELECT(" + param + ") throws " + IOException.class.getName() + ", " + SQLException.class.getName() + " {" +
+      "\n      return " + tableModel.singletonInstanceName + "." + cacheMapFieldName + ".select((long)" + longKeyColumn.instanceCase + ");" +
+      "\n    }\n";
   }
 
   boolean isDeclaredOnSourceTable() {
     return sourceTable == tableModel;
   }
 
+  private String writeSelectBatchMethods(final String returnType) {
+    if (columns.size() != 1)
+      return "";
+
+    final ColumnModel column = columns.iterator().next();
+    final String mapType = Map.class.getName() + "<" + column.rawType + "," + returnType + ">";
+    final String throwsClause = " throws " + IOException.class.getName() + ", " + SQLException.class.getName() + " {";
+    final StringBuilder b = new StringBuilder();
+    b.append("\n    public ").append(mapType).append(' ').append(cacheMethodName).append("_SELECT(final ").append(Collection.class.getName()).append("<? extends ").append(column.rawType).append("> ").append(column.instanceCase).append(')').append(throwsClause);
+    b.append("\n      return ").append(tableModel.singletonInstanceName).append('.').append(cacheMapFieldName).append(".select(").append(keyModel.indexFieldName).append(", ").append(column.instanceCase).append(");");
+    b.append("\n    }\n");
+    if (longKeyColumn != null) {
+      b.append("\n    public ").append(mapType).append(' ').append(cacheMethodName).append("_SELECT(final ").append(longKeyType).append(" ... ").append(column.instanceCase).append(')').append(throwsClause);
+      b.append("\n      final ").append(ArrayList.class.getName()).append('<').append(column.rawType).append("> keys$ = new ").append(ArrayList.class.getName()).append("<>(").append(column.instanceCase).append(".length);");
+      b.append("\n      for (final ").append(longKeyType).append(" key$ : ").append(column.instanceCase).append(')');
+      b.append("\n        keys$.add(key$);\n");
+      b.append("\n      return ").append(tableModel.singletonInstanceName).append('.').append(cacheMapFieldName).append(".select(").append(keyModel.indexFieldName).append(", keys$);");
+      b.append("\n    }\n");
+    }
+
+    return b.toString();
+  }
+
   private String writeGetRangeMethod(final String returnType) {
     if (!indexType.isBTree())
       return "";
@@ -143,13 +208,15 @@ class Relation {
     final String returnType = indexType.isUnique ? declarationName : indexType.getInterfaceClass(declarationName);
     return "\n    private " +
       data.Column.class.getCanonicalName() + "<?>[] " + cacheIndexFieldName + ";" +
-      "\n    " + indexType.getConcreteClass(declarationName) + " " + cacheMapFieldName + ";\n" +
+      "\n    " + getConcreteClass(declarationName) + " " + cacheMapFieldName + ";\n" +
       "\n    public " + returnType + " " + cacheMethodName + "_CACHED(" + keyParams + ") {" +
       "\n      return " + tableModel.singletonInstanceName + "." + cacheMapFieldName + ".get(" + keyArgs + ");" +
       "\n    }\n" +
       "\n    public " + returnType + " " + cacheMethodName + "_SELECT(" + keyParams + ") throws " + IOException.class.getName() + ", " + SQLException.class.getName() + " {" +
       "\n      return " + tableModel.singletonInstanceName + "." + cacheMapFieldName + ".select(" + keyArgs + ");" +
       "\n    }\n" +
+      writeGetLongMethod(returnType) +
+      writeSelectBatchMethods(returnType) +
       writeGetRangeMethod(returnType) +
       "\n    public " + indexType.getInterfaceClass(returnType) + " " + cacheMethodName + "_CACHED() {" +
       "\n      return " + tableModel.singletonInstanceName + "." + cacheMapFieldName + ";" +
@@ -161,6 +228,9 @@ class Relation {
   }
 
   final String writeCacheInit() {
+    if (longKeyColumn != null)
+      return cacheMapFieldName + " = new " + getConcreteClass(null) + "<>(this, _column$[" + longKeyColumn.position + "]);";
+
     return cacheMapFieldName + " = new " + indexType.getConcreteClass(null) + "<>(this);";
   }
 
@@ -181,6 +251,10 @@ class Relation {
     return tableModel.singletonInstanceName + "." + cacheMapFieldName + ".addKey(" + data.Key.class.getCanonicalName() + ".ALL);";
   }
 
+  final String writeCacheClearMask() {
+    return tableModel.singletonInstanceName + "." + cacheMapFieldName + ".clearMask();";
+  }
+
   final String writeOnChangeClearCache(final String classSimpleName, final CurOld curOld, final boolean addSelfRef, final HashSet<String> declared) {
     final String keyClause = keyClause(classSimpleName, curOld, addSelfRef, declared);
     if (keyClause == null)
@@ -189,6 +263,14 @@ class Relation {
     return writeNullCheckClause(classSimpleName, curOld) + tableModel.singletonInstanceName + "." + cacheMapFieldName + ".remove$" + curOld + "(" + keyClause + (indexType.isUnique ? "" : ", " + classSimpleName + ".this") + ");";
   }
 
+  final String writeCacheEvict(final String classSimpleName, final HashSet<String> declared) {
+    final String keyClause = keyClause(classSimpleName, CurOld.Cur, false, declared);
+    if (keyClause == null)
+      return null;
+
+    return writeNullCheckClause(classSimpleName, CurOld.Cur) + tableModel.singletonInstanceName + "." + cacheMapFieldName + ".evict$(" + keyClause + (indexType.isUnique ? "" : ", " + classSimpleName + ".this") + ");";
+  }
+
   @Override
   public boolean equals(final Object obj) {
     if (obj == this)
@@ -904,6 +904,25 @@ class TableModel {
         out.append("\n    }\n");
       }
 
+      {
+        declared.clear();
+
+        out.append("\n    @").append(Override.class.getName());
+        out.append("\n    void _clearCacheMasks$() {");
+        out.append("\n      if (!").append(singletonInstanceName).append('.').append("_cacheEnabled$)");
+        out.append("\n        return;\n");
+        out.append("\n      getCache().clearMask();");
+        if (allRelations.size() > 0) {
+          for (final Relations<Relation> relations : allRelations) { // [C]
+            for (final Relation relation : relations) { // [S]
+              write("\n      ", relation.writeCacheClearMask(), out, declared);
+            }
+          }
+        }
+
+        out.append("\n    }\n");
+      }
+
       {
         declared.clear();
 
@@ -952,6 +971,25 @@ class TableModel {
         }
 
         out.append("    }\n");
+
+        declared.clear();
+
+        out.append("\n    @").append(Override.class.getName());
+        out.append("\n    void _commitEvict$() {\n");
+        if (onChangeRelations.size() > 0) {
+          out.append("      if (!").append(singletonInstanceName).append('.').append("_cacheEnabled$)");
+          out.append("\n        return;\n");
+
+          for (int i = 0, i$ = onChangeRelations.size(); i < i$; ++i) { // [RA]
+            final Relation onChangeRelation = onChangeRelations.get(i);
+            write("\n      ", onChangeRelation.writeCacheEvict(classSimpleName, declared), out, declared);
+          }
+
+          if (declared.size() > 0)
+            out.append('\n');
+        }
+
+        out.append("    }\n");
       }
     }
 
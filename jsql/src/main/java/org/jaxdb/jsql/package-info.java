@@ -0,0 +1,25 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+/**
+ * The jSQL API, with which SQL statements are composed and executed as Java expressions, and with which the results of SELECTs and
+ * the changes of tables are cached.
+ * <p>
+ * Blocking in this package, on JDBC I/O or on the completion of another thread, is guarded by {@link java.util.concurrent.locks.Lock}s
+ * and their {@link java.util.concurrent.locks.Condition}s, instead of by object monitors, so that a virtual thread that blocks does
+ * not pin its carrier thread.
+ */
+package org.jaxdb.jsql;
@@ -25,6 +25,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.jaxdb.jsql.Callbacks.OnCommit;
 import org.jaxdb.jsql.Callbacks.OnExecute;
@@ -44,6 +46,7 @@ public final class statement {
     command.assertNotClosed();
 
     Statement statement = null;
+    StatementCache statementCache = null;
     Compilation compilation = null;
     SQLException suppressed = null;
 
@@ -54,6 +57,7 @@ public final class statement {
       if (transaction != null) {
         isPrepared = transaction.isPrepared();
         connection = transaction.getConnection();
+        statementCache = transaction.getStatementCache();
         transaction.addCallbacks(command.callbacks);
       }
       else if (connection == null) {
@@ -65,7 +69,7 @@ public final class statement {
         connection.setAutoCommit(true);
       }
 
-      final DbVendor vendor = DbVendor.valueOf(connection.getMetaData());
+      final DbVendor vendor = Connector.getVendor(transaction, connector, connection);
       compilation = new Compilation(command, vendor, isPrepared);
       command.compile(compilation, false);
 
@@ -115,7 +119,14 @@ public final class statement {
           // return results.toArray();
           // }
 
-          final PreparedStatement preparedStatement = autos == null ? connection.prepareStatement(compilation.toString()) : compiler.prepareStatementReturning(connection, compilation.sql, autos);
+          final PreparedStatement preparedStatement;
+          if (autos != null)
+            preparedStatement = compiler.prepareStatementReturning(connection, compilation.sql, autos);
+          else if (statementCache != null)
+            preparedStatement = statementCache.prepareStatement(compilation.toString(), -1, -1, -1);
+          else
+            preparedStatement = connection.prepareStatement(compilation.toString());
+
           statement = preparedStatement;
           final ArrayList<data.Column<?>> parameters = compilation.getParameters();
           if (parameters != null) {
@@ -126,21 +137,32 @@ public final class statement {
 
           command.close();
 
-          Statement sessionStatement = null;
-          if (sessionId != null)
+          final Statement sessionStatement;
+          if (sessionId != null && compiler.compileSessionId(sessionId) != null)
             compiler.setSessionId(sessionStatement = connection.createStatement(), sessionId);
+          else
+            sessionStatement = null;
 
           try {
             count = preparedStatement.executeUpdate();
             if (onNotifyCallbackList != null)
               onNotifyCallbackList.setCount(count);
 
-            if (sessionId != null)
-              compiler.setSessionId(sessionStatement, null);
-
             resultSet = autos == null ? null : preparedStatement.getGeneratedKeys();
+            if (sessionStatement != null)
+              compiler.setSessionId(sessionStatement, null);
           }
           catch (final Exception e) {
+            // The session ID is reset even if the statement failed, so that it does not apply to subsequent statements
+            if (sessionStatement != null) {
+              try {
+                compiler.setSessionId(sessionStatement, null);
+              }
+              catch (final SQLException se) {
+                e.addSuppressed(se);
+              }
+            }
+
             // FIXME: Why am I doing this a second time here in the catch block?
             if (parameters != null) {
               final int updateWhereIndex = compilation.getUpdateWhereIndex();
@@ -159,6 +181,10 @@ public final class statement {
 
             throw e;
           }
+          finally {
+            if (sessionStatement != null)
+              suppressed = Throwables.addSuppressed(suppressed, AuditStatement.close(sessionStatement));
+          }
         }
         else {
           // FIXME: Implement batching.
@@ -177,22 +203,30 @@ public final class statement {
 
           command.close();
 
-          if (sessionId != null)
-            compiler.setSessionId(statement, sessionId);
-
+          final String setSessionId = sessionId != null ? compiler.compileSessionId(sessionId) : null;
           if (autos == null) {
-            count = statement.executeUpdate(compilation.toString());
+            count = compiler.executeUpdate(connection, statement, compilation.toString(), sessionId);
             if (onNotifyCallbackList != null)
               onNotifyCallbackList.setCount(count);
 
-            if (sessionId != null)
-              compiler.setSessionId(statement, null);
-
             resultSet = null;
           }
           else {
-            count = compiler.executeUpdateReturning(statement, compilation.sql, autos);
-            resultSet = statement.getGeneratedKeys();
+            if (setSessionId != null)
+              statement.execute(setSessionId);
+
+            try {
+              count = compiler.executeUpdateReturning(statement, compilation.sql, autos);
+              resultSet = statement.getGeneratedKeys();
+            }
+            finally {
+              // The session ID is reset with another Statement, so as not to close the ResultSet of the generated keys
+              if (setSessionId != null) {
+                try (final Statement sessionStatement = connection.createStatement()) {
+                  compiler.setSessionId(sessionStatement, null);
+                }
+              }
+            }
           }
           // }
           //
@@ -225,7 +259,7 @@ public final class statement {
       }
       finally {
         if (statement != null)
-          suppressed = Throwables.addSuppressed(suppressed, AuditStatement.close(statement));
+          suppressed = Throwables.addSuppressed(suppressed, StatementCache.close(statementCache, statement));
 
         if (connector != null)
           suppressed = Throwables.addSuppressed(suppressed, AuditConnection.close(connection));
@@ -258,6 +292,12 @@ public final class statement {
     }
   }
 
+  @SuppressWarnings("unchecked")
+  private static <R extends Modification.Result> CompletableFuture<R> executeAsync(final boolean async, final Command.Modification<?,?,?> command, final Connector connector, final Transaction.Isolation isolation) {
+    final Connector asyncConnector = connector != null ? connector : command.getSchema().getConnector();
+    return asyncConnector.submit(() -> (R)execute(async, command, null, asyncConnector, null, false, isolation));
+  }
+
   public interface Modification {
     public interface Executable<T> extends statement.Modification {
       T onExecute(OnExecute onExecute);
@@ -313,6 +353,32 @@ public final class statement {
       return statement.execute(false, command, null, null, null, false, null);
     }
 
+    /**
+     * Executes {@code this} statement asynchronously on the {@link Connector#getAsyncExecutor() async executor} of the provided
+     * {@link Connector}, within its {@link Connector#getAsyncConcurrency() concurrency limit}, and on its own {@link Connection} of
+     * the provided {@link Transaction.Isolation}.
+     *
+     * @param connector The {@link Connector}.
+     * @param isolation The {@link Transaction.Isolation}, or {@code null}.
+     * @return A {@link CompletableFuture} that is completed with the {@link Result} of the execution, or exceptionally with the
+     *         {@link IOException} or {@link SQLException} it has thrown.
+     */
+    default CompletableFuture<? extends Result> executeAsync(final Connector connector, final Transaction.Isolation isolation) {
+      return statement.<Result>executeAsync(false, (Command.Modification<?,?,?>)this, assertNotNull(connector), isolation);
+    }
+
+    default CompletableFuture<? extends Result> executeAsync(final Connector connector) {
+      return statement.<Result>executeAsync(false, (Command.Modification<?,?,?>)this, assertNotNull(connector), null);
+    }
+
+    default CompletableFuture<? extends Result> executeAsync(final Transaction.Isolation isolation) {
+      return statement.<Result>executeAsync(false, (Command.Modification<?,?,?>)this, null, isolation);
+    }
+
+    default CompletableFuture<? extends Result> executeAsync() {
+      return statement.<Result>executeAsync(false, (Command.Modification<?,?,?>)this, null, null);
+    }
+
     public interface Delete extends Modification {
     }
 
@@ -413,6 +479,26 @@ public final class statement {
       return (NotifiableResult)statement.execute(true, command, null, null, null, false, null);
     }
 
+    @Override
+    default CompletableFuture<? extends NotifiableResult> executeAsync(final Connector connector, final Transaction.Isolation isolation) {
+      return statement.<NotifiableResult>executeAsync(true, (Command.Modification<?,?,?>)this, assertNotNull(connector), isolation);
+    }
+
+    @Override
+    default CompletableFuture<? extends NotifiableResult> executeAsync(final Connector connector) {
+      return statement.<NotifiableResult>executeAsync(true, (Command.Modification<?,?,?>)this, assertNotNull(connector), null);
+    }
+
+    @Override
+    default CompletableFuture<? extends NotifiableResult> executeAsync(final Transaction.Isolation isolation) {
+      return statement.<NotifiableResult>executeAsync(true, (Command.Modification<?,?,?>)this, null, isolation);
+    }
+
+    @Override
+    default CompletableFuture<? extends NotifiableResult> executeAsync() {
+      return statement.<NotifiableResult>executeAsync(true, (Command.Modification<?,?,?>)this, null, null);
+    }
+
     public interface Delete extends statement.Modification.Delete, NotifiableModification {
     }
 
@@ -496,6 +582,61 @@ public final class statement {
     RowIterator<D> execute(Connection connection, boolean isPrepared) throws IOException, SQLException;
     RowIterator<D> execute(Transaction transaction) throws IOException, SQLException;
     RowIterator<D> execute() throws IOException, SQLException;
+
+    /**
+     * Declares {@code this} query to be an execution of the provided {@link SelectShape}, so that the SQL text and parameter layout
+     * that are compiled for the first execution of the shape are reused by all subsequent executions. The provided {@code bindings}
+     * are the value columns of this query's condition, in an order that is fixed for the shape, and must be the very instances that
+     * are passed as operands to the condition, i.e.:
+     *
+     * <pre>
+     * {@code
+     * static final SelectShape byId = new SelectShape();
+     *
+     * final data.INT id = new data.INT(5);
+     * SELECT(a).FROM(a).WHERE(EQ(a.id, id)).shape(byId, id).execute();
+     * }
+     * </pre>
+     *
+     * The shape must only be used with queries that have the same structure, and differ only in the values of the provided
+     * {@code bindings}.
+     *
+     * @param shape The {@link SelectShape}.
+     * @param bindings The value columns of this query's condition.
+     * @return {@code this} query.
+     * @throws NullPointerException If {@code shape} or {@code bindings} is null.
+     */
+    Query<D> shape(SelectShape shape, data.Column<?> ... bindings);
+
+    /**
+     * Executes {@code this} query asynchronously on the {@link Connector#getAsyncExecutor() async executor} of the provided
+     * {@link Connector}, within its {@link Connector#getAsyncConcurrency() concurrency limit}, and on its own {@link Connection} of
+     * the provided {@link Transaction.Isolation}. The returned {@link RowIterator} holds its {@link Connection}, and counts against
+     * the concurrency limit, until it is closed.
+     *
+     * @param connector The {@link Connector}.
+     * @param isolation The {@link Transaction.Isolation}, or {@code null}.
+     * @param config The {@link QueryConfig}, or {@code null}.
+     * @return A {@link CompletableFuture} that is completed with the {@link RowIterator} of the results, or exceptionally with the
+     *         {@link IOException} or {@link SQLException} thrown by the execution.
+     */
+    CompletableFuture<RowIterator<D>> executeAsync(Connector connector, Transaction.Isolation isolation, QueryConfig config);
+    CompletableFuture<RowIterator<D>> executeAsync(Connector connector, QueryConfig config);
+    CompletableFuture<RowIterator<D>> executeAsync(Transaction.Isolation isolation, QueryConfig config);
+    CompletableFuture<RowIterator<D>> executeAsync(QueryConfig config);
+
+    CompletableFuture<RowIterator<D>> executeAsync(Connector connector, Transaction.Isolation isolation);
+    CompletableFuture<RowIterator<D>> executeAsync(Connector connector);
+    CompletableFuture<RowIterator<D>> executeAsync(Transaction.Isolation isolation);
+    CompletableFuture<RowIterator<D>> executeAsync();
+
+    RowPublisher<D> publish(Executor executor, Connector connector, QueryConfig config);
+    RowPublisher<D> publish(Executor executor, Transaction transaction, QueryConfig config);
+    RowPublisher<D> publish(Executor executor, QueryConfig config);
+
+    RowPublisher<D> publish(Executor executor, Connector connector);
+    RowPublisher<D> publish(Executor executor, Transaction transaction);
+    RowPublisher<D> publish(Executor executor);
   }
 
   private statement() {
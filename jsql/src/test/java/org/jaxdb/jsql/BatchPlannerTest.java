@@ -0,0 +1,128 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.jaxdb.vendor.DbVendor;
+import org.junit.Test;
+
+public class BatchPlannerTest {
+  private static final ConnectorTest.MockSchema schema = new ConnectorTest.MockSchema();
+
+  /**
+   * Plans the provided commands, each of which is "table sql", or "table sql sessionId".
+   */
+  private static int[] plan(final MockJdbc.MockConnection connection, final int maxBatchSize, final String ... specs) throws SQLException {
+    final HashMap<String,MockTable> tables = new HashMap<>();
+    final ArrayList<Command.Modification<?,?,?>> commands = new ArrayList<>();
+    final Compilation[] compilations = new Compilation[specs.length];
+    for (int i = 0; i < specs.length; ++i) { // [A]
+      final String[] spec = specs[i].split(" ");
+      final Command.Delete command = new Command.Delete(tables.computeIfAbsent(spec[0], (final String name) -> new MockTable(schema, name)));
+      if (spec.length > 2)
+        command.sessionId = spec[2];
+
+      commands.add(command);
+      compilations[i] = new Compilation(command, DbVendor.POSTGRE_SQL, true);
+      compilations[i].sql.append(spec[1]);
+    }
+
+    return new BatchPlanner(connection.connection, maxBatchSize).plan(commands, compilations);
+  }
+
+  private static MockJdbc.MockConnection newConnection(final String name) {
+    // The foreign keys are cached by URL, so each test has its own URL
+    final MockJdbc.MockConnection connection = new MockJdbc.MockConnection("PostgreSQL", "jdbc:mock:" + BatchPlannerTest.class.getSimpleName() + ":" + name);
+    connection.tables.add("a");
+    connection.tables.add("b");
+    connection.tables.add("c");
+    return connection;
+  }
+
+  @Test
+  public void testGroupBySql() throws SQLException {
+    final MockJdbc.MockConnection connection = newConnection("testGroupBySql");
+    assertArrayEquals(new int[] {0, 2, 4, 1, 3}, plan(connection, Integer.MAX_VALUE, "a A", "b B", "a A", "b B", "a A"));
+  }
+
+  @Test
+  public void testNoPassOfSameTable() throws SQLException {
+    final MockJdbc.MockConnection connection = newConnection("testNoPassOfSameTable");
+    assertArrayEquals(new int[] {0, 1, 2}, plan(connection, Integer.MAX_VALUE, "a A1", "a A2", "a A1"));
+
+    // The 3rd command is grouped with the 2nd, but not moved past it to the 1st
+    assertArrayEquals(new int[] {0, 1, 3, 2}, plan(connection, Integer.MAX_VALUE, "a A1", "a A2", "b B", "a A2"));
+  }
+
+  @Test
+  public void testNoPassOfForeignKey() throws SQLException {
+    final MockJdbc.MockConnection connection = newConnection("testNoPassOfForeignKey");
+    connection.importedKeys.put("b", new String[] {"a"});
+
+    // A command on "a" is not moved past a command on "b", which references "a", and vice versa
+    assertArrayEquals(new int[] {0, 1, 2}, plan(connection, Integer.MAX_VALUE, "a A", "b B", "a A"));
+    assertArrayEquals(new int[] {0, 1, 2}, plan(connection, Integer.MAX_VALUE, "b B", "a A", "b B"));
+
+    // A command on "c" is unrelated to "a" and "b"
+    assertArrayEquals(new int[] {0, 2, 1}, plan(connection, Integer.MAX_VALUE, "c C", "a A", "c C"));
+
+    // The foreign keys are read once per table, URL, catalog and schema
+    final int getImportedKeys = connection.getImportedKeys;
+    plan(connection, Integer.MAX_VALUE, "a A", "b B", "c C", "a A");
+    assertEquals(getImportedKeys, connection.getImportedKeys);
+  }
+
+  @Test
+  public void testNoReorderOfSessionId() throws SQLException {
+    final MockJdbc.MockConnection connection = newConnection("testNoReorderOfSessionId");
+
+    // A command with a session id is not moved, and no command is moved past it
+    assertArrayEquals(new int[] {0, 1, 2}, plan(connection, Integer.MAX_VALUE, "a A", "b B", "a A s"));
+    assertArrayEquals(new int[] {0, 1, 2}, plan(connection, Integer.MAX_VALUE, "a A", "b B s", "a A"));
+  }
+
+  @Test
+  public void testNoReorderOfUnresolvedTable() throws SQLException {
+    final MockJdbc.MockConnection connection = newConnection("testNoReorderOfUnresolvedTable");
+
+    // The foreign keys of "x" are unknown, so a command on "x" is not moved, and no command is moved past it
+    assertArrayEquals(new int[] {0, 1, 2}, plan(connection, Integer.MAX_VALUE, "a A", "x X", "a A"));
+    assertArrayEquals(new int[] {0, 1, 2}, plan(connection, Integer.MAX_VALUE, "x X", "a A", "x X"));
+
+    // Once "x" is found, its commands are grouped
+    connection.tables.add("x");
+    assertArrayEquals(new int[] {0, 2, 1}, plan(connection, Integer.MAX_VALUE, "x X", "a A", "x X"));
+  }
+
+  @Test
+  public void testMaxBatchSize() throws SQLException {
+    final MockJdbc.MockConnection connection = newConnection("testMaxBatchSize");
+    assertArrayEquals(new int[] {0, 2, 1, 3, 4}, plan(connection, 2, "a A", "b B", "a A", "a A", "a A"));
+
+    try {
+      new Batch().withMaxBatchSize(0);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+  }
+}
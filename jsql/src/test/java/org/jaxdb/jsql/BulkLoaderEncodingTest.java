@@ -0,0 +1,53 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class BulkLoaderEncodingTest {
+  private static String escape(final String value) {
+    final StringBuilder b = new StringBuilder();
+    BulkLoader.escape(b, value);
+    return b.toString();
+  }
+
+  private static String encodeArray(final Object ... elements) {
+    final StringBuilder b = new StringBuilder();
+    BulkLoader.encodeArray(b, elements);
+    return b.toString();
+  }
+
+  @Test
+  public void testEscape() {
+    assertEquals("abc", escape("abc"));
+    assertEquals("a\\\\b", escape("a\\b"));
+    assertEquals("a\\tb\\nc\\rd", escape("a\tb\nc\rd"));
+    // The text "\N" is escaped, so that it is not read as NULL
+    assertEquals("\\\\N", escape("\\N"));
+  }
+
+  @Test
+  public void testEncodeArray() {
+    assertEquals("{}", encodeArray());
+    assertEquals("{\"a\",NULL,\"1\"}", encodeArray("a", null, 1));
+    // The quote and backslash of an element are escaped in the array literal, and the backslashes of the literal are escaped for COPY
+    assertEquals("{\"a\\\\\"b\",\"c\\\\\\\\d\"}", encodeArray("a\"b", "c\\d"));
+    assertEquals("{\"a\\tb\",\"c\\nd\"}", encodeArray("a\tb", "c\nd"));
+  }
+}
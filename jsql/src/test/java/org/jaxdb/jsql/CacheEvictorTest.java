@@ -0,0 +1,226 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+public class CacheEvictorTest {
+  private static final ConnectorTest.MockSchema schema = new ConnectorTest.MockSchema();
+
+  // The rows that are cached in the primary CacheMap, which the CacheEvictor consults before it evicts a row
+  private final HashMap<data.Key,data.Table> cached = new HashMap<>();
+
+  private CacheEvictor evictor(final CacheEviction eviction) {
+    return new CacheEvictor(eviction, cached::get);
+  }
+
+  private void put(final CacheEvictor evictor, final data.Key key, final MockTable row) {
+    cached.put(key, row);
+    evictor.onPut(key, row);
+  }
+
+  private MockTable[] put(final CacheEvictor evictor, final int from, final int to) {
+    final MockTable[] rows = new MockTable[to - from];
+    for (int i = from; i < to; ++i) // [N]
+      put(evictor, data.Key.with(i), rows[i - from] = new MockTable(schema, "t", i));
+
+    return rows;
+  }
+
+  private static void assertStats(final CacheEvictor evictor, final long size, final long evictionCount, final long expirationCount) {
+    final CacheEviction.Stats stats = evictor.getStats();
+    assertEquals(size, stats.getSize());
+    assertEquals(evictionCount, stats.getEvictionCount());
+    assertEquals(expirationCount, stats.getExpirationCount());
+  }
+
+  @Test
+  public void testBuilder() {
+    try {
+      new CacheEviction.Builder().build();
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+    }
+
+    try {
+      new CacheEviction.Builder().withMaxSize(0);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+
+    try {
+      new CacheEviction.Builder().withMaxWeight(0, (final data.Table t) -> 1);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+
+    try {
+      new CacheEviction.Builder().withExpireAfterWrite(0);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testLruMaxSize() {
+    final CacheEvictor evictor = evictor(new CacheEviction.Builder().withMaxSize(2).build());
+    final MockTable[] rows = put(evictor, 0, 2);
+    assertStats(evictor, 2, 0, 0);
+
+    // Access 0, so that 1 is the least recently used
+    assertTrue(evictor.onAccess(data.Key.with(0)));
+    final MockTable[] more = put(evictor, 2, 3);
+    assertEquals(0, rows[0].evicted.get());
+    assertEquals(1, rows[1].evicted.get());
+    assertEquals(0, more[0].evicted.get());
+    assertStats(evictor, 2, 1, 0);
+  }
+
+  @Test
+  public void testLfuMaxSize() {
+    final CacheEvictor evictor = evictor(new CacheEviction.Builder().withPolicy(CacheEviction.Policy.LFU).withMaxSize(2).build());
+    final MockTable[] rows = put(evictor, 0, 2);
+
+    // Access 1 more frequently than 0, even though 0 is then the most recently used
+    assertTrue(evictor.onAccess(data.Key.with(1)));
+    assertTrue(evictor.onAccess(data.Key.with(1)));
+    assertTrue(evictor.onAccess(data.Key.with(0)));
+    put(evictor, 2, 3);
+    assertEquals(1, rows[0].evicted.get());
+    assertEquals(0, rows[1].evicted.get());
+    assertStats(evictor, 2, 1, 0);
+  }
+
+  @Test
+  public void testMaxWeight() {
+    final CacheEvictor evictor = evictor(new CacheEviction.Builder().withMaxWeight(5, (final data.Table t) -> ((MockTable)t).weight).build());
+
+    // Weights 0 + 1 + 2 = 3
+    final MockTable[] rows = put(evictor, 0, 3);
+    assertEquals(3, evictor.getStats().getWeight());
+
+    // Weight 3 + 3 = 6 overflows, so the eldest rows are evicted until the weight is 5 or less
+    put(evictor, 3, 4);
+    assertEquals(1, rows[0].evicted.get());
+    assertEquals(1, rows[1].evicted.get());
+    assertEquals(0, rows[2].evicted.get());
+    assertEquals(5, evictor.getStats().getWeight());
+    assertStats(evictor, 2, 2, 0);
+  }
+
+  @Test
+  public void testPutReplaces() {
+    final CacheEvictor evictor = evictor(new CacheEviction.Builder().withMaxSize(1).build());
+    final MockTable[] rows = put(evictor, 0, 1);
+
+    // A put of the same key replaces its row, and the replaced row is not evicted
+    put(evictor, data.Key.with(0), new MockTable(schema, "t"));
+    assertEquals(0, rows[0].evicted.get());
+    assertStats(evictor, 1, 0, 0);
+  }
+
+  @Test
+  public void testRemove() {
+    final CacheEvictor evictor = evictor(new CacheEviction.Builder().withMaxSize(2).build());
+    final MockTable[] rows = put(evictor, 0, 2);
+    evictor.onRemove(data.Key.with(0));
+    assertStats(evictor, 1, 0, 0);
+
+    // The removed key no longer counts against the maximum size
+    put(evictor, 2, 3);
+    assertEquals(0, rows[0].evicted.get());
+    assertEquals(0, rows[1].evicted.get());
+    assertStats(evictor, 2, 0, 0);
+
+    // An access of an untracked key is not an expiration
+    assertTrue(evictor.onAccess(data.Key.with(0)));
+  }
+
+  @Test
+  public void testExpireAfterWrite() throws InterruptedException {
+    final CacheEvictor evictor = evictor(new CacheEviction.Builder().withExpireAfterWrite(20).build());
+    final MockTable[] rows = put(evictor, 0, 2);
+    assertTrue(evictor.onAccess(data.Key.with(0)));
+
+    Thread.sleep(40);
+
+    // An access of an expired row evicts it
+    assertFalse(evictor.onAccess(data.Key.with(0)));
+    assertEquals(1, rows[0].evicted.get());
+    assertStats(evictor, 1, 0, 1);
+
+    // A put expires the eldest rows that have expired
+    put(evictor, 2, 3);
+    assertEquals(1, rows[1].evicted.get());
+    assertStats(evictor, 1, 0, 2);
+  }
+
+  @Test
+  public void testReplacedRowNotEvicted() throws InterruptedException {
+    final CacheEvictor evictor = evictor(new CacheEviction.Builder().withExpireAfterWrite(20).build());
+    final MockTable[] rows = put(evictor, 0, 1);
+
+    Thread.sleep(40);
+
+    // The row is replaced in the cache, but the CacheEvictor is not yet notified of the put when the expired row is accessed
+    final data.Key key = data.Key.with(0);
+    final MockTable fresh = new MockTable(schema, "t");
+    cached.put(key, fresh);
+    assertFalse(evictor.onAccess(key));
+    assertEquals(0, rows[0].evicted.get());
+    assertEquals(0, fresh.evicted.get());
+    assertStats(evictor, 0, 0, 0);
+
+    evictor.onPut(key, fresh);
+    assertStats(evictor, 1, 0, 0);
+  }
+
+  @Test
+  public void testConcurrentPutDuringEviction() throws InterruptedException {
+    final CacheEvictor evictor = evictor(new CacheEviction.Builder().withExpireAfterWrite(20).build());
+    final data.Key key = data.Key.with(0);
+    final MockTable fresh = new MockTable(schema, "t");
+    final MockTable row = new MockTable(schema, "t") {
+      @Override
+      void _commitEvict$() {
+        super._commitEvict$();
+        // A fresh row for the same key is put while the eviction is in progress, and the eviction then removes it from the cache
+        put(evictor, key, fresh);
+        cached.remove(key);
+      }
+    };
+
+    put(evictor, key, row);
+
+    Thread.sleep(40);
+
+    assertFalse(evictor.onAccess(key));
+    assertEquals(1, row.evicted.get());
+
+    // The Entry of the fresh row that was removed with the eviction is not orphaned
+    assertStats(evictor, 0, 0, 1);
+    assertEquals(0, evictor.getStats().getWeight());
+  }
+}
@@ -166,4 +166,35 @@ public class CacheMapTest {
   public void testNoConcurrentModificationExceptionConcurrentSkipListMap() throws Throwable {
     testNoConcurrentModificationException(new ConcurrentSkipListMap<>());
   }
+
+  @Test
+  public void testMaxInKeys() {
+    // The number of parameters of an IN list of keys is bounded, regardless of the number of the primary key columns
+    assertEquals(CacheMap.MAX_IN_PARAMETERS, CacheMap.getMaxInKeys(new data.Column<?>[1]));
+    assertEquals(CacheMap.MAX_IN_PARAMETERS / 3, CacheMap.getMaxInKeys(new data.Column<?>[3]));
+    assertEquals(1, CacheMap.getMaxInKeys(new data.Column<?>[CacheMap.MAX_IN_PARAMETERS + 1]));
+    assertTrue(CacheMap.MAX_IN_PARAMETERS < 999);
+  }
+
+  @Test
+  public void testMaxCoalescedKeys() {
+    assertEquals(CacheMap.MAX_COALESCED_KEYS, CacheMap.getMaxCoalescedKeys(1));
+    // Composite keys are coalesced into fewer keys per SELECT, so that the OR of their ANDs does not exceed MAX_IN_PARAMETERS
+    for (int noColumns = 1; noColumns <= 16; ++noColumns) // [N]
+      assertTrue(CacheMap.getMaxCoalescedKeys(noColumns) * noColumns <= CacheMap.MAX_IN_PARAMETERS);
+
+    assertEquals(CacheMap.MAX_IN_PARAMETERS / 8, CacheMap.getMaxCoalescedKeys(8));
+  }
+
+  @Test
+  public void testClearMaskOfAll() {
+    final HashCacheMap.KeyConcurrentHashSet mask = new HashCacheMap.KeyConcurrentHashSet();
+    mask.add(data.Key.ALL);
+    assertTrue(mask.contains(data.Key.ALL));
+
+    // A cleared mask no longer contains any key, including the keys masked by ALL
+    mask.clear();
+    assertFalse(mask.contains(data.Key.ALL));
+    assertTrue(mask.isEmpty());
+  }
 }
\ No newline at end of file
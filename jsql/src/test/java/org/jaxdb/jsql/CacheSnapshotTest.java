@@ -0,0 +1,160 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.jaxdb.jsql.Notification.Action;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CacheSnapshotTest {
+  private static final ConnectorTest.MockSchema schema = new ConnectorTest.MockSchema();
+
+  private static MockTable newIntTable() {
+    final data.Column<?>[] columns = new data.Column<?>[1];
+    final MockTable table = new MockTable(schema, "t", columns);
+    columns[0] = new data.INT(table, true, "id", data.BTREE, false, null, true, null, null, null, null, null, null);
+    return table;
+  }
+
+  private static MockTable newBigIntTable() {
+    final data.Column<?>[] columns = new data.Column<?>[1];
+    final MockTable table = new MockTable(schema, "t", columns);
+    columns[0] = new data.BIGINT(table, true, "id", data.BTREE, false, null, true, null, null, null, null, null, null);
+    return table;
+  }
+
+  private final ArrayList<Long> watermarks = new ArrayList<>();
+  private Path file;
+
+  @Before
+  public void before() throws IOException {
+    file = Files.createTempFile("jaxdb-snapshot", ".bin");
+    Files.delete(file);
+  }
+
+  @After
+  public void after() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  private CacheSnapshot newSnapshot(final MockTable table, final long safetyMarginMs) {
+    final CacheSnapshot snapshot = new CacheSnapshot.Builder(file).withDelta((final MockTable t, final long timestamp) -> {
+      watermarks.add(timestamp);
+      return null;
+    }, table).withSafetyMargin(safetyMarginMs).build();
+    snapshot.bind(new data.Table[] {table});
+    return snapshot;
+  }
+
+  @Test
+  public void testSafetyMargin() {
+    try {
+      new CacheSnapshot.Builder(file).withSafetyMargin(-1);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testWatermark() throws IOException, SQLException {
+    final MockTable table = newIntTable();
+    try (final NotifierTest.MockNotifier notifier = new NotifierTest.MockNotifier(Runnable::run, 0)) {
+      assertTrue(notifier.addNotificationListener(Action.INSERT, null, null, new NotifierTest.MockListener(), new ConcurrentLinkedQueue<>(), table));
+
+      final CacheSnapshot snapshot = newSnapshot(table, 1000);
+      assertTrue(snapshot.restore(notifier).isEmpty());
+      assertTrue(watermarks.isEmpty());
+
+      // A change that is applied with a timestamp after the load of the caches (i.e. by the clock of the DB) sets the watermark
+      final long timestamp = System.currentTimeMillis() + 3600000;
+      notifier.notify(new MockTable(schema, "t"), null, timestamp, Action.INSERT);
+      assertEquals(timestamp, notifier.getLastTimestamp());
+      snapshot.write();
+
+      final Set<data.Table> restored = newSnapshot(table, 1000).restore(notifier);
+      assertEquals(1, restored.size());
+      assertTrue(restored.contains(table));
+      assertEquals(1, watermarks.size());
+      assertEquals(timestamp - 1000, watermarks.get(0).longValue());
+    }
+  }
+
+  @Test
+  public void testWatermarkBeforeChanges() throws IOException, SQLException {
+    final MockTable table = newIntTable();
+    try (final NotifierTest.MockNotifier notifier = new NotifierTest.MockNotifier(Runnable::run, 0)) {
+      final CacheSnapshot snapshot = newSnapshot(table, 1000);
+      final long loadedAt = System.currentTimeMillis();
+      assertTrue(snapshot.restore(notifier).isEmpty());
+      snapshot.write();
+
+      // Without applied changes, the watermark precedes the load of the caches by the safety margin
+      assertEquals(1, newSnapshot(table, 1000).restore(notifier).size());
+      assertEquals(1, watermarks.size());
+      final long watermark = watermarks.get(0);
+      assertTrue(watermark >= loadedAt - 1000);
+      assertTrue(watermark <= System.currentTimeMillis() - 1000);
+    }
+  }
+
+  @Test
+  public void testIncompatibleColumnType() throws IOException, SQLException {
+    try (final NotifierTest.MockNotifier notifier = new NotifierTest.MockNotifier(Runnable::run, 0)) {
+      final CacheSnapshot snapshot = newSnapshot(newIntTable(), 0);
+      snapshot.restore(notifier);
+      snapshot.write();
+
+      // A column with the same name, but of another type, is not restored
+      assertTrue(newSnapshot(newBigIntTable(), 0).restore(notifier).isEmpty());
+      assertTrue(watermarks.isEmpty());
+
+      assertEquals(1, newSnapshot(newIntTable(), 0).restore(notifier).size());
+      assertEquals(1, watermarks.size());
+    }
+  }
+
+  @Test
+  public void testUnknownVersion() throws IOException, SQLException {
+    final MockTable table = newIntTable();
+    try (final NotifierTest.MockNotifier notifier = new NotifierTest.MockNotifier(Runnable::run, 0)) {
+      final CacheSnapshot snapshot = newSnapshot(table, 0);
+      snapshot.restore(notifier);
+      snapshot.write();
+
+      // The version follows the magic number, and a snapshot of the previous version (without a watermark) is ignored
+      final byte[] bytes = Files.readAllBytes(file);
+      assertEquals(2, bytes[7]);
+      bytes[7] = 1;
+      Files.write(file, bytes);
+
+      assertTrue(newSnapshot(table, 0).restore(notifier).isEmpty());
+      assertTrue(watermarks.isEmpty());
+    }
+  }
+}
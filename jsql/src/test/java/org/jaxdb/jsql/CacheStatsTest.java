@@ -0,0 +1,180 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.DoubleSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class CacheStatsTest {
+  private static final ConnectorTest.MockSchema schema = new ConnectorTest.MockSchema();
+
+  @Test
+  public void testCounters() {
+    final MockTable table = new MockTable(schema, "t");
+    final CacheStats stats = new CacheStats();
+    assertNull(stats.getStats(table));
+
+    stats.onHit(table);
+    stats.onHit(table);
+    stats.onHit(table);
+    stats.onMiss(table);
+    stats.onLoad(table, 3, 2000, true);
+    stats.onLoad(table, -1, 4000, true);
+    stats.onLoad(table, 1, 0, false);
+    stats.onNotification(table, Notification.Action.INSERT);
+    stats.onNotification(table, Notification.Action.UPDATE);
+    stats.onNotification(table, Notification.Action.UPGRADE);
+    stats.onNotification(table, Notification.Action.DELETE);
+    stats.onEviction(table, false);
+    stats.onEviction(table, true);
+
+    final CacheStats.TableStats tableStats = stats.getStats(table);
+    assertEquals("t", tableStats.getTableName());
+    assertEquals(3, tableStats.getHitCount());
+    assertEquals(1, tableStats.getMissCount());
+    assertEquals(.75, tableStats.getHitRatio(), 0);
+    assertEquals(2, tableStats.getLoadCount());
+    assertEquals(1, tableStats.getLoadFailureCount());
+    // A load of an unknown number of keys (i.e. -1) does not count toward the loaded keys
+    assertEquals(4, tableStats.getLoadedKeyCount());
+    assertEquals(6000, tableStats.getTotalLoadTime());
+    assertEquals(2000, tableStats.getAverageLoadTime(), 0);
+    assertEquals(1, tableStats.getInsertCount());
+    assertEquals(2, tableStats.getUpdateCount());
+    assertEquals(1, tableStats.getDeleteCount());
+    assertEquals(1, tableStats.getEvictionCount());
+    assertEquals(1, tableStats.getExpirationCount());
+    assertEquals(0, tableStats.getEntryCount());
+    assertEquals(1, stats.getStats().size());
+  }
+
+  @Test
+  public void testHitRatioWithoutAccess() {
+    final MockTable table = new MockTable(schema, "t");
+    final CacheStats stats = new CacheStats().with(table);
+    assertEquals(1, stats.getStats(table).getHitRatio(), 0);
+    assertEquals(0, stats.getStats(table).getAverageLoadTime(), 0);
+  }
+
+  @Test
+  public void testLoadTimeHistogram() {
+    final MockTable table = new MockTable(schema, "t");
+    final CacheStats stats = new CacheStats();
+    stats.onLoad(table, 1, 500, true); // < 1us
+    stats.onLoad(table, 1, 1000, true); // 1us
+    stats.onLoad(table, 1, 3000, true); // 3us
+    stats.onLoad(table, 1, Long.MAX_VALUE, true);
+
+    final long[] histogram = stats.getStats(table).getLoadTimeHistogram();
+    assertEquals(CacheStats.TableStats.BUCKETS, histogram.length);
+    assertEquals(1, histogram[0]);
+    assertEquals(1, histogram[1]);
+    assertEquals(1, histogram[2]);
+    assertEquals(1, histogram[CacheStats.TableStats.BUCKETS - 1]);
+  }
+
+  @Test
+  public void testSeparateTables() {
+    final MockTable t1 = new MockTable(schema, "t1");
+    final MockTable t2 = new MockTable(schema, "t2");
+    final CacheStats stats = new CacheStats();
+    stats.onHit(t1);
+    stats.onMiss(t2);
+    assertEquals(1, stats.getStats(t1).getHitCount());
+    assertEquals(0, stats.getStats(t1).getMissCount());
+    assertEquals(0, stats.getStats(t2).getHitCount());
+    assertEquals(1, stats.getStats(t2).getMissCount());
+
+    // Rows of a table share the TableStats of the table name
+    stats.onHit(new MockTable(schema, "t1"));
+    assertEquals(2, stats.getStats(t1).getHitCount());
+    assertEquals(2, stats.getStats().size());
+  }
+
+  @Test
+  public void testRegisterMBeans() throws JMException {
+    final MockTable table = new MockTable(schema, "t");
+    final CacheStats stats = new CacheStats().with(table);
+    stats.onHit(table);
+
+    final MBeanServer server = MBeanServerFactory.newMBeanServer();
+    final ArrayList<ObjectName> names = stats.registerMBeans(server);
+    assertEquals(1, names.size());
+    final ObjectName name = names.get(0);
+    assertEquals(new ObjectName("org.jaxdb.jsql:type=CacheStats,table=\"t\""), name);
+    assertEquals("t", server.getAttribute(name, "TableName"));
+    assertEquals(1L, server.getAttribute(name, "HitCount"));
+
+    // An MBean that is already registered is skipped
+    assertEquals(0, stats.registerMBeans(server).size());
+
+    stats.unregisterMBeans(server);
+    assertFalse(server.isRegistered(name));
+
+    // An MBean that is not registered is skipped
+    stats.unregisterMBeans(server);
+
+    try {
+      stats.registerMBeans(null);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testBindTo() {
+    final MockTable table = new MockTable(schema, "t");
+    final CacheStats stats = new CacheStats().with(table);
+    final HashMap<String,DoubleSupplier> counters = new HashMap<>();
+    final HashMap<String,DoubleSupplier> gauges = new HashMap<>();
+    stats.bindTo(new CacheStats.Registry() {
+      @Override
+      public void counter(final String name, final String[] tags, final DoubleSupplier value) {
+        assertArrayEquals(new String[] {"table", "t"}, tags);
+        assertNull(counters.put(name, value));
+      }
+
+      @Override
+      public void gauge(final String name, final String[] tags, final DoubleSupplier value) {
+        assertArrayEquals(new String[] {"table", "t"}, tags);
+        assertNull(gauges.put(name, value));
+      }
+    });
+
+    assertEquals(13, counters.size());
+    assertEquals(2, gauges.size());
+
+    // The meters read the live values
+    assertEquals(0, counters.get("jaxdb.cache.hits").getAsDouble(), 0);
+    stats.onHit(table);
+    stats.onMiss(table);
+    assertEquals(1, counters.get("jaxdb.cache.hits").getAsDouble(), 0);
+    assertEquals(.5, gauges.get("jaxdb.cache.hit.ratio").getAsDouble(), 0);
+    assertEquals(0, gauges.get("jaxdb.cache.entries").getAsDouble(), 0);
+  }
+}
@@ -0,0 +1,124 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+
+import org.jaxdb.jsql.Notification.Action;
+import org.jaxdb.vendor.DbVendor;
+import org.junit.Test;
+
+public class CompactPayloadTest {
+  private static final ConnectorTest.MockSchema schema = new ConnectorTest.MockSchema();
+
+  static MockTable newTable() {
+    final data.Column<?>[] columns = new data.Column<?>[2];
+    final MockTable table = new MockTable(schema, "t", columns) {
+      @Override
+      public data.Table clone() {
+        return newTable();
+      }
+    };
+
+    columns[0] = new data.INT(table, true, "id", data.BTREE, false, null, false, null, null, null, null, null, null);
+    columns[1] = new data.CHAR(table, true, "name", null, false, null, true, null, null, null, 32, true);
+    return table;
+  }
+
+  private static void assertIllegalArgument(final String payload) {
+    try {
+      new CompactPayload(payload).readRows(DbVendor.POSTGRE_SQL, newTable());
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testIsCompact() {
+    assertTrue(CompactPayload.isCompact("~I,0,t,~"));
+    assertFalse(CompactPayload.isCompact("{\"action\":\"INSERT\"}"));
+    assertFalse(CompactPayload.isCompact(""));
+  }
+
+  @Test
+  public void testHeader() {
+    final String payload = "~U,1700000000000:42,t,=3:abc";
+    assertEquals("t", CompactPayload.getTableName(payload));
+
+    final CompactPayload compact = new CompactPayload(payload);
+    assertSame(Action.UPDATE, compact.action);
+    assertEquals(1700000000000L, compact.timestamp);
+    assertEquals(42, compact.seq);
+    assertEquals("abc", compact.sessionId);
+  }
+
+  @Test
+  public void testHeaderWithoutSequence() {
+    final String payload = "~D,1700000000000,my_table,~";
+    assertEquals("my_table", CompactPayload.getTableName(payload));
+
+    final CompactPayload compact = new CompactPayload(payload);
+    assertSame(Action.DELETE, compact.action);
+    assertEquals(1700000000000L, compact.timestamp);
+    assertEquals(-1, compact.seq);
+    assertNull(compact.sessionId);
+  }
+
+  @Test
+  public void testChangedColumnsOnly() {
+    // An UPGRADE sends the key of the old row, and the key and the changed columns of the current row
+    final CompactPayload compact = new CompactPayload("~G,5,t,~O0=1:7;C0=1:7;1=5:hello;K0=1:7;");
+    compact.readRows(DbVendor.POSTGRE_SQL, newTable());
+
+    final data.Column<?>[] old = compact.old._column$;
+    assertEquals(7, ((data.INT)old[0]).getAsInt());
+    assertTrue(old[1].isNull());
+
+    final data.Column<?>[] cur = compact.cur._column$;
+    assertEquals(7, ((data.INT)cur[0]).getAsInt());
+    assertEquals("hello", cur[1].get());
+    assertEquals(Collections.singletonMap("id", "7"), compact.keyForUpdate);
+  }
+
+  @Test
+  public void testNullAndCodePoints() {
+    // A length counts code points, as does char_length() in the DB, so a surrogate pair is 1 character of the value
+    final CompactPayload compact = new CompactPayload("~I,5,t,=2:😀s;C1~0=2:12;");
+    assertEquals("😀s", compact.sessionId);
+    compact.readRows(DbVendor.POSTGRE_SQL, newTable());
+
+    assertNull(compact.old);
+    assertNull(compact.keyForUpdate);
+    final data.Column<?>[] cur = compact.cur._column$;
+    assertEquals(12, ((data.INT)cur[0]).getAsInt());
+    assertTrue(cur[1].isNull());
+  }
+
+  @Test
+  public void testMalformed() {
+    assertIllegalArgument("~X,5,t,~");
+    assertIllegalArgument("~I5,t,~");
+    assertIllegalArgument("~I,5,t,*");
+    assertIllegalArgument("~I,5,t,=x:a");
+    assertIllegalArgument("~I,5,t,~Z0=1:7;");
+    assertIllegalArgument("~I,5,t,~C0=1x7;");
+    assertIllegalArgument("~I,5,t,~Ca=1:7;");
+  }
+}
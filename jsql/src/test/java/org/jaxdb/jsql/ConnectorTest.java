@@ -0,0 +1,252 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jaxdb.jsql.MockJdbc.MockConnection;
+import org.jaxdb.vendor.DbVendor;
+import org.junit.Test;
+
+public class ConnectorTest {
+  static class MockSchema extends Schema {
+    @Override
+    public String getName() {
+      return "mock";
+    }
+
+    @Override
+    public type.Table$ getTable(final String name) {
+      return null;
+    }
+
+    @Override
+    public type.Table$[] getTables() {
+      return new type.Table$[0];
+    }
+
+    @Override
+    public void setDefaultQueryConfig(final QueryConfig queryConfig) {
+    }
+  }
+
+  private static final class MockConnectionFactory implements ConnectionFactory {
+    private final String url = "jdbc:mock:" + UUID.randomUUID();
+    private final ArrayList<MockConnection> connections = new ArrayList<>();
+
+    @Override
+    public Connection getConnection(final Transaction.Isolation isolation) {
+      final MockConnection connection = new MockConnection("MySQL", url);
+      connections.add(connection);
+      return connection.connection;
+    }
+
+    int getMetaData() {
+      int count = 0;
+      for (final MockConnection connection : connections) // [L]
+        count += connection.getMetaData;
+
+      return count;
+    }
+  }
+
+  @Test
+  public void testVendorResolvedOnce() throws IOException, SQLException {
+    final MockConnectionFactory connectionFactory = new MockConnectionFactory();
+    final Connector connector = new MockSchema().connect(connectionFactory, false);
+
+    final Connection connection = connector.getConnection();
+    assertEquals(1, connectionFactory.getMetaData());
+    for (int i = 0; i < 10; ++i) // [N]
+      connector.getConnection();
+
+    assertEquals(1, connectionFactory.getMetaData());
+    assertSame(DbVendor.MY_SQL, connector.getVendor(connection));
+    assertSame(DbVendor.MY_SQL, Connector.getVendor(null, connector, connection));
+    assertEquals(1, connectionFactory.getMetaData());
+  }
+
+  @Test
+  public void testVendorFromConnection() throws IOException, SQLException {
+    final MockConnection connection = new MockConnection("MySQL", "jdbc:mock:" + UUID.randomUUID());
+    assertSame(DbVendor.MY_SQL, Connector.getVendor(null, null, connection.connection));
+    assertEquals(1, connection.getMetaData);
+  }
+
+  @Test
+  public void testInvalidate() throws IOException, SQLException {
+    final MockConnectionFactory connectionFactory = new MockConnectionFactory();
+    final Connector connector = new MockSchema().connect(connectionFactory, false);
+
+    connector.getConnection();
+    connector.getConnection();
+    assertEquals(1, connectionFactory.getMetaData());
+
+    connector.invalidate();
+    connector.getConnection();
+    connector.getConnection();
+    assertEquals(2, connectionFactory.getMetaData());
+  }
+
+  private static Connector newAsyncConnector(final ArrayDeque<Runnable> dispatched, final int concurrency) {
+    return new Connector(new MockSchema(), new MockConnectionFactory(), false) {
+      @Override
+      protected Executor getAsyncExecutor() {
+        return dispatched::add;
+      }
+
+      @Override
+      protected int getAsyncConcurrency() {
+        return concurrency;
+      }
+    };
+  }
+
+  @Test
+  public void testAsyncConcurrencyLimit() throws Exception {
+    final ArrayDeque<Runnable> dispatched = new ArrayDeque<>();
+    final Connector connector = newAsyncConnector(dispatched, 2);
+    final AtomicInteger called = new AtomicInteger();
+
+    final ArrayList<CompletableFuture<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < 6; ++i) { // [N]
+      final int value = i;
+      futures.add(connector.submit(() -> {
+        called.incrementAndGet();
+        return value;
+      }));
+    }
+
+    // Only as many executions as there are permits are dispatched, and the rest are queued without occupying a thread
+    assertEquals(2, dispatched.size());
+
+    // A queued execution that is cancelled is not called, and does not hold a permit
+    futures.get(3).cancel(false);
+
+    for (Runnable task; (task = dispatched.poll()) != null;) { // [X]
+      task.run();
+      assertTrue(dispatched.size() <= 2);
+    }
+
+    assertEquals(5, called.get());
+    for (int i = 0; i < futures.size(); ++i) { // [RA]
+      final CompletableFuture<Integer> future = futures.get(i);
+      assertTrue(future.isDone());
+      if (i == 3)
+        assertTrue(future.isCancelled());
+      else
+        assertEquals(Integer.valueOf(i), future.get());
+    }
+
+    // All permits are released
+    connector.submit(() -> 0);
+    connector.submit(() -> 1);
+    assertEquals(2, dispatched.size());
+  }
+
+  @Test
+  public void testAsyncDefaultConcurrency() {
+    final ArrayDeque<Runnable> dispatched = new ArrayDeque<>();
+    final Connector connector = new Connector(new MockSchema(), new MockConnectionFactory(), false) {
+      @Override
+      protected Executor getAsyncExecutor() {
+        return dispatched::add;
+      }
+    };
+
+    // The concurrency is limited by default
+    for (int i = 0; i <= Connector.DEFAULT_ASYNC_CONCURRENCY; ++i) // [N]
+      connector.submit(() -> 0);
+
+    assertEquals(Connector.DEFAULT_ASYNC_CONCURRENCY, dispatched.size());
+  }
+
+  @Test
+  public void testAsyncRowIteratorHoldsPermit() throws Exception {
+    final ArrayDeque<Runnable> dispatched = new ArrayDeque<>();
+    final Connector connector = newAsyncConnector(dispatched, 1);
+
+    final CompletableFuture<RowIterator<type.Entity>> select = connector.submit(() -> new RowIterator<type.Entity>(null) {
+      @Override
+      public boolean nextRow() {
+        return false;
+      }
+
+      @Override
+      public void close() {
+        final Runnable onClose = this.onClose;
+        if (onClose != null) {
+          this.onClose = null;
+          onClose.run();
+        }
+      }
+    });
+    final CompletableFuture<Integer> update = connector.submit(() -> 1);
+
+    assertEquals(1, dispatched.size());
+    dispatched.poll().run();
+
+    // The RowIterator holds the permit until it is closed, so the next execution is not yet dispatched
+    final RowIterator<type.Entity> rows = select.get();
+    assertEquals(0, dispatched.size());
+    assertFalse(update.isDone());
+
+    rows.close();
+    rows.close();
+    assertEquals(1, dispatched.size());
+    dispatched.poll().run();
+    assertEquals(Integer.valueOf(1), update.get());
+    assertEquals(0, dispatched.size());
+  }
+
+  @Test
+  public void testOnNotifyWithReplicationSlot() {
+    final MockSchema schema = new MockSchema() {
+      private final Connector connector = new Connector(this, new MockConnectionFactory(), false) {
+        @Override
+        protected String getReplicationSlot() {
+          return "jaxdb";
+        }
+      };
+
+      @Override
+      public Connector getConnector() {
+        return connector;
+      }
+    };
+
+    // The changes of a replication slot have no session id, so onNotify is rejected before the statement is executed
+    try {
+      schema.awaitNotify(UUID.randomUUID().toString(), null);
+      fail("Expected UnsupportedOperationException");
+    }
+    catch (final UnsupportedOperationException e) {
+    }
+
+    assertNull(schema.getSession("jaxdb"));
+  }
+}
@@ -0,0 +1,141 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class LongKeyIndexTest {
+  private static final MockTable table = new MockTable(new ConnectorTest.MockSchema(), "t");
+
+  private static data.INT newInt() {
+    return new data.INT(table, true, "id", data.BTREE, false, null, true, null, null, null, null, null, null);
+  }
+
+  @Test
+  public void testColumnType() {
+    try {
+      new LongKeyIndex<>(new data.CHAR(table, true, "id", data.BTREE, false, null, true, null, null, null, 1, false));
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+
+    assertEquals(Long.valueOf(Long.MAX_VALUE), new LongKeyIndex<>(new data.BIGINT(table, true, "id", data.BTREE, false, null, true, null, null, null, null, null, null)).key(Long.MAX_VALUE).value(0));
+    assertEquals(Integer.valueOf(-5), new LongKeyIndex<>(newInt()).key(-5).value(0));
+    assertEquals(Short.valueOf((short)5), new LongKeyIndex<>(new data.SMALLINT(table, true, "id", data.BTREE, false, null, true, null, null, null, null, null, null)).key(5).value(0));
+    assertEquals(Byte.valueOf((byte)5), new LongKeyIndex<>(new data.TINYINT(table, true, "id", data.BTREE, false, null, true, null, null, null, null, null, null)).key(5).value(0));
+  }
+
+  @Test
+  public void testPutGetRemove() {
+    final LongKeyIndex<String> index = new LongKeyIndex<>(newInt());
+    assertNull(index.get(1));
+
+    index.put(index.key(1), "a");
+    index.put(index.key(-1), "b");
+    assertEquals("a", index.get(1));
+    assertEquals("b", index.get(-1));
+    assertNull(index.get(2));
+
+    // A put of a present key replaces its value
+    index.put(index.key(1), "c");
+    assertEquals("c", index.get(1));
+
+    index.remove(index.key(1));
+    assertNull(index.get(1));
+    assertEquals("b", index.get(-1));
+
+    // A removal of an absent key, and a key with a null value, are ignored
+    index.remove(index.key(2));
+    index.put(data.Key.with(new data.Column<?>[] {newInt()}, (Object)null), "d");
+    assertEquals("b", index.get(-1));
+  }
+
+  @Test
+  public void testRebuild() {
+    final LongKeyIndex<Long> index = new LongKeyIndex<>(newInt());
+    final int size = 10000;
+    for (long i = 0; i < size; ++i) // [N]
+      index.put(index.key(i), i);
+
+    for (long i = 0; i < size; ++i) // [N]
+      assertEquals(Long.valueOf(i), index.get(i));
+
+    for (long i = 0; i < size; i += 2) // [N]
+      index.remove(index.key(i));
+
+    for (long i = 0; i < size; ++i) // [N]
+      assertEquals(i % 2 == 0 ? null : Long.valueOf(i), index.get(i));
+
+    // The tombstones of removed keys are reused or purged by a rebuild, and do not break the probe of present keys
+    for (int j = 0; j < 10; ++j) { // [N]
+      for (long i = 0; i < size; i += 2) // [N]
+        index.put(index.key(i), i);
+
+      for (long i = 0; i < size; i += 2) // [N]
+        index.remove(index.key(i));
+    }
+
+    for (long i = 0; i < size; ++i) // [N]
+      assertEquals(i % 2 == 0 ? null : Long.valueOf(i), index.get(i));
+  }
+
+  @Test
+  public void testConcurrentGet() throws InterruptedException {
+    final LongKeyIndex<Long> index = new LongKeyIndex<>(newInt());
+    final int size = 1000;
+    for (long i = 0; i < size; i += 2) // [N]
+      index.put(index.key(i), i);
+
+    final AtomicBoolean done = new AtomicBoolean();
+    final ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+    final Thread[] readers = new Thread[4];
+    for (int r = 0; r < readers.length; ++r) { // [A]
+      readers[r] = new Thread(() -> {
+        while (!done.get()) {
+          for (long i = 0; i < size; ++i) { // [N]
+            final Long value = index.get(i);
+            // An odd key is concurrently put and removed, but an even key is always present
+            if (value != null ? value != i : i % 2 == 0)
+              errors.add(i + ": " + value);
+          }
+        }
+      });
+      readers[r].start();
+    }
+
+    // Puts and removals of the odd keys rebuild the table while it is read
+    for (int j = 0; j < 100; ++j) { // [N]
+      for (long i = 1; i < size; i += 2) // [N]
+        index.put(index.key(i), i);
+
+      for (long i = 1; i < size; i += 2) // [N]
+        index.remove(index.key(i));
+    }
+
+    done.set(true);
+    for (final Thread reader : readers) // [A]
+      reader.join();
+
+    assertTrue(errors.toString(), errors.isEmpty());
+  }
+}
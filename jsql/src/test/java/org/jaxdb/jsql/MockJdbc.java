@@ -0,0 +1,196 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Minimal {@link Connection} and {@link PreparedStatement} fakes, backed by {@link Proxy}, for unit tests that exercise JDBC
+ * plumbing without a database. Every method that is not explicitly handled returns the default value of its return type.
+ */
+final class MockJdbc {
+  private static Object defaultValue(final Class<?> type) {
+    if (!type.isPrimitive() || type == void.class)
+      return null;
+
+    if (type == boolean.class)
+      return Boolean.FALSE;
+
+    if (type == char.class)
+      return '\0';
+
+    if (type == long.class)
+      return 0L;
+
+    if (type == float.class)
+      return 0f;
+
+    if (type == double.class)
+      return 0d;
+
+    if (type == byte.class)
+      return (byte)0;
+
+    if (type == short.class)
+      return (short)0;
+
+    return 0;
+  }
+
+  private abstract static class Handler implements InvocationHandler {
+    boolean closed;
+
+    abstract Object handle(Object proxy, String name, Object[] args) throws Throwable;
+
+    @Override
+    public final Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+      final String name = method.getName();
+      if ("equals".equals(name))
+        return proxy == args[0];
+
+      if ("hashCode".equals(name))
+        return System.identityHashCode(proxy);
+
+      if ("toString".equals(name))
+        return getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+
+      if ("close".equals(name)) {
+        closed = true;
+        return null;
+      }
+
+      if ("isClosed".equals(name))
+        return closed;
+
+      final Object result = handle(proxy, name, args);
+      return result != null ? result : defaultValue(method.getReturnType());
+    }
+  }
+
+  /**
+   * Returns a {@link ResultSet} of one column with the provided label, of which the rows are the provided values.
+   */
+  static ResultSet newResultSet(final String label, final String ... values) {
+    final int[] row = {-1};
+    return (ResultSet)Proxy.newProxyInstance(MockJdbc.class.getClassLoader(), new Class<?>[] {ResultSet.class}, (final Object p, final Method m, final Object[] a) -> {
+      final String n = m.getName();
+      if ("next".equals(n))
+        return ++row[0] < values.length;
+
+      if ("getString".equals(n) && label.equals(a[0]))
+        return values[row[0]];
+
+      return defaultValue(m.getReturnType());
+    });
+  }
+
+  static class MockStatement extends Handler {
+    final String sql;
+    final PreparedStatement statement;
+    int clearParameters;
+    int executeUpdate;
+
+    MockStatement(final String sql) {
+      this.sql = sql;
+      this.statement = (PreparedStatement)Proxy.newProxyInstance(MockJdbc.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, this);
+    }
+
+    @Override
+    Object handle(final Object proxy, final String name, final Object[] args) throws Throwable {
+      if ("clearParameters".equals(name))
+        ++clearParameters;
+      else if ("executeUpdate".equals(name))
+        return ++executeUpdate;
+
+      return null;
+    }
+  }
+
+  static class MockConnection extends Handler {
+    final ArrayList<MockStatement> statements = new ArrayList<>();
+    final Connection connection;
+    final String productName;
+    final String url;
+    int getMetaData;
+    int getImportedKeys;
+    // The names of the tables referenced by the foreign keys of each table, as returned by DatabaseMetaData.getImportedKeys(...)
+    final HashMap<String,String[]> importedKeys = new HashMap<>();
+    // The names of the tables that exist, as returned by DatabaseMetaData.getTables(...)
+    final HashSet<String> tables = new HashSet<>();
+
+    MockConnection() {
+      this("MySQL", "jdbc:mock:");
+    }
+
+    MockConnection(final String productName, final String url) {
+      this.productName = productName;
+      this.url = url;
+      this.connection = (Connection)Proxy.newProxyInstance(MockJdbc.class.getClassLoader(), new Class<?>[] {Connection.class}, this);
+    }
+
+    MockStatement newStatement(final String sql) {
+      return new MockStatement(sql);
+    }
+
+    MockStatement get(final PreparedStatement statement) {
+      for (final MockStatement mock : statements) // [L]
+        if (mock.statement == statement)
+          return mock;
+
+      return null;
+    }
+
+    @Override
+    Object handle(final Object proxy, final String name, final Object[] args) throws Throwable {
+      if ("prepareStatement".equals(name) || "createStatement".equals(name)) {
+        final MockStatement statement = newStatement("prepareStatement".equals(name) ? (String)args[0] : null);
+        statements.add(statement);
+        return statement.statement;
+      }
+
+      if ("getMetaData".equals(name)) {
+        ++getMetaData;
+        return Proxy.newProxyInstance(MockJdbc.class.getClassLoader(), new Class<?>[] {DatabaseMetaData.class}, (final Object p, final Method m, final Object[] a) -> {
+          final String n = m.getName();
+          if ("getImportedKeys".equals(n)) {
+            ++getImportedKeys;
+            return newResultSet("PKTABLE_NAME", importedKeys.getOrDefault((String)a[2], new String[0]));
+          }
+
+          if ("getTables".equals(n))
+            return newResultSet("TABLE_NAME", tables.contains(a[2]) ? new String[] {(String)a[2]} : new String[0]);
+
+          return "getDatabaseProductName".equals(n) ? productName : "getURL".equals(n) ? url : "getConnection".equals(n) ? connection : defaultValue(m.getReturnType());
+        });
+      }
+
+      return null;
+    }
+  }
+
+  private MockJdbc() {
+  }
+}
@@ -0,0 +1,126 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link data.Table} that supports only the methods that are called by the cache, and that counts the times it is evicted.
+ */
+class MockTable extends data.Table implements type.Table$ {
+  final Schema schema;
+  final String name;
+  final long weight;
+  final AtomicInteger evicted = new AtomicInteger();
+  final CacheMap<MockTable> cache;
+
+  MockTable(final Schema schema, final String name, final long weight) {
+    this.schema = schema;
+    this.name = name;
+    this.weight = weight;
+    this.cache = null;
+  }
+
+  MockTable(final Schema schema, final String name) {
+    this(schema, name, 0);
+  }
+
+  /**
+   * Creates a {@link MockTable} with the provided columns, which are to be set by the caller with {@code this} as their owner, and
+   * with an empty cache.
+   */
+  MockTable(final Schema schema, final String name, final data.Column<?>[] columns) {
+    this(schema, name, columns, new data.Column<?>[0]);
+  }
+
+  /**
+   * Creates a {@link MockTable} with the provided columns and primary columns, which are to be set by the caller with {@code this}
+   * as their owner, and with an empty cache.
+   */
+  MockTable(final Schema schema, final String name, final data.Column<?>[] columns, final data.Column<?>[] primary) {
+    super(true, false, columns, primary, new data.Column<?>[0], new data.Column<?>[0]);
+    this.schema = schema;
+    this.name = name;
+    this.weight = 0;
+    this.cache = new OneToOneHashMap<>(this);
+  }
+
+  @Override
+  void _commitEvict$() {
+    evicted.incrementAndGet();
+  }
+
+  @Override
+  Schema getSchema() {
+    return schema;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  protected void toString(final boolean wasCuedOnly, final StringBuilder s) {
+    s.append(name);
+  }
+
+  @Override
+  data.Table singleton() {
+    return this;
+  }
+
+  @Override
+  CacheMap<? extends data.Table> getCache() {
+    return cache;
+  }
+
+  @Override
+  data.Table newInstance() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int hashCode() {
+    return System.identityHashCode(this);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return obj == this;
+  }
+
+  @Override
+  data.Table clone(final boolean _mutable$) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public data.Table clone() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  String[] _columnName$() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  byte[] _columnIndex$() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,53 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import org.jaxdb.vendor.DbVendor;
+import org.junit.Test;
+
+public class MultiRowInsertTest {
+  @Test
+  public void testMaxInsertParameters() {
+    assertEquals(32767, Compiler.getCompiler(DbVendor.POSTGRE_SQL).getMaxInsertParameters());
+    assertEquals(65535, Compiler.getCompiler(DbVendor.MY_SQL).getMaxInsertParameters());
+    assertEquals(65535, Compiler.getCompiler(DbVendor.MARIA_DB).getMaxInsertParameters());
+    assertEquals(999, Compiler.getCompiler(DbVendor.SQLITE).getMaxInsertParameters());
+
+    // INSERTs are not rewritten for vendors that do not support multi-row INSERTs
+    assertEquals(0, Compiler.getCompiler(DbVendor.DERBY).getMaxInsertParameters());
+    assertEquals(0, Compiler.getCompiler(DbVendor.ORACLE).getMaxInsertParameters());
+  }
+
+  @Test
+  public void testCompileMultiRowInsert() {
+    final Compiler compiler = Compiler.getCompiler(DbVendor.POSTGRE_SQL);
+    final String sql = "INSERT INTO \"t\" (\"id\", \"a\", \"b\") VALUES (DEFAULT, ?, ?)";
+    assertEquals(sql, compiler.compileMultiRowInsert(sql, 1));
+    assertEquals("INSERT INTO \"t\" (\"id\", \"a\", \"b\") VALUES (DEFAULT, ?, ?), (DEFAULT, ?, ?), (DEFAULT, ?, ?)", compiler.compileMultiRowInsert(sql, 3));
+  }
+
+  @Test
+  public void testCompileMultiRowInsertWithoutValues() {
+    final Compiler compiler = Compiler.getCompiler(DbVendor.POSTGRE_SQL);
+
+    // An INSERT that returns its generated keys, or that inserts the result of a SELECT, is not rewritten
+    assertNull(compiler.compileMultiRowInsert("INSERT INTO \"t\" (\"a\") VALUES (?) RETURNING \"id\"", 2));
+    assertNull(compiler.compileMultiRowInsert("INSERT INTO \"t\" (\"a\") SELECT \"a\" FROM \"u\"", 2));
+  }
+}
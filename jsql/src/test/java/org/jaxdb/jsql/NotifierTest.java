@@ -0,0 +1,510 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.jaxdb.jsql.Notification.Action;
+import org.jaxdb.vendor.DbVendor;
+import org.junit.Test;
+
+public class NotifierTest {
+  private static final ConnectorTest.MockSchema schema = new ConnectorTest.MockSchema();
+
+  static class MockNotifier extends Notifier<Object> {
+    long sequence = -1;
+
+    MockNotifier(final Executor executor, final int queueCapacity) throws SQLException {
+      this(executor, queueCapacity, null);
+    }
+
+    MockNotifier(final Executor executor, final int queueCapacity, final Predicate<data.Table> isCoalesce) throws SQLException {
+      super(DbVendor.POSTGRE_SQL, new MockJdbc.MockConnection().connection, (final Transaction.Isolation isolation) -> new MockJdbc.MockConnection().connection, null, executor, queueCapacity, isCoalesce);
+    }
+
+    @Override
+    void checkCreateTriggers(final Statement statement, final data.Table[] tables, final Action[][] actionSets) {
+    }
+
+    @Override
+    void listenTriggers(final Statement statement) {
+    }
+
+    @Override
+    void start(final Connection connection) throws IOException, SQLException {
+    }
+
+    @Override
+    void tryReconnect(final Connection connection, final Object listener) {
+    }
+
+    @Override
+    long selectSequence(final Connection connection, final data.Table table) {
+      return sequence;
+    }
+
+    @Override
+    protected void stop() {
+    }
+  }
+
+  /**
+   * Records the rows of the received notifications, and the table of each resync, in the order they are dispatched.
+   */
+  static class MockListener implements Notification.InsertListener<MockTable> {
+    final LinkedBlockingQueue<data.Table> events = new LinkedBlockingQueue<>();
+
+    @Override
+    public MockTable onInsert(final String sessionId, final long timestamp, final MockTable row) {
+      events.add(row);
+      return row;
+    }
+
+    @Override
+    public void onResync(final MockTable table) {
+      events.add(table);
+    }
+
+    data.Table next() throws InterruptedException {
+      final data.Table event = events.poll(10, TimeUnit.SECONDS);
+      assertNotNull(event);
+      return event;
+    }
+  }
+
+  private static MockTable[] rows(final int size) {
+    final MockTable[] rows = new MockTable[size];
+    for (int i = 0; i < size; ++i) // [A]
+      rows[i] = new MockTable(schema, "t");
+
+    return rows;
+  }
+
+  @Test(timeout = 30000)
+  public void testDropAndResyncAtCapacity() throws InterruptedException, IOException, SQLException {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final CountDownLatch dispatching = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final MockTable table = new MockTable(schema, "t");
+    final MockTable[] rows = rows(6);
+    final MockListener listener = new MockListener() {
+      @Override
+      public MockTable onInsert(final String sessionId, final long timestamp, final MockTable row) {
+        if (row == rows[0]) {
+          dispatching.countDown();
+          try {
+            release.await();
+          }
+          catch (final InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+        }
+
+        return super.onInsert(sessionId, timestamp, row);
+      }
+    };
+
+    try (final MockNotifier notifier = new MockNotifier(executor, 2)) {
+      assertTrue(notifier.addNotificationListener(Action.INSERT, null, null, listener, new ConcurrentLinkedQueue<>(), table));
+      assertTrue(notifier.isStarted());
+
+      // The listener blocks on the 1st notification, after it was dequeued
+      notifier.notify(rows[0], null, 0, Action.INSERT);
+      assertTrue(dispatching.await(10, TimeUnit.SECONDS));
+
+      // The 2nd and 3rd notifications fill the queue, and the 4th and 5th are dropped without blocking the calling thread
+      for (int i = 1; i < 5; ++i) // [A]
+        notifier.notify(rows[i], null, 0, Action.INSERT);
+
+      NotifierStats stats = notifier.getStats();
+      assertEquals(2, stats.getQueueDepth());
+      assertEquals(2, stats.getDroppedCount());
+      assertEquals(0, stats.getResyncCount());
+
+      // The table is resynced after the notifications that were queued before the dropped ones
+      release.countDown();
+      assertSame(rows[0], listener.next());
+      assertSame(rows[1], listener.next());
+      assertSame(rows[2], listener.next());
+      assertSame(table, listener.next());
+
+      // Notifications are queued again after the resync
+      notifier.notify(rows[5], null, 0, Action.INSERT);
+      assertSame(rows[5], listener.next());
+
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+      assertTrue(listener.events.isEmpty());
+
+      stats = notifier.getStats();
+      assertEquals(2, stats.getDroppedCount());
+      assertEquals(1, stats.getResyncCount());
+      assertEquals(5, stats.getDispatchedCount());
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(timeout = 30000)
+  public void testTablesDrainInParallel() throws InterruptedException, IOException, SQLException {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    final CountDownLatch dispatching = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final MockTable t1 = new MockTable(schema, "t1");
+    final MockTable t2 = new MockTable(schema, "t2");
+    final MockTable[] rows1 = {new MockTable(schema, "t1"), new MockTable(schema, "t1"), new MockTable(schema, "t1")};
+    final MockTable[] rows2 = {new MockTable(schema, "t2"), new MockTable(schema, "t2"), new MockTable(schema, "t2")};
+    final MockListener listener1 = new MockListener() {
+      @Override
+      public MockTable onInsert(final String sessionId, final long timestamp, final MockTable row) {
+        if (row == rows1[0]) {
+          dispatching.countDown();
+          try {
+            release.await();
+          }
+          catch (final InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+        }
+
+        return super.onInsert(sessionId, timestamp, row);
+      }
+    };
+    final MockListener listener2 = new MockListener();
+
+    try (final MockNotifier notifier = new MockNotifier(executor, 0)) {
+      assertTrue(notifier.addNotificationListener(Action.INSERT, null, null, listener1, new ConcurrentLinkedQueue<>(), t1));
+      assertTrue(notifier.addNotificationListener(Action.INSERT, null, null, listener2, new ConcurrentLinkedQueue<>(), t2));
+
+      // The listener of t1 blocks on the 1st notification of t1
+      notifier.notify(rows1[0], null, 0, Action.INSERT);
+      assertTrue(dispatching.await(10, TimeUnit.SECONDS));
+      for (int i = 1; i < rows1.length; ++i) // [A]
+        notifier.notify(rows1[i], null, 0, Action.INSERT);
+
+      // The notifications of t2 are dispatched while t1 is blocked, in the order they were received
+      for (final MockTable row : rows2) // [A]
+        notifier.notify(row, null, 0, Action.INSERT);
+
+      for (final MockTable row : rows2) // [A]
+        assertSame(row, listener2.next());
+
+      assertTrue(listener1.events.isEmpty());
+
+      // Once t1 is released, its notifications are dispatched in the order they were received
+      release.countDown();
+      for (final MockTable row : rows1) // [A]
+        assertSame(row, listener1.next());
+
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+      assertTrue(listener1.events.isEmpty());
+      assertTrue(listener2.events.isEmpty());
+      assertEquals(rows1.length + rows2.length, notifier.getStats().getDispatchedCount());
+    }
+    finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(timeout = 30000)
+  public void testNoDrainBeforeStarted() throws IOException, SQLException {
+    final MockTable table = new MockTable(schema, "t");
+    final MockListener listener = new MockListener();
+    final boolean[] isEmptyOnStart = new boolean[1];
+
+    // A synchronous executor, on which a drain that is not gated by the state of the Notifier dispatches immediately
+    try (final MockNotifier notifier = new MockNotifier(Runnable::run, 0) {
+      @Override
+      void start(final Connection connection) throws IOException, SQLException {
+        // A change was committed between the initial sequence and the start, so the (re)connect resyncs the table
+        ++sequence;
+        reconnect(connection, null);
+        isEmptyOnStart[0] = listener.events.isEmpty();
+      }
+    }) {
+      notifier.sequence = 1;
+      assertTrue(notifier.addNotificationListener(Action.INSERT, null, null, listener, new ConcurrentLinkedQueue<>(), table));
+
+      // The resync was queued before the Notifier was started, and is dispatched once it is started
+      assertTrue(isEmptyOnStart[0]);
+      assertEquals(1, listener.events.size());
+      assertSame(table, listener.events.poll());
+      assertEquals(1, notifier.getStats().getResyncCount());
+    }
+  }
+
+  /**
+   * Returns a {@link MockNotifier} that is started by a reconnect, and of which the current change sequence of {@code table} in
+   * the DB is {@link MockNotifier#sequence}, and of other tables is {@code 1}.
+   */
+  private static MockNotifier newSequencedNotifier(final MockTable table) throws SQLException {
+    return new MockNotifier(Runnable::run, 0) {
+      @Override
+      void start(final Connection connection) throws IOException, SQLException {
+        reconnect(connection, null);
+      }
+
+      @Override
+      long selectSequence(final Connection connection, final data.Table t) {
+        return t == table ? sequence : 1;
+      }
+    };
+  }
+
+  @Test(timeout = 30000)
+  public void testResyncOutstandingGapsOnReconnect() throws IOException, SQLException {
+    final MockTable table = CompactPayloadTest.newTable();
+    final MockTable other = new MockTable(schema, "u");
+    final MockListener listener = new MockListener();
+    try (final MockNotifier notifier = newSequencedNotifier(table)) {
+      notifier.sequence = 1;
+      assertTrue(notifier.addNotificationListener(Action.INSERT, null, null, listener, new ConcurrentLinkedQueue<>(), table, other));
+      assertTrue(listener.events.isEmpty());
+
+      // Sequence 3 is received, and sequence 2 is outstanding
+      notifier.notify("t", "~I,5:3,t,~C0=1:3;");
+      assertEquals(3, ((data.INT)listener.events.poll()._column$[0]).getAsInt());
+
+      // No change was committed after sequence 3, but the notification of sequence 2 may have been lost while disconnected, so
+      // the table with the outstanding gap is resynced upon reconnect, and the other table is not
+      notifier.sequence = 3;
+      notifier.reconnect(new MockJdbc.MockConnection().connection, null);
+      assertSame(table, listener.events.poll());
+      assertTrue(listener.events.isEmpty());
+      assertEquals(1, notifier.getStats().getResyncCount());
+
+      // The gap is cleared by the resync
+      notifier.reconnect(new MockJdbc.MockConnection().connection, null);
+      assertTrue(listener.events.isEmpty());
+      assertEquals(1, notifier.getStats().getResyncCount());
+    }
+  }
+
+  @Test(timeout = 30000)
+  public void testNoResyncOfResolvedGapsOnReconnect() throws IOException, SQLException {
+    final MockTable table = CompactPayloadTest.newTable();
+    final MockListener listener = new MockListener();
+    try (final MockNotifier notifier = newSequencedNotifier(table)) {
+      notifier.sequence = 1;
+      assertTrue(notifier.addNotificationListener(Action.INSERT, null, null, listener, new ConcurrentLinkedQueue<>(), table));
+
+      // Sequence 3 is received before sequence 2, which resolves the gap
+      notifier.notify("t", "~I,5:3,t,~C0=1:3;");
+      notifier.notify("t", "~I,5:2,t,~C0=1:2;");
+      assertEquals(3, ((data.INT)listener.events.poll()._column$[0]).getAsInt());
+      assertEquals(2, ((data.INT)listener.events.poll()._column$[0]).getAsInt());
+
+      notifier.sequence = 3;
+      notifier.reconnect(new MockJdbc.MockConnection().connection, null);
+      assertTrue(listener.events.isEmpty());
+      assertEquals(0, notifier.getStats().getResyncCount());
+
+      // A change that was committed while disconnected resyncs the table
+      notifier.sequence = 4;
+      notifier.reconnect(new MockJdbc.MockConnection().connection, null);
+      assertSame(table, listener.events.poll());
+      assertEquals(1, notifier.getStats().getResyncCount());
+    }
+  }
+
+  /**
+   * A row of the table "t" with the primary key "id", of which the clone copies the values, and the merge copies the set values, as
+   * do the generated tables.
+   */
+  private static final class Row extends MockTable {
+    private final data.INT id;
+    private final data.CHAR name;
+
+    private Row(final Row copy) {
+      super(NotifierTest.schema, "t", new data.Column<?>[2], new data.Column<?>[1]);
+      if (copy == null) {
+        id = new data.INT(this, true, "id", data.BTREE, false, null, false, null, null, null, null, null, null);
+        name = new data.CHAR(this, true, "name", null, false, null, true, null, null, null, 32, true);
+      }
+      else {
+        id = new data.INT(this, true, copy.id);
+        name = new data.CHAR(this, true, copy.name);
+      }
+
+      _column$[0] = _primary$[0] = id;
+      _column$[1] = name;
+    }
+
+    @Override
+    void _merge$(final data.Table table, final boolean checkMutable) {
+      super._merge$(table, checkMutable);
+      final Row t = (Row)table;
+      if (t.id.setByCur != null)
+        id.copy(t.id);
+
+      if (t.name.setByCur != null)
+        name.copy(t.name);
+    }
+
+    @Override
+    public Row clone() {
+      return new Row(this);
+    }
+  }
+
+  /**
+   * Records each dispatched change as "ACTION id name", where the name of an update is "old>cur".
+   */
+  private static final class ChangeListener implements Notification.InsertListener<Row>, Notification.UpdateListener<Row>, Notification.DeleteListener<Row> {
+    private final ArrayList<String> events = new ArrayList<>();
+
+    @Override
+    public Row onInsert(final String sessionId, final long timestamp, final Row row) {
+      events.add("INSERT " + row.id.get() + " " + row.name.get());
+      return row;
+    }
+
+    @Override
+    public Row onUpdate(final String sessionId, final long timestamp, final Row row, final Map<String,String> keyForUpdate) {
+      events.add("UPDATE " + row.id.getOld() + ">" + row.id.get() + " " + row.name.getOld() + ">" + row.name.get());
+      return row;
+    }
+
+    @Override
+    public Row onDelete(final String sessionId, final long timestamp, final Row row) {
+      events.add("DELETE " + row.id.get() + " " + row.name.get());
+      return row;
+    }
+  }
+
+  /**
+   * Sends the provided compact payloads of the table "t" to a {@link MockNotifier} that coalesces the notifications of "t", and
+   * dispatches them only after all have been queued.
+   *
+   * @return The {@link MockNotifier}, which is closed.
+   */
+  private static MockNotifier coalesce(final ChangeListener listener, final String ... payloads) throws IOException, SQLException {
+    final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    try (final MockNotifier notifier = new MockNotifier(tasks::add, 0, (final data.Table t) -> "t".equals(t.getName()))) {
+      assertTrue(notifier.addNotificationListener(Action.INSERT, Action.UPDATE, Action.DELETE, listener, new ConcurrentLinkedQueue<>(), new Row(null)));
+      for (final String payload : payloads) // [A]
+        notifier.notify("t", payload);
+
+      assertTrue(listener.events.isEmpty());
+      for (Runnable task; (task = tasks.poll()) != null;) // [X]
+        task.run();
+
+      return notifier;
+    }
+  }
+
+  @Test
+  public void testCoalesceInsertAndUpdate() throws IOException, SQLException {
+    final ChangeListener listener = new ChangeListener();
+    final MockNotifier notifier = coalesce(listener,
+      "~I,1,t,~C0=1:1;1=1:a;",
+      "~U,2,t,~O0=1:1;C0=1:1;1=1:b;K0=1:1;",
+      "~G,3,t,~O0=1:1;C0=1:1;1=1:c;K0=1:1;");
+
+    assertEquals(Arrays.asList("INSERT 1 c"), listener.events);
+    assertEquals(2, notifier.getStats().getCoalescedCount());
+    assertEquals(1, notifier.getStats().getDispatchedCount());
+    assertEquals(3, notifier.getLastTimestamp());
+  }
+
+  @Test
+  public void testCoalesceUpdates() throws IOException, SQLException {
+    final ChangeListener listener = new ChangeListener();
+    final MockNotifier notifier = coalesce(listener,
+      "~U,1,t,~O0=1:1;1=1:a;C0=1:1;1=1:b;K0=1:1;",
+      "~U,2,t,~O0=1:2;1=1:x;C0=1:2;1=1:y;K0=1:2;",
+      "~U,3,t,~O0=1:1;1=1:b;C0=1:1;1=1:c;K0=1:1;");
+
+    // The old row of the 1st update, and the current row of the 2nd update of the same key
+    assertEquals(Arrays.asList("UPDATE 1>1 a>c", "UPDATE 2>2 x>y"), listener.events);
+    assertEquals(1, notifier.getStats().getCoalescedCount());
+  }
+
+  @Test
+  public void testCoalesceDelete() throws IOException, SQLException {
+    final ChangeListener listener = new ChangeListener();
+    final MockNotifier notifier = coalesce(listener,
+      "~I,1,t,~C0=1:1;1=1:a;",
+      "~U,2,t,~O0=1:1;C0=1:1;1=1:b;K0=1:1;",
+      "~D,3,t,~O0=1:1;1=1:b;",
+      "~I,4,t,~C0=1:1;1=1:c;");
+
+    // A DELETE is not followed by an INSERT of the same key
+    assertEquals(Arrays.asList("DELETE 1 b", "INSERT 1 c"), listener.events);
+    assertEquals(2, notifier.getStats().getCoalescedCount());
+  }
+
+  @Test
+  public void testNoCoalesceOfPrimaryKeyChange() throws IOException, SQLException {
+    final ChangeListener listener = new ChangeListener();
+    final MockNotifier notifier = coalesce(listener,
+      "~U,1,t,~O0=1:1;1=1:a;C0=1:1;1=1:b;K0=1:1;",
+      "~U,2,t,~O0=1:1;1=1:b;C0=1:2;K0=1:1;",
+      "~U,3,t,~O0=1:2;1=1:b;C0=1:2;1=1:c;K0=1:2;");
+
+    // The change of the key is not merged into the queued update of the old key, but the update of the new key is merged into it
+    assertEquals(Arrays.asList("UPDATE 1>1 a>b", "UPDATE 1>2 b>c"), listener.events);
+    assertEquals(1, notifier.getStats().getCoalescedCount());
+  }
+
+  @Test
+  public void testNoCoalesceWithSessionId() throws IOException, SQLException {
+    final ChangeListener listener = new ChangeListener();
+    final MockNotifier notifier = coalesce(listener,
+      "~I,1,t,=1:s;C0=1:1;1=1:a;",
+      "~U,2,t,=1:s;O0=1:1;1=1:a;C0=1:1;1=1:b;K0=1:1;");
+
+    assertEquals(Arrays.asList("INSERT 1 a", "UPDATE 1>1 a>b"), listener.events);
+    assertEquals(0, notifier.getStats().getCoalescedCount());
+  }
+
+  @Test
+  public void testNoCoalesceOfOtherTable() throws IOException, SQLException {
+    final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    final ChangeListener listener = new ChangeListener();
+    try (final MockNotifier notifier = new MockNotifier(tasks::add, 0, (final data.Table t) -> false)) {
+      assertTrue(notifier.addNotificationListener(Action.INSERT, Action.UPDATE, null, listener, new ConcurrentLinkedQueue<>(), new Row(null)));
+      notifier.notify("t", "~I,1,t,~C0=1:1;1=1:a;");
+      notifier.notify("t", "~U,2,t,~O0=1:1;1=1:a;C0=1:1;1=1:b;K0=1:1;");
+      for (Runnable task; (task = tasks.poll()) != null;) // [X]
+        task.run();
+
+      assertEquals(Arrays.asList("INSERT 1 a", "UPDATE 1>1 a>b"), listener.events);
+      assertEquals(0, notifier.getStats().getCoalescedCount());
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.libj.util.Interval;
+
+public class RangeLoadPlannerTest {
+  private static Interval<data.Key> gap(final int from, final int to) {
+    return new Interval<>(data.Key.with(from), data.Key.with(to));
+  }
+
+  @SafeVarargs
+  private static Interval<data.Key>[] gaps(final Interval<data.Key> ... gaps) {
+    return gaps;
+  }
+
+  private static TreeMap<data.Key,Object> cached(final int ... keys) {
+    final TreeMap<data.Key,Object> cached = new TreeMap<>();
+    for (final int key : keys) // [A]
+      cached.put(data.Key.with(key), key);
+
+    return cached;
+  }
+
+  private static void assertBatches(final ArrayList<Interval<data.Key>[]> actual, final Interval<data.Key>[] ... expected) {
+    assertEquals(expected.length, actual.size());
+    for (int i = 0; i < expected.length; ++i) // [A]
+      assertArrayEquals(expected[i], actual.get(i));
+  }
+
+  @Test
+  public void testArguments() {
+    try {
+      new RangeLoadPlanner(-1, 1);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+
+    try {
+      new RangeLoadPlanner(0, 0);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testSingleGap() {
+    assertBatches(RangeLoadPlanner.DEFAULT.plan(gaps(gap(1, 5)), cached()), gaps(gap(1, 5)));
+  }
+
+  @Test
+  public void testMergeWithoutCachedRows() {
+    // Gaps that are separated only by a range without cached rows are merged with the default threshold of 0
+    assertBatches(RangeLoadPlanner.DEFAULT.plan(gaps(gap(1, 2), gap(3, 4), gap(6, 8)), cached(5)), gaps(gap(1, 4), gap(6, 8)));
+  }
+
+  @Test
+  public void testMergeThreshold() {
+    final TreeMap<data.Key,Object> cached = cached(2, 5, 6);
+
+    // 1 cached row between [1,2) and [3,4), and 2 cached rows between [3,4) and [7,8)
+    assertBatches(new RangeLoadPlanner(0, 16).plan(gaps(gap(1, 2), gap(3, 4), gap(7, 8)), cached), gaps(gap(1, 2), gap(3, 4), gap(7, 8)));
+    assertBatches(new RangeLoadPlanner(1, 16).plan(gaps(gap(1, 2), gap(3, 4), gap(7, 8)), cached), gaps(gap(1, 4), gap(7, 8)));
+    assertBatches(new RangeLoadPlanner(2, 16).plan(gaps(gap(1, 2), gap(3, 4), gap(7, 8)), cached), gaps(gap(1, 8)));
+  }
+
+  @Test
+  public void testSplit() {
+    final TreeMap<data.Key,Object> cached = cached(2, 4, 6, 8);
+    final RangeLoadPlanner planner = new RangeLoadPlanner(0, 2);
+
+    // The gaps are selected in batches of at most 2, in ascending order
+    assertBatches(planner.plan(gaps(gap(1, 2), gap(3, 4), gap(5, 6), gap(7, 8), gap(9, 10)), cached), gaps(gap(1, 2), gap(3, 4)), gaps(gap(5, 6), gap(7, 8)), gaps(gap(9, 10)));
+    assertBatches(planner.plan(gaps(gap(1, 2), gap(3, 4)), cached), gaps(gap(1, 2), gap(3, 4)));
+  }
+}
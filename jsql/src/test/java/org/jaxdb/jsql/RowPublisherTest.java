@@ -0,0 +1,256 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class RowPublisherTest {
+  private static final Executor direct = Runnable::run;
+
+  private static final class MockRowIterator extends RowIterator<data.INT> {
+    private final int size;
+    private final SQLException closeException;
+    private int index;
+    private boolean closed;
+
+    private MockRowIterator(final int size, final SQLException closeException) {
+      super(null);
+      this.size = size;
+      this.closeException = closeException;
+    }
+
+    @Override
+    public boolean nextRow() {
+      if (index == size)
+        return false;
+
+      setRow(new data.INT[] {new data.INT(index++)});
+      return true;
+    }
+
+    @Override
+    public void close() throws SQLException {
+      closed = true;
+      if (closeException != null)
+        throw closeException;
+    }
+  }
+
+  private static class MockSubscriber implements RowPublisher.Subscriber<data.INT> {
+    final ArrayList<Integer> items = new ArrayList<>();
+    final ArrayList<Throwable> errors = new ArrayList<>();
+    RowPublisher.Subscription subscription;
+    int completes;
+
+    @Override
+    public void onSubscribe(final RowPublisher.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(final data.INT item) {
+      items.add(item.get());
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+      errors.add(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      ++completes;
+    }
+  }
+
+  @Test
+  public void testRequestAll() {
+    final MockRowIterator rows = new MockRowIterator(1000, null);
+    final MockSubscriber subscriber = new MockSubscriber();
+    new RowPublisher<>(() -> rows, direct, 0).subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+
+    assertEquals(1000, subscriber.items.size());
+    for (int i = 0; i < 1000; ++i) // [N]
+      assertEquals(i, subscriber.items.get(i).intValue());
+
+    assertEquals(1, subscriber.completes);
+    assertEquals(0, subscriber.errors.size());
+    assertTrue(rows.closed);
+  }
+
+  @Test
+  public void testBackpressure() {
+    final MockRowIterator rows = new MockRowIterator(10, null);
+    final MockSubscriber subscriber = new MockSubscriber();
+    final RowPublisher<data.INT> publisher = new RowPublisher<>(() -> rows, direct, 4);
+    publisher.subscribe(subscriber);
+
+    subscriber.subscription.request(3);
+    assertEquals(3, subscriber.items.size());
+    assertEquals(0, subscriber.completes);
+    assertFalse(rows.closed);
+
+    subscriber.subscription.request(5);
+    assertEquals(8, subscriber.items.size());
+    assertEquals(0, subscriber.completes);
+
+    subscriber.subscription.request(5);
+    assertEquals(10, subscriber.items.size());
+    assertEquals(1, subscriber.completes);
+    assertTrue(rows.closed);
+  }
+
+  @Test
+  public void testDeferredExecution() {
+    final int[] executions = {0};
+    final MockSubscriber subscriber = new MockSubscriber();
+    new RowPublisher<>(() -> {
+      ++executions[0];
+      return new MockRowIterator(1, null);
+    }, direct, 0).subscribe(subscriber);
+
+    assertEquals(0, executions[0]);
+    subscriber.subscription.request(1);
+    assertEquals(1, executions[0]);
+  }
+
+  @Test
+  public void testCancelCloseFailureNotSignalled() {
+    final MockRowIterator rows = new MockRowIterator(10, new SQLException("close"));
+    final MockSubscriber subscriber = new MockSubscriber() {
+      @Override
+      public void onNext(final data.INT item) {
+        super.onNext(item);
+        subscription.cancel();
+      }
+    };
+
+    new RowPublisher<>(() -> rows, direct, 0).subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+
+    assertEquals(1, subscriber.items.size());
+    assertTrue(rows.closed);
+    assertEquals(0, subscriber.errors.size());
+    assertEquals(0, subscriber.completes);
+  }
+
+  @Test
+  public void testCloseFailureSignalled() {
+    final MockRowIterator rows = new MockRowIterator(2, new SQLException("close"));
+    final MockSubscriber subscriber = new MockSubscriber();
+    new RowPublisher<>(() -> rows, direct, 0).subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+
+    assertEquals(2, subscriber.items.size());
+    assertEquals(1, subscriber.errors.size());
+    assertEquals("close", subscriber.errors.get(0).getMessage());
+    assertEquals(0, subscriber.completes);
+  }
+
+  @Test
+  public void testIllegalRequest() {
+    final MockRowIterator rows = new MockRowIterator(2, null);
+    final MockSubscriber subscriber = new MockSubscriber();
+    new RowPublisher<>(() -> rows, direct, 0).subscribe(subscriber);
+    subscriber.subscription.request(0);
+
+    assertEquals(0, subscriber.items.size());
+    assertEquals(1, subscriber.errors.size());
+    assertTrue(subscriber.errors.get(0) instanceof IllegalArgumentException);
+  }
+
+  @Test
+  public void testErrorSignalledOnce() {
+    final MockSubscriber subscriber = new MockSubscriber();
+    // An executor that runs the drain loop, which fails, and then also rejects it
+    new RowPublisher<data.INT>(() -> {
+      throw new SQLException("execute");
+    }, (final Runnable command) -> {
+      command.run();
+      throw new IllegalStateException("rejected");
+    }, 0).subscribe(subscriber);
+    subscriber.subscription.request(1);
+
+    assertEquals(1, subscriber.errors.size());
+    assertEquals("execute", subscriber.errors.get(0).getMessage());
+  }
+
+  @Test
+  public void testRejectionClosesRows() {
+    final MockRowIterator rows = new MockRowIterator(10, null);
+    final MockSubscriber subscriber = new MockSubscriber();
+    final boolean[] reject = {false};
+    new RowPublisher<>(() -> rows, (final Runnable command) -> {
+      if (reject[0])
+        throw new IllegalStateException("rejected");
+
+      command.run();
+    }, 0).subscribe(subscriber);
+
+    subscriber.subscription.request(3);
+    assertEquals(3, subscriber.items.size());
+    assertFalse(rows.closed);
+
+    reject[0] = true;
+    subscriber.subscription.request(3);
+    assertEquals(3, subscriber.items.size());
+    assertEquals(1, subscriber.errors.size());
+    assertEquals("rejected", subscriber.errors.get(0).getMessage());
+    assertTrue(rows.closed);
+
+    subscriber.subscription.request(3);
+    assertEquals(1, subscriber.errors.size());
+  }
+
+  @Test
+  public void testStreamCloseFailure() {
+    final MockRowIterator rows = new MockRowIterator(2, new SQLException("close"));
+    final Stream<data.INT> stream = rows.stream();
+    assertEquals(2, stream.count());
+    try {
+      stream.close();
+      fail("Expected JSQLException");
+    }
+    catch (final JSQLException e) {
+      assertTrue(e.getCause() instanceof SQLException);
+      assertEquals("close", e.getCause().getMessage());
+    }
+
+    assertTrue(rows.closed);
+  }
+
+  @Test
+  public void testSingleSubscriber() {
+    final RowPublisher<data.INT> publisher = new RowPublisher<>(() -> new MockRowIterator(1, null), direct, 0);
+    final MockSubscriber first = new MockSubscriber();
+    final MockSubscriber second = new MockSubscriber();
+    publisher.subscribe(first);
+    publisher.subscribe(second);
+
+    assertEquals(0, first.errors.size());
+    assertEquals(1, second.errors.size());
+    assertTrue(second.errors.get(0) instanceof IllegalStateException);
+  }
+}
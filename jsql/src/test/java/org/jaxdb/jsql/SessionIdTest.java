@@ -0,0 +1,234 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.jaxdb.vendor.DbVendor;
+import org.junit.Test;
+
+public class SessionIdTest {
+  private static final Compiler compiler = Compiler.getCompiler(DbVendor.POSTGRE_SQL);
+  private static final String sql = "UPDATE \"t\" SET \"a\" = 1";
+  private static final String set = compiler.compileSessionId("s");
+  private static final String reset = compiler.compileSessionId(null);
+
+  private static final ConnectorTest.MockSchema schema = new ConnectorTest.MockSchema();
+
+  /**
+   * A {@link MockJdbc.MockConnection} of which the statements record the SQL that they execute, and of which the batches and the
+   * executions of the provided SQL fail. The update count of a statement in a batch is 0 for a {@code SET}, and otherwise is the
+   * count of its SQL in {@link #sqlToCount}, or 3.
+   */
+  private static final class RecordingConnection extends MockJdbc.MockConnection {
+    private final ArrayList<String> executed = new ArrayList<>();
+    private final HashMap<String,Integer> sqlToCount = new HashMap<>();
+    private final boolean isBatchFailed;
+    private final String failedSql;
+    private boolean autoCommit = true;
+
+    private RecordingConnection(final boolean isBatchFailed, final String failedSql) {
+      super("PostgreSQL", "jdbc:mock:" + SessionIdTest.class.getSimpleName());
+      this.isBatchFailed = isBatchFailed;
+      this.failedSql = failedSql;
+    }
+
+    @Override
+    Object handle(final Object proxy, final String name, final Object[] args) throws Throwable {
+      return "getAutoCommit".equals(name) ? autoCommit : super.handle(proxy, name, args);
+    }
+
+    @Override
+    MockJdbc.MockStatement newStatement(final String sql) {
+      return new MockJdbc.MockStatement(sql) {
+        private final ArrayList<String> batch = new ArrayList<>();
+
+        @Override
+        Object handle(final Object proxy, final String name, final Object[] args) throws Throwable {
+          if ("addBatch".equals(name)) {
+            batch.add((String)args[0]);
+          }
+          else if ("executeBatch".equals(name)) {
+            if (isBatchFailed)
+              throw new BatchUpdateException(new int[] {1});
+
+            executed.addAll(batch);
+            final int[] counts = new int[batch.size()];
+            for (int i = 0, i$ = counts.length; i < i$; ++i) { // [A]
+              final String sql = batch.get(i);
+              counts[i] = sql.startsWith("SET ") ? 0 : sqlToCount.getOrDefault(sql, 3);
+            }
+
+            return counts;
+          }
+          else if ("execute".equals(name) || "executeUpdate".equals(name)) {
+            final String sql = (String)args[0];
+            if (sql.equals(failedSql))
+              throw new SQLException("Failed: " + sql);
+
+            executed.add(sql);
+            return "execute".equals(name) ? Boolean.FALSE : 3;
+          }
+
+          return super.handle(proxy, name, args);
+        }
+      };
+    }
+  }
+
+  @Test
+  public void testWithoutSessionId() throws SQLException {
+    final RecordingConnection connection = new RecordingConnection(false, null);
+    final Statement statement = connection.connection.createStatement();
+    assertEquals(3, compiler.executeUpdate(connection.connection, statement, sql, null));
+    assertEquals(Arrays.asList(sql), connection.executed);
+  }
+
+  @Test
+  public void testInBand() throws SQLException {
+    final RecordingConnection connection = new RecordingConnection(false, null);
+    final Statement statement = connection.connection.createStatement();
+
+    // The session ID is set and reset in one JDBC batch with the statement, of which the update count is returned
+    assertEquals(3, compiler.executeUpdate(connection.connection, statement, sql, "s"));
+    assertEquals(Arrays.asList(set, sql, reset), connection.executed);
+    assertEquals(1, connection.statements.size());
+  }
+
+  @Test
+  public void testResetOnFailure() throws SQLException {
+    final RecordingConnection connection = new RecordingConnection(true, null);
+    final Statement statement = connection.connection.createStatement();
+    try {
+      compiler.executeUpdate(connection.connection, statement, sql, "s");
+      fail("Expected BatchUpdateException");
+    }
+    catch (final BatchUpdateException e) {
+    }
+
+    // The reset of the failed batch may not have been executed, so the session ID is reset with another Statement, which is closed
+    assertEquals(Arrays.asList(reset), connection.executed);
+    assertEquals(2, connection.statements.size());
+    assertTrue(connection.statements.get(1).closed);
+  }
+
+  @Test
+  public void testFailedResetIsSuppressed() throws SQLException {
+    final RecordingConnection connection = new RecordingConnection(true, reset);
+    final Statement statement = connection.connection.createStatement();
+    try {
+      compiler.executeUpdate(connection.connection, statement, sql, "s");
+      fail("Expected BatchUpdateException");
+    }
+    catch (final BatchUpdateException e) {
+      assertEquals(1, e.getSuppressed().length);
+      assertEquals("Failed: " + reset, e.getSuppressed()[0].getMessage());
+    }
+  }
+
+  /**
+   * Returns a new {@link Command.Delete} of the table of the provided name, with the provided session ID (if not null), and with
+   * {@code onExecute} recording its count at the provided index of the provided array.
+   */
+  private static Command.Delete newDelete(final String table, final String sessionId, final int[] counts, final int index) {
+    final Command.Delete delete = new Command.Delete(new MockTable(schema, table, new data.Column<?>[0]));
+    if (sessionId != null) {
+      delete.sessionId = sessionId;
+      delete.onNotify(true);
+    }
+
+    delete.onExecute((final int c) -> counts[index] = c);
+    return delete;
+  }
+
+  private static int getNotifyCount(final Command.Delete delete) {
+    return delete.callbacks.onNotifys.get(delete.sessionId).getCount();
+  }
+
+  @Test
+  public void testBatchInBand() throws IOException, SQLException {
+    final RecordingConnection connection = new RecordingConnection(false, null);
+    final String a = "DELETE FROM \"a\"";
+    final String b = "DELETE FROM \"b\"";
+    final String c = "DELETE FROM \"c\"";
+    final String d = "DELETE FROM \"d\"";
+    connection.sqlToCount.put(a, 1);
+    connection.sqlToCount.put(b, 2);
+    connection.sqlToCount.put(c, 4);
+    connection.sqlToCount.put(d, 8);
+
+    final int[] counts = new int[4];
+    final Command.Delete d0 = newDelete("a", "s1", counts, 0);
+    final Command.Delete d1 = newDelete("b", "s1", counts, 1);
+    final Command.Delete d2 = newDelete("c", null, counts, 2);
+    final Command.Delete d3 = newDelete("d", "s2", counts, 3);
+    assertEquals(15, new Batch(d0, d1, d2, d3).execute(connection.connection, false).getCount());
+
+    // The session ID is set in-band only when it changes, and is reset once at the end of the batch, all in one JDBC batch
+    assertEquals(Arrays.asList(compiler.compileSessionId("s1"), a, b, reset, c, compiler.compileSessionId("s2"), d, reset), connection.executed);
+    assertEquals(1, connection.statements.size());
+
+    // The counts of the in-band statements are stripped, so that each command receives its own count
+    assertArrayEquals(new int[] {1, 2, 4, 8}, counts);
+    assertEquals(1, getNotifyCount(d0));
+    assertEquals(2, getNotifyCount(d1));
+    assertEquals(8, getNotifyCount(d3));
+  }
+
+  @Test
+  public void testBatchResetOnFailure() throws IOException, SQLException {
+    final RecordingConnection connection = new RecordingConnection(true, null);
+    final int[] counts = new int[2];
+    try {
+      new Batch(newDelete("a", "s1", counts, 0), newDelete("b", null, counts, 1)).execute(connection.connection, false);
+      fail("Expected SQLException");
+    }
+    catch (final SQLException e) {
+    }
+
+    // The in-band reset of the failed batch may not have been executed, so in auto-commit mode the session ID is reset with another
+    // Statement, which is closed
+    assertEquals(Arrays.asList(reset), connection.executed);
+    assertEquals(2, connection.statements.size());
+    assertTrue(connection.statements.get(1).closed);
+    assertArrayEquals(new int[2], counts);
+  }
+
+  @Test
+  public void testBatchNoResetOnFailureInTransaction() throws IOException, SQLException {
+    final RecordingConnection connection = new RecordingConnection(true, null);
+    connection.autoCommit = false;
+    try {
+      new Batch(newDelete("a", "s1", new int[1], 0)).execute(connection.connection, false);
+      fail("Expected SQLException");
+    }
+    catch (final SQLException e) {
+    }
+
+    // The rollback of the transaction reverts the session ID, so it is not reset
+    assertEquals(0, connection.executed.size());
+    assertEquals(1, connection.statements.size());
+  }
+}
@@ -0,0 +1,179 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.jaxdb.jsql.MockJdbc.MockConnection;
+import org.jaxdb.jsql.MockJdbc.MockStatement;
+import org.junit.Test;
+
+public class StatementCacheTest {
+  @Test
+  public void testMaxSize() {
+    try {
+      new StatementCache(new MockConnection().connection, 0);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testReuse() throws SQLException {
+    final MockConnection connection = new MockConnection();
+    try (final StatementCache cache = new StatementCache(connection.connection, 4)) {
+      final PreparedStatement a = cache.prepareStatement("SELECT 1", -1, -1, -1);
+      assertTrue(cache.release(a));
+      assertEquals(1, cache.size());
+      assertEquals(1, connection.get(a).clearParameters);
+
+      assertSame(a, cache.prepareStatement("SELECT 1", -1, -1, -1));
+      assertEquals(0, cache.size());
+      assertEquals(1, connection.statements.size());
+
+      final PreparedStatement b = cache.prepareStatement("SELECT 1", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY, -1);
+      assertNotSame(a, b);
+      assertEquals(2, connection.statements.size());
+
+      assertTrue(cache.release(a));
+      assertTrue(cache.release(b));
+      assertEquals(2, cache.size());
+    }
+  }
+
+  @Test
+  public void testCheckedOutNotShared() throws SQLException {
+    final MockConnection connection = new MockConnection();
+    try (final StatementCache cache = new StatementCache(connection.connection, 4)) {
+      final PreparedStatement a = cache.prepareStatement("SELECT 1", -1, -1, -1);
+      final PreparedStatement b = cache.prepareStatement("SELECT 1", -1, -1, -1);
+      assertNotSame(a, b);
+
+      assertTrue(cache.release(a));
+      assertTrue(cache.release(b));
+
+      // Only one idle statement is kept per key, and the other is closed
+      assertEquals(1, cache.size());
+      assertTrue(a.isClosed() != b.isClosed());
+    }
+  }
+
+  @Test
+  public void testEviction() throws SQLException {
+    final MockConnection connection = new MockConnection();
+    try (final StatementCache cache = new StatementCache(connection.connection, 2)) {
+      final PreparedStatement a = cache.prepareStatement("SELECT 1", -1, -1, -1);
+      final PreparedStatement b = cache.prepareStatement("SELECT 2", -1, -1, -1);
+      final PreparedStatement c = cache.prepareStatement("SELECT 3", -1, -1, -1);
+      cache.release(a);
+      cache.release(b);
+      assertSame(a, cache.prepareStatement("SELECT 1", -1, -1, -1));
+      cache.release(a);
+      cache.release(c);
+
+      // "SELECT 2" is the least recently used
+      assertEquals(2, cache.size());
+      assertTrue(b.isClosed());
+      assertFalse(a.isClosed());
+      assertFalse(c.isClosed());
+    }
+  }
+
+  @Test
+  public void testClose() throws SQLException {
+    final MockConnection connection = new MockConnection();
+    final StatementCache cache = new StatementCache(connection.connection, 4);
+    final PreparedStatement a = cache.prepareStatement("SELECT 1", -1, -1, -1);
+    final PreparedStatement b = cache.prepareStatement("SELECT 2", -1, -1, -1);
+    cache.release(a);
+    cache.close();
+
+    assertTrue(a.isClosed());
+    assertFalse(b.isClosed());
+
+    // A statement that is released after close is closed
+    assertTrue(cache.release(b));
+    assertTrue(b.isClosed());
+
+    try {
+      cache.prepareStatement("SELECT 1", -1, -1, -1);
+      fail("Expected IllegalStateException");
+    }
+    catch (final IllegalStateException e) {
+    }
+  }
+
+  private static boolean isUnlocked(final StatementCache cache) throws Exception {
+    // If the calling thread holds the lock of the cache, another thread cannot acquire it
+    return CompletableFuture.supplyAsync(cache::size).get(5, TimeUnit.SECONDS) >= 0;
+  }
+
+  @Test
+  public void testJdbcOutsideOfLock() throws Exception {
+    final StatementCache[] cache = new StatementCache[1];
+    final int[] calls = new int[1];
+    final MockConnection connection = new MockConnection() {
+      @Override
+      MockStatement newStatement(final String sql) {
+        return new MockStatement(sql) {
+          @Override
+          Object handle(final Object proxy, final String name, final Object[] args) throws Throwable {
+            if ("clearParameters".equals(name)) {
+              assertTrue(isUnlocked(cache[0]));
+              ++calls[0];
+            }
+
+            return super.handle(proxy, name, args);
+          }
+        };
+      }
+    };
+
+    cache[0] = new StatementCache(connection.connection, 1);
+    final PreparedStatement a = cache[0].prepareStatement("SELECT 1", -1, -1, -1);
+    final PreparedStatement b = cache[0].prepareStatement("SELECT 2", -1, -1, -1);
+    assertTrue(cache[0].release(a));
+    assertTrue(cache[0].release(b));
+    assertEquals(2, calls[0]);
+
+    // "SELECT 1" is evicted by the release of "SELECT 2", and is closed after the lock is released
+    assertTrue(a.isClosed());
+    assertEquals(1, cache[0].size());
+    cache[0].close();
+    assertTrue(b.isClosed());
+  }
+
+  @Test
+  public void testReleaseForeign() throws SQLException {
+    final MockConnection connection = new MockConnection();
+    try (final StatementCache cache = new StatementCache(connection.connection, 4)) {
+      final PreparedStatement statement = connection.connection.prepareStatement("SELECT 1");
+      assertFalse(cache.release(statement));
+      assertFalse(statement.isClosed());
+
+      StatementCache.close(cache, statement);
+      assertTrue(statement.isClosed());
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/* Copyright (c) 2024 JAX-DB
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.jaxdb.jsql;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jaxdb.jsql.Callbacks.OnNotifyCallbackList;
+import org.junit.Test;
+
+/**
+ * Runs the blocking paths that are guarded by locks (instead of monitors) on virtual threads. The number of blocked virtual threads
+ * exceeds the maximum number of carrier threads of the default scheduler (256), so a virtual thread that pinned its carrier while
+ * blocked would starve the virtual thread that releases it, and the test would time out. The tests are skipped on JDK versions
+ * prior to 21.
+ */
+public class VirtualThreadTest {
+  private static final int threads = 512;
+
+  /**
+   * Returns a new {@link ExecutorService} that starts a new virtual thread for each task, or {@code null} if virtual threads are not
+   * supported by the JDK.
+   *
+   * @return A new {@link ExecutorService} that starts a new virtual thread for each task, or {@code null} if virtual threads are not
+   *         supported by the JDK.
+   */
+  static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+    catch (final ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  @Test
+  public void testOnNotifyCallbackList() throws InterruptedException {
+    final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+    assumeNotNull(executor);
+    try {
+      final Schema schema = new ConnectorTest.MockSchema();
+      final OnNotifyCallbackList onNotifyCallbackList = new OnNotifyCallbackList("test");
+      schema.awaitNotify("test", onNotifyCallbackList);
+
+      final CountDownLatch accepted = new CountDownLatch(threads);
+      final CountDownLatch awaited = new CountDownLatch(threads);
+      final AtomicInteger notified = new AtomicInteger();
+      for (int i = 0; i < threads; ++i) { // [N]
+        executor.execute(() -> {
+          try {
+            if (onNotifyCallbackList.await(TimeUnit.MINUTES.toMillis(1)))
+              notified.incrementAndGet();
+          }
+          catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          finally {
+            awaited.countDown();
+          }
+        });
+
+        // Each accept() parks until setCount(int) is called
+        executor.execute(() -> {
+          onNotifyCallbackList.accept(schema, null);
+          accepted.countDown();
+        });
+      }
+
+      executor.execute(() -> onNotifyCallbackList.setCount(threads));
+
+      assertTrue(accepted.await(30, TimeUnit.SECONDS));
+      assertTrue(awaited.await(30, TimeUnit.SECONDS));
+      assertEquals(threads, notified.get());
+      assertNull(schema.getSession("test"));
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+}